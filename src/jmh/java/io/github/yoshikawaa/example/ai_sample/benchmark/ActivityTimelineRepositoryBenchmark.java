@@ -0,0 +1,45 @@
+package io.github.yoshikawaa.example.ai_sample.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.yoshikawaa.example.ai_sample.model.ActivityTimeline;
+import io.github.yoshikawaa.example.ai_sample.repository.ActivityTimelineRepository;
+
+/**
+ * ActivityTimelineRepository.findActivityTimeline のベンチマーク（直近1年・先頭20件）
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ActivityTimelineRepositoryBenchmark {
+
+    private ActivityTimelineRepository activityTimelineRepository;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState state) {
+        activityTimelineRepository = state.getBean(ActivityTimelineRepository.class);
+    }
+
+    @Benchmark
+    public List<ActivityTimeline> findActivityTimeline(ApplicationState state) {
+        LocalDateTime now = LocalDateTime.now();
+        return activityTimelineRepository.findActivityTimeline(state.randomEmail(), now.minusYears(1), now, null, 20, 0);
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.yoshikawaa.example.ai_sample.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.github.yoshikawaa.example.ai_sample.AiSampleApplication;
+import io.github.yoshikawaa.example.ai_sample.service.ActivityEventBackfillService;
+import io.github.yoshikawaa.example.ai_sample.service.CustomerSearchIndexService;
+import io.github.yoshikawaa.example.ai_sample.service.StatisticsRollupService;
+
+/**
+ * ベンチマーク共通のアプリケーション状態
+ * フォークごとにアプリケーションコンテキストを起動し、H2に rows 件のデータを投入する
+ *
+ * <p>実行方法:
+ * <pre>
+ * mvn -Pbenchmark verify                                   # 全ベンチマーク（rows=10000）
+ * mvn -Pbenchmark verify -Djmh.rows=1000000                # データ量を変更（10000〜10000000）
+ * mvn -Pbenchmark verify -Djmh.includes=StatisticsRepository  # 対象を絞り込み
+ * </pre>
+ * 結果（ops/s と -prof gc による割り当て量）は target/jmh-result.json に出力される
+ */
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    /** 各テーブルの行数 */
+    @Param("10000")
+    public int rows;
+
+    public ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(AiSampleApplication.class)
+            .properties(
+                // コントローラー等のWeb依存Beanがあるためサーブレットコンテキストで起動する（ポートは空きを自動選択）
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "spring.h2.console.enabled=false",
+                "app.greenmail.enabled=false",
+                // ロック到達による通知メール送信を計測対象から除外
+                "app.security.login.attempt.max=" + Integer.MAX_VALUE,
+                "logging.level.io.github.yoshikawaa.example.ai_sample=WARN")
+            .run();
+        String encodedPassword = getBean(PasswordEncoder.class).encode("password");
+        new BenchmarkDataSeeder(getBean(JdbcTemplate.class)).seed(rows, encodedPassword);
+        // 投入した履歴をタイムライン（activity_event）に投影し、日別集計を作り直す
+        getBean(ActivityEventBackfillService.class).backfill();
+        getBean(CustomerSearchIndexService.class).backfill();
+        getBean(StatisticsRollupService.class).rebuildAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * 投入済みの顧客からランダムにメールアドレスを選択
+     */
+    public String randomEmail() {
+        return BenchmarkDataSeeder.email(ThreadLocalRandom.current().nextInt(rows) + 1);
+    }
+}
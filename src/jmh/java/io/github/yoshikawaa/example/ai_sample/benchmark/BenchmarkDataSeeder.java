@@ -0,0 +1,75 @@
+package io.github.yoshikawaa.example.ai_sample.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ベンチマーク用データ投入
+ * H2のSYSTEM_RANGEを使ってDB内で行を生成するため、1000万行規模でもJVMヒープを消費しない
+ * 投入する顧客のメールアドレスは bench{1..rows}@example.com
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BenchmarkDataSeeder {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 顧客と各履歴テーブルにデータを投入
+     *
+     * @param rows 各テーブルの行数（顧客数と、顧客に分散させた各履歴テーブルの件数）
+     * @param encodedPassword 顧客のパスワード（エンコード済み）
+     */
+    public void seed(int rows, String encodedPassword) {
+        long start = System.currentTimeMillis();
+
+        jdbcTemplate.update("""
+            INSERT INTO customer (email, password, name, registration_date, birth_date, phone_number, address, role)
+            SELECT CONCAT('bench', X, '@example.com'), ?, CONCAT('Bench User ', X),
+                   DATEADD(DAY, -MOD(X, 3650), CURRENT_DATE),
+                   DATEADD(DAY, -MOD(X, 20000) - 6570, CURRENT_DATE),
+                   '090-0000-0000', CONCAT(X, ' Bench Street'), 'USER'
+            FROM SYSTEM_RANGE(1, ?)
+            """, encodedPassword, rows);
+
+        jdbcTemplate.update("""
+            INSERT INTO login_history (email, login_time, status, ip_address, user_agent, failure_reason)
+            SELECT CONCAT('bench', MOD(X, ?) + 1, '@example.com'),
+                   DATEADD(MINUTE, -MOD(X * 7, 525600), CURRENT_TIMESTAMP),
+                   CASEWHEN(MOD(X, 5) = 0, 'FAILURE', 'SUCCESS'),
+                   '192.168.0.1', 'JMH', CASEWHEN(MOD(X, 5) = 0, 'Bad credentials', NULL)
+            FROM SYSTEM_RANGE(1, ?)
+            """, rows, rows);
+
+        jdbcTemplate.update("""
+            INSERT INTO audit_log (performed_by, target_email, action_type, action_detail, action_time, ip_address)
+            SELECT CONCAT('bench', MOD(X, ?) + 1, '@example.com'), CONCAT('bench', MOD(X * 31, ?) + 1, '@example.com'),
+                   CASEWHEN(MOD(X, 3) = 0, 'CREATE', 'UPDATE'), 'benchmark',
+                   DATEADD(MINUTE, -MOD(X * 11, 525600), CURRENT_TIMESTAMP), '192.168.0.1'
+            FROM SYSTEM_RANGE(1, ?)
+            """, rows, rows, rows);
+
+        jdbcTemplate.update("""
+            INSERT INTO notification_history (recipient_email, notification_type, subject, body, status, sent_at)
+            SELECT CONCAT('bench', MOD(X, ?) + 1, '@example.com'),
+                   CASEWHEN(MOD(X, 2) = 0, 'PASSWORD_RESET', 'ACCOUNT_LOCK'), 'benchmark', 'benchmark',
+                   CASEWHEN(MOD(X, 10) = 0, 'FAILURE', 'SUCCESS'),
+                   DATEADD(MINUTE, -MOD(X * 13, 525600), CURRENT_TIMESTAMP)
+            FROM SYSTEM_RANGE(1, ?)
+            """, rows, rows);
+
+        jdbcTemplate.execute("ANALYZE");
+        log.info("ベンチマークデータ投入完了: rows={}, elapsed={}ms", rows, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 投入した顧客のメールアドレスを取得
+     *
+     * @param index 1始まりの顧客番号
+     */
+    public static String email(int index) {
+        return "bench" + index + "@example.com";
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.yoshikawaa.example.ai_sample.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.opencsv.bean.ColumnPositionMappingStrategy;
+import com.opencsv.bean.StatefulBeanToCsv;
+import com.opencsv.bean.StatefulBeanToCsvBuilder;
+
+import io.github.yoshikawaa.example.ai_sample.model.Customer;
+import io.github.yoshikawaa.example.ai_sample.model.CustomerCsvDto;
+import io.github.yoshikawaa.example.ai_sample.service.CsvService;
+
+/**
+ * CsvService.generateCustomerCsv のベンチマーク
+ * 比較用に、従来のOpenCSV（StatefulBeanToCsv）による生成処理も計測する
+ * DBを使用しないため、アプリケーションコンテキストは起動しない
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvServiceBenchmark {
+
+    private static final String HEADER = "Email,Name,Registration Date,Birth Date,Phone Number,Address\n";
+
+    /** 出力する顧客数 */
+    @Param("10000")
+    public int rows;
+
+    private final CsvService csvService = new CsvService();
+
+    private List<Customer> customers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        customers = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            // 一部の行はクォートが必要な値を含める
+            String address = i % 10 == 0 ? i + " Bench Street, \"Apt\" 1" : i + " Bench Street";
+            customers.add(new Customer(BenchmarkDataSeeder.email(i), "password", "Bench User " + i,
+                LocalDate.of(2024, 1, 1).plusDays(i % 365), LocalDate.of(1990, 1, 1).plusDays(i % 3650),
+                "090-0000-0000", address, Customer.Role.USER));
+        }
+    }
+
+    @Benchmark
+    public byte[] generateCustomerCsv() {
+        return csvService.generateCustomerCsv(customers);
+    }
+
+    /**
+     * 従来のOpenCSVによる生成処理（呼び出しごとにマッピング戦略を構築し、リフレクションで各フィールドを変換）
+     */
+    @Benchmark
+    public byte[] openCsvBaseline() throws Exception {
+        List<CustomerCsvDto> csvDtos = customers.stream().map(CustomerCsvDto::fromEntity).toList();
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
+             OutputStreamWriter osw = new OutputStreamWriter(baos, StandardCharsets.UTF_8)) {
+            baos.write(0xEF);
+            baos.write(0xBB);
+            baos.write(0xBF);
+            osw.write(HEADER);
+            osw.flush();
+
+            ColumnPositionMappingStrategy<CustomerCsvDto> strategy = new ColumnPositionMappingStrategy<>();
+            strategy.setType(CustomerCsvDto.class);
+            StatefulBeanToCsv<CustomerCsvDto> beanToCsv = new StatefulBeanToCsvBuilder<CustomerCsvDto>(osw)
+                .withMappingStrategy(strategy)
+                .withApplyQuotesToAll(false)
+                .build();
+            beanToCsv.write(csvDtos);
+            osw.flush();
+            return baos.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.yoshikawaa.example.ai_sample.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import io.github.yoshikawaa.example.ai_sample.security.CustomerUserDetailsService;
+
+/**
+ * CustomerUserDetailsService.loadUserByUsername のベンチマーク（ログイン時の認証情報取得）
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerUserDetailsServiceBenchmark {
+
+    private CustomerUserDetailsService customerUserDetailsService;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState state) {
+        customerUserDetailsService = state.getBean(CustomerUserDetailsService.class);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername(ApplicationState state) {
+        return customerUserDetailsService.loadUserByUsername(state.randomEmail());
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.yoshikawaa.example.ai_sample.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+
+import io.github.yoshikawaa.example.ai_sample.service.EmailService;
+import io.github.yoshikawaa.example.ai_sample.service.EmailService.EmailMessage;
+
+/**
+ * EmailService の1通ずつの送信（sendEmail）と一括送信（sendEmails）のベンチマーク（1操作あたりbatchSize通）
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailServiceBenchmark {
+
+    @Param({"10", "50"})
+    private int batchSize;
+
+    private GreenMail greenMail;
+    private EmailService emailService;
+    private List<EmailMessage> messages;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ServerSetup serverSetup = ServerSetup.SMTP.dynamicPort();
+        serverSetup.setVerbose(false);
+        greenMail = new GreenMail(serverSetup);
+        greenMail.setUser("benchmark@example.com", "password");
+        greenMail.start();
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+        mailSender.setUsername("benchmark@example.com");
+        mailSender.setPassword("password");
+        mailSender.getJavaMailProperties().put("mail.smtp.auth", "true");
+        emailService = new EmailService(mailSender);
+
+        messages = IntStream.range(0, batchSize)
+            .mapToObj(i -> new EmailMessage("user" + i + "@example.com", "件名" + i, "本文" + i))
+            .toList();
+    }
+
+    @Setup(Level.Iteration)
+    public void purge() throws Exception {
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        greenMail.stop();
+    }
+
+    @Benchmark
+    public int sendEmailEach() {
+        int sent = 0;
+        for (EmailMessage message : messages) {
+            if (emailService.sendEmail(message.to(), message.subject(), message.body())) {
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    @Benchmark
+    public boolean[] sendEmails() {
+        return emailService.sendEmails(messages);
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.yoshikawaa.example.ai_sample.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.yoshikawaa.example.ai_sample.service.LoginAttemptService;
+
+/**
+ * LoginAttemptService.handleFailedLoginAttempt のベンチマーク（ログイン失敗時の試行回数記録）
+ * ロック閾値はApplicationStateで無効化しているため、通知メール送信は発生しない
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginAttemptServiceBenchmark {
+
+    private LoginAttemptService loginAttemptService;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState state) {
+        loginAttemptService = state.getBean(LoginAttemptService.class);
+    }
+
+    @Benchmark
+    public boolean handleFailedLoginAttempt(ApplicationState state) {
+        return loginAttemptService.handleFailedLoginAttempt(state.randomEmail());
+    }
+}
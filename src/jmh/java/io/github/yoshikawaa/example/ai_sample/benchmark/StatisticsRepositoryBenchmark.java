@@ -0,0 +1,62 @@
+package io.github.yoshikawaa.example.ai_sample.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.yoshikawaa.example.ai_sample.model.CustomerStatistics;
+import io.github.yoshikawaa.example.ai_sample.model.LoginStatistics;
+import io.github.yoshikawaa.example.ai_sample.model.UsageStatistics;
+import io.github.yoshikawaa.example.ai_sample.repository.StatisticsRepository;
+
+/**
+ * StatisticsRepository の集計クエリのベンチマーク（統計画面のデフォルト期間と同じ直近30日）
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatisticsRepositoryBenchmark {
+
+    private StatisticsRepository statisticsRepository;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState state) {
+        statisticsRepository = state.getBean(StatisticsRepository.class);
+        endDate = LocalDate.now();
+        startDate = endDate.minusDays(30);
+    }
+
+    @Benchmark
+    public List<CustomerStatistics> getCustomerStatistics() {
+        return statisticsRepository.getCustomerStatistics(startDate, endDate);
+    }
+
+    @Benchmark
+    public List<LoginStatistics> getLoginStatistics() {
+        return statisticsRepository.getLoginStatistics(startDate, endDate);
+    }
+
+    @Benchmark
+    public List<UsageStatistics> getUsageStatistics() {
+        return statisticsRepository.getUsageStatistics(startDate, endDate);
+    }
+}
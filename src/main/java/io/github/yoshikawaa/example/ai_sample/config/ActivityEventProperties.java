@@ -0,0 +1,13 @@
+package io.github.yoshikawaa.example.ai_sample.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.activity-event")
+public class ActivityEventProperties {
+    /** 起動時に未投影の既存データをアクティビティイベントに投影するか */
+    private boolean backfillOnStartup = true;
+    /** バックフィルで1トランザクションに投影する投影元のID範囲 */
+    private int backfillChunkSize = 1000;
+}
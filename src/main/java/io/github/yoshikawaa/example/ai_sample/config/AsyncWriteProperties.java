@@ -0,0 +1,44 @@
+package io.github.yoshikawaa.example.ai_sample.config;
+
+import lombok.Data;
+
+/**
+ * 非同期バッチ書き込みの設定（監査ログ・ログイン履歴などの記録系テーブルで共通）
+ */
+@Data
+public class AsyncWriteProperties {
+    /** 書き込み方式 */
+    private WriteMode mode = WriteMode.ASYNC;
+    /** キューの最大件数 */
+    private int queueCapacity = 10000;
+    /** 1回のバッチINSERTの最大件数 */
+    private int batchSize = 100;
+    /** バッチが満たない場合の最大待機時間（ミリ秒） */
+    private long flushIntervalMs = 1000L;
+    /** キュー満杯時の動作 */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    /** BLOCK時にキューの空きを待つ最大時間（ミリ秒） */
+    private long offerTimeoutMs = 100L;
+
+    /**
+     * 書き込み方式
+     */
+    public static enum WriteMode {
+        /** 呼び出し元のスレッドで1件ずつINSERTする */
+        SYNC,
+        /** キューに積み、バックグラウンドスレッドでまとめてINSERTする */
+        ASYNC
+    }
+
+    /**
+     * キュー満杯時の動作
+     */
+    public static enum OverflowPolicy {
+        /** 空きができるまで待機し、タイムアウトした場合は破棄する */
+        BLOCK,
+        /** 待機せずに破棄する */
+        DROP,
+        /** 呼び出し元のスレッドで同期的にINSERTする */
+        CALLER_RUNS
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.yoshikawaa.example.ai_sample.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.customer-search")
+public class CustomerSearchProperties {
+    /** 起動時に索引のない顧客の検索用トライグラム索引を作成するか */
+    private boolean backfillOnStartup = true;
+    /** バックフィルで1トランザクションに索引を作成する顧客数 */
+    private int backfillChunkSize = 1000;
+    /** 履歴検索でメールアドレスの一部から変換する完全一致キーの上限（超えた場合は部分一致で検索する） */
+    private int emailKeyLimit = 1000;
+    /** 顧客数に対してこの割合より多くの顧客に含まれるトライグラムは絞り込みに使わない（ストップグラム） */
+    private double stopGramRatio = 0.1;
+    /** ストップグラムとする顧客数の最小値（顧客数が少ない場合に大半のトライグラムをストップグラムとしない） */
+    private long stopGramMinCount = 1000;
+    /** ストップグラムを索引の出現頻度から再計算する間隔（ミリ秒） */
+    private long stopGramRefreshIntervalMs = 60 * 60 * 1000L;
+}
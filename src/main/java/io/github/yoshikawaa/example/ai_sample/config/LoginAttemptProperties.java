@@ -1,6 +1,7 @@
 package io.github.yoshikawaa.example.ai_sample.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
 import lombok.Data;
 
@@ -11,4 +12,15 @@ public class LoginAttemptProperties {
     private int max = 5;
     /** ロック時間（ミリ秒） */
     private long lockDurationMs = 30 * 60 * 1000L;
+    /** 失敗回数の保持期間（ミリ秒、最後の失敗からこの期間失敗がなければ回数をリセット） */
+    private long windowMs = 30 * 60 * 1000L;
+    /** 期限切れの試行記録をメモリから破棄する間隔（ミリ秒） */
+    private long sweepIntervalMs = 60 * 1000L;
+    /** ロック判定でメモリ上の記録をDBと照合する間隔（ミリ秒、他のノードでのロック・解除を反映するまでの最大時間） */
+    private long syncIntervalMs = 5 * 1000L;
+    /** メモリに保持する試行記録の上限（超えた場合はDBに反映済みの記録を破棄する） */
+    private int maxEntries = 100000;
+    /** 試行記録のDBへの書き込み設定（ライトビハインド） */
+    @NestedConfigurationProperty
+    private AsyncWriteProperties write = new AsyncWriteProperties();
 }
@@ -0,0 +1,13 @@
+package io.github.yoshikawaa.example.ai_sample.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
+
+@Data
+@ConfigurationProperties(prefix = "app.login-history")
+public class LoginHistoryProperties {
+    /** ログイン履歴の書き込み設定 */
+    @NestedConfigurationProperty
+    private AsyncWriteProperties write = new AsyncWriteProperties();
+}
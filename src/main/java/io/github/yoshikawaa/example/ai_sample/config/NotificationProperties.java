@@ -0,0 +1,43 @@
+package io.github.yoshikawaa.example.ai_sample.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.notification")
+public class NotificationProperties {
+    /** 送信方式 */
+    private DispatchMode dispatchMode = DispatchMode.ASYNC;
+    /** 送信するスレッド数 */
+    private int dispatchThreads = 2;
+    /** 送信待ちキューの上限（超えた場合は次回の再送チェックで送信する） */
+    private int dispatchQueueCapacity = 1000;
+    /** 最大送信試行回数（超えた場合は送信失敗として記録する） */
+    private int maxAttempts = 5;
+    /** 初回の再送までの待機時間（ミリ秒） */
+    private long retryInitialDelayMs = 1000L;
+    /** 再送ごとの待機時間の倍率 */
+    private double retryMultiplier = 2.0;
+    /** 再送までの最大待機時間（ミリ秒） */
+    private long retryMaxDelayMs = 5 * 60 * 1000L;
+    /** 再送対象の通知を確認する間隔（ミリ秒） */
+    private long retryPollIntervalMs = 5000L;
+    /** 1回の再送チェックで送信する最大件数 */
+    private int retryBatchSize = 100;
+    /** 再送チェックで1回のSMTP接続にまとめて送信する最大件数 */
+    private int sendBatchSize = 50;
+    /** 送信待ちキューに投入してから送信されない場合に再送対象とするまでの時間（ミリ秒） */
+    private long dispatchTimeoutMs = 60 * 1000L;
+    /** 通知種別・送信ステータスごとの件数（統計表示用）を通知履歴から再集計する間隔（ミリ秒） */
+    private long countersReconcileIntervalMs = 5 * 60 * 1000L;
+
+    /**
+     * 送信方式
+     */
+    public static enum DispatchMode {
+        /** 呼び出し元のスレッドで送信する（失敗した場合は再送チェックで再送する） */
+        SYNC,
+        /** 送信待ちとして記録し、送信スレッドで送信する */
+        ASYNC
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.yoshikawaa.example.ai_sample.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.pagination")
+public class PaginationProperties {
+    /** 総件数の取得方式（デフォルト） */
+    private CountMode countMode = CountMode.EXACT;
+    /** 一覧ごとの総件数の取得方式（キー: customer, audit-log, login-history, notification-history） */
+    private Map<String, CountMode> countModes = new HashMap<>();
+    /** 総件数キャッシュの有効期間（ミリ秒） */
+    private long countCacheTtlMs = 10 * 1000L;
+    /** 一覧ごとの総件数キャッシュの最大エントリ数 */
+    private int countCacheMaxEntries = 1000;
+
+    /**
+     * 総件数の取得方式
+     */
+    public static enum CountMode {
+        /** 毎回COUNT(*)を実行する */
+        EXACT,
+        /** 検索条件ごとにCOUNT(*)の結果をキャッシュする（TTL経過または登録時に破棄） */
+        CACHED,
+        /** 総件数を取得せず、ページサイズ+1件の取得で次ページの有無のみ判定する */
+        SLICE
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.yoshikawaa.example.ai_sample.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.security.password-hashing")
+public class PasswordHashingProperties {
+    /** パスワードのハッシュ化・照合を実行するスレッド数（0の場合はCPUコア数） */
+    private int threads = 0;
+    /** ハッシュ化・照合の実行待ちキューの上限（超えた場合は即座に拒否する） */
+    private int queueCapacity = 100;
+    /** 実行待ちを含むハッシュ化・照合の待機時間の上限（ミリ秒、超えた場合は拒否する） */
+    private long timeoutMs = 5000;
+    /** BCryptのコスト（4〜31、実行時にJMXで変更でき、低いコストのハッシュはログイン時に再ハッシュする） */
+    private int bcryptStrength = 10;
+    /** 拒否した場合に返すRetry-Afterヘッダーの秒数 */
+    private int retryAfterSeconds = 1;
+}
@@ -0,0 +1,27 @@
+package io.github.yoshikawaa.example.ai_sample.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.security.password-reset")
+public class PasswordResetProperties {
+    /** パスワードリセットリクエストの処理方式 */
+    private RequestMode requestMode = RequestMode.ASYNC;
+    /** パスワードリセットリクエストを処理するスレッド数 */
+    private int requestThreads = 2;
+    /** 処理待ちキューの上限（超えた場合はリクエスト処理スレッドで処理する） */
+    private int requestQueueCapacity = 1000;
+    /** 停止時に処理待ちキューの残りの処理を待つ時間の上限 */
+    private long requestShutdownTimeoutMs = 30000;
+
+    /**
+     * パスワードリセットリクエストの処理方式
+     */
+    public static enum RequestMode {
+        /** 呼び出し元のスレッドで処理する */
+        SYNC,
+        /** 処理待ちキューに積み、専用のスレッドで処理する（メールアドレスの登録有無で応答時間が変わらない） */
+        ASYNC
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.yoshikawaa.example.ai_sample.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@ConfigurationProperties(prefix = "app.security.rate-limit")
+public class RateLimitProperties {
+    /** ログイン・パスワードリセット・アカウントロック解除のレート制限を有効にするか */
+    private boolean enabled = true;
+    /** クライアントのIPアドレスごとの制限 */
+    @NestedConfigurationProperty
+    private Limit ip = new Limit(20, 3000L);
+    /** 送信されたメールアドレスごとの制限 */
+    @NestedConfigurationProperty
+    private Limit account = new Limit(10, 6000L);
+    /** 保持するバケット数の上限（IPアドレス・メールアドレスそれぞれ、超えた場合は新しいキーを共有のバケットで制限する） */
+    private int maxEntries = 100000;
+    /** トークンが満杯に戻ったバケットをメモリから破棄する間隔（ミリ秒） */
+    private long sweepIntervalMs = 60 * 1000L;
+
+    /**
+     * トークンバケットの設定
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        /** バケットのトークン数（連続して受け付けるリクエスト数） */
+        private int capacity;
+        /** トークンを1個補充する間隔（ミリ秒） */
+        private long refillIntervalMs;
+    }
+}
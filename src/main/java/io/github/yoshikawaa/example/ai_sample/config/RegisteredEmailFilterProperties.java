@@ -0,0 +1,22 @@
+package io.github.yoshikawaa.example.ai_sample.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.security.registered-email-filter")
+public class RegisteredEmailFilterProperties {
+    /** 登録済みメールアドレスのフィルター（存在しないメールアドレスの顧客検索を省略する）を有効にするか */
+    private boolean enabled = true;
+    /** 偽陽性率（存在しないメールアドレスを登録済みと判定する割合） */
+    private double falsePositiveRate = 0.01;
+    /** フィルターに登録できるメールアドレス数の最小値（登録済みの顧客数の2倍が小さい場合に使用） */
+    private int minCapacity = 10000;
+    /** フィルターの作り直し（容量超過・削除済みの顧客の増加時）を確認する間隔（ミリ秒） */
+    private long rebuildCheckIntervalMs = 60 * 1000L;
+    /** 登録処理以外で追加された顧客（登録の目印なし）をフィルターに取り込む間隔（ミリ秒） */
+    private long syncIntervalMs = 10 * 1000L;
+    /** フィルター構築時に1回で読み込む顧客数 */
+    private int buildChunkSize = 1000;
+}
@@ -0,0 +1,9 @@
+package io.github.yoshikawaa.example.ai_sample.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
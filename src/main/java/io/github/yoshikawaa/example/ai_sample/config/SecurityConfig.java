@@ -1,36 +1,58 @@
 package io.github.yoshikawaa.example.ai_sample.config;
 
+import io.github.yoshikawaa.example.ai_sample.security.BoundedPasswordEncoder;
+import io.github.yoshikawaa.example.ai_sample.security.ClusterSessionRegistry;
+import io.github.yoshikawaa.example.ai_sample.security.LoginRateLimiter;
+import io.github.yoshikawaa.example.ai_sample.security.PasswordHashingRejectionFilter;
+import io.github.yoshikawaa.example.ai_sample.security.RateLimitFilter;
 import io.github.yoshikawaa.example.ai_sample.service.LoginAttemptService;
 import io.github.yoshikawaa.example.ai_sample.service.LoginHistoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.LockedException;
+import org.springframework.security.config.ObjectPostProcessor;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.core.session.SessionRegistry;
-import org.springframework.security.core.session.SessionRegistryImpl;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.authentication.logout.LogoutSuccessHandler;
 import org.springframework.security.web.authentication.session.SessionAuthenticationException;
+import org.springframework.security.web.authentication.session.SessionAuthenticationStrategy;
+import org.springframework.security.web.csrf.CsrfFilter;
 import static org.springframework.security.config.Customizer.withDefaults;
 
 @Slf4j
 @RequiredArgsConstructor
 @Configuration
+@EnableConfigurationProperties({PasswordHashingProperties.class, RateLimitProperties.class}) // @WebMvcTestでSecurityConfigのみをインポートする場合にも登録する
 public class SecurityConfig {
 
     private final LoginAttemptService loginAttemptService;
     private final LoginHistoryService loginHistoryService;
+    private final PasswordHashingProperties passwordHashingProperties;
+    private final RateLimitProperties rateLimitProperties;
 
+    /**
+     * BCryptは専用の有界スレッドプールで実行し、実行待ちが上限を超えた場合は拒否する
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BoundedPasswordEncoder(passwordHashingProperties);
+    }
+
+    /**
+     * ログイン・パスワードリセット・アカウントロック解除のレート制限（IPアドレス・メールアドレスごと）
+     */
+    @Bean
+    public LoginRateLimiter loginRateLimiter() {
+        return new LoginRateLimiter(rateLimitProperties);
     }
 
 
@@ -59,7 +81,7 @@ public class SecurityConfig {
      */
     @Bean
     @Order(2)
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, ObjectProvider<ClusterSessionRegistry> clusterSessionRegistry) throws Exception {
         http
             .authorizeHttpRequests(authorize -> authorize
                 // 管理者専用画面・API
@@ -87,11 +109,32 @@ public class SecurityConfig {
                 )
             )
             .csrf(withDefaults())
+            // パスワード処理の拒否はログイン・画面のどちらでも503（Retry-After付き）で返す
+            .addFilterBefore(new PasswordHashingRejectionFilter(passwordHashingProperties.getRetryAfterSeconds()),
+                UsernamePasswordAuthenticationFilter.class);
+        if (rateLimitProperties.isEnabled()) {
+            // 制限を超えたリクエストはCSRFトークンの検証・認証より前に429（Retry-After付き）で返す
+            http.addFilterBefore(new RateLimitFilter(loginRateLimiter()), CsrfFilter.class);
+        }
+        http
             .formLogin(form -> form
                 .loginPage("/login") // カスタムログイン画面
                 .successHandler(authenticationSuccessHandler()) // ログイン成功ハンドラー
                 .failureHandler(authenticationFailureHandler()) // ログイン失敗ハンドラー
                 .permitAll()
+                .withObjectPostProcessor(new ObjectPostProcessor<UsernamePasswordAuthenticationFilter>() {
+                    @Override
+                    public <O extends UsernamePasswordAuthenticationFilter> O postProcess(O filter) {
+                        // 同時ログイン数の判定から登録までを、ユーザーごとに全インスタンスで直列化する
+                        clusterSessionRegistry.ifAvailable(registry -> {
+                            SessionAuthenticationStrategy delegate = http.getSharedObject(SessionAuthenticationStrategy.class);
+                            filter.setSessionAuthenticationStrategy((authentication, request, response) ->
+                                registry.runExclusively(authentication.getPrincipal(),
+                                    () -> delegate.onAuthentication(authentication, request, response)));
+                        });
+                        return filter;
+                    }
+                })
             )
             .logout(logout -> logout
                 .logoutUrl("/logout")
@@ -101,7 +144,8 @@ public class SecurityConfig {
             .sessionManagement(session -> session
                 .maximumSessions(1)
                 .maxSessionsPreventsLogin(true)
-                .sessionRegistry(sessionRegistry())
+                // SessionRegistryはBean（全インスタンスで共有するClusterSessionRegistry）を使用する
+                // Beanがない場合（@WebMvcTestなど）はインスタンス内のSessionRegistryImplを使用する
             );
         return http.build();
     }
@@ -176,9 +220,4 @@ public class SecurityConfig {
             response.sendRedirect("/");
         };
     }
-
-    @Bean
-    public SessionRegistry sessionRegistry() {
-        return new SessionRegistryImpl();
-    }
 }
@@ -0,0 +1,16 @@
+package io.github.yoshikawaa.example.ai_sample.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.security.session-registry")
+public class SessionRegistryProperties {
+    /** インスタンスの識別子（未指定の場合は起動ごとに生成する） */
+    private String nodeId;
+    /** セッションのリースを延長し、他のインスタンスからの失効を反映する間隔（ミリ秒） */
+    private long heartbeatIntervalMs = 10 * 1000L;
+    /** セッションのリース期間（ミリ秒、この期間ハートビートのないインスタンスのセッションは無効とする） */
+    private long leaseMs = 30 * 1000L;
+}
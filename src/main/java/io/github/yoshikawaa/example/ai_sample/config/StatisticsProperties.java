@@ -0,0 +1,25 @@
+package io.github.yoshikawaa.example.ai_sample.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.statistics")
+public class StatisticsProperties {
+    /** 起動時に日別集計を元テーブルから作り直すか */
+    private boolean rollupRebuildOnStartup = true;
+    /** 日別集計を元テーブルから再集計する間隔（ミリ秒） */
+    private long rollupReconcileIntervalMs = 60 * 60 * 1000L;
+    /** 定期再集計の対象日数（当日を含む直近の日数） */
+    private int rollupReconcileDays = 2;
+    /** 統計クエリを並列実行するスレッド数 */
+    private int queryThreads = 3;
+    /** 統計クエリの実行待ちキューの上限（超えた場合は取得できなかった統計として扱う） */
+    private int queryQueueCapacity = 100;
+    /** 統計クエリのタイムアウト（ミリ秒、超えた場合は取得できなかった統計として扱う） */
+    private long queryTimeoutMs = 5000;
+    /** 当日を含まない期間の統計データをキャッシュするか */
+    private boolean cacheEnabled = true;
+    /** キャッシュの最大エントリ数（期間ごと、超過時は最も長く参照されていないエントリを破棄） */
+    private int cacheMaxEntries = 100;
+}
@@ -0,0 +1,13 @@
+package io.github.yoshikawaa.example.ai_sample.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.security.token-purge")
+public class TokenPurgeProperties {
+    /** 有効期限切れのトークン（パスワードリセット・アカウントロック解除）を削除する間隔（ミリ秒） */
+    private long intervalMs = 60 * 60 * 1000L;
+    /** 1回のDELETE（1トランザクション）で削除する最大件数 */
+    private int chunkSize = 1000;
+}
@@ -0,0 +1,18 @@
+package io.github.yoshikawaa.example.ai_sample.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.security.user-cache")
+public class UserCacheProperties {
+    /** ログイン時の顧客情報キャッシュを有効にするか */
+    private boolean enabled = true;
+    /** キャッシュの有効期間（ミリ秒） */
+    private long ttlMs = 5 * 60 * 1000L;
+    /** キャッシュした顧客情報をDBから読み込み直す間隔（ミリ秒、他のノードでの更新・削除を反映する） */
+    private long syncIntervalMs = 5000L;
+    /** キャッシュの最大エントリ数（超過時は最も長く参照されていないエントリを破棄） */
+    private int maxEntries = 10000;
+}
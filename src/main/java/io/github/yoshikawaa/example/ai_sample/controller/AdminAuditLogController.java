@@ -7,6 +7,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -37,8 +38,9 @@ public class AdminAuditLogController {
     @GetMapping
     public String showAuditLog(@PageableDefault(size = 20, sort = "actionTime", direction = Direction.DESC) Pageable pageable,
                                 Model model) {
-        Page<AuditLog> logPage = auditLogService.getAllAuditLogsWithPagination(pageable);
+        Slice<AuditLog> logPage = auditLogService.getAllAuditLogsWithPagination(pageable);
         model.addAttribute("logPage", logPage);
+        model.addAttribute("totalCounted", logPage instanceof Page);
         return "admin-audit-log";
     }
 
@@ -55,12 +57,14 @@ public class AdminAuditLogController {
             searchForm.getActionType() != null ||
             searchForm.getFromDate() != null ||
             searchForm.getToDate() != null) {
-            Page<AuditLog> logPage = auditLogService.searchAuditLogsWithPagination(searchForm, pageable);
+            Slice<AuditLog> logPage = auditLogService.searchAuditLogsWithPagination(searchForm, pageable);
             model.addAttribute("logPage", logPage);
+            model.addAttribute("totalCounted", logPage instanceof Page);
         } else {
             // 検索条件がない場合は全件表示
-            Page<AuditLog> logPage = auditLogService.getAllAuditLogsWithPagination(pageable);
+            Slice<AuditLog> logPage = auditLogService.getAllAuditLogsWithPagination(pageable);
             model.addAttribute("logPage", logPage);
+            model.addAttribute("totalCounted", logPage instanceof Page);
         }
         return "admin-audit-log";
     }
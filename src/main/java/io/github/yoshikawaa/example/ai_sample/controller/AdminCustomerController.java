@@ -6,6 +6,7 @@ import io.github.yoshikawaa.example.ai_sample.model.AdminCustomerRegistrationFor
 import io.github.yoshikawaa.example.ai_sample.model.ActivityTimeline;
 import io.github.yoshikawaa.example.ai_sample.model.ActivityTimelineSearchForm;
 import io.github.yoshikawaa.example.ai_sample.model.Customer;
+import io.github.yoshikawaa.example.ai_sample.model.CustomerCursor;
 import io.github.yoshikawaa.example.ai_sample.model.CustomerSearchForm;
 import io.github.yoshikawaa.example.ai_sample.service.ActivityTimelineService;
 import io.github.yoshikawaa.example.ai_sample.service.CustomerService;
@@ -15,6 +16,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpHeaders;
@@ -32,7 +34,10 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -59,34 +64,59 @@ public class AdminCustomerController {
         return new CustomerSearchForm();
     }
 
+    /**
+     * 顧客一覧
+     * カーソル（after, afterEmail）指定時はキーセット方式、未指定時はページ番号指定のOFFSET方式で取得する
+     */
     @GetMapping
     public String showCustomers(@PageableDefault(size = 10, sort = "registrationDate", direction = Direction.DESC) Pageable pageable,
+                                @RequestParam(required = false) String after,
+                                @RequestParam(required = false) String afterEmail,
                                 Model model) {
-        Page<Customer> customerPage = customerService.getAllCustomersWithPagination(pageable);
+        if (afterEmail != null) {
+            Slice<Customer> customerSlice = customerService.getAllCustomersWithKeyset(toCursor(after, afterEmail, pageable), pageable);
+            addKeysetAttributes(customerSlice, model);
+            return "admin-customer-list";
+        }
+        Slice<Customer> customerPage = customerService.getAllCustomersWithPagination(pageable);
         model.addAttribute("customerPage", customerPage);
+        model.addAttribute("totalCounted", customerPage instanceof Page);
+        // 次ページへはキーセット方式で遷移させる（深いページでもOFFSETによる読み飛ばしを発生させない）
+        model.addAttribute("nextCursor", customerService.nextCursor(customerPage));
         return "admin-customer-list";
     }
 
     @GetMapping("/search")
     public String searchCustomers(CustomerSearchForm customerSearchForm,
                                    @PageableDefault(size = 10, sort = "registrationDate", direction = Direction.DESC) Pageable pageable,
+                                   @RequestParam(required = false) String after,
+                                   @RequestParam(required = false) String afterEmail,
                                    Model model) {
-        Page<Customer> customerPage = customerService.searchCustomersWithPagination(
+        if (afterEmail != null) {
+            Slice<Customer> customerSlice = customerService.searchCustomersWithKeyset(
+                customerSearchForm.getName(), customerSearchForm.getEmail(), toCursor(after, afterEmail, pageable), pageable);
+            addKeysetAttributes(customerSlice, model);
+            return "admin-customer-list";
+        }
+        Slice<Customer> customerPage = customerService.searchCustomersWithPagination(
             customerSearchForm.getName(), customerSearchForm.getEmail(), pageable);
         model.addAttribute("customerPage", customerPage);
+        model.addAttribute("totalCounted", customerPage instanceof Page);
+        model.addAttribute("nextCursor", customerService.nextCursor(customerPage));
         return "admin-customer-list";
     }
 
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportCustomersToCSV(
+    public ResponseEntity<StreamingResponseBody> exportCustomersToCSV(
             CustomerSearchForm customerSearchForm,
             @PageableDefault(size = 10, sort = "registrationDate", direction = Direction.DESC) Pageable pageable) {
         
-        // CSV生成
-        byte[] csvData = customerService.exportCustomersToCSV(
+        // CSV生成（レスポンスへ直接ストリーミング出力し、全件をメモリに保持しない）
+        StreamingResponseBody csvBody = out -> customerService.exportCustomersToCSV(
             customerSearchForm.getName(), 
             customerSearchForm.getEmail(), 
-            pageable);
+            pageable,
+            out);
         
         // ファイル名生成（タイムスタンプ付き）
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
@@ -102,7 +132,7 @@ public class AdminCustomerController {
         
         return ResponseEntity.ok()
             .headers(headers)
-            .body(csvData);
+            .body(csvBody);
     }
 
     // ========================================
@@ -314,6 +344,32 @@ public class AdminCustomerController {
         return "admin-customer-activity-timeline";
     }
 
+    // ========================================
+    // ヘルパーメソッド
+    // ========================================
+
+    /**
+     * リクエストパラメータからキーセット方式のカーソルを生成
+     * ソート値がソート対象の型として解釈できない場合（URLの改変など）は400を返す
+     */
+    private CustomerCursor toCursor(String after, String afterEmail, Pageable pageable) {
+        CustomerCursor cursor = new CustomerCursor(after, afterEmail);
+        String sortProperty = pageable.getSort().isSorted() ? pageable.getSort().iterator().next().getProperty() : "registrationDate";
+        if (!cursor.isValidFor(sortProperty)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ページの指定が正しくありません: after=" + after);
+        }
+        return cursor;
+    }
+
+    /**
+     * キーセット方式の取得結果をモデルに設定
+     */
+    private void addKeysetAttributes(Slice<Customer> customerSlice, Model model) {
+        model.addAttribute("customerPage", customerSlice);
+        model.addAttribute("keyset", true);
+        model.addAttribute("nextCursor", customerService.nextCursor(customerSlice));
+    }
+
     // ========================================
     // 例外ハンドラ
     // ========================================
@@ -7,6 +7,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -37,8 +38,9 @@ public class AdminLoginHistoryController {
     @GetMapping
     public String showLoginHistory(@PageableDefault(size = 20, sort = "loginTime", direction = Direction.DESC) Pageable pageable,
                                     Model model) {
-        Page<LoginHistory> historyPage = loginHistoryService.getAllLoginHistoriesWithPagination(pageable);
+        Slice<LoginHistory> historyPage = loginHistoryService.getAllLoginHistoriesWithPagination(pageable);
         model.addAttribute("historyPage", historyPage);
+        model.addAttribute("totalCounted", historyPage instanceof Page);
         return "admin-login-history";
     }
 
@@ -54,12 +56,14 @@ public class AdminLoginHistoryController {
             StringUtils.hasText(searchForm.getStatus()) ||
             searchForm.getFromDate() != null ||
             searchForm.getToDate() != null) {
-            Page<LoginHistory> historyPage = loginHistoryService.searchLoginHistoriesWithPagination(searchForm, pageable);
+            Slice<LoginHistory> historyPage = loginHistoryService.searchLoginHistoriesWithPagination(searchForm, pageable);
             model.addAttribute("historyPage", historyPage);
+            model.addAttribute("totalCounted", historyPage instanceof Page);
         } else {
             // 検索条件がない場合は全件表示
-            Page<LoginHistory> historyPage = loginHistoryService.getAllLoginHistoriesWithPagination(pageable);
+            Slice<LoginHistory> historyPage = loginHistoryService.getAllLoginHistoriesWithPagination(pageable);
             model.addAttribute("historyPage", historyPage);
+            model.addAttribute("totalCounted", historyPage instanceof Page);
         }
         return "admin-login-history";
     }
@@ -7,6 +7,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -40,10 +41,11 @@ public class AdminNotificationHistoryController {
     @GetMapping
     public String showNotificationHistory(@PageableDefault(size = 20, sort = "sentAt", direction = Direction.DESC) Pageable pageable,
                                            Model model) {
-        Page<NotificationHistory> historyPage = notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
+        Slice<NotificationHistory> historyPage = notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
         NotificationHistoryService.NotificationHistoryStatistics statistics = notificationHistoryService.getStatistics();
         
         model.addAttribute("historyPage", historyPage);
+        model.addAttribute("totalCounted", historyPage instanceof Page);
         model.addAttribute("statistics", statistics);
         
         return "admin-notification-history";
@@ -68,10 +70,11 @@ public class AdminNotificationHistoryController {
             return "redirect:/admin/notification-history";
         }
 
-        Page<NotificationHistory> historyPage = notificationHistoryService.searchNotificationHistoriesWithPagination(searchForm, pageable);
+        Slice<NotificationHistory> historyPage = notificationHistoryService.searchNotificationHistoriesWithPagination(searchForm, pageable);
         NotificationHistoryService.NotificationHistoryStatistics statistics = notificationHistoryService.getStatistics();
         
         model.addAttribute("historyPage", historyPage);
+        model.addAttribute("totalCounted", historyPage instanceof Page);
         model.addAttribute("statistics", statistics);
         
         return "admin-notification-history";
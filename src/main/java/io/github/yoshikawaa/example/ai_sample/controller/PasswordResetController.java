@@ -2,6 +2,7 @@ package io.github.yoshikawaa.example.ai_sample.controller;
 
 import io.github.yoshikawaa.example.ai_sample.exception.InvalidTokenException;
 import io.github.yoshikawaa.example.ai_sample.model.PasswordResetForm;
+import io.github.yoshikawaa.example.ai_sample.service.PasswordResetRequestDispatcher;
 import io.github.yoshikawaa.example.ai_sample.service.PasswordResetService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +25,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 public class PasswordResetController {
 
     private final PasswordResetService passwordResetService;
+    private final PasswordResetRequestDispatcher passwordResetRequestDispatcher;
 
     @GetMapping("/request")
     public String showResetRequestForm() {
@@ -32,7 +34,8 @@ public class PasswordResetController {
 
     @PostMapping("/request")
     public String handleResetRequest(@RequestParam(required = true) String email) {
-        passwordResetService.sendResetLink(email);
+        // 登録の有無で応答時間が変わらないよう、専用のスレッドで処理する
+        passwordResetRequestDispatcher.dispatch(email);
         return "redirect:/password-reset/request-complete";
     }
 
@@ -0,0 +1,16 @@
+package io.github.yoshikawaa.example.ai_sample.exception;
+
+/**
+ * パスワードのハッシュ化・照合の実行待ちが上限を超えたため、処理を拒否した場合の例外
+ * HTTP 503（Retry-After付き）として応答する
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.yoshikawaa.example.ai_sample.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+
+/**
+ * キーセット（シーク）ページネーション用カーソル
+ * 直前ページ末尾の顧客のソートキー値と、同値時のタイブレーカーとなるemailを保持する
+ * ソートキー値がNULLの行は、URL上では空文字列で表す
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerCursor {
+
+    /** ソート対象カラムの値（文字列表現。NULLの場合はnullまたは空文字列） */
+    private String sortValue;
+
+    /** タイブレーカー（主キー） */
+    private String email;
+
+    /**
+     * 顧客エンティティとソートプロパティからカーソルを生成
+     */
+    public static CustomerCursor fromEntity(Customer customer, String sortProperty) {
+        String sortValue = switch (sortProperty) {
+            case "email" -> customer.getEmail();
+            case "name" -> customer.getName();
+            case "birthDate" -> Objects.toString(customer.getBirthDate(), null);
+            default -> Objects.toString(customer.getRegistrationDate(), null);
+        };
+        return new CustomerCursor(sortValue, customer.getEmail());
+    }
+
+    /**
+     * ソートキー値がソートプロパティの型として解釈できるかを判定する（URLの改変などによる不正な値の検出用）
+     */
+    public boolean isValidFor(String sortProperty) {
+        if (isNullSortValue()) {
+            return true;
+        }
+        return switch (sortProperty) {
+            case "email", "name" -> true;
+            default -> {
+                try {
+                    LocalDate.parse(sortValue);
+                    yield true;
+                } catch (DateTimeParseException e) {
+                    yield false;
+                }
+            }
+        };
+    }
+
+    /**
+     * ソートキー値がNULLかを判定する（NULLの行を辿っているカーソル）
+     */
+    public boolean isNullSortValue() {
+        return sortValue == null || sortValue.isEmpty();
+    }
+
+    /**
+     * ソートカラムの型に合わせてソートキー値を変換する（NULLの場合はnull）
+     * 日付カラムはLocalDateとしてバインドし、文字列との比較による暗黙の型変換を避ける
+     */
+    public Object typedSortValue(String sortColumn) {
+        if (isNullSortValue()) {
+            return null;
+        }
+        return switch (sortColumn) {
+            case "birth_date", "registration_date" -> LocalDate.parse(sortValue);
+            default -> sortValue;
+        };
+    }
+}
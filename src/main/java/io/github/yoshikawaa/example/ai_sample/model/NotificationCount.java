@@ -5,12 +5,13 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 /**
- * ステータスごとの送信数
+ * 通知種別・送信ステータスごとの通知履歴の件数
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class StatusCount {
-    private String status;
+public class NotificationCount {
+    private NotificationHistory.NotificationType notificationType;
+    private NotificationHistory.Status status;
     private long count;
 }
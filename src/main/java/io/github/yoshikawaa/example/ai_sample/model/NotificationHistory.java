@@ -23,6 +23,15 @@ public class NotificationHistory {
     private String errorMessage;
     private LocalDateTime sentAt;
     private LocalDateTime createdAt;
+    /** 送信試行回数 */
+    private int attemptCount;
+    /** 次回送信時刻（PENDINGの場合のみ） */
+    private LocalDateTime nextAttemptAt;
+
+    public NotificationHistory(Long id, String recipientEmail, NotificationType notificationType, String subject, String body,
+                               Status status, String errorMessage, LocalDateTime sentAt, LocalDateTime createdAt) {
+        this(id, recipientEmail, notificationType, subject, body, status, errorMessage, sentAt, createdAt, 0, null);
+    }
 
     /**
      * 通知種別
@@ -39,6 +48,7 @@ public class NotificationHistory {
      * 送信ステータス
      */
     public static enum Status {
+        PENDING,   // 送信待ち（再送待ちを含む）
         SUCCESS,   // 送信成功
         FAILURE    // 送信失敗
     }
@@ -0,0 +1,17 @@
+package io.github.yoshikawaa.example.ai_sample.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionRegistration {
+    private String sessionId;
+    private String principalName;
+    private String nodeId;
+    private long lastRequest;
+    private boolean expired;
+    private long leaseUntil;
+}
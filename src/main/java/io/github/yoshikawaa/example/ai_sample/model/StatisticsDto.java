@@ -19,4 +19,27 @@ public class StatisticsDto {
     private List<UsageStatistics> usageStatistics;
     private LocalDate startDate;
     private LocalDate endDate;
+    /** タイムアウト・エラーにより取得できなかった統計（取得できなかった統計は空リスト） */
+    private List<StatisticsType> unavailableStatistics = List.of();
+
+    public StatisticsDto(List<CustomerStatistics> customerStatistics, List<LoginStatistics> loginStatistics,
+                         List<UsageStatistics> usageStatistics, LocalDate startDate, LocalDate endDate) {
+        this(customerStatistics, loginStatistics, usageStatistics, startDate, endDate, List.of());
+    }
+
+    /**
+     * 一部の統計が取得できなかったか
+     */
+    public boolean isPartial() {
+        return !unavailableStatistics.isEmpty();
+    }
+
+    /**
+     * 統計の種類
+     */
+    public enum StatisticsType {
+        CUSTOMER,
+        LOGIN,
+        USAGE
+    }
 }
@@ -3,18 +3,54 @@ package io.github.yoshikawaa.example.ai_sample.repository;
 import io.github.yoshikawaa.example.ai_sample.model.AccountUnlockToken;
 import org.apache.ibatis.annotations.*;
 
+/**
+ * アカウントロック解除トークン
+ * トークンはハッシュ値（{@link io.github.yoshikawaa.example.ai_sample.util.TokenHashUtil}）で保存・検索する
+ * 取得したAccountUnlockTokenのunlockTokenはハッシュ値
+ */
 @Mapper
 public interface AccountUnlockTokenRepository {
 
     @Insert("""
+        <script>
+        <bind name="unlockTokenHash" value="@io.github.yoshikawaa.example.ai_sample.util.TokenHashUtil@hash(unlockToken)"/>
         INSERT INTO account_unlock_token (email, unlock_token, token_expiry)
-        VALUES (#{email}, #{unlockToken}, #{tokenExpiry})
+        VALUES (#{email}, #{unlockTokenHash}, #{tokenExpiry})
+        </script>
     """)
     void insert(AccountUnlockToken token);
 
-    @Select("SELECT email, unlock_token AS unlockToken, token_expiry AS tokenExpiry FROM account_unlock_token WHERE unlock_token = #{unlockToken}")
-    AccountUnlockToken findByToken(String unlockToken);
+    @Select("""
+        <script>
+        <bind name="unlockTokenHash" value="@io.github.yoshikawaa.example.ai_sample.util.TokenHashUtil@hash(unlockToken)"/>
+        SELECT email, unlock_token AS unlockToken, token_expiry AS tokenExpiry FROM account_unlock_token WHERE unlock_token = #{unlockTokenHash}
+        </script>
+    """)
+    AccountUnlockToken findByToken(@Param("unlockToken") String unlockToken);
+
+    @Delete("""
+        <script>
+        <bind name="unlockTokenHash" value="@io.github.yoshikawaa.example.ai_sample.util.TokenHashUtil@hash(unlockToken)"/>
+        DELETE FROM account_unlock_token WHERE unlock_token = #{unlockTokenHash}
+        </script>
+    """)
+    void deleteByToken(@Param("unlockToken") String unlockToken);
 
-    @Delete("DELETE FROM account_unlock_token WHERE unlock_token = #{unlockToken}")
-    void deleteByToken(String unlockToken);
+    /**
+     * 有効期限切れのトークンを削除（有効期限の索引を使い、最大limit件ずつ削除する）
+     *
+     * @param now 現在時刻（エポックミリ秒）
+     * @param limit 1回に削除する最大件数
+     * @return 削除件数
+     */
+    @Delete("""
+        DELETE FROM account_unlock_token
+        WHERE id IN (
+            SELECT id FROM account_unlock_token
+            WHERE token_expiry < #{now}
+            ORDER BY token_expiry
+            FETCH FIRST #{limit} ROWS ONLY
+        )
+    """)
+    int deleteExpired(@Param("now") long now, @Param("limit") int limit);
 }
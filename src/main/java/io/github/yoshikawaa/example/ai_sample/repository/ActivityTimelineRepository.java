@@ -2,23 +2,197 @@ package io.github.yoshikawaa.example.ai_sample.repository;
 
 import io.github.yoshikawaa.example.ai_sample.model.ActivityTimeline;
 import io.github.yoshikawaa.example.ai_sample.model.ActivityTimeline.ActivityType;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * アクティビティタイムラインリポジトリ
- * 複数のテーブルから統合的にアクティビティデータを取得
+ * 監査ログ・ログイン履歴・通知履歴をactivity_eventテーブルに投影し、顧客ごとのタイムラインとして取得
+ *
+ * <p>投影元からactivity_eventへの変換（アクティビティ種別・説明の対応付け）は、
+ * 登録時の投影とバックフィルで同じSQLを使用する
  */
 @Mapper
 public interface ActivityTimelineRepository {
 
+    // ========================================
+    // 投影（activity_eventへの変換）
+    // ========================================
+
+    String INSERT_ACTIVITY_EVENT = """
+        INSERT INTO activity_event (email, event_time, activity_type, description, detail, ip_address, status, source_type, source_id)
+        """;
+
+    /** 監査ログ → アクティビティイベント */
+    String SELECT_AUDIT_LOG_EVENT = """
+        SELECT
+            a.target_email,
+            a.action_time,
+            CASE a.action_type
+                WHEN 'CREATE' THEN 'ACCOUNT_CREATED'
+                WHEN 'UPDATE' THEN 'INFO_UPDATED'
+                WHEN 'DELETE' THEN 'ACCOUNT_DELETED'
+                WHEN 'PASSWORD_RESET' THEN 'PASSWORD_RESET'
+                WHEN 'ACCOUNT_LOCK' THEN 'ACCOUNT_LOCKED'
+                WHEN 'ACCOUNT_UNLOCK' THEN 'ACCOUNT_UNLOCKED'
+                WHEN 'VIEW_STATISTICS' THEN 'INFO_UPDATED'
+            END,
+            CASE a.action_type
+                WHEN 'CREATE' THEN 'アカウント作成'
+                WHEN 'UPDATE' THEN '情報更新'
+                WHEN 'DELETE' THEN 'アカウント削除'
+                WHEN 'PASSWORD_RESET' THEN 'パスワードリセット'
+                WHEN 'ACCOUNT_LOCK' THEN 'アカウントロック'
+                WHEN 'ACCOUNT_UNLOCK' THEN 'アカウントロック解除'
+                WHEN 'VIEW_STATISTICS' THEN '情報更新'
+            END,
+            a.action_detail,
+            a.ip_address,
+            NULL,
+            'AUDIT_LOG',
+            a.id
+        FROM audit_log a
+        WHERE a.target_email IS NOT NULL
+          AND NOT EXISTS (SELECT 1 FROM activity_event e WHERE e.source_type = 'AUDIT_LOG' AND e.source_id = a.id)
+        """;
+
+    /** ログイン履歴 → アクティビティイベント */
+    String SELECT_LOGIN_HISTORY_EVENT = """
+        SELECT
+            h.email,
+            h.login_time,
+            CASE h.status
+                WHEN 'SUCCESS' THEN 'LOGIN_SUCCESS'
+                WHEN 'FAILURE' THEN 'LOGIN_FAILURE'
+                WHEN 'LOCKED' THEN 'ACCOUNT_LOCKED'
+                WHEN 'LOGOUT' THEN 'LOGOUT'
+                WHEN 'SESSION_EXCEEDED' THEN 'SESSION_EXCEEDED'
+            END,
+            CASE h.status
+                WHEN 'SUCCESS' THEN 'ログイン成功'
+                WHEN 'FAILURE' THEN 'ログイン失敗'
+                WHEN 'LOCKED' THEN 'アカウントロック'
+                WHEN 'LOGOUT' THEN 'ログアウト'
+                WHEN 'SESSION_EXCEEDED' THEN 'セッション超過'
+            END,
+            CASE WHEN h.failure_reason IS NOT NULL THEN CONCAT('失敗理由: ', h.failure_reason) ELSE NULL END,
+            h.ip_address,
+            h.status,
+            'LOGIN_HISTORY',
+            h.id
+        FROM login_history h
+        WHERE NOT EXISTS (SELECT 1 FROM activity_event e WHERE e.source_type = 'LOGIN_HISTORY' AND e.source_id = h.id)
+        """;
+
+    /** 通知履歴 → アクティビティイベント */
+    String SELECT_NOTIFICATION_HISTORY_EVENT = """
+        SELECT
+            n.recipient_email,
+            n.sent_at,
+            'NOTIFICATION_SENT',
+            CONCAT('通知送信: ', n.notification_type),
+            CASE
+                WHEN n.error_message IS NOT NULL THEN CONCAT('件名: ', n.subject, '\nエラー: ', n.error_message)
+                ELSE CONCAT('件名: ', n.subject)
+            END,
+            NULL,
+            n.status,
+            'NOTIFICATION_HISTORY',
+            n.id
+        FROM notification_history n
+        WHERE n.sent_at IS NOT NULL
+          AND NOT EXISTS (SELECT 1 FROM activity_event e WHERE e.source_type = 'NOTIFICATION_HISTORY' AND e.source_id = n.id)
+        """;
+
+    /**
+     * 監査ログ1件をアクティビティイベントに投影（対象顧客のない監査ログは対象外）
+     */
+    @Insert(INSERT_ACTIVITY_EVENT + SELECT_AUDIT_LOG_EVENT + "AND a.id = #{id}")
+    int projectAuditLog(@Param("id") Long id);
+
+    /**
+     * 指定顧客・期間の未投影の監査ログをアクティビティイベントに投影（バッチ書き込み後の反映用）
+     */
+    @Insert("<script>" + INSERT_ACTIVITY_EVENT + SELECT_AUDIT_LOG_EVENT + """
+          AND a.action_time BETWEEN #{from} AND #{to}
+          AND a.target_email IN
+          <foreach collection="emails" item="email" open="(" separator="," close=")">#{email}</foreach>
+        </script>
+        """)
+    int projectAuditLogs(@Param("emails") Collection<String> emails,
+                         @Param("from") LocalDateTime from,
+                         @Param("to") LocalDateTime to);
+
+    /**
+     * ログイン履歴1件をアクティビティイベントに投影
+     */
+    @Insert(INSERT_ACTIVITY_EVENT + SELECT_LOGIN_HISTORY_EVENT + "AND h.id = #{id}")
+    int projectLoginHistory(@Param("id") Long id);
+
+    /**
+     * 指定顧客・期間の未投影のログイン履歴をアクティビティイベントに投影（バッチ書き込み後の反映用）
+     */
+    @Insert("<script>" + INSERT_ACTIVITY_EVENT + SELECT_LOGIN_HISTORY_EVENT + """
+          AND h.login_time BETWEEN #{from} AND #{to}
+          AND h.email IN
+          <foreach collection="emails" item="email" open="(" separator="," close=")">#{email}</foreach>
+        </script>
+        """)
+    int projectLoginHistories(@Param("emails") Collection<String> emails,
+                              @Param("from") LocalDateTime from,
+                              @Param("to") LocalDateTime to);
+
+    /**
+     * 通知履歴1件をアクティビティイベントに投影
+     */
+    @Insert(INSERT_ACTIVITY_EVENT + SELECT_NOTIFICATION_HISTORY_EVENT + "AND n.id = #{id}")
+    int projectNotificationHistory(@Param("id") Long id);
+
+    // ========================================
+    // バックフィル（既存データの投影）
+    // ========================================
+
+    /**
+     * ID範囲（fromIdより大きくtoId以下）の未投影の監査ログを投影
+     */
+    @Insert(INSERT_ACTIVITY_EVENT + SELECT_AUDIT_LOG_EVENT + "AND a.id > #{fromId} AND a.id <= #{toId}")
+    int backfillAuditLog(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * ID範囲（fromIdより大きくtoId以下）の未投影のログイン履歴を投影
+     */
+    @Insert(INSERT_ACTIVITY_EVENT + SELECT_LOGIN_HISTORY_EVENT + "AND h.id > #{fromId} AND h.id <= #{toId}")
+    int backfillLoginHistory(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * ID範囲（fromIdより大きくtoId以下）の未投影の通知履歴を投影
+     */
+    @Insert(INSERT_ACTIVITY_EVENT + SELECT_NOTIFICATION_HISTORY_EVENT + "AND n.id > #{fromId} AND n.id <= #{toId}")
+    int backfillNotificationHistory(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Select("SELECT COALESCE(MAX(id), 0) FROM audit_log")
+    long findMaxAuditLogId();
+
+    @Select("SELECT COALESCE(MAX(id), 0) FROM login_history")
+    long findMaxLoginHistoryId();
+
+    @Select("SELECT COALESCE(MAX(id), 0) FROM notification_history")
+    long findMaxNotificationHistoryId();
+
+    // ========================================
+    // タイムライン取得
+    // ========================================
+
     /**
      * アクティビティタイムラインを取得（ページネーション・ソート対応）
-     * 
+     * (email, event_time DESC, activity_type)インデックスの範囲スキャンで取得する
+     *
      * @param email 顧客メールアドレス
      * @param startDateTime 検索期間開始日時
      * @param endDateTime 検索期間終了日時
@@ -29,90 +203,24 @@ public interface ActivityTimelineRepository {
      */
     @Select("""
         <script>
-        SELECT * FROM (
-            -- 監査ログ
-            SELECT 
-                id,
-                action_time AS timestamp,
-                CASE action_type
-                    WHEN 'CREATE' THEN 'ACCOUNT_CREATED'
-                    WHEN 'UPDATE' THEN 'INFO_UPDATED'
-                    WHEN 'DELETE' THEN 'ACCOUNT_DELETED'
-                    WHEN 'PASSWORD_RESET' THEN 'PASSWORD_RESET'
-                    WHEN 'ACCOUNT_LOCK' THEN 'ACCOUNT_LOCKED'
-                    WHEN 'ACCOUNT_UNLOCK' THEN 'ACCOUNT_UNLOCKED'
-                    WHEN 'VIEW_STATISTICS' THEN 'INFO_UPDATED'
-                END AS activity_type,
-                CASE action_type
-                    WHEN 'CREATE' THEN 'アカウント作成'
-                    WHEN 'UPDATE' THEN '情報更新'
-                    WHEN 'DELETE' THEN 'アカウント削除'
-                    WHEN 'PASSWORD_RESET' THEN 'パスワードリセット'
-                    WHEN 'ACCOUNT_LOCK' THEN 'アカウントロック'
-                    WHEN 'ACCOUNT_UNLOCK' THEN 'アカウントロック解除'
-                    WHEN 'VIEW_STATISTICS' THEN '情報更新'
-                END AS description,
-                action_detail AS detail,
-                ip_address,
-                NULL AS status
-            FROM audit_log
-            WHERE target_email = #{email}
-              AND action_time BETWEEN #{startDateTime} AND #{endDateTime}
-            
-            UNION ALL
-            
-            -- ログイン履歴
-            SELECT 
-                id,
-                login_time AS timestamp,
-                CASE status
-                    WHEN 'SUCCESS' THEN 'LOGIN_SUCCESS'
-                    WHEN 'FAILURE' THEN 'LOGIN_FAILURE'
-                    WHEN 'LOCKED' THEN 'ACCOUNT_LOCKED'
-                    WHEN 'LOGOUT' THEN 'LOGOUT'
-                    WHEN 'SESSION_EXCEEDED' THEN 'SESSION_EXCEEDED'
-                END AS activity_type,
-                CASE status
-                    WHEN 'SUCCESS' THEN 'ログイン成功'
-                    WHEN 'FAILURE' THEN 'ログイン失敗'
-                    WHEN 'LOCKED' THEN 'アカウントロック'
-                    WHEN 'LOGOUT' THEN 'ログアウト'
-                    WHEN 'SESSION_EXCEEDED' THEN 'セッション超過'
-                END AS description,
-                CASE WHEN failure_reason IS NOT NULL THEN CONCAT('失敗理由: ', failure_reason) ELSE NULL END AS detail,
-                ip_address,
-                status
-            FROM login_history
-            WHERE email = #{email}
-              AND login_time BETWEEN #{startDateTime} AND #{endDateTime}
-            
-            UNION ALL
-            
-            -- 通知履歴
-            SELECT 
-                id,
-                sent_at AS timestamp,
-                'NOTIFICATION_SENT' AS activity_type,
-                CONCAT('通知送信: ', notification_type) AS description,
-                CASE 
-                    WHEN error_message IS NOT NULL THEN CONCAT('件名: ', subject, '\nエラー: ', error_message)
-                    ELSE CONCAT('件名: ', subject)
-                END AS detail,
-                NULL AS ip_address,
-                status
-            FROM notification_history
-            WHERE recipient_email = #{email}
-              AND sent_at BETWEEN #{startDateTime} AND #{endDateTime}
-        ) AS unified_timeline
-        <where>
-            <if test="activityTypes != null and !activityTypes.isEmpty()">
-                AND activity_type IN
-                <foreach collection="activityTypes" item="type" open="(" separator="," close=")">
-                    #{type}
-                </foreach>
-            </if>
-        </where>
-        ORDER BY timestamp DESC
+        SELECT
+            id,
+            event_time AS timestamp,
+            activity_type,
+            description,
+            detail,
+            ip_address,
+            status
+        FROM activity_event
+        WHERE email = #{email}
+          AND event_time BETWEEN #{startDateTime} AND #{endDateTime}
+          <if test="activityTypes != null and !activityTypes.isEmpty()">
+            AND activity_type IN
+            <foreach collection="activityTypes" item="type" open="(" separator="," close=")">
+                #{type}
+            </foreach>
+          </if>
+        ORDER BY event_time DESC, id DESC
         LIMIT #{limit} OFFSET #{offset}
         </script>
     """)
@@ -127,7 +235,7 @@ public interface ActivityTimelineRepository {
 
     /**
      * アクティビティタイムラインの総件数を取得
-     * 
+     *
      * @param email 顧客メールアドレス
      * @param startDateTime 検索期間開始日時
      * @param endDateTime 検索期間終了日時
@@ -136,57 +244,15 @@ public interface ActivityTimelineRepository {
      */
     @Select("""
         <script>
-        SELECT COUNT(*) FROM (
-            -- 監査ログ
-            SELECT 
-                id,
-                CASE action_type
-                    WHEN 'CREATE' THEN 'ACCOUNT_CREATED'
-                    WHEN 'UPDATE' THEN 'INFO_UPDATED'
-                    WHEN 'DELETE' THEN 'ACCOUNT_DELETED'
-                    WHEN 'PASSWORD_RESET' THEN 'PASSWORD_RESET'
-                    WHEN 'ACCOUNT_LOCK' THEN 'ACCOUNT_LOCKED'
-                    WHEN 'ACCOUNT_UNLOCK' THEN 'ACCOUNT_UNLOCKED'
-                    WHEN 'VIEW_STATISTICS' THEN 'INFO_UPDATED'
-                END AS activity_type
-            FROM audit_log
-            WHERE target_email = #{email}
-              AND action_time BETWEEN #{startDateTime} AND #{endDateTime}
-            
-            UNION ALL
-            
-            -- ログイン履歴
-            SELECT 
-                id,
-                CASE status
-                    WHEN 'SUCCESS' THEN 'LOGIN_SUCCESS'
-                    WHEN 'FAILURE' THEN 'LOGIN_FAILURE'
-                    WHEN 'LOCKED' THEN 'ACCOUNT_LOCKED'
-                    WHEN 'LOGOUT' THEN 'LOGOUT'
-                    WHEN 'SESSION_EXCEEDED' THEN 'SESSION_EXCEEDED'
-                END AS activity_type
-            FROM login_history
-            WHERE email = #{email}
-              AND login_time BETWEEN #{startDateTime} AND #{endDateTime}
-            
-            UNION ALL
-            
-            -- 通知履歴
-            SELECT 
-                id,
-                'NOTIFICATION_SENT' AS activity_type
-            FROM notification_history
-            WHERE recipient_email = #{email}
-              AND sent_at BETWEEN #{startDateTime} AND #{endDateTime}
-        ) AS unified_timeline
-        <where>
-            <if test="activityTypes != null and !activityTypes.isEmpty()">
-                AND activity_type IN
-                <foreach collection="activityTypes" item="type" open="(" separator="," close=")">
-                    #{type}
-                </foreach>
-            </if>
-        </where>
+        SELECT COUNT(*) FROM activity_event
+        WHERE email = #{email}
+          AND event_time BETWEEN #{startDateTime} AND #{endDateTime}
+          <if test="activityTypes != null and !activityTypes.isEmpty()">
+            AND activity_type IN
+            <foreach collection="activityTypes" item="type" open="(" separator="," close=")">
+                #{type}
+            </foreach>
+          </if>
         </script>
     """)
     long countActivityTimeline(
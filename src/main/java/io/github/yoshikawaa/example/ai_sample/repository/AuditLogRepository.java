@@ -51,16 +51,39 @@ public interface AuditLogRepository {
     // 検索系
     // ========================================
 
+    /**
+     * 検索（ページネーション、ソート対応）
+     * メールアドレスの完全一致キー（*Keys、EmailKeyResolverで変換）が指定された場合はIN条件でインデックスを使用し、
+     * nullの場合は部分一致で検索する
+     */
     @Select("""
         <script>
         SELECT * FROM audit_log
         <where>
-            <if test="performedBy != null and performedBy != ''">
-                AND LOWER(performed_by) LIKE LOWER(CONCAT('%', #{performedBy}, '%'))
-            </if>
-            <if test="targetEmail != null and targetEmail != ''">
-                AND LOWER(target_email) LIKE LOWER(CONCAT('%', #{targetEmail}, '%'))
-            </if>
+            <choose>
+                <when test="performedByKeys != null and performedByKeys.isEmpty()">
+                    AND 1 = 0
+                </when>
+                <when test="performedByKeys != null">
+                    AND performed_by IN
+                    <foreach collection="performedByKeys" item="key" open="(" separator="," close=")">#{key}</foreach>
+                </when>
+                <when test="performedBy != null and performedBy != ''">
+                    AND LOWER(performed_by) LIKE LOWER(CONCAT('%', #{performedBy}, '%'))
+                </when>
+            </choose>
+            <choose>
+                <when test="targetEmailKeys != null and targetEmailKeys.isEmpty()">
+                    AND 1 = 0
+                </when>
+                <when test="targetEmailKeys != null">
+                    AND target_email IN
+                    <foreach collection="targetEmailKeys" item="key" open="(" separator="," close=")">#{key}</foreach>
+                </when>
+                <when test="targetEmail != null and targetEmail != ''">
+                    AND LOWER(target_email) LIKE LOWER(CONCAT('%', #{targetEmail}, '%'))
+                </when>
+            </choose>
             <if test="actionType != null">
                 AND action_type = #{actionType}
             </if>
@@ -82,7 +105,8 @@ public interface AuditLogRepository {
         LIMIT #{limit} OFFSET #{offset}
         </script>
     """)
-    List<AuditLog> searchWithPagination(@Param("performedBy") String performedBy, @Param("targetEmail") String targetEmail,
+    List<AuditLog> searchWithPagination(@Param("performedBy") String performedBy, @Param("performedByKeys") List<String> performedByKeys,
+                                          @Param("targetEmail") String targetEmail, @Param("targetEmailKeys") List<String> targetEmailKeys,
                                           @Param("actionType") AuditLog.ActionType actionType,
                                           @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate,
                                           @Param("limit") int limit, @Param("offset") int offset,
@@ -92,12 +116,30 @@ public interface AuditLogRepository {
         <script>
         SELECT COUNT(*) FROM audit_log
         <where>
-            <if test="performedBy != null and performedBy != ''">
-                AND LOWER(performed_by) LIKE LOWER(CONCAT('%', #{performedBy}, '%'))
-            </if>
-            <if test="targetEmail != null and targetEmail != ''">
-                AND LOWER(target_email) LIKE LOWER(CONCAT('%', #{targetEmail}, '%'))
-            </if>
+            <choose>
+                <when test="performedByKeys != null and performedByKeys.isEmpty()">
+                    AND 1 = 0
+                </when>
+                <when test="performedByKeys != null">
+                    AND performed_by IN
+                    <foreach collection="performedByKeys" item="key" open="(" separator="," close=")">#{key}</foreach>
+                </when>
+                <when test="performedBy != null and performedBy != ''">
+                    AND LOWER(performed_by) LIKE LOWER(CONCAT('%', #{performedBy}, '%'))
+                </when>
+            </choose>
+            <choose>
+                <when test="targetEmailKeys != null and targetEmailKeys.isEmpty()">
+                    AND 1 = 0
+                </when>
+                <when test="targetEmailKeys != null">
+                    AND target_email IN
+                    <foreach collection="targetEmailKeys" item="key" open="(" separator="," close=")">#{key}</foreach>
+                </when>
+                <when test="targetEmail != null and targetEmail != ''">
+                    AND LOWER(target_email) LIKE LOWER(CONCAT('%', #{targetEmail}, '%'))
+                </when>
+            </choose>
             <if test="actionType != null">
                 AND action_type = #{actionType}
             </if>
@@ -110,7 +152,8 @@ public interface AuditLogRepository {
         </where>
         </script>
     """)
-    long countBySearch(@Param("performedBy") String performedBy, @Param("targetEmail") String targetEmail,
+    long countBySearch(@Param("performedBy") String performedBy, @Param("performedByKeys") List<String> performedByKeys,
+                       @Param("targetEmail") String targetEmail, @Param("targetEmailKeys") List<String> targetEmailKeys,
                        @Param("actionType") AuditLog.ActionType actionType,
                        @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
 }
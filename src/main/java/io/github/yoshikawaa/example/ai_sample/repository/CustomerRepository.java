@@ -1,13 +1,16 @@
 package io.github.yoshikawaa.example.ai_sample.repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
 
 import io.github.yoshikawaa.example.ai_sample.model.Customer;
 
@@ -17,109 +20,145 @@ public interface CustomerRepository {
     // 全件取得系
     // ========================================
     
-    @Select("""
-        <script>
-        SELECT * FROM customer
-        <choose>
-            <when test="sortColumn != null and sortColumn != ''">
-                ORDER BY ${sortColumn} ${sortDirection}
-            </when>
-            <otherwise>
-                ORDER BY registration_date DESC, email ASC
-            </otherwise>
-        </choose>
-        </script>
-    """)
+    // 並び順の指定のあるSQLは一覧・検索・CSV出力で同じ並び順（ORDER BY）を共有するため、CustomerRepository.xmlに定義する
+
     List<Customer> findAllWithSort(@Param("sortColumn") String sortColumn, @Param("sortDirection") String sortDirection);
 
-    @Select("""
-        <script>
-        SELECT * FROM customer
-        <choose>
-            <when test="sortColumn != null and sortColumn != ''">
-                ORDER BY ${sortColumn} ${sortDirection}
-            </when>
-            <otherwise>
-                ORDER BY registration_date DESC, email ASC
-            </otherwise>
-        </choose>
-        LIMIT #{limit} OFFSET #{offset}
-        </script>
-    """)
+    /**
+     * 全件をカーソルで1行ずつ取得（CSVエクスポート用）
+     * 結果を一括でメモリに載せず、fetchSize単位でDBから読み進める
+     * 呼び出し側はトランザクション内で消費し、使用後にクローズすること
+     */
+    Cursor<Customer> findAllWithCursor(@Param("sortColumn") String sortColumn, @Param("sortDirection") String sortDirection);
+
     List<Customer> findAllWithPagination(@Param("limit") int limit, @Param("offset") int offset, 
                                           @Param("sortColumn") String sortColumn, @Param("sortDirection") String sortDirection);
 
+    /**
+     * キーセット（シーク）方式でソート値がNULLでない顧客を取得
+     * OFFSETで読み飛ばす代わりに直前ページ末尾のキー値以降を範囲検索するため、深いページでも性能が劣化しない
+     * ソート値が同じ行はemail昇順でタイブレークする
+     * カーソル（cursorValue, cursorEmail）未指定時は先頭から取得する
+     * ソート値がNULLの行は昇順・降順とも末尾に並ぶため、findAllWithKeysetNullTailで続けて取得する
+     */
+    List<Customer> findAllWithKeyset(@Param("limit") int limit,
+                                      @Param("sortColumn") String sortColumn, @Param("sortDirection") String sortDirection,
+                                      @Param("cursorValue") Object cursorValue, @Param("cursorEmail") String cursorEmail);
+
+    /**
+     * キーセット（シーク）方式でソート値がNULLの顧客をemail昇順で取得
+     * cursorEmail未指定時はNULLの行の先頭から取得する
+     */
+    List<Customer> findAllWithKeysetNullTail(@Param("limit") int limit, @Param("sortColumn") String sortColumn,
+                                              @Param("cursorEmail") String cursorEmail);
+
     @Select("SELECT COUNT(*) FROM customer")
     long count();
 
-    // ========================================
-    // 検索系
-    // ========================================
-
+    /**
+     * メールアドレスをメールアドレス順に取得（登録済みメールアドレスのフィルター構築用、afterより後のメールアドレスのみ）
+     */
     @Select("""
         <script>
-        SELECT * FROM customer
-        <where>
-            <if test="name != null and name != ''">
-                AND LOWER(name) LIKE LOWER(CONCAT('%', #{name}, '%'))
-            </if>
-            <if test="email != null and email != ''">
-                AND LOWER(email) LIKE LOWER(CONCAT('%', #{email}, '%'))
-            </if>
-        </where>
-        <choose>
-            <when test="sortColumn != null and sortColumn != ''">
-                ORDER BY ${sortColumn} ${sortDirection}
-            </when>
-            <otherwise>
-                ORDER BY registration_date DESC, email ASC
-            </otherwise>
-        </choose>
+        SELECT email FROM customer
+        <if test="after != null">WHERE email &gt; #{after}</if>
+        ORDER BY email
+        LIMIT #{limit}
         </script>
     """)
-    List<Customer> searchWithSort(@Param("name") String name, @Param("email") String email,
-                                   @Param("sortColumn") String sortColumn, @Param("sortDirection") String sortDirection);
+    List<String> findEmails(@Param("after") String after, @Param("limit") int limit);
 
+    /**
+     * 登録日がsince以降の顧客のメールアドレスをメールアドレス順に取得（他のインスタンスで登録された顧客のフィルターへの取り込み用）
+     */
     @Select("""
         <script>
-        SELECT * FROM customer
-        <where>
-            <if test="name != null and name != ''">
-                AND LOWER(name) LIKE LOWER(CONCAT('%', #{name}, '%'))
-            </if>
-            <if test="email != null and email != ''">
-                AND LOWER(email) LIKE LOWER(CONCAT('%', #{email}, '%'))
-            </if>
-        </where>
-        <choose>
-            <when test="sortColumn != null and sortColumn != ''">
-                ORDER BY ${sortColumn} ${sortDirection}
-            </when>
-            <otherwise>
-                ORDER BY registration_date DESC, email ASC
-            </otherwise>
-        </choose>
-        LIMIT #{limit} OFFSET #{offset}
+        SELECT email FROM customer
+        WHERE registration_date &gt;= #{since}
+        <if test="after != null">AND email &gt; #{after}</if>
+        ORDER BY email
+        LIMIT #{limit}
         </script>
     """)
-    List<Customer> searchWithPagination(@Param("name") String name, @Param("email") String email, 
-                                         @Param("limit") int limit, @Param("offset") int offset,
-                                         @Param("sortColumn") String sortColumn, @Param("sortDirection") String sortDirection);
+    List<String> findEmailsRegisteredSince(@Param("since") LocalDate since, @Param("after") String after, @Param("limit") int limit);
 
+    /**
+     * 登録の目印がfromより後かつto以前の顧客のメールアドレスをメールアドレス順に取得（他のインスタンスで登録された顧客のフィルターへの取り込み用）
+     */
     @Select("""
         <script>
-        SELECT COUNT(*) FROM customer
-        <where>
-            <if test="name != null and name != ''">
-                AND LOWER(name) LIKE LOWER(CONCAT('%', #{name}, '%'))
-            </if>
-            <if test="email != null and email != ''">
-                AND LOWER(email) LIKE LOWER(CONCAT('%', #{email}, '%'))
-            </if>
-        </where>
+        SELECT email FROM customer
+        WHERE registration_mark &gt; #{from} AND registration_mark &lt;= #{to}
+        <if test="after != null">AND email &gt; #{after}</if>
+        ORDER BY email
+        LIMIT #{limit}
         </script>
     """)
-    long countBySearch(@Param("name") String name, @Param("email") String email);
+    List<String> findEmailsRegisteredBetweenMarks(@Param("from") long from, @Param("to") long to, @Param("after") String after, @Param("limit") int limit);
+
+    /**
+     * 現在の登録の目印を取得
+     */
+    @Select("SELECT mark FROM customer_registration_mark WHERE id = 1")
+    long findRegistrationMark();
+
+    /**
+     * 登録の目印を進める（登録と同じトランザクションで実行し、目印の行ロックで登録をコミット順に並べる）
+     */
+    @Update("UPDATE customer_registration_mark SET mark = mark + 1 WHERE id = 1")
+    void incrementRegistrationMark();
+
+    /**
+     * 進めた登録の目印を顧客に記録（incrementRegistrationMarkと同じトランザクションで実行する）
+     */
+    @Update("""
+        UPDATE customer SET registration_mark = (SELECT mark FROM customer_registration_mark WHERE id = 1)
+        WHERE email = #{email}
+    """)
+    void updateRegistrationMark(String email);
+
+    // ========================================
+    // 検索系
+    // ========================================
+
+    // 検索系のSQLは名前・メールアドレスの部分一致条件を共有するため、CustomerRepository.xmlに定義する
+    // nameTrigrams・emailTrigramsは索引での絞り込みに使うトライグラム（TrigramStopGrams#selectiveTrigramsで求める）
+
+    List<Customer> searchWithSort(@Param("name") String name, @Param("nameTrigrams") Set<String> nameTrigrams,
+                                   @Param("email") String email, @Param("emailTrigrams") Set<String> emailTrigrams,
+                                   @Param("sortColumn") String sortColumn, @Param("sortDirection") String sortDirection);
+
+    /**
+     * 検索条件付きでカーソルで1行ずつ取得（CSVエクスポート用）
+     */
+    Cursor<Customer> searchWithCursor(@Param("name") String name, @Param("nameTrigrams") Set<String> nameTrigrams,
+                                       @Param("email") String email, @Param("emailTrigrams") Set<String> emailTrigrams,
+                                       @Param("sortColumn") String sortColumn, @Param("sortDirection") String sortDirection);
+
+    List<Customer> searchWithPagination(@Param("name") String name, @Param("nameTrigrams") Set<String> nameTrigrams,
+                                         @Param("email") String email, @Param("emailTrigrams") Set<String> emailTrigrams,
+                                         @Param("limit") int limit, @Param("offset") int offset,
+                                         @Param("sortColumn") String sortColumn, @Param("sortDirection") String sortDirection);
+
+    /**
+     * 検索条件付きでキーセット（シーク）方式でソート値がNULLでない顧客を取得
+     */
+    List<Customer> searchWithKeyset(@Param("name") String name, @Param("nameTrigrams") Set<String> nameTrigrams,
+                                     @Param("email") String email, @Param("emailTrigrams") Set<String> emailTrigrams,
+                                     @Param("limit") int limit,
+                                     @Param("sortColumn") String sortColumn, @Param("sortDirection") String sortDirection,
+                                     @Param("cursorValue") Object cursorValue, @Param("cursorEmail") String cursorEmail);
+
+    /**
+     * 検索条件付きでキーセット（シーク）方式でソート値がNULLの顧客をemail昇順で取得
+     */
+    List<Customer> searchWithKeysetNullTail(@Param("name") String name, @Param("nameTrigrams") Set<String> nameTrigrams,
+                                             @Param("email") String email, @Param("emailTrigrams") Set<String> emailTrigrams,
+                                             @Param("limit") int limit, @Param("sortColumn") String sortColumn,
+                                             @Param("cursorEmail") String cursorEmail);
+
+    long countBySearch(@Param("name") String name, @Param("nameTrigrams") Set<String> nameTrigrams,
+                       @Param("email") String email, @Param("emailTrigrams") Set<String> emailTrigrams);
 
     // ========================================
     // 単一取得
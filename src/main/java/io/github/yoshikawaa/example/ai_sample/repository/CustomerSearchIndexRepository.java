@@ -0,0 +1,70 @@
+package io.github.yoshikawaa.example.ai_sample.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import io.github.yoshikawaa.example.ai_sample.model.Customer;
+
+/**
+ * 顧客検索用のトライグラム索引リポジトリ
+ * 顧客一覧の検索はCustomerRepositoryの検索系SQLで行う
+ */
+@Mapper
+public interface CustomerSearchIndexRepository {
+
+    /** 名前の索引 */
+    String FIELD_NAME = "N";
+    /** メールアドレスの索引 */
+    String FIELD_EMAIL = "E";
+
+    @Insert("""
+        <script>
+        INSERT INTO customer_search_trigram (field, trigram, email) VALUES
+        <foreach collection="trigrams" item="trigram" separator=",">(#{field}, #{trigram}, #{email})</foreach>
+        </script>
+    """)
+    void insertTrigrams(@Param("email") String email, @Param("field") String field,
+                        @Param("trigrams") Collection<String> trigrams);
+
+    @Delete("DELETE FROM customer_search_trigram WHERE email = #{email} AND field = #{field}")
+    void deleteTrigrams(@Param("email") String email, @Param("field") String field);
+
+    /**
+     * 索引のない顧客をメールアドレス順に取得（バックフィル用、afterより後のメールアドレスのみ）
+     */
+    @Select("""
+        <script>
+        SELECT email, name FROM customer c
+        WHERE NOT EXISTS (SELECT 1 FROM customer_search_trigram t WHERE t.email = c.email)
+        <if test="after != null">AND c.email &gt; #{after}</if>
+        ORDER BY c.email
+        LIMIT #{limit}
+        </script>
+    """)
+    List<Customer> findUnindexedCustomers(@Param("after") String after, @Param("limit") int limit);
+
+    /**
+     * minCountより多くの顧客に含まれるトライグラム（ストップグラム）を取得
+     */
+    @Select("""
+        SELECT trigram FROM customer_search_trigram
+        WHERE field = #{field}
+        GROUP BY trigram
+        HAVING COUNT(*) > #{minCount}
+    """)
+    List<String> findFrequentTrigrams(@Param("field") String field, @Param("minCount") long minCount);
+
+    /**
+     * メールアドレスの一部に一致する顧客のメールアドレスを取得（履歴検索での完全一致キーへの変換用）
+     * 顧客検索と同じ部分一致条件を使うため、SQLはCustomerSearchIndexRepository.xmlに定義する
+     */
+    List<String> findEmailsByPartialEmail(@Param("email") String email, @Param("emailTrigrams") Set<String> emailTrigrams,
+                                          @Param("limit") int limit);
+}
@@ -1,9 +1,11 @@
 package io.github.yoshikawaa.example.ai_sample.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
@@ -15,6 +17,12 @@ public interface LoginAttemptRepository {
     @Select("SELECT * FROM login_attempt WHERE email = #{email}")
     Optional<LoginAttempt> findByEmail(String email);
 
+    /**
+     * 有効な試行記録を取得（ロック中、または保持期間内に失敗がある記録）
+     */
+    @Select("SELECT * FROM login_attempt WHERE locked_until > #{now} OR last_attempt_time > #{windowStart}")
+    List<LoginAttempt> findActive(@Param("now") long now, @Param("windowStart") long windowStart);
+
     @Insert("""
         INSERT INTO login_attempt (email, attempt_count, locked_until, last_attempt_time)
         VALUES (#{email}, #{attemptCount}, #{lockedUntil}, #{lastAttemptTime})
@@ -28,6 +36,16 @@ public interface LoginAttemptRepository {
     """)
     void update(LoginAttempt loginAttempt);
 
+    /**
+     * 試行記録を登録または更新
+     */
+    @Update("""
+        MERGE INTO login_attempt (email, attempt_count, locked_until, last_attempt_time)
+        KEY (email)
+        VALUES (#{email}, #{attemptCount}, #{lockedUntil}, #{lastAttemptTime})
+    """)
+    void upsert(LoginAttempt loginAttempt);
+
     @Update("DELETE FROM login_attempt WHERE email = #{email}")
     void deleteByEmail(String email);
 }
@@ -23,6 +23,17 @@ public interface LoginHistoryRepository {
     @Options(useGeneratedKeys = true, keyProperty = "id")
     void insert(LoginHistory loginHistory);
 
+    /**
+     * 顧客が存在する場合のみ登録（未登録メールアドレスでのログイン失敗は外部キー制約違反となるため除外する）
+     * バッチINSERTで1件の制約違反によりバッチ全体が失敗しないよう、非同期書き込みで使用する
+     */
+    @Insert("""
+        INSERT INTO login_history (email, login_time, status, ip_address, user_agent, failure_reason)
+        SELECT #{email}, #{loginTime}, #{status}, #{ipAddress}, #{userAgent}, #{failureReason}
+        WHERE EXISTS (SELECT 1 FROM customer WHERE email = #{email})
+    """)
+    void insertIfCustomerExists(LoginHistory loginHistory);
+
     // ========================================
     // 全件取得系
     // ========================================
@@ -51,13 +62,27 @@ public interface LoginHistoryRepository {
     // 検索系
     // ========================================
 
+    /**
+     * 検索（ページネーション、ソート対応）
+     * メールアドレスの完全一致キー（*Keys、EmailKeyResolverで変換）が指定された場合はIN条件でインデックスを使用し、
+     * nullの場合は部分一致で検索する
+     */
     @Select("""
         <script>
         SELECT * FROM login_history
         <where>
-            <if test="email != null and email != ''">
-                AND LOWER(email) LIKE LOWER(CONCAT('%', #{email}, '%'))
-            </if>
+            <choose>
+                <when test="emailKeys != null and emailKeys.isEmpty()">
+                    AND 1 = 0
+                </when>
+                <when test="emailKeys != null">
+                    AND email IN
+                    <foreach collection="emailKeys" item="key" open="(" separator="," close=")">#{key}</foreach>
+                </when>
+                <when test="email != null and email != ''">
+                    AND LOWER(email) LIKE LOWER(CONCAT('%', #{email}, '%'))
+                </when>
+            </choose>
             <if test="status != null and status != ''">
                 AND status = #{status}
             </if>
@@ -79,7 +104,8 @@ public interface LoginHistoryRepository {
         LIMIT #{limit} OFFSET #{offset}
         </script>
     """)
-    List<LoginHistory> searchWithPagination(@Param("email") String email, @Param("status") String status,
+    List<LoginHistory> searchWithPagination(@Param("email") String email, @Param("emailKeys") List<String> emailKeys,
+                                              @Param("status") String status,
                                               @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate,
                                               @Param("limit") int limit, @Param("offset") int offset,
                                               @Param("sortColumn") String sortColumn, @Param("sortDirection") String sortDirection);
@@ -88,9 +114,18 @@ public interface LoginHistoryRepository {
         <script>
         SELECT COUNT(*) FROM login_history
         <where>
-            <if test="email != null and email != ''">
-                AND LOWER(email) LIKE LOWER(CONCAT('%', #{email}, '%'))
-            </if>
+            <choose>
+                <when test="emailKeys != null and emailKeys.isEmpty()">
+                    AND 1 = 0
+                </when>
+                <when test="emailKeys != null">
+                    AND email IN
+                    <foreach collection="emailKeys" item="key" open="(" separator="," close=")">#{key}</foreach>
+                </when>
+                <when test="email != null and email != ''">
+                    AND LOWER(email) LIKE LOWER(CONCAT('%', #{email}, '%'))
+                </when>
+            </choose>
             <if test="status != null and status != ''">
                 AND status = #{status}
             </if>
@@ -103,6 +138,7 @@ public interface LoginHistoryRepository {
         </where>
         </script>
     """)
-    long countBySearch(@Param("email") String email, @Param("status") String status,
+    long countBySearch(@Param("email") String email, @Param("emailKeys") List<String> emailKeys,
+                       @Param("status") String status,
                        @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
 }
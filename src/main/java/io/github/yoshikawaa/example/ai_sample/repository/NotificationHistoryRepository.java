@@ -1,12 +1,13 @@
 package io.github.yoshikawaa.example.ai_sample.repository;
 
+import io.github.yoshikawaa.example.ai_sample.model.NotificationCount;
 import io.github.yoshikawaa.example.ai_sample.model.NotificationHistory;
-import io.github.yoshikawaa.example.ai_sample.model.NotificationTypeCount;
-import io.github.yoshikawaa.example.ai_sample.model.StatusCount;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -55,14 +56,25 @@ public interface NotificationHistoryRepository {
 
     /**
      * 検索（ページネーション、ソート対応）
+     * メールアドレスの完全一致キー（*Keys、EmailKeyResolverで変換）が指定された場合はIN条件でインデックスを使用し、
+     * nullの場合は部分一致で検索する
      */
     @Select("""
         <script>
         SELECT * FROM notification_history
         <where>
-            <if test="recipientEmail != null and recipientEmail != ''">
-                AND LOWER(recipient_email) LIKE LOWER(CONCAT('%', #{recipientEmail}, '%'))
-            </if>
+            <choose>
+                <when test="recipientEmailKeys != null and recipientEmailKeys.isEmpty()">
+                    AND 1 = 0
+                </when>
+                <when test="recipientEmailKeys != null">
+                    AND recipient_email IN
+                    <foreach collection="recipientEmailKeys" item="key" open="(" separator="," close=")">#{key}</foreach>
+                </when>
+                <when test="recipientEmail != null and recipientEmail != ''">
+                    AND LOWER(recipient_email) LIKE LOWER(CONCAT('%', #{recipientEmail}, '%'))
+                </when>
+            </choose>
             <if test="notificationType != null">
                 AND notification_type = #{notificationType}
             </if>
@@ -88,6 +100,7 @@ public interface NotificationHistoryRepository {
         </script>
     """)
     List<NotificationHistory> searchWithPagination(@Param("recipientEmail") String recipientEmail,
+                                                     @Param("recipientEmailKeys") List<String> recipientEmailKeys,
                                                      @Param("notificationType") NotificationHistory.NotificationType notificationType,
                                                      @Param("status") NotificationHistory.Status status,
                                                      @Param("startDate") LocalDateTime startDate,
@@ -104,9 +117,18 @@ public interface NotificationHistoryRepository {
         <script>
         SELECT COUNT(*) FROM notification_history
         <where>
-            <if test="recipientEmail != null and recipientEmail != ''">
-                AND LOWER(recipient_email) LIKE LOWER(CONCAT('%', #{recipientEmail}, '%'))
-            </if>
+            <choose>
+                <when test="recipientEmailKeys != null and recipientEmailKeys.isEmpty()">
+                    AND 1 = 0
+                </when>
+                <when test="recipientEmailKeys != null">
+                    AND recipient_email IN
+                    <foreach collection="recipientEmailKeys" item="key" open="(" separator="," close=")">#{key}</foreach>
+                </when>
+                <when test="recipientEmail != null and recipientEmail != ''">
+                    AND LOWER(recipient_email) LIKE LOWER(CONCAT('%', #{recipientEmail}, '%'))
+                </when>
+            </choose>
             <if test="notificationType != null">
                 AND notification_type = #{notificationType}
             </if>
@@ -123,6 +145,7 @@ public interface NotificationHistoryRepository {
         </script>
     """)
     long countBySearch(@Param("recipientEmail") String recipientEmail,
+                       @Param("recipientEmailKeys") List<String> recipientEmailKeys,
                        @Param("notificationType") NotificationHistory.NotificationType notificationType,
                        @Param("status") NotificationHistory.Status status,
                        @Param("startDate") LocalDateTime startDate,
@@ -146,33 +169,80 @@ public interface NotificationHistoryRepository {
      * 通知履歴を登録
      */
     @Insert("""
-        INSERT INTO notification_history (recipient_email, notification_type, subject, body, status, error_message, sent_at, created_at)
-        VALUES (#{recipientEmail}, #{notificationType}, #{subject}, #{body}, #{status}, #{errorMessage}, #{sentAt}, #{createdAt})
+        INSERT INTO notification_history (recipient_email, notification_type, subject, body, status, error_message,
+                                          attempt_count, next_attempt_at, sent_at, created_at)
+        VALUES (#{recipientEmail}, #{notificationType}, #{subject}, #{body}, #{status}, #{errorMessage},
+                #{attemptCount}, #{nextAttemptAt}, #{sentAt}, #{createdAt})
     """)
+    @Options(useGeneratedKeys = true, keyProperty = "id")
     void insert(NotificationHistory notificationHistory);
 
     // ========================================
-    // 統計
+    // 送信（送信待ちの通知）
     // ========================================
 
     /**
-     * 通知種別ごとの送信数を取得
+     * 次回送信時刻を過ぎた送信待ちの通知を取得（次回送信時刻の古い順）
+     * idx_notification_history_pendingの範囲スキャンで取得する
      */
     @Select("""
-        SELECT notification_type, COUNT(*) as count
-        FROM notification_history
-        GROUP BY notification_type
-        ORDER BY count DESC
+        SELECT * FROM notification_history
+        WHERE status = 'PENDING'
+          AND next_attempt_at <= #{now}
+        ORDER BY next_attempt_at
+        LIMIT #{limit}
+    """)
+    List<NotificationHistory> findDispatchable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * 次回送信時刻を過ぎた送信待ちの通知を送信対象として確保（次回送信時刻をleaseUntilまで延ばす）
+     * 他のスレッド・インスタンスが確保済みの場合は更新しない
+     *
+     * @return 確保できた場合は1
+     */
+    @Update("""
+        UPDATE notification_history
+        SET next_attempt_at = #{leaseUntil}
+        WHERE id = #{id}
+          AND status = 'PENDING'
+          AND next_attempt_at <= #{now}
+    """)
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * 送信結果を反映（送信待ちの場合のみ更新する）
+     *
+     * @return 更新件数（他のスレッドで反映済みの場合は0）
+     */
+    @Update("""
+        UPDATE notification_history
+        SET status = #{status},
+            error_message = #{errorMessage},
+            attempt_count = #{attemptCount},
+            next_attempt_at = #{nextAttemptAt},
+            sent_at = #{sentAt}
+        WHERE id = #{id}
+          AND status = 'PENDING'
     """)
-    List<NotificationTypeCount> countByNotificationType();
+    int updateDispatchResult(NotificationHistory notificationHistory);
+
+    /**
+     * 送信待ちの件数を取得
+     */
+    @Select("SELECT COUNT(*) FROM notification_history WHERE status = 'PENDING'")
+    long countPending();
+
+    // ========================================
+    // 統計
+    // ========================================
 
     /**
-     * ステータスごとの送信数を取得
+     * 通知種別・送信ステータスごとの件数を取得（NotificationCountersの初期化・再集計用）
      */
     @Select("""
-        SELECT status, COUNT(*) as count
+        SELECT notification_type, status, COUNT(*) AS count
         FROM notification_history
-        GROUP BY status
+        GROUP BY notification_type, status
     """)
-    List<StatusCount> countByStatus();
+    List<NotificationCount> countByNotificationTypeAndStatus();
 }
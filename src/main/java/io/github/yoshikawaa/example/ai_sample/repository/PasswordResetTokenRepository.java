@@ -3,22 +3,54 @@ package io.github.yoshikawaa.example.ai_sample.repository;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
 import io.github.yoshikawaa.example.ai_sample.model.PasswordResetToken;
 
+/**
+ * パスワードリセットトークン
+ * トークンはハッシュ値（{@link io.github.yoshikawaa.example.ai_sample.util.TokenHashUtil}）で保存・検索する
+ * 取得したPasswordResetTokenのresetTokenはハッシュ値
+ */
 @Mapper
 public interface PasswordResetTokenRepository {
 
     @Insert("""
+        <script>
+        <bind name="resetTokenHash" value="@io.github.yoshikawaa.example.ai_sample.util.TokenHashUtil@hash(resetToken)"/>
         INSERT INTO password_reset_tokens (email, reset_token, token_expiry)
-        VALUES (#{email}, #{resetToken}, #{tokenExpiry})
+        VALUES (#{email}, #{resetTokenHash}, #{tokenExpiry})
+        </script>
     """)
     void insert(PasswordResetToken token);
 
-    @Select("SELECT * FROM password_reset_tokens WHERE reset_token = #{resetToken}")
-    PasswordResetToken findByResetToken(String resetToken);
+    @Select("""
+        <script>
+        <bind name="resetTokenHash" value="@io.github.yoshikawaa.example.ai_sample.util.TokenHashUtil@hash(resetToken)"/>
+        SELECT * FROM password_reset_tokens WHERE reset_token = #{resetTokenHash}
+        </script>
+    """)
+    PasswordResetToken findByResetToken(@Param("resetToken") String resetToken);
 
     @Delete("DELETE FROM password_reset_tokens WHERE email = #{email}")
     void deleteByEmail(String email);
+
+    /**
+     * 有効期限切れのトークンを削除（有効期限の索引を使い、最大limit件ずつ削除する）
+     *
+     * @param now 現在時刻（エポックミリ秒）
+     * @param limit 1回に削除する最大件数
+     * @return 削除件数
+     */
+    @Delete("""
+        DELETE FROM password_reset_tokens
+        WHERE id IN (
+            SELECT id FROM password_reset_tokens
+            WHERE token_expiry < #{now}
+            ORDER BY token_expiry
+            FETCH FIRST #{limit} ROWS ONLY
+        )
+    """)
+    int deleteExpired(@Param("now") long now, @Param("limit") int limit);
 }
@@ -0,0 +1,110 @@
+package io.github.yoshikawaa.example.ai_sample.repository;
+
+import io.github.yoshikawaa.example.ai_sample.model.SessionRegistration;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 同時ログイン数の判定に使用するセッション（全インスタンスで共有）
+ * リース（lease_until）が切れたセッションは、保持していたインスタンスが停止したものとして扱う
+ */
+@Mapper
+public interface SessionRegistryRepository {
+
+    @Insert("""
+        MERGE INTO http_session_registry (session_id, principal_name, node_id, last_request, expired, lease_until)
+        KEY (session_id)
+        VALUES (#{sessionId}, #{principalName}, #{nodeId}, #{lastRequest}, #{expired}, #{leaseUntil})
+    """)
+    void upsert(SessionRegistration registration);
+
+    /**
+     * ユーザーのリースが有効なセッションを取得
+     */
+    @Select("""
+        SELECT * FROM http_session_registry
+        WHERE principal_name = #{principalName} AND lease_until >= #{now}
+    """)
+    List<SessionRegistration> findByPrincipalName(@Param("principalName") String principalName, @Param("now") long now);
+
+    /**
+     * リースが有効なセッションを持つユーザーを取得
+     */
+    @Select("SELECT DISTINCT principal_name FROM http_session_registry WHERE lease_until >= #{now}")
+    List<String> findPrincipalNames(@Param("now") long now);
+
+    /**
+     * インスタンスのセッションを取得（ハートビートで他のインスタンスからの失効・リース切れを確認する）
+     */
+    @Select("SELECT * FROM http_session_registry WHERE node_id = #{nodeId}")
+    List<SessionRegistration> findByNodeId(@Param("nodeId") String nodeId);
+
+    /**
+     * インスタンスのセッションのリースを延長し、最終リクエスト日時を反映（ハートビート）
+     *
+     * @param lastRequests セッションIDごとの最終リクエスト日時（前回のハートビート以降にリクエストがあったセッションのみ）
+     */
+    @Update("""
+        <script>
+        UPDATE http_session_registry
+        SET lease_until = #{leaseUntil}
+        <if test="lastRequests != null and !lastRequests.isEmpty()">
+            , last_request = CASE session_id
+            <foreach collection="lastRequests" index="sessionId" item="lastRequest">
+                WHEN #{sessionId} THEN #{lastRequest}
+            </foreach>
+            ELSE last_request END
+        </if>
+        WHERE node_id = #{nodeId}
+        </script>
+    """)
+    int renewLease(@Param("nodeId") String nodeId, @Param("leaseUntil") long leaseUntil,
+                   @Param("lastRequests") Map<String, Long> lastRequests);
+
+    @Update("UPDATE http_session_registry SET expired = TRUE WHERE session_id = #{sessionId}")
+    int expire(@Param("sessionId") String sessionId);
+
+    @Delete("DELETE FROM http_session_registry WHERE session_id = #{sessionId}")
+    int delete(@Param("sessionId") String sessionId);
+
+    /**
+     * インスタンスのセッションを削除（インスタンスの停止時）
+     */
+    @Delete("DELETE FROM http_session_registry WHERE node_id = #{nodeId}")
+    int deleteByNodeId(@Param("nodeId") String nodeId);
+
+    /**
+     * リースが切れたセッションを削除
+     */
+    @Delete("DELETE FROM http_session_registry WHERE lease_until < #{now}")
+    int deleteExpiredLeases(@Param("now") long now);
+
+    /**
+     * ユーザーのロック行を作成（既に存在する場合は何もしない）
+     */
+    @Insert("""
+        MERGE INTO http_session_principal (principal_name)
+        KEY (principal_name)
+        VALUES (#{principalName})
+    """)
+    void insertPrincipalLock(@Param("principalName") String principalName);
+
+    /**
+     * ユーザーのロック行をロック（トランザクションの終了まで、同じユーザーのロックを待機させる）
+     *
+     * 作成直後に再度ロックするため、ローカルキャッシュを使わずに毎回実行する
+     *
+     * @return ロック行が存在しない場合はnull
+     */
+    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    @Select("SELECT principal_name FROM http_session_principal WHERE principal_name = #{principalName} FOR UPDATE")
+    String lockPrincipal(@Param("principalName") String principalName);
+}
@@ -1,81 +1,259 @@
 package io.github.yoshikawaa.example.ai_sample.repository;
 
+import io.github.yoshikawaa.example.ai_sample.model.AuditLog;
 import io.github.yoshikawaa.example.ai_sample.model.CustomerStatistics;
+import io.github.yoshikawaa.example.ai_sample.model.LoginHistory;
 import io.github.yoshikawaa.example.ai_sample.model.LoginStatistics;
 import io.github.yoshikawaa.example.ai_sample.model.UsageStatistics;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 import java.time.LocalDate;
 import java.util.List;
 
 /**
  * 統計情報リポジトリ
+ * 統計画面は日別集計テーブル（daily_*_statistics）から取得し、元テーブルの件数に依存せず一定の行数のみを読む
+ * 集計テーブルは顧客・ログイン履歴・監査ログの登録時に加算し、顧客削除時に減算する（定期的に元テーブルから再集計する）
  */
 @Mapper
 public interface StatisticsRepository {
-    
+
     // ========================================
     // 顧客数推移
     // ========================================
-    
+
     /**
      * 顧客数推移を取得（日別）
-     * 
+     *
      * @param startDate 開始日
      * @param endDate 終了日
      * @return 顧客数推移リスト
      */
     @Select("""
-        SELECT registration_date as date, COUNT(*) as count
-        FROM customer
-        WHERE registration_date BETWEEN #{startDate} AND #{endDate}
-        GROUP BY registration_date
+        SELECT stat_date as date, customer_count as count
+        FROM daily_customer_statistics
+        WHERE stat_date BETWEEN #{startDate} AND #{endDate}
+          AND customer_count > 0
         ORDER BY date
     """)
-    List<CustomerStatistics> getCustomerStatistics(@Param("startDate") LocalDate startDate, 
+    List<CustomerStatistics> getCustomerStatistics(@Param("startDate") LocalDate startDate,
                                                     @Param("endDate") LocalDate endDate);
-    
+
     // ========================================
     // ログイン統計
     // ========================================
-    
+
     /**
      * ログイン統計を取得（ステータス別集計）
-     * 
+     *
      * @param startDate 開始日
      * @param endDate 終了日
      * @return ログイン統計リスト
      */
     @Select("""
-        SELECT status, COUNT(*) as count
-        FROM login_history
-        WHERE CAST(login_time AS DATE) BETWEEN #{startDate} AND #{endDate}
+        SELECT status, SUM(login_count) as count
+        FROM daily_login_statistics
+        WHERE stat_date BETWEEN #{startDate} AND #{endDate}
         GROUP BY status
+        HAVING SUM(login_count) > 0
         ORDER BY status
     """)
-    List<LoginStatistics> getLoginStatistics(@Param("startDate") LocalDate startDate, 
+    List<LoginStatistics> getLoginStatistics(@Param("startDate") LocalDate startDate,
                                                @Param("endDate") LocalDate endDate);
-    
+
     // ========================================
     // 利用状況統計
     // ========================================
-    
+
     /**
      * 利用状況統計を取得（アクションタイプ別集計）
-     * 
+     *
      * @param startDate 開始日
      * @param endDate 終了日
      * @return 利用状況統計リスト
      */
     @Select("""
-        SELECT action_type, COUNT(*) as count
-        FROM audit_log
-        WHERE CAST(action_time AS DATE) BETWEEN #{startDate} AND #{endDate}
+        SELECT action_type, SUM(action_count) as count
+        FROM daily_usage_statistics
+        WHERE stat_date BETWEEN #{startDate} AND #{endDate}
         GROUP BY action_type
+        HAVING SUM(action_count) > 0
         ORDER BY action_type
     """)
-    List<UsageStatistics> getUsageStatistics(@Param("startDate") LocalDate startDate, 
+    List<UsageStatistics> getUsageStatistics(@Param("startDate") LocalDate startDate,
                                                @Param("endDate") LocalDate endDate);
+
+    // ========================================
+    // 集計の加算（登録時）
+    // ========================================
+
+    /**
+     * 登録済み顧客の登録日の顧客数を加算
+     */
+    @Update("""
+        MERGE INTO daily_customer_statistics t
+        USING (SELECT registration_date AS stat_date FROM customer WHERE email = #{email} AND registration_date IS NOT NULL) s
+        ON (t.stat_date = s.stat_date)
+        WHEN MATCHED THEN UPDATE SET customer_count = t.customer_count + 1
+        WHEN NOT MATCHED THEN INSERT (stat_date, customer_count) VALUES (s.stat_date, 1)
+    """)
+    void incrementCustomerCount(@Param("email") String email);
+
+    /**
+     * ログイン日・ステータスのログイン数を加算
+     * 顧客が存在しない場合は加算しない（未登録メールアドレスのログイン履歴は記録されないため）
+     */
+    @Update("""
+        MERGE INTO daily_login_statistics t
+        USING (SELECT CAST(CAST(#{loginTime} AS TIMESTAMP) AS DATE) AS stat_date, CAST(#{status} AS VARCHAR(20)) AS status FROM customer WHERE email = #{email}) s
+        ON (t.stat_date = s.stat_date AND t.status = s.status)
+        WHEN MATCHED THEN UPDATE SET login_count = t.login_count + 1
+        WHEN NOT MATCHED THEN INSERT (stat_date, status, login_count) VALUES (s.stat_date, s.status, 1)
+    """)
+    void incrementLoginCount(LoginHistory loginHistory);
+
+    /**
+     * 操作日・アクションタイプの操作数を加算
+     */
+    @Update("""
+        MERGE INTO daily_usage_statistics t
+        USING (SELECT CAST(CAST(#{actionTime} AS TIMESTAMP) AS DATE) AS stat_date, CAST(#{actionType} AS VARCHAR(50)) AS action_type) s
+        ON (t.stat_date = s.stat_date AND t.action_type = s.action_type)
+        WHEN MATCHED THEN UPDATE SET action_count = t.action_count + 1
+        WHEN NOT MATCHED THEN INSERT (stat_date, action_type, action_count) VALUES (s.stat_date, s.action_type, 1)
+    """)
+    void incrementUsageCount(AuditLog auditLog);
+
+    // ========================================
+    // 集計の減算（顧客削除時）
+    // ========================================
+
+    /**
+     * 削除する顧客の登録日の顧客数を減算（顧客の削除前に呼び出す）
+     */
+    @Update("""
+        UPDATE daily_customer_statistics
+        SET customer_count = customer_count - 1
+        WHERE stat_date = (SELECT registration_date FROM customer WHERE email = #{email})
+    """)
+    void subtractCustomer(@Param("email") String email);
+
+    /**
+     * 削除する顧客のログイン履歴（連鎖削除される）をログイン数から減算（顧客の削除前に呼び出す）
+     */
+    @Update("""
+        MERGE INTO daily_login_statistics t
+        USING (
+            SELECT CAST(login_time AS DATE) AS stat_date, status, COUNT(*) AS cnt
+            FROM login_history
+            WHERE email = #{email}
+            GROUP BY CAST(login_time AS DATE), status
+        ) s
+        ON (t.stat_date = s.stat_date AND t.status = s.status)
+        WHEN MATCHED THEN UPDATE SET login_count = t.login_count - s.cnt
+    """)
+    void subtractLoginHistory(@Param("email") String email);
+
+    /**
+     * 削除する顧客の監査ログ（操作者・対象者として連鎖削除される）を操作数から減算（顧客の削除前に呼び出す）
+     */
+    @Update("""
+        MERGE INTO daily_usage_statistics t
+        USING (
+            SELECT CAST(action_time AS DATE) AS stat_date, action_type, COUNT(*) AS cnt
+            FROM audit_log
+            WHERE performed_by = #{email} OR target_email = #{email}
+            GROUP BY CAST(action_time AS DATE), action_type
+        ) s
+        ON (t.stat_date = s.stat_date AND t.action_type = s.action_type)
+        WHEN MATCHED THEN UPDATE SET action_count = t.action_count - s.cnt
+    """)
+    void subtractAuditLog(@Param("email") String email);
+
+    // ========================================
+    // 再集計（元テーブルからの作り直し）
+    // ========================================
+
+    /**
+     * 期間の顧客数の集計を削除（期間未指定の場合は全件）
+     */
+    @Delete("""
+        <script>
+        DELETE FROM daily_customer_statistics
+        <if test="startDate != null">WHERE stat_date BETWEEN #{startDate} AND #{endDate}</if>
+        </script>
+    """)
+    int deleteCustomerStatistics(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 期間の顧客数を元テーブルから集計（期間未指定の場合は全件）
+     */
+    @Insert("""
+        <script>
+        INSERT INTO daily_customer_statistics (stat_date, customer_count)
+        SELECT registration_date, COUNT(*)
+        FROM customer
+        WHERE registration_date IS NOT NULL
+        <if test="startDate != null">AND registration_date BETWEEN #{startDate} AND #{endDate}</if>
+        GROUP BY registration_date
+        </script>
+    """)
+    int insertCustomerStatistics(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 期間のログイン数の集計を削除（期間未指定の場合は全件）
+     */
+    @Delete("""
+        <script>
+        DELETE FROM daily_login_statistics
+        <if test="startDate != null">WHERE stat_date BETWEEN #{startDate} AND #{endDate}</if>
+        </script>
+    """)
+    int deleteLoginStatistics(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 期間のログイン数を元テーブルから集計（期間未指定の場合は全件）
+     * ログイン日時を関数で加工せずに範囲指定し、idx_login_history_login_timeを使用する
+     */
+    @Insert("""
+        <script>
+        INSERT INTO daily_login_statistics (stat_date, status, login_count)
+        SELECT CAST(login_time AS DATE), status, COUNT(*)
+        FROM login_history
+        <if test="startDate != null">WHERE login_time &gt;= #{startDate} AND login_time &lt; DATEADD(DAY, 1, CAST(#{endDate} AS DATE))</if>
+        GROUP BY CAST(login_time AS DATE), status
+        </script>
+    """)
+    int insertLoginStatistics(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 期間の操作数の集計を削除（期間未指定の場合は全件）
+     */
+    @Delete("""
+        <script>
+        DELETE FROM daily_usage_statistics
+        <if test="startDate != null">WHERE stat_date BETWEEN #{startDate} AND #{endDate}</if>
+        </script>
+    """)
+    int deleteUsageStatistics(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 期間の操作数を元テーブルから集計（期間未指定の場合は全件）
+     * 操作日時を関数で加工せずに範囲指定し、idx_audit_log_action_timeを使用する
+     */
+    @Insert("""
+        <script>
+        INSERT INTO daily_usage_statistics (stat_date, action_type, action_count)
+        SELECT CAST(action_time AS DATE), action_type, COUNT(*)
+        FROM audit_log
+        <if test="startDate != null">WHERE action_time &gt;= #{startDate} AND action_time &lt; DATEADD(DAY, 1, CAST(#{endDate} AS DATE))</if>
+        GROUP BY CAST(action_time AS DATE), action_type
+        </script>
+    """)
+    int insertUsageStatistics(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
@@ -0,0 +1,235 @@
+package io.github.yoshikawaa.example.ai_sample.security;
+
+import io.github.yoshikawaa.example.ai_sample.config.PasswordHashingProperties;
+import io.github.yoshikawaa.example.ai_sample.exception.PasswordHashingRejectedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 専用の有界スレッドプールでBCryptを実行するPasswordEncoder
+ * ログイン・パスワード変更などのBCryptをリクエスト処理スレッドで実行せず、CPUコア数のスレッドに制限する
+ * パスワードリスト攻撃などで実行待ちが上限を超えた場合は即座に{@link PasswordHashingRejectedException}で拒否し、
+ * リクエスト処理スレッドがBCryptの実行待ちで埋まって他の画面が応答できなくなることを防ぐ
+ *
+ * <p>BCryptのコストは実行時にJMXで変更でき、低いコストでハッシュ化されたパスワードは
+ * {@link #upgradeEncoding(String)}によりログイン成功時に現在のコストで再ハッシュされる
+ * 処理件数・拒否件数・実行待ち時間・処理時間はJMX（spring.jmx.enabled=true）で参照できる
+ */
+@Slf4j
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=Executor,name=passwordHashing")
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private static final int MIN_STRENGTH = 4;
+    private static final int MAX_STRENGTH = 31;
+
+    private final PasswordHashingProperties properties;
+    private final ThreadPoolExecutor executor;
+    private volatile BCryptPasswordEncoder delegate;
+    private volatile int strength;
+
+    private final LongAdder encodeCount = new LongAdder();
+    private final LongAdder matchesCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder executedCount = new LongAdder();
+    private final LongAdder totalQueueWaitNanos = new LongAdder();
+    private final LongAdder totalExecutionNanos = new LongAdder();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+    private final AtomicLong maxExecutionNanos = new AtomicLong();
+
+    public BoundedPasswordEncoder(PasswordHashingProperties properties) {
+        this.properties = properties;
+        this.strength = validateStrength(properties.getBcryptStrength());
+        this.delegate = new BCryptPasswordEncoder(strength);
+
+        int threads = properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            threads, threads,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        encodeCount.increment();
+        BCryptPasswordEncoder encoder = delegate;
+        return execute(() -> encoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        matchesCount.increment();
+        BCryptPasswordEncoder encoder = delegate;
+        return execute(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 現在のコストより低いコストでハッシュ化されている場合はtrue（ログイン成功時に再ハッシュする）
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T execute(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        FutureTask<T> future = new FutureTask<>(() -> {
+            long startedAt = System.nanoTime();
+            executedCount.increment();
+            record(startedAt - submittedAt, totalQueueWaitNanos, maxQueueWaitNanos);
+            try {
+                return task.call();
+            } finally {
+                record(System.nanoTime() - startedAt, totalExecutionNanos, maxExecutionNanos);
+            }
+        });
+        try {
+            executor.execute(future);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            log.warn("パスワード処理の実行待ちが上限を超えたため拒否: queueCapacity={}", properties.getQueueCapacity());
+            throw new PasswordHashingRejectedException("パスワード処理が混み合っています", e);
+        }
+        return await(future);
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(properties.getTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            timeoutCount.increment();
+            log.warn("パスワード処理の待機時間が上限を超えたため拒否: timeoutMs={}", properties.getTimeoutMs());
+            throw new PasswordHashingRejectedException("パスワード処理が混み合っています", e);
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("パスワード処理が中断されました", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static void record(long nanos, LongAdder total, AtomicLong max) {
+        total.add(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static int validateStrength(int strength) {
+        if (strength < MIN_STRENGTH || strength > MAX_STRENGTH) {
+            throw new IllegalArgumentException("BCryptのコストは" + MIN_STRENGTH + "〜" + MAX_STRENGTH + "の範囲で指定してください: " + strength);
+        }
+        return strength;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    // ========================================
+    // コスト（JMX）
+    // ========================================
+
+    @ManagedAttribute(description = "BCryptのコスト")
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * BCryptのコストを変更
+     * 以降のハッシュ化は新しいコストで行い、低いコストのパスワードはログイン成功時に再ハッシュする
+     */
+    @ManagedAttribute(description = "BCryptのコスト")
+    public synchronized void setStrength(int strength) {
+        int previous = this.strength;
+        this.delegate = new BCryptPasswordEncoder(validateStrength(strength));
+        this.strength = strength;
+        log.info("BCryptのコストを変更: {} -> {}", previous, strength);
+    }
+
+    // ========================================
+    // メトリクス（JMX）
+    // ========================================
+
+    @ManagedAttribute(description = "ハッシュ化の件数")
+    public long getEncodeCount() {
+        return encodeCount.sum();
+    }
+
+    @ManagedAttribute(description = "照合の件数")
+    public long getMatchesCount() {
+        return matchesCount.sum();
+    }
+
+    @ManagedAttribute(description = "実行待ちキュー満杯により拒否した件数")
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    @ManagedAttribute(description = "待機時間の上限を超えて拒否した件数")
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    @ManagedAttribute(description = "実行待ちの件数")
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @ManagedAttribute(description = "実行中の件数")
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @ManagedAttribute(description = "平均実行待ち時間（ミリ秒）")
+    public double getAverageQueueWaitMs() {
+        return averageMs(totalQueueWaitNanos);
+    }
+
+    @ManagedAttribute(description = "最大実行待ち時間（ミリ秒）")
+    public double getMaxQueueWaitMs() {
+        return maxQueueWaitNanos.get() / 1_000_000.0;
+    }
+
+    @ManagedAttribute(description = "平均処理時間（ミリ秒）")
+    public double getAverageExecutionMs() {
+        return averageMs(totalExecutionNanos);
+    }
+
+    @ManagedAttribute(description = "最大処理時間（ミリ秒）")
+    public double getMaxExecutionMs() {
+        return maxExecutionNanos.get() / 1_000_000.0;
+    }
+
+    private double averageMs(LongAdder totalNanos) {
+        long count = executedCount.sum();
+        return count == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / count;
+    }
+}
@@ -0,0 +1,328 @@
+package io.github.yoshikawaa.example.ai_sample.security;
+
+import io.github.yoshikawaa.example.ai_sample.config.SessionRegistryProperties;
+import io.github.yoshikawaa.example.ai_sample.model.SessionRegistration;
+import io.github.yoshikawaa.example.ai_sample.repository.SessionRegistryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.session.AbstractSessionEvent;
+import org.springframework.security.core.session.SessionDestroyedEvent;
+import org.springframework.security.core.session.SessionIdChangedEvent;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 全インスタンスで共有するSessionRegistry（http_session_registryテーブル）
+ * 同時ログイン数の制御（maximumSessions）を、ロードバランサー配下の複数インスタンスをまたいで判定する
+ *
+ * <p>DBにアクセスするのはログイン（同時ログイン数の判定・登録）・ログアウト・セッション破棄・失効時のみで、
+ * リクエストごとのセッション確認（ConcurrentSessionFilter）はインスタンスが保持するセッションのみを参照する
+ * セッションはHttpSessionEventPublisherが発行するイベントで破棄・セッションIDの変更を反映する
+ * HttpSessionはインスタンスごとに保持するため、ロードバランサーはスティッキーセッションとする
+ *
+ * <p>インスタンスはハートビートで保持するセッションのリースを延長し、最終リクエスト日時を反映する
+ * リースが切れたセッション（停止したインスタンスのセッション）は無効とし、ハートビートで削除する
+ * 他のインスタンスで失効させたセッションは、保持するインスタンスの次のハートビートで失効する
+ *
+ * <p>同時ログイン数の判定（getAllSessions）と登録（registerNewSession）は、runExclusivelyでユーザーごとに
+ * 全インスタンスで直列化する（同じユーザーの同時ログインがいずれも上限内と判定されて登録されないようにする）
+ */
+@Slf4j
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=SessionRegistry,name=cluster")
+@Component
+public class ClusterSessionRegistry implements SessionRegistry, ApplicationListener<AbstractSessionEvent>, DisposableBean {
+
+    private final SessionRegistryRepository sessionRegistryRepository;
+    private final SessionRegistryProperties properties;
+    private final String nodeId;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+
+    /** このインスタンスが保持するセッション（キー: セッションID） */
+    private final Map<String, RegisteredSession> localSessions = new ConcurrentHashMap<>();
+
+    /** 前回のハートビート以降にリクエストがあったセッションID */
+    private final Set<String> refreshed = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder heartbeatCount = new LongAdder();
+    private final LongAdder remoteExpiredCount = new LongAdder();
+    private final LongAdder purgedCount = new LongAdder();
+
+    public ClusterSessionRegistry(SessionRegistryRepository sessionRegistryRepository, SessionRegistryProperties properties,
+                                  PlatformTransactionManager transactionManager) {
+        this.sessionRegistryRepository = sessionRegistryRepository;
+        this.properties = properties;
+        this.nodeId = StringUtils.hasText(properties.getNodeId()) ? properties.getNodeId() : UUID.randomUUID().toString();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        log.info("セッションレジストリのインスタンスID: {}", nodeId);
+    }
+
+    // ========================================
+    // SessionRegistry
+    // ========================================
+
+    /**
+     * リースが有効なセッションを持つユーザー名を取得（DBにアクセスする）
+     */
+    @Override
+    public List<Object> getAllPrincipals() {
+        return new ArrayList<>(sessionRegistryRepository.findPrincipalNames(System.currentTimeMillis()));
+    }
+
+    /**
+     * ユーザーの全インスタンスのセッションを取得（ログイン時の同時ログイン数の判定、DBにアクセスする）
+     * このインスタンスが保持するセッションは、失効の状態を共有するため保持しているSessionInformationを返す
+     */
+    @Override
+    public List<SessionInformation> getAllSessions(Object principal, boolean includeExpiredSessions) {
+        List<SessionInformation> sessions = new ArrayList<>();
+        for (SessionRegistration registration : sessionRegistryRepository.findByPrincipalName(principalName(principal), System.currentTimeMillis())) {
+            SessionInformation session = localSessions.get(registration.getSessionId());
+            if (session == null) {
+                session = new RegisteredSession(principal, registration.getSessionId(), new Date(registration.getLastRequest()),
+                    registration.isExpired());
+            }
+            if (includeExpiredSessions || !session.isExpired()) {
+                sessions.add(session);
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * このインスタンスが保持するセッションを取得（リクエストごとに呼び出されるため、DBにアクセスしない）
+     */
+    @Override
+    public SessionInformation getSessionInformation(String sessionId) {
+        Assert.hasText(sessionId, "SessionId required as per interface contract");
+        return localSessions.get(sessionId);
+    }
+
+    /**
+     * 最終リクエスト日時を更新（DBには次のハートビートで反映する）
+     */
+    @Override
+    public void refreshLastRequest(String sessionId) {
+        Assert.hasText(sessionId, "SessionId required as per interface contract");
+        RegisteredSession session = localSessions.get(sessionId);
+        if (session != null) {
+            session.refreshLastRequest();
+            refreshed.add(sessionId);
+        }
+    }
+
+    @Override
+    public void registerNewSession(String sessionId, Object principal) {
+        Assert.hasText(sessionId, "SessionId required as per interface contract");
+        Assert.notNull(principal, "Principal required as per interface contract");
+        long now = System.currentTimeMillis();
+        RegisteredSession session = new RegisteredSession(principal, sessionId, new Date(now), false);
+        sessionRegistryRepository.upsert(new SessionRegistration(sessionId, principalName(principal), nodeId, now, false,
+            now + properties.getLeaseMs()));
+        localSessions.put(sessionId, session);
+        log.debug("セッションを登録: sessionId={}, principal={}", sessionId, principalName(principal));
+    }
+
+    @Override
+    public void removeSessionInformation(String sessionId) {
+        Assert.hasText(sessionId, "SessionId required as per interface contract");
+        localSessions.remove(sessionId);
+        refreshed.remove(sessionId);
+        sessionRegistryRepository.delete(sessionId);
+        log.debug("セッションを削除: sessionId={}", sessionId);
+    }
+
+    @Override
+    public void onApplicationEvent(AbstractSessionEvent event) {
+        if (event instanceof SessionDestroyedEvent destroyedEvent) {
+            if (localSessions.containsKey(destroyedEvent.getId())) {
+                removeSessionInformation(destroyedEvent.getId());
+            }
+        } else if (event instanceof SessionIdChangedEvent changedEvent) {
+            RegisteredSession session = localSessions.get(changedEvent.getOldSessionId());
+            if (session != null) {
+                removeSessionInformation(changedEvent.getOldSessionId());
+                registerNewSession(changedEvent.getNewSessionId(), session.getPrincipal());
+            }
+        }
+    }
+
+    /**
+     * ユーザーごとに全インスタンスで排他して実行（ログイン時の同時ログイン数の判定から登録まで）
+     * ユーザーのロック行（http_session_principal）をSELECT ... FOR UPDATEで取得したトランザクション内で実行するため、
+     * 同じユーザーの他のログインはトランザクションの終了まで待機し、登録済みのセッションを含めて判定する
+     */
+    public void runExclusively(Object principal, Runnable action) {
+        String principalName = principalName(principal);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (sessionRegistryRepository.lockPrincipal(principalName) == null) {
+                // 初回のログインはロック行を作成してからロックする（作成は別トランザクションでコミットし、他のインスタンスからも待機できるようにする）
+                try {
+                    newTransactionTemplate.executeWithoutResult(inner -> sessionRegistryRepository.insertPrincipalLock(principalName));
+                } catch (DuplicateKeyException e) {
+                    // 同時に作成された
+                }
+                sessionRegistryRepository.lockPrincipal(principalName);
+            }
+            action.run();
+        });
+    }
+
+    // ========================================
+    // ハートビート
+    // ========================================
+
+    /**
+     * このインスタンスのセッションのリースを延長し、他のインスタンスからの失効を反映する
+     * リースが切れたセッション（停止したインスタンスのセッション）は削除する
+     */
+    @Scheduled(fixedDelayString = "${app.security.session-registry.heartbeat-interval-ms:10000}")
+    @ManagedOperation(description = "セッションのリースを延長し、他のインスタンスからの失効を反映")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        Map<String, Long> lastRequests = new HashMap<>();
+        for (String sessionId : refreshed) {
+            refreshed.remove(sessionId);
+            RegisteredSession session = localSessions.get(sessionId);
+            if (session != null) {
+                lastRequests.put(sessionId, session.getLastRequest().getTime());
+            }
+        }
+        sessionRegistryRepository.renewLease(nodeId, now + properties.getLeaseMs(), lastRequests);
+
+        Set<String> registered = new HashSet<>();
+        for (SessionRegistration registration : sessionRegistryRepository.findByNodeId(nodeId)) {
+            registered.add(registration.getSessionId());
+            RegisteredSession session = localSessions.get(registration.getSessionId());
+            if (session != null && registration.isExpired() && !session.isExpired()) {
+                session.markExpired();
+                remoteExpiredCount.increment();
+                log.info("他のインスタンスで失効したセッションを反映: sessionId={}", registration.getSessionId());
+            }
+        }
+        // ハートビートの遅延でリースが切れて削除されたセッションは登録し直す
+        localSessions.forEach((sessionId, session) -> {
+            if (!registered.contains(sessionId)) {
+                sessionRegistryRepository.upsert(new SessionRegistration(sessionId, principalName(session.getPrincipal()), nodeId,
+                    session.getLastRequest().getTime(), session.isExpired(), now + properties.getLeaseMs()));
+                log.warn("リースが切れたセッションを登録し直し: sessionId={}", sessionId);
+            }
+        });
+
+        int purged = sessionRegistryRepository.deleteExpiredLeases(now);
+        if (purged > 0) {
+            purgedCount.add(purged);
+            log.info("リースが切れたセッションを削除: {}件", purged);
+        }
+        heartbeatCount.increment();
+    }
+
+    /**
+     * 停止時にこのインスタンスのセッションを削除（HttpSessionはインスタンスとともに破棄される）
+     */
+    @Override
+    public void destroy() {
+        int deleted = sessionRegistryRepository.deleteByNodeId(nodeId);
+        localSessions.clear();
+        log.info("インスタンスの停止によりセッションを削除: {}件", deleted);
+    }
+
+    private static String principalName(Object principal) {
+        if (principal instanceof UserDetails userDetails) {
+            return userDetails.getUsername();
+        }
+        if (principal instanceof AuthenticatedPrincipal authenticatedPrincipal) {
+            return authenticatedPrincipal.getName();
+        }
+        if (principal instanceof Principal namedPrincipal) {
+            return namedPrincipal.getName();
+        }
+        return principal.toString();
+    }
+
+    /**
+     * 失効をDBに反映するSessionInformation（他のインスタンスのセッションも失効できる）
+     */
+    private class RegisteredSession extends SessionInformation {
+
+        private static final long serialVersionUID = 1L;
+
+        RegisteredSession(Object principal, String sessionId, Date lastRequest, boolean expired) {
+            super(principal, sessionId, lastRequest);
+            if (expired) {
+                super.expireNow();
+            }
+        }
+
+        @Override
+        public void expireNow() {
+            super.expireNow();
+            sessionRegistryRepository.expire(getSessionId());
+            log.info("セッションを失効: sessionId={}", getSessionId());
+        }
+
+        /**
+         * 他のインスタンスで失効したことを反映（DBは更新済み）
+         */
+        void markExpired() {
+            super.expireNow();
+        }
+    }
+
+    // ========================================
+    // メトリクス（JMX）
+    // ========================================
+
+    @ManagedAttribute(description = "インスタンスの識別子")
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @ManagedAttribute(description = "このインスタンスが保持するセッション数")
+    public int getLocalSessionCount() {
+        return localSessions.size();
+    }
+
+    @ManagedAttribute(description = "ハートビートの実行回数")
+    public long getHeartbeatCount() {
+        return heartbeatCount.sum();
+    }
+
+    @ManagedAttribute(description = "他のインスタンスで失効したセッション数")
+    public long getRemoteExpiredCount() {
+        return remoteExpiredCount.sum();
+    }
+
+    @ManagedAttribute(description = "リースが切れて削除したセッション数")
+    public long getPurgedCount() {
+        return purgedCount.sum();
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.yoshikawaa.example.ai_sample.security;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.github.yoshikawaa.example.ai_sample.config.UserCacheProperties;
+import io.github.yoshikawaa.example.ai_sample.model.Customer;
+import io.github.yoshikawaa.example.ai_sample.util.ExpiringLruCache;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ログイン時に読み込む顧客情報のキャッシュ（キー: メールアドレス）
+ * 顧客情報を更新・削除する処理は{@link #evict(String)}で明示的に破棄する
+ * ロック状態はメモリ上のLoginAttemptTrackerで毎回判定するため、キャッシュしない
+ *
+ * <p>他のノードで更新・削除された顧客情報（パスワード・ロール）は破棄が届かないため、
+ * 読み込みからsync-interval-msを過ぎた顧客情報は次の参照時にDBから読み込み直す（反映は最大sync-interval-ms遅れる）
+ */
+@Slf4j
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=Cache,name=customerUser")
+@Component
+public class CustomerUserCache {
+
+    private final UserCacheProperties userCacheProperties;
+    private final ExpiringLruCache<String, Customer> cache;
+
+    public CustomerUserCache(UserCacheProperties userCacheProperties) {
+        this.userCacheProperties = userCacheProperties;
+        this.cache = new ExpiringLruCache<>(userCacheProperties.getMaxEntries(), userCacheProperties.getTtlMs(),
+            userCacheProperties.getSyncIntervalMs());
+    }
+
+    /**
+     * キャッシュから顧客情報を取得し、なければ読み込んでキャッシュする
+     * 呼び出し元での変更がキャッシュに影響しないよう、常に複製を返す
+     */
+    public Optional<Customer> get(String email, Function<String, Optional<Customer>> loader) {
+        if (!userCacheProperties.isEnabled()) {
+            return loader.apply(email);
+        }
+        Customer cached = cache.get(email, key -> loader.apply(key).map(CustomerUserCache::copyOf).orElse(null));
+        return Optional.ofNullable(cached).map(CustomerUserCache::copyOf);
+    }
+
+    /**
+     * 顧客情報を破棄
+     * トランザクション中の場合はコミット後にも破棄する（コミット前に読み込まれた古い情報を残さない）
+     */
+    public void evict(String email) {
+        cache.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(email);
+                }
+            });
+        }
+        log.debug("顧客情報キャッシュ破棄: email={}", email);
+    }
+
+    @ManagedOperation(description = "ログイン用の顧客情報キャッシュをすべて破棄")
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    @ManagedAttribute(description = "キャッシュしている顧客情報の件数")
+    public int getSize() {
+        return cache.size();
+    }
+
+    @ManagedAttribute(description = "キャッシュから顧客情報を返した件数")
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    @ManagedAttribute(description = "キャッシュになくDBから顧客情報を読み込んだ件数")
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    private static Customer copyOf(Customer customer) {
+        return new Customer(customer.getEmail(), customer.getPassword(), customer.getName(),
+            customer.getRegistrationDate(), customer.getBirthDate(), customer.getPhoneNumber(),
+            customer.getAddress(), customer.getRole());
+    }
+}
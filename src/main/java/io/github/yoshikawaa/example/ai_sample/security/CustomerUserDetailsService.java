@@ -1,33 +1,64 @@
 package io.github.yoshikawaa.example.ai_sample.security;
 
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import io.github.yoshikawaa.example.ai_sample.model.Customer;
 import io.github.yoshikawaa.example.ai_sample.repository.CustomerRepository;
 import io.github.yoshikawaa.example.ai_sample.service.LoginAttemptService;
 
+@Slf4j
 @RequiredArgsConstructor
 @Service
-public class CustomerUserDetailsService implements UserDetailsService {
+public class CustomerUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final CustomerRepository customerRepository;
     private final LoginAttemptService loginAttemptService;
+    private final CustomerUserCache customerUserCache;
+    private final RegisteredEmailFilter registeredEmailFilter;
 
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        var customer = customerRepository.findByEmail(username)
+        // 登録されていないことが確定したメールアドレスは顧客情報を検索しない
+        // （DaoAuthenticationProviderがダミーのパスワード照合を行うため、処理時間は登録済みの場合と変わらない）
+        if (!registeredEmailFilter.mightExist(username)) {
+            throw new UsernameNotFoundException("User not found: " + username);
+        }
+
+        // 顧客情報はキャッシュから取得（繰り返しのログインでDBにアクセスしない）
+        var customer = customerUserCache.get(username, customerRepository::findByEmail)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
         
         // ロック状態をチェックし、UserDetailsに設定
         // CustomerエンティティのroleがCustomerUserDetails経由でGrantedAuthorityとして反映される
         // AuthenticationProviderのUserDetailsCheckerが isAccountNonLocked() をチェックし、
         // falseの場合にLockedExceptionをスローする
+        // ロック状態はメモリ上で判定するため、キャッシュせず毎回取得する
         boolean locked = loginAttemptService.isLocked(username);
         return new CustomerUserDetails(customer, locked);
     }
+
+    /**
+     * パスワードを再ハッシュ（ログイン成功時、BCryptのコストを上げた後の低いコストのハッシュを置き換える）
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        CustomerUserDetails details = (CustomerUserDetails) user;
+        Customer customer = details.getCustomer();
+        customerRepository.updatePassword(customer.getEmail(), newPassword);
+        customerUserCache.evict(customer.getEmail());
+        log.info("パスワードを現在のコストで再ハッシュ: email={}", customer.getEmail());
+
+        Customer rehashed = new Customer(customer.getEmail(), newPassword, customer.getName(), customer.getRegistrationDate(),
+            customer.getBirthDate(), customer.getPhoneNumber(), customer.getAddress(), customer.getRole());
+        return new CustomerUserDetails(rehashed, !details.isAccountNonLocked());
+    }
 }
@@ -0,0 +1,117 @@
+package io.github.yoshikawaa.example.ai_sample.security;
+
+import io.github.yoshikawaa.example.ai_sample.config.RateLimitProperties;
+import io.github.yoshikawaa.example.ai_sample.util.TokenBucketRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ログイン・パスワードリセット・アカウントロック解除のレート制限
+ * クライアントのIPアドレスごと・送信されたメールアドレスごとのトークンバケットで制限する
+ * IPアドレスで制限した場合はメールアドレスのトークンを消費しない
+ *
+ * <p>IPアドレスは接続元を使う（偽装できるX-Forwarded-Forは使わない、RateLimitFilterを参照）
+ * 多数のIPアドレスから分散した同じアカウントへの試行は、メールアドレスごとの制限で抑える
+ * 制限した件数・保持しているバケット数はJMX（spring.jmx.enabled=true）で参照できる
+ */
+@Slf4j
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=RateLimiter,name=login")
+public class LoginRateLimiter {
+
+    private final TokenBucketRateLimiter ipLimiter;
+    private final TokenBucketRateLimiter accountLimiter;
+
+    private final LongAdder allowedCount = new LongAdder();
+    private final LongAdder ipRejectedCount = new LongAdder();
+    private final LongAdder accountRejectedCount = new LongAdder();
+
+    public LoginRateLimiter(RateLimitProperties properties) {
+        this.ipLimiter = new TokenBucketRateLimiter(properties.getIp().getCapacity(),
+            TimeUnit.MILLISECONDS.toNanos(properties.getIp().getRefillIntervalMs()), properties.getMaxEntries());
+        this.accountLimiter = new TokenBucketRateLimiter(properties.getAccount().getCapacity(),
+            TimeUnit.MILLISECONDS.toNanos(properties.getAccount().getRefillIntervalMs()), properties.getMaxEntries());
+    }
+
+    /**
+     * リクエストを受け付けるか判定
+     *
+     * @param ipAddress クライアントのIPアドレス
+     * @param email 送信されたメールアドレス（メールアドレスを送信しないリクエストはnull）
+     * @return 受け付ける場合は0、制限する場合は次に受け付けられるまでの時間（ナノ秒）
+     */
+    public long tryAcquire(String ipAddress, String email) {
+        return tryAcquire(ipAddress, email, System.nanoTime());
+    }
+
+    long tryAcquire(String ipAddress, String email, long now) {
+        long wait = ipLimiter.tryAcquire("ip:" + ipAddress, now);
+        if (wait > 0) {
+            ipRejectedCount.increment();
+            log.warn("IPアドレスごとのレート制限: ipAddress={}", ipAddress);
+            return wait;
+        }
+        if (StringUtils.hasText(email)) {
+            wait = accountLimiter.tryAcquire("account:" + email.trim().toLowerCase(Locale.ROOT), now);
+            if (wait > 0) {
+                accountRejectedCount.increment();
+                log.warn("メールアドレスごとのレート制限: email={}, ipAddress={}", email, ipAddress);
+                return wait;
+            }
+        }
+        allowedCount.increment();
+        return 0;
+    }
+
+    /**
+     * トークンが満杯に戻ったバケットをメモリから破棄
+     */
+    @Scheduled(fixedDelayString = "${app.security.rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        int removed = ipLimiter.sweep(now) + accountLimiter.sweep(now);
+        if (removed > 0) {
+            log.debug("レート制限のバケットを破棄: {}件", removed);
+        }
+    }
+
+    // ========================================
+    // メトリクス（JMX）
+    // ========================================
+
+    @ManagedAttribute(description = "受け付けた件数")
+    public long getAllowedCount() {
+        return allowedCount.sum();
+    }
+
+    @ManagedAttribute(description = "IPアドレスごとの制限で拒否した件数")
+    public long getIpRejectedCount() {
+        return ipRejectedCount.sum();
+    }
+
+    @ManagedAttribute(description = "メールアドレスごとの制限で拒否した件数")
+    public long getAccountRejectedCount() {
+        return accountRejectedCount.sum();
+    }
+
+    @ManagedAttribute(description = "保持しているIPアドレスのバケット数")
+    public int getIpBucketCount() {
+        return ipLimiter.size();
+    }
+
+    @ManagedAttribute(description = "保持しているメールアドレスのバケット数")
+    public int getAccountBucketCount() {
+        return accountLimiter.size();
+    }
+
+    @ManagedAttribute(description = "保持数の上限により共有のバケットで制限した件数")
+    public long getOverflowCount() {
+        return ipLimiter.getOverflowCount() + accountLimiter.getOverflowCount();
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.yoshikawaa.example.ai_sample.security;
+
+import io.github.yoshikawaa.example.ai_sample.exception.PasswordHashingRejectedException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * パスワードのハッシュ化・照合を拒否した場合（{@link PasswordHashingRejectedException}）に、HTTP 503（Retry-After付き）を返すフィルター
+ * ログイン（認証フィルター）・パスワード変更などの画面（コントローラ・入力チェック）のどちらで拒否した場合も対象とする
+ * ログイン失敗としては扱わない（ログイン試行回数に数えない）
+ */
+@Slf4j
+public class PasswordHashingRejectionFilter extends OncePerRequestFilter {
+
+    private final int retryAfterSeconds;
+
+    public PasswordHashingRejectionFilter(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } catch (ServletException | RuntimeException e) {
+            if (!isRejected(e) || response.isCommitted()) {
+                throw e;
+            }
+            log.warn("パスワード処理の混雑により503を返却: path={}", request.getRequestURI());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "パスワード処理が混み合っています。しばらくしてから再度お試しください。");
+        }
+    }
+
+    private static boolean isRejected(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PasswordHashingRejectedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
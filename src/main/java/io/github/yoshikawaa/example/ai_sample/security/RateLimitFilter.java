@@ -0,0 +1,85 @@
+package io.github.yoshikawaa.example.ai_sample.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ログイン・パスワードリセット・アカウントロック解除のリクエストをレート制限するフィルター
+ * 認証（BCrypt）・ログイン試行記録・メール送信などを行うリクエストのみを対象とし、画面の表示は制限しない
+ * 制限を超えた場合は、それらの処理の前にHTTP 429（Retry-After付き）を返す
+ *
+ * <p>IPアドレスは接続元（{@link HttpServletRequest#getRemoteAddr()}）で判定する
+ * クライアントが任意に設定できるX-Forwarded-Forを使うと、値を変えるだけで制限を回避でき、
+ * バケット数の上限まで埋めて他のクライアントを共有のバケットに追い出せるため
+ * リバースプロキシの背後で運用する場合は、server.forward-headers-strategyで信頼するプロキシのヘッダーのみ接続元に反映する
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    /**
+     * 制限対象のリクエストとメールアドレスのパラメータ名（メールアドレスを送信しないリクエストはnull）
+     */
+    private record Target(RequestMatcher matcher, String emailParameter) {
+    }
+
+    private static final List<Target> TARGETS = List.of(
+        target(HttpMethod.POST, "/login", "username"),
+        target(HttpMethod.POST, "/password-reset/request", "email"),
+        target(HttpMethod.GET, "/password-reset/confirm", null),
+        target(HttpMethod.POST, "/password-reset/reset", null),
+        target(HttpMethod.POST, "/account-unlock/request", "email"),
+        target(HttpMethod.GET, "/account-unlock", null)
+    );
+
+    private final LoginRateLimiter loginRateLimiter;
+
+    public RateLimitFilter(LoginRateLimiter loginRateLimiter) {
+        this.loginRateLimiter = loginRateLimiter;
+    }
+
+    private static Target target(HttpMethod method, String path, String emailParameter) {
+        return new Target(PathPatternRequestMatcher.withDefaults().matcher(method, path), emailParameter);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Target target = findTarget(request);
+        if (target == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String email = target.emailParameter() != null ? request.getParameter(target.emailParameter()) : null;
+        long waitNanos = loginRateLimiter.tryAcquire(request.getRemoteAddr(), email);
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        log.warn("レート制限により429を返却: path={}, retryAfter={}秒", request.getRequestURI(), retryAfterSeconds);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "リクエストが多すぎます。しばらくしてから再度お試しください。");
+    }
+
+    private static Target findTarget(HttpServletRequest request) {
+        for (Target target : TARGETS) {
+            if (target.matcher().matches(request)) {
+                return target;
+            }
+        }
+        return null;
+    }
+}
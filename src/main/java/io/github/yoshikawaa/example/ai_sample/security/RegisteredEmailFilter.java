@@ -0,0 +1,336 @@
+package io.github.yoshikawaa.example.ai_sample.security;
+
+import io.github.yoshikawaa.example.ai_sample.config.RegisteredEmailFilterProperties;
+import io.github.yoshikawaa.example.ai_sample.repository.CustomerRepository;
+import io.github.yoshikawaa.example.ai_sample.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 登録済みの顧客のメールアドレスのフィルター（Bloomフィルター）
+ * パスワードリスト攻撃・パスワードリセットの濫用は存在しないメールアドレスを狙うことが多いため、
+ * 登録されていないことが確定したメールアドレスは顧客情報の検索（キャッシュ・DB）を省略する
+ *
+ * <p>起動時に顧客から構築し、以降は{@link #add(String)}・{@link #recordDeleted(String)}で顧客の登録・削除を反映する
+ * 削除した顧客はフィルターから取り除けないため、登録数が容量を超えた場合や削除済みの顧客が増えた場合に作り直す
+ * 構築前・無効時はすべてのメールアドレスを登録済みとして扱う（顧客情報を検索する）
+ *
+ * <p>フィルターはインスタンスごとに保持するため、登録されていないと判定した場合は登録の目印（顧客の登録ごとに進む値）を読み、
+ * 前回の取り込みから目印が進んでいれば、その間に（他のインスタンスを含めて）登録された顧客を取り込んでから判定し直す
+ * 目印はコミット順に進むため、読み取った目印以前の登録はすべて取り込まれ、登録済みの顧客を登録されていないと判定することはない
+ * 登録処理以外で追加された顧客（目印なし）は{@link #syncRecentRegistrations()}が登録日の新しい顧客として取り込む
+ *
+ * <p>登録されていないメールアドレスのログインは、DaoAuthenticationProviderがダミーのパスワード照合（BCrypt）を行うため、
+ * 顧客情報の検索を省略しても処理時間から登録の有無は推測できない
+ */
+@Slf4j
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=Filter,name=registeredEmail")
+@Component
+public class RegisteredEmailFilter {
+
+    /** 削除済みの顧客が登録数のこの割合を超えた場合に作り直す */
+    private static final double MAX_STALE_RATIO = 0.1;
+
+    private final CustomerRepository customerRepository;
+    private final RegisteredEmailFilterProperties properties;
+
+    /** 判定に使用するフィルター（構築前はnull） */
+    private volatile BloomFilter current;
+    /** 作り直し中のフィルター（作り直し中に登録されたメールアドレスも登録する） */
+    private volatile BloomFilter building;
+
+    /** フィルターに登録したメールアドレス数 */
+    private final AtomicLong entryCount = new AtomicLong();
+    /** フィルターに残っている削除済みの顧客数 */
+    private final AtomicLong staleCount = new AtomicLong();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    /** 前回取り込んだ時点の日付（この前日以降に登録された顧客を取り込む） */
+    private volatile LocalDate lastSyncDate;
+    /** 取り込み済みの登録の目印（この目印以前に登録された顧客はフィルターに登録済み） */
+    private volatile long syncedMark;
+    private final Object markSyncLock = new Object();
+
+    private final LongAdder checkCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder rebuildCount = new LongAdder();
+    private final LongAdder syncCount = new LongAdder();
+    private final LongAdder markSyncCount = new LongAdder();
+
+    public RegisteredEmailFilter(CustomerRepository customerRepository, RegisteredEmailFilterProperties properties) {
+        this.customerRepository = customerRepository;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * メールアドレスが登録されている可能性があるか判定
+     *
+     * @return falseの場合は登録されていない（顧客情報の検索を省略できる）
+     */
+    public boolean mightExist(String email) {
+        BloomFilter filter = current;
+        if (!properties.isEnabled() || filter == null || email == null) {
+            return true;
+        }
+        checkCount.increment();
+        boolean mightExist = filter.mightContain(email);
+        if (!mightExist && syncMarkedRegistrations()) {
+            // 前回の取り込み後に登録された顧客を取り込んだため判定し直す
+            mightExist = current.mightContain(email);
+        }
+        if (!mightExist) {
+            missCount.increment();
+        }
+        return mightExist;
+    }
+
+    /**
+     * 顧客の登録を反映
+     * 顧客を登録する前に呼び出す（コミット前から登録済みと判定し、ロールバックした場合は偽陽性として扱う）
+     * トランザクション中の場合はコミット後にも登録し、コミット前に開始した作り直しでも漏らさない
+     */
+    public void add(String email) {
+        put(email);
+        if (entryCount.incrementAndGet() > capacity()) {
+            requestRebuild("容量超過");
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(email);
+                }
+            });
+        }
+    }
+
+    private void put(String email) {
+        BloomFilter filter = current;
+        if (filter != null) {
+            filter.put(email);
+        }
+        BloomFilter rebuilding = building;
+        if (rebuilding != null) {
+            rebuilding.put(email);
+        }
+    }
+
+    /**
+     * 顧客の削除を反映（フィルターからは取り除けないため、削除済みの顧客が増えた場合に作り直す）
+     */
+    public void recordDeleted(String email) {
+        if (staleCount.incrementAndGet() > entryCount.get() * MAX_STALE_RATIO) {
+            requestRebuild("削除済みの顧客の増加");
+        }
+    }
+
+    private void requestRebuild(String reason) {
+        if (current != null && rebuildRequested.compareAndSet(false, true)) {
+            log.info("登録済みメールアドレスのフィルターの作り直しを予約: reason={}", reason);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.registered-email-filter.rebuild-check-interval-ms:60000}",
+               initialDelayString = "${app.security.registered-email-filter.rebuild-check-interval-ms:60000}")
+    public void rebuildIfRequested() {
+        if (properties.isEnabled() && rebuildRequested.compareAndSet(true, false)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 他のインスタンスで登録された顧客を取り込む
+     * 顧客の登録日は日付のみのため、前回取り込んだ日の前日以降に登録された顧客を読み込み、未登録のメールアドレスを登録する
+     * （日付の境界をまたいでコミットされた登録やインスタンス間の時刻のずれも漏らさない）
+     */
+    @Scheduled(fixedDelayString = "${app.security.registered-email-filter.sync-interval-ms:10000}",
+               initialDelayString = "${app.security.registered-email-filter.sync-interval-ms:10000}")
+    @ManagedOperation(description = "他のインスタンスで登録された顧客を取り込む")
+    public void syncRecentRegistrations() {
+        BloomFilter filter = current;
+        if (!properties.isEnabled() || filter == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        long added = 0;
+        String after = null;
+        while (true) {
+            List<String> emails = customerRepository.findEmailsRegisteredSince(lastSyncDate.minusDays(1), after, properties.getBuildChunkSize());
+            if (emails.isEmpty()) {
+                break;
+            }
+            for (String email : emails) {
+                if (!filter.mightContain(email)) {
+                    put(email);
+                    added++;
+                }
+            }
+            after = emails.get(emails.size() - 1);
+        }
+        lastSyncDate = today;
+        syncCount.increment();
+        if (added > 0) {
+            log.debug("他のインスタンスで登録された顧客をフィルターに取り込み: {}件", added);
+            if (entryCount.addAndGet(added) > capacity()) {
+                requestRebuild("容量超過");
+            }
+        }
+    }
+
+    /**
+     * 登録の目印が前回の取り込みから進んでいる場合、その間に登録された顧客を取り込む
+     * 作り直しとは別にロックするため、作り直し中も判定を止めない
+     * （作り直しは開始時の目印を取り込み済みとするため、作り直しと並行して取り込んだ顧客は作り直し後にもう一度取り込む）
+     *
+     * @return 登録の目印が進んでいた場合はtrue
+     */
+    private boolean syncMarkedRegistrations() {
+        long mark = customerRepository.findRegistrationMark();
+        if (mark == syncedMark) {
+            return false;
+        }
+        synchronized (markSyncLock) {
+            long from = syncedMark;
+            if (mark == from) {
+                // 他のスレッドが取り込み済み
+                return true;
+            }
+            long added = 0;
+            String after = null;
+            while (true) {
+                List<String> emails = customerRepository.findEmailsRegisteredBetweenMarks(from, mark, after, properties.getBuildChunkSize());
+                if (emails.isEmpty()) {
+                    break;
+                }
+                for (String email : emails) {
+                    if (!current.mightContain(email)) {
+                        put(email);
+                        added++;
+                    }
+                }
+                after = emails.get(emails.size() - 1);
+            }
+            syncedMark = mark;
+            markSyncCount.increment();
+            if (added > 0) {
+                log.debug("登録の目印から登録された顧客をフィルターに取り込み: {}件, 目印={}", added, mark);
+                if (entryCount.addAndGet(added) > capacity()) {
+                    requestRebuild("容量超過");
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 顧客からフィルターを作り直す（容量は登録済みの顧客数の2倍）
+     * 作り直し中に登録された顧客は作り直し中のフィルターにも登録するため、判定を止めずに作り直せる
+     */
+    @ManagedOperation(description = "顧客からフィルターを作り直す")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        // 目印は走査の前に読む（読み取った目印以前の登録はコミット済みのため走査に含まれる）
+        long mark = customerRepository.findRegistrationMark();
+        long capacity = Math.max(properties.getMinCapacity(), customerRepository.count() * 2);
+        BloomFilter filter = new BloomFilter(capacity, properties.getFalsePositiveRate());
+        building = filter;
+
+        long count = 0;
+        String after = null;
+        while (true) {
+            List<String> emails = customerRepository.findEmails(after, properties.getBuildChunkSize());
+            if (emails.isEmpty()) {
+                break;
+            }
+            emails.forEach(filter::put);
+            count += emails.size();
+            after = emails.get(emails.size() - 1);
+        }
+
+        lastSyncDate = today;
+        current = filter;
+        building = null;
+        syncedMark = mark;
+        entryCount.set(count);
+        staleCount.set(0);
+        rebuildCount.increment();
+        log.info("登録済みメールアドレスのフィルターを構築: {}件, 容量={}, {}ms", count, capacity, System.currentTimeMillis() - start);
+    }
+
+    private long capacity() {
+        BloomFilter filter = current;
+        return filter != null ? filter.getExpectedInsertions() : Long.MAX_VALUE;
+    }
+
+    // ========================================
+    // メトリクス（JMX）
+    // ========================================
+
+    @ManagedAttribute(description = "フィルターに登録したメールアドレス数")
+    public long getEntryCount() {
+        return entryCount.get();
+    }
+
+    @ManagedAttribute(description = "フィルターに残っている削除済みの顧客数")
+    public long getStaleCount() {
+        return staleCount.get();
+    }
+
+    @ManagedAttribute(description = "フィルターの容量（登録できるメールアドレス数）")
+    public long getCapacity() {
+        BloomFilter filter = current;
+        return filter != null ? filter.getExpectedInsertions() : 0;
+    }
+
+    @ManagedAttribute(description = "立っているビットの割合")
+    public double getFillRatio() {
+        BloomFilter filter = current;
+        return filter != null ? filter.getFillRatio() : 0.0;
+    }
+
+    @ManagedAttribute(description = "判定した件数")
+    public long getCheckCount() {
+        return checkCount.sum();
+    }
+
+    @ManagedAttribute(description = "登録されていないと判定し、顧客情報の検索を省略した件数")
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    @ManagedAttribute(description = "フィルターを構築した回数")
+    public long getRebuildCount() {
+        return rebuildCount.sum();
+    }
+
+    @ManagedAttribute(description = "他のインスタンスで登録された顧客を取り込んだ回数")
+    public long getSyncCount() {
+        return syncCount.sum();
+    }
+
+    @ManagedAttribute(description = "登録の目印の進みを検出して登録された顧客を取り込んだ回数")
+    public long getMarkSyncCount() {
+        return markSyncCount.sum();
+    }
+}
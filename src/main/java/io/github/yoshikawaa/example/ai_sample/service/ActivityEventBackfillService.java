@@ -0,0 +1,85 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.ActivityEventProperties;
+import io.github.yoshikawaa.example.ai_sample.repository.ActivityTimelineRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.LongSupplier;
+
+/**
+ * アクティビティイベントのバックフィル
+ * 投影前から存在する監査ログ・ログイン履歴・通知履歴を、ID範囲ごとの別トランザクションでactivity_eventに投影する
+ * 投影済みの行は除外するため、何度実行しても重複しない
+ */
+@Slf4j
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=Job,name=activityEventBackfill")
+@Service
+public class ActivityEventBackfillService {
+
+    private final ActivityTimelineRepository activityTimelineRepository;
+    private final ActivityEventProperties activityEventProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    public ActivityEventBackfillService(ActivityTimelineRepository activityTimelineRepository,
+                                        ActivityEventProperties activityEventProperties,
+                                        PlatformTransactionManager transactionManager) {
+        this.activityTimelineRepository = activityTimelineRepository;
+        this.activityEventProperties = activityEventProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (activityEventProperties.isBackfillOnStartup()) {
+            backfill();
+        }
+    }
+
+    /**
+     * 未投影の既存データをアクティビティイベントに投影
+     *
+     * @return 投影した件数
+     */
+    @ManagedOperation(description = "未投影の監査ログ・ログイン履歴・通知履歴をアクティビティイベントに投影")
+    public long backfill() {
+        log.info("アクティビティイベントのバックフィル開始");
+        long count = backfill("監査ログ", activityTimelineRepository::findMaxAuditLogId,
+                activityTimelineRepository::backfillAuditLog)
+            + backfill("ログイン履歴", activityTimelineRepository::findMaxLoginHistoryId,
+                activityTimelineRepository::backfillLoginHistory)
+            + backfill("通知履歴", activityTimelineRepository::findMaxNotificationHistoryId,
+                activityTimelineRepository::backfillNotificationHistory);
+        log.info("アクティビティイベントのバックフィル完了: {}件", count);
+        return count;
+    }
+
+    private long backfill(String name, LongSupplier maxId, RangeProjection projection) {
+        long toId = maxId.getAsLong();
+        int chunkSize = activityEventProperties.getBackfillChunkSize();
+        long count = 0;
+        for (long fromId = 0; fromId < toId; fromId += chunkSize) {
+            long chunkFromId = fromId;
+            long chunkToId = Math.min(fromId + chunkSize, toId);
+            Integer projected = transactionTemplate.execute(status -> projection.project(chunkFromId, chunkToId));
+            count += projected != null ? projected : 0;
+        }
+        if (count > 0) {
+            log.info("{}をアクティビティイベントに投影: {}件", name, count);
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    private interface RangeProjection {
+        int project(long fromId, long toId);
+    }
+}
@@ -0,0 +1,302 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.AsyncWriteProperties;
+import io.github.yoshikawaa.example.ai_sample.config.AsyncWriteProperties.WriteMode;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 非同期バッチ書き込みの基底クラス
+ * ASYNCの場合は有界キューに積み、バックグラウンドスレッドが件数または時間でまとめて別トランザクションでINSERTする
+ * SYNCの場合、または停止後は呼び出し元のスレッドで1件ずつINSERTする
+ *
+ * <p>停止時はWebサーバーの停止後にキューの残りをすべて書き込んでから終了する
+ * キュー滞留数・書き込み件数・破棄件数・フラッシュ所要時間はJMX（spring.jmx.enabled=true）で参照できる
+ *
+ * @param <T> 書き込むレコードの型
+ */
+@Slf4j
+public abstract class AsyncBatchWriter<T> implements SmartLifecycle {
+
+    /** Webサーバー（WebServerGracefulShutdownLifecycle等）より後に停止する */
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final String name;
+    private final AsyncWriteProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<T> queue;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    private final LongAdder enqueuedCount = new LongAdder();
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    protected AsyncBatchWriter(String name, AsyncWriteProperties properties, PlatformTransactionManager transactionManager) {
+        this.name = name;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    /**
+     * ExecutorType.BATCHで実行するSqlSessionを生成（Mapperの実行結果はトランザクションのコミット時にまとめて送信される）
+     */
+    protected static SqlSessionTemplate batchSqlSession(SqlSessionFactory sqlSessionFactory) {
+        return new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+    }
+
+    /**
+     * 1件を書き込む（SYNC時、停止後、CALLER_RUNS時に呼び出し元のスレッドで実行）
+     */
+    protected abstract void writeOne(T record);
+
+    /**
+     * まとめて書き込む（バックグラウンドスレッドで実行）
+     */
+    protected abstract void writeBatch(List<T> records);
+
+    /**
+     * レコードを書き込む
+     * ASYNCの場合はキューに積んで即座に戻る（キュー満杯時はoverflowPolicyに従う）
+     *
+     * @return 書き込みまたはキューへの投入に成功した場合はtrue、破棄した場合はfalse
+     */
+    public boolean write(T record) {
+        if (properties.getMode() == WriteMode.SYNC || !running) {
+            writeNow(record);
+            return true;
+        }
+        if (offer(record)) {
+            enqueuedCount.increment();
+            return true;
+        }
+        droppedCount.increment();
+        log.warn("{}のキューが満杯のため破棄: queueCapacity={}, dropped={}", name, properties.getQueueCapacity(), droppedCount.sum());
+        return false;
+    }
+
+    private boolean offer(T record) {
+        return switch (properties.getOverflowPolicy()) {
+            case DROP -> queue.offer(record);
+            case CALLER_RUNS -> {
+                if (!queue.offer(record)) {
+                    writeNow(record);
+                }
+                yield true;
+            }
+            case BLOCK -> {
+                try {
+                    yield queue.offer(record, properties.getOfferTimeoutMs(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    yield false;
+                }
+            }
+        };
+    }
+
+    private void writeNow(T record) {
+        transactionTemplate.executeWithoutResult(status -> writeOne(record));
+        writtenCount.increment();
+    }
+
+    // ========================================
+    // バックグラウンド書き込み
+    // ========================================
+
+    private void runWorker() {
+        int batchSize = properties.getBatchSize();
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMs());
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                T first = queue.poll(properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+        drainAll();
+    }
+
+    /**
+     * キューの残りをすべて書き込む
+     */
+    private void drainAll() {
+        List<T> batch = new ArrayList<>(properties.getBatchSize());
+        while (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<T> batch) {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> writeBatch(batch));
+            writtenCount.add(batch.size());
+            log.debug("{}をバッチ書き込み: {}件", name, batch.size());
+        } catch (Exception e) {
+            // 1件の不正なレコード（参照先の削除済み等）でバッチ全体を失わないよう、1件ずつ再試行する
+            log.warn("{}のバッチ書き込みに失敗したため1件ずつ再試行: {}件", name, batch.size(), e);
+            batch.forEach(this::retryOne);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushCount.increment();
+            totalFlushNanos.add(elapsed);
+            lastFlushNanos.set(elapsed);
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    private void retryOne(T record) {
+        try {
+            writeNow(record);
+        } catch (Exception e) {
+            failedCount.increment();
+            log.error("{}の書き込みに失敗: {}", name, record, e);
+        }
+    }
+
+    // ========================================
+    // ライフサイクル
+    // ========================================
+
+    @Override
+    public void start() {
+        if (properties.getMode() != WriteMode.ASYNC) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::runWorker, name + "-writer");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("{}の非同期書き込みを開始: queueCapacity={}, batchSize={}, flushIntervalMs={}, overflowPolicy={}",
+            name, properties.getQueueCapacity(), properties.getBatchSize(), properties.getFlushIntervalMs(), properties.getOverflowPolicy());
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 停止判定と競合してキューに積まれた分を書き込む
+        drainAll();
+        log.info("{}の非同期書き込みを停止: written={}, dropped={}, failed={}", name, writtenCount.sum(), droppedCount.sum(), failedCount.sum());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    // ========================================
+    // メトリクス
+    // ========================================
+
+    @ManagedAttribute(description = "キューに滞留している件数")
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @ManagedAttribute(description = "キューの空き件数")
+    public int getQueueRemainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    @ManagedAttribute(description = "キューに投入した件数")
+    public long getEnqueuedCount() {
+        return enqueuedCount.sum();
+    }
+
+    @ManagedAttribute(description = "書き込みに成功した件数")
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    @ManagedAttribute(description = "キュー満杯により破棄した件数")
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    @ManagedAttribute(description = "バッチ書き込みに失敗した件数")
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    @ManagedAttribute(description = "バッチ書き込みの実行回数")
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    @ManagedAttribute(description = "直近のバッチ書き込みの所要時間（ミリ秒）")
+    public double getLastFlushMillis() {
+        return lastFlushNanos.get() / 1_000_000.0;
+    }
+
+    @ManagedAttribute(description = "バッチ書き込みの最大所要時間（ミリ秒）")
+    public double getMaxFlushMillis() {
+        return maxFlushNanos.get() / 1_000_000.0;
+    }
+
+    @ManagedAttribute(description = "バッチ書き込みの平均所要時間（ミリ秒）")
+    public double getAverageFlushMillis() {
+        long count = flushCount.sum();
+        return count == 0 ? 0 : totalFlushNanos.sum() / 1_000_000.0 / count;
+    }
+}
@@ -5,14 +5,14 @@ import io.github.yoshikawaa.example.ai_sample.model.AuditLogSearchForm;
 import io.github.yoshikawaa.example.ai_sample.repository.AuditLogRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -23,11 +23,15 @@ import java.util.List;
 public class AuditLogService {
 
     private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
+    private final PaginationService paginationService;
+    private final EmailKeyResolver emailKeyResolver;
 
     /**
      * 監査ログを記録
+     * 書き込みはAuditLogWriterに委譲する（既定では非同期、呼び出し元のトランザクションとは独立してコミット）
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void recordAudit(String performedBy, String targetEmail, AuditLog.ActionType actionType, String actionDetail, String ipAddress) {
         try {
             AuditLog auditLog = new AuditLog();
@@ -38,8 +42,9 @@ public class AuditLogService {
             auditLog.setActionTime(LocalDateTime.now());
             auditLog.setIpAddress(ipAddress);
 
-            auditLogRepository.insert(auditLog);
-            log.info("監査ログを記録: performedBy={}, targetEmail={}, actionType={}", performedBy, targetEmail, actionType);
+            if (auditLogWriter.write(auditLog)) {
+                log.info("監査ログを記録: performedBy={}, targetEmail={}, actionType={}", performedBy, targetEmail, actionType);
+            }
         } catch (Exception e) {
             log.error("監査ログの記録に失敗: performedBy={}, targetEmail={}, actionType={}", performedBy, targetEmail, actionType, e);
         }
@@ -47,47 +52,57 @@ public class AuditLogService {
 
     /**
      * 監査ログを取得（ページネーション対応）
+     * 総件数の取得方式がSLICEの場合はSliceを返す
      */
     @Transactional(readOnly = true)
-    public Page<AuditLog> getAllAuditLogsWithPagination(Pageable pageable) {
+    public Slice<AuditLog> getAllAuditLogsWithPagination(Pageable pageable) {
         int offset = (int) pageable.getOffset();
-        int pageSize = pageable.getPageSize();
         String[] sortInfo = extractSortInfo(pageable);
-        List<AuditLog> logs = auditLogRepository.findAllWithPagination(pageSize, offset, sortInfo[0], sortInfo[1]);
-        long total = auditLogRepository.count();
-        return new PageImpl<>(logs, pageable, total);
+        return paginationService.paginate(PaginationService.AUDIT_LOG, new Object[0], pageable,
+            limit -> auditLogRepository.findAllWithPagination(limit, offset, sortInfo[0], sortInfo[1]),
+            auditLogRepository::count);
     }
 
     /**
      * 監査ログを検索（ページネーション対応）
+     * 総件数の取得方式がSLICEの場合はSliceを返す
      */
     @Transactional(readOnly = true)
-    public Page<AuditLog> searchAuditLogsWithPagination(AuditLogSearchForm searchForm, Pageable pageable) {
+    public Slice<AuditLog> searchAuditLogsWithPagination(AuditLogSearchForm searchForm, Pageable pageable) {
         int offset = (int) pageable.getOffset();
-        int pageSize = pageable.getPageSize();
         String[] sortInfo = extractSortInfo(pageable);
+        String performedBy = searchForm.getPerformedBy();
+        String targetEmail = searchForm.getTargetEmail();
+        List<String> performedByKeys = emailKeyResolver.resolve(performedBy);
+        List<String> targetEmailKeys = emailKeyResolver.resolve(targetEmail);
+        AuditLog.ActionType actionType = searchForm.getActionType();
+        LocalDate fromDate = searchForm.getFromDate();
+        LocalDate toDate = searchForm.getToDate();
         
-        List<AuditLog> logs = auditLogRepository.searchWithPagination(
-            searchForm.getPerformedBy(),
-            searchForm.getTargetEmail(),
-            searchForm.getActionType(),
-            searchForm.getFromDate(),
-            searchForm.getToDate(),
-            pageSize,
-            offset,
-            sortInfo[0],
-            sortInfo[1]
-        );
-        
-        long total = auditLogRepository.countBySearch(
-            searchForm.getPerformedBy(),
-            searchForm.getTargetEmail(),
-            searchForm.getActionType(),
-            searchForm.getFromDate(),
-            searchForm.getToDate()
-        );
-        
-        return new PageImpl<>(logs, pageable, total);
+        return paginationService.paginate(PaginationService.AUDIT_LOG,
+            new Object[]{performedBy, targetEmail, actionType, fromDate, toDate}, pageable,
+            limit -> auditLogRepository.searchWithPagination(
+                performedBy,
+                performedByKeys,
+                targetEmail,
+                targetEmailKeys,
+                actionType,
+                fromDate,
+                toDate,
+                limit,
+                offset,
+                sortInfo[0],
+                sortInfo[1]
+            ),
+            () -> auditLogRepository.countBySearch(
+                performedBy,
+                performedByKeys,
+                targetEmail,
+                targetEmailKeys,
+                actionType,
+                fromDate,
+                toDate
+            ));
     }
 
     /**
@@ -0,0 +1,79 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.AuditLogProperties;
+import io.github.yoshikawaa.example.ai_sample.model.AuditLog;
+import io.github.yoshikawaa.example.ai_sample.repository.ActivityTimelineRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.AuditLogRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.StatisticsRepository;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 監査ログの書き込み
+ * 統計画面の閲覧（VIEW_STATISTICS）など高頻度に記録されるため、既定ではバッチINSERTで非同期に書き込む
+ * 対象顧客のある監査ログは同じトランザクションでアクティビティイベントにも投影し、日別の操作数を加算する
+ */
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=AsyncBatchWriter,name=auditLog")
+@Component
+public class AuditLogWriter extends AsyncBatchWriter<AuditLog> {
+
+    private final AuditLogRepository auditLogRepository;
+    private final SqlSessionTemplate batchSqlSession;
+    private final PaginationService paginationService;
+    private final ActivityTimelineRepository activityTimelineRepository;
+    private final StatisticsRepository statisticsRepository;
+    private final StatisticsCache statisticsCache;
+
+    public AuditLogWriter(AuditLogProperties auditLogProperties, AuditLogRepository auditLogRepository,
+                          SqlSessionFactory sqlSessionFactory, PlatformTransactionManager transactionManager,
+                          PaginationService paginationService, ActivityTimelineRepository activityTimelineRepository,
+                          StatisticsRepository statisticsRepository, StatisticsCache statisticsCache) {
+        super("監査ログ", auditLogProperties.getWrite(), transactionManager);
+        this.auditLogRepository = auditLogRepository;
+        this.batchSqlSession = batchSqlSession(sqlSessionFactory);
+        this.paginationService = paginationService;
+        this.activityTimelineRepository = activityTimelineRepository;
+        this.statisticsRepository = statisticsRepository;
+        this.statisticsCache = statisticsCache;
+    }
+
+    @Override
+    protected void writeOne(AuditLog auditLog) {
+        auditLogRepository.insert(auditLog);
+        activityTimelineRepository.projectAuditLog(auditLog.getId());
+        statisticsRepository.incrementUsageCount(auditLog);
+        if (auditLog.getActionTime() != null) {
+            statisticsCache.evict(auditLog.getActionTime().toLocalDate());
+        }
+        paginationService.invalidate(PaginationService.AUDIT_LOG);
+    }
+
+    @Override
+    protected void writeBatch(List<AuditLog> auditLogs) {
+        AuditLogRepository batchAuditLogRepository = batchSqlSession.getMapper(AuditLogRepository.class);
+        auditLogs.forEach(batchAuditLogRepository::insert);
+        StatisticsRepository batchStatisticsRepository = batchSqlSession.getMapper(StatisticsRepository.class);
+        auditLogs.forEach(batchStatisticsRepository::incrementUsageCount);
+        statisticsCache.evict(auditLogs.stream().map(AuditLog::getActionTime).filter(Objects::nonNull)
+            .map(LocalDateTime::toLocalDate).collect(Collectors.toSet()));
+
+        // バッチではIDを取得しないため、登録した顧客・期間の未投影分をまとめて投影する
+        // （DBの日時精度への丸めで範囲外とならないよう前後1秒広げる。投影済みの行は除外される）
+        Set<String> emails = auditLogs.stream().map(AuditLog::getTargetEmail).filter(Objects::nonNull).collect(Collectors.toSet());
+        List<LocalDateTime> times = auditLogs.stream().map(AuditLog::getActionTime).filter(Objects::nonNull).sorted().toList();
+        if (!emails.isEmpty() && !times.isEmpty()) {
+            batchSqlSession.getMapper(ActivityTimelineRepository.class)
+                .projectAuditLogs(emails, times.get(0).minusSeconds(1), times.get(times.size() - 1).plusSeconds(1));
+        }
+        paginationService.invalidate(PaginationService.AUDIT_LOG);
+    }
+}
@@ -1,21 +1,21 @@
 package io.github.yoshikawaa.example.ai_sample.service;
 
 import io.github.yoshikawaa.example.ai_sample.exception.CsvGenerationException;
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import com.opencsv.bean.ColumnPositionMappingStrategy;
-import com.opencsv.bean.StatefulBeanToCsv;
-import com.opencsv.bean.StatefulBeanToCsvBuilder;
-
 import io.github.yoshikawaa.example.ai_sample.model.Customer;
 import io.github.yoshikawaa.example.ai_sample.model.CustomerCsvDto;
+import io.github.yoshikawaa.example.ai_sample.util.CsvRowWriter;
 
 /**
  * CSV処理サービス
@@ -26,6 +26,15 @@ import io.github.yoshikawaa.example.ai_sample.model.CustomerCsvDto;
 @Service
 public class CsvService {
 
+    /** UTF-8 BOM */
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    /** 行バッファの初期サイズ */
+    private static final int ROW_BUFFER_SIZE = 256;
+
+    /** 顧客CSVのヘッダー行 */
+    private static final String CUSTOMER_CSV_HEADER = "Email,Name,Registration Date,Birth Date,Phone Number,Address\n";
+
     /**
      * 顧客リストをCSV形式のバイト配列に変換する
      * 
@@ -33,16 +42,25 @@ public class CsvService {
      * @return CSV形式のバイト配列（UTF-8 BOM付き）
      */
     public byte[] generateCustomerCsv(List<Customer> customers) {
-        // CustomerエンティティをCustomerCsvDtoに変換
-        List<CustomerCsvDto> csvDtos = customers.stream()
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeCustomerCsv(customers, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * 顧客をCSV形式で出力ストリームに1行ずつ書き込む
+     * CustomerCsvDtoへの変換も1行ずつ行うため、件数によらずメモリ使用量は一定
+     * 出力ストリームのクローズは呼び出し側の責務
+     * 
+     * @param customers 顧客（MyBatisのCursor等、逐次取得するIterableを想定）
+     * @param out 出力先ストリーム
+     * @return 書き込んだデータ行数
+     */
+    public long writeCustomerCsv(Iterable<Customer> customers, OutputStream out) {
+        Iterable<CustomerCsvDto> csvDtos = () -> StreamSupport.stream(customers.spliterator(), false)
             .map(CustomerCsvDto::fromEntity)
-            .collect(Collectors.toList());
-        
-        // ヘッダー行を定義
-        String header = "Email,Name,Registration Date,Birth Date,Phone Number,Address\n";
-        
-        // 汎用CSV生成メソッドを使用
-        return generateCsv(csvDtos, CustomerCsvDto.class, header);
+            .iterator();
+        return writeCsv(csvDtos, CustomerCsvDto.class, CUSTOMER_CSV_HEADER, out);
     }
 
     /**
@@ -57,36 +75,53 @@ public class CsvService {
      * @return CSV形式のバイト配列（UTF-8 BOM付き）
      */
     public <T> byte[] generateCsv(List<T> dtos, Class<T> dtoClass, String header) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             OutputStreamWriter osw = new OutputStreamWriter(baos, StandardCharsets.UTF_8)) {
-            
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeCsv(dtos, dtoClass, header, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * 汎用CSV書き込みメソッド
+     * DTOを1件ずつCSV形式に変換して出力ストリームに書き込む
+     * DTOクラスには@CsvBindByPositionアノテーションが必要
+     * 
+     * @param <T> DTOの型
+     * @param dtos DTO
+     * @param dtoClass DTOのクラス
+     * @param header CSVヘッダー行（改行を含む）
+     * @param out 出力先ストリーム（クローズしない）
+     * @return 書き込んだデータ行数
+     */
+    public <T> long writeCsv(Iterable<T> dtos, Class<T> dtoClass, String header, OutputStream out) {
+        try {
             // UTF-8 BOMを追加（Excelでの文字化け防止）
-            baos.write(0xEF);
-            baos.write(0xBB);
-            baos.write(0xBF);
+            out.write(UTF8_BOM);
             
-            // ヘッダー行を書き込み
-            osw.write(header);
-            osw.flush();
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
             
-            // OpenCSVを使用してデータ行を生成（@CsvBindByPositionで順序制御）
-            ColumnPositionMappingStrategy<T> strategy = new ColumnPositionMappingStrategy<>();
-            strategy.setType(dtoClass);
+            // ヘッダー行を書き込み
+            writer.write(header);
             
-            StatefulBeanToCsv<T> beanToCsv = new StatefulBeanToCsvBuilder<T>(osw)
-                .withMappingStrategy(strategy)
-                .withApplyQuotesToAll(false)
-                .build();
+            // DTOクラスごとに事前構築した行ライターでデータ行を生成（@CsvBindByPositionで順序制御）
+            CsvRowWriter<T> rowWriter = CsvRowWriter.forClass(dtoClass);
             
-            beanToCsv.write(dtos);
-            osw.flush();
+            // 行バッファは全行で再利用する
+            StringBuilder row = new StringBuilder(ROW_BUFFER_SIZE);
+            long count = 0;
+            for (T dto : dtos) {
+                row.setLength(0);
+                rowWriter.appendRow(dto, row);
+                writer.append(row);
+                count++;
+            }
+            // 出力ストリームはクローズせずフラッシュのみ（クローズは呼び出し側の責務）
+            writer.flush();
             
-            return baos.toByteArray();
+            return count;
         } catch (Exception e) {
-            // NOTE: このcatchブロックは防御的プログラミングのために存在します。
-            // ByteArrayOutputStreamとOpenCSVの通常動作では例外は発生しませんが、
-            // 予期しないランタイムエラー（OutOfMemoryError等）からの保護として残しています。
-            // テストでのカバレッジは困難ですが、本番環境での安全性のために必要です。
+            // NOTE: ストリーミング出力時はクライアント切断によるIOException等が発生し得る。
+            // ByteArrayOutputStreamへの出力時は通常発生しないが、
+            // 予期しないランタイムエラーからの保護として残しています。
             log.error("CSV生成中にエラーが発生しました: dtoClass={}", dtoClass.getSimpleName(), e);
             throw new CsvGenerationException("CSV生成中にエラーが発生しました", e);
         }
@@ -0,0 +1,130 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.CustomerSearchProperties;
+import io.github.yoshikawaa.example.ai_sample.model.Customer;
+import io.github.yoshikawaa.example.ai_sample.repository.CustomerRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.CustomerSearchIndexRepository;
+import io.github.yoshikawaa.example.ai_sample.util.TrigramUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 顧客検索用のトライグラム索引の管理
+ * 顧客の登録・名前の更新時に呼び出し元のトランザクションで索引を更新する（顧客の削除時は連鎖削除される）
+ * 索引導入前から存在する顧客は、起動時のバックフィルで一定件数ごとの別トランザクションで索引を作成する
+ * 多くの顧客に含まれるトライグラム（ストップグラム）は索引の出現頻度から定期的に求め、検索時の絞り込みから除く
+ */
+@Slf4j
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=Job,name=customerSearchIndexBackfill")
+@Service
+public class CustomerSearchIndexService {
+
+    private final CustomerSearchIndexRepository customerSearchIndexRepository;
+    private final CustomerRepository customerRepository;
+    private final CustomerSearchProperties customerSearchProperties;
+    private final TrigramStopGrams trigramStopGrams;
+    private final TransactionTemplate transactionTemplate;
+
+    public CustomerSearchIndexService(CustomerSearchIndexRepository customerSearchIndexRepository,
+                                      CustomerRepository customerRepository,
+                                      CustomerSearchProperties customerSearchProperties,
+                                      TrigramStopGrams trigramStopGrams,
+                                      PlatformTransactionManager transactionManager) {
+        this.customerSearchIndexRepository = customerSearchIndexRepository;
+        this.customerRepository = customerRepository;
+        this.customerSearchProperties = customerSearchProperties;
+        this.trigramStopGrams = trigramStopGrams;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 顧客の名前・メールアドレスの索引を作成
+     */
+    public void index(Customer customer) {
+        indexField(customer.getEmail(), CustomerSearchIndexRepository.FIELD_NAME, customer.getName());
+        indexField(customer.getEmail(), CustomerSearchIndexRepository.FIELD_EMAIL, customer.getEmail());
+    }
+
+    /**
+     * 顧客の名前の索引を作り直す（名前の更新時）
+     */
+    public void reindexName(String email, String name) {
+        customerSearchIndexRepository.deleteTrigrams(email, CustomerSearchIndexRepository.FIELD_NAME);
+        indexField(email, CustomerSearchIndexRepository.FIELD_NAME, name);
+    }
+
+    private void indexField(String email, String field, String value) {
+        Set<String> trigrams = TrigramUtil.trigrams(value);
+        if (!trigrams.isEmpty()) {
+            customerSearchIndexRepository.insertTrigrams(email, field, trigrams);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (customerSearchProperties.isBackfillOnStartup()) {
+            backfill();
+        }
+        refreshStopGrams();
+    }
+
+    /**
+     * ストップグラムを索引の出現頻度から再計算
+     * 顧客数×stop-gram-ratio（stop-gram-min-count以上）より多くの顧客に含まれるトライグラムをストップグラムとする
+     * 索引全体を集計するため、検索のたびではなく定期的に行う
+     */
+    @Scheduled(fixedDelayString = "${app.customer-search.stop-gram-refresh-interval-ms:3600000}",
+               initialDelayString = "${app.customer-search.stop-gram-refresh-interval-ms:3600000}")
+    @ManagedOperation(description = "ストップグラムを索引の出現頻度から再計算する")
+    public void refreshStopGrams() {
+        long minCount = Math.max(customerSearchProperties.getStopGramMinCount(),
+            (long) (customerRepository.count() * customerSearchProperties.getStopGramRatio()));
+        for (String field : List.of(CustomerSearchIndexRepository.FIELD_NAME, CustomerSearchIndexRepository.FIELD_EMAIL)) {
+            Set<String> stopGrams = new HashSet<>(customerSearchIndexRepository.findFrequentTrigrams(field, minCount));
+            trigramStopGrams.update(field, stopGrams);
+            log.debug("ストップグラムを更新: field={}, {}件, minCount={}", field, stopGrams.size(), minCount);
+        }
+    }
+
+    /**
+     * 索引のない顧客の索引を作成
+     *
+     * @return 索引を作成した顧客数
+     */
+    @ManagedOperation(description = "索引のない顧客の検索用トライグラム索引を作成")
+    public long backfill() {
+        int chunkSize = customerSearchProperties.getBackfillChunkSize();
+        long count = 0;
+        String after = null;
+        while (true) {
+            String chunkAfter = after;
+            List<Customer> customers = transactionTemplate.execute(status -> {
+                List<Customer> chunk = customerSearchIndexRepository.findUnindexedCustomers(chunkAfter, chunkSize);
+                chunk.forEach(this::index);
+                return chunk;
+            });
+            if (customers == null || customers.isEmpty()) {
+                break;
+            }
+            count += customers.size();
+            after = customers.get(customers.size() - 1).getEmail();
+        }
+        if (count > 0) {
+            log.info("顧客検索用の索引を作成: {}件", count);
+        }
+        return count;
+    }
+}
@@ -1,12 +1,17 @@
 package io.github.yoshikawaa.example.ai_sample.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,12 +21,18 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import io.github.yoshikawaa.example.ai_sample.exception.CsvGenerationException;
 import io.github.yoshikawaa.example.ai_sample.exception.CustomerNotFoundException;
 import io.github.yoshikawaa.example.ai_sample.exception.UnderageCustomerException;
 import io.github.yoshikawaa.example.ai_sample.model.AuditLog;
 import io.github.yoshikawaa.example.ai_sample.model.Customer;
+import io.github.yoshikawaa.example.ai_sample.model.CustomerCursor;
 import io.github.yoshikawaa.example.ai_sample.repository.CustomerRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.CustomerSearchIndexRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.StatisticsRepository;
+import io.github.yoshikawaa.example.ai_sample.security.CustomerUserCache;
 import io.github.yoshikawaa.example.ai_sample.security.CustomerUserDetails;
+import io.github.yoshikawaa.example.ai_sample.security.RegisteredEmailFilter;
 import io.github.yoshikawaa.example.ai_sample.util.RequestContextUtil;
 import io.github.yoshikawaa.example.ai_sample.util.SecurityContextUtil;
 import lombok.RequiredArgsConstructor;
@@ -37,6 +48,13 @@ public class CustomerService {
     private final ObjectProvider<PasswordEncoder> passwordEncoderProvider;
     private final CsvService csvService;
     private final AuditLogService auditLogService;
+    private final PaginationService paginationService;
+    private final CustomerUserCache customerUserCache;
+    private final StatisticsRepository statisticsRepository;
+    private final StatisticsCache statisticsCache;
+    private final CustomerSearchIndexService customerSearchIndexService;
+    private final TrigramStopGrams trigramStopGrams;
+    private final RegisteredEmailFilter registeredEmailFilter;
 
     @Transactional(readOnly = true)
     public Customer getCustomerByEmail(String email) {
@@ -44,14 +62,30 @@ public class CustomerService {
             .orElseThrow(() -> new CustomerNotFoundException(email));
     }
 
+    /**
+     * 顧客を取得（ページネーション対応）
+     * 総件数の取得方式がSLICEの場合はSliceを返す
+     */
     @Transactional(readOnly = true)
-    public Page<Customer> getAllCustomersWithPagination(Pageable pageable) {
+    public Slice<Customer> getAllCustomersWithPagination(Pageable pageable) {
         int offset = (int) pageable.getOffset();
-        int pageSize = pageable.getPageSize();
         String[] sortInfo = extractSortInfo(pageable);
-        List<Customer> customers = customerRepository.findAllWithPagination(pageSize, offset, sortInfo[0], sortInfo[1]);
-        long total = customerRepository.count();
-        return new PageImpl<>(customers, pageable, total);
+        return paginationService.paginate(PaginationService.CUSTOMER, new Object[0], pageable,
+            limit -> customerRepository.findAllWithPagination(limit, offset, sortInfo[0], sortInfo[1]),
+            customerRepository::count);
+    }
+
+    /**
+     * キーセット（シーク）方式で顧客を取得
+     * カーソルがnullの場合は先頭ページを返す。総件数は取得しない
+     */
+    @Transactional(readOnly = true)
+    public Slice<Customer> getAllCustomersWithKeyset(CustomerCursor cursor, Pageable pageable) {
+        String[] sortInfo = extractKeysetSortInfo(pageable);
+        List<Customer> customers = seek(cursor, sortInfo[0], pageable.getPageSize() + 1,
+            (limit, cursorValue, cursorEmail) -> customerRepository.findAllWithKeyset(limit, sortInfo[0], sortInfo[1], cursorValue, cursorEmail),
+            (limit, cursorEmail) -> customerRepository.findAllWithKeysetNullTail(limit, sortInfo[0], cursorEmail));
+        return paginationService.toSlice(customers, pageable);
     }
 
     public void registerCustomer(Customer customer) {
@@ -65,8 +99,16 @@ public class CustomerService {
         // パスワードをハッシュ化
         customer.setPassword(passwordEncoderProvider.getObject().encode(customer.getPassword()));
 
-        // 顧客情報を登録
+        // 顧客情報を登録（登録前にフィルターに反映し、コミット直後のログインでも登録済みと判定する）
+        registeredEmailFilter.add(customer.getEmail());
         customerRepository.insert(customer);
+        // 登録の目印を進めて記録する（他のインスタンスのフィルターが目印の進みで登録を取り込む）
+        customerRepository.incrementRegistrationMark();
+        customerRepository.updateRegistrationMark(customer.getEmail());
+        customerSearchIndexService.index(customer);
+        statisticsRepository.incrementCustomerCount(customer.getEmail());
+        statisticsCache.evict(customer.getRegistrationDate());
+        paginationService.invalidate(PaginationService.CUSTOMER);
         
         // 監査ログを記録
         String performedBy = SecurityContextUtil.getAuthenticatedUsername(customer.getEmail());
@@ -84,6 +126,7 @@ public class CustomerService {
 
         // パスワードを更新
         customerRepository.updatePassword(customer.getEmail(), hashedPassword);
+        customerUserCache.evict(customer.getEmail());
 
         // 監査ログを記録
         String performedBy = SecurityContextUtil.getAuthenticatedUsername(customer.getEmail());
@@ -105,6 +148,8 @@ public class CustomerService {
         
         // 顧客情報を更新
         customerRepository.updateCustomerInfo(customer);
+        customerSearchIndexService.reindexName(customer.getEmail(), customer.getName());
+        customerUserCache.evict(customer.getEmail());
 
         // 監査ログを記録
         String performedBy = SecurityContextUtil.getAuthenticatedUsername(customer.getEmail());
@@ -131,8 +176,21 @@ public class CustomerService {
         auditLogService.recordAudit(performedBy, email, AuditLog.ActionType.DELETE, 
             "顧客削除", RequestContextUtil.getClientIpAddress());
         
+        // 日別集計から顧客と連鎖削除される履歴を減算
+        statisticsRepository.subtractCustomer(email);
+        statisticsRepository.subtractLoginHistory(email);
+        statisticsRepository.subtractAuditLog(email);
+        statisticsCache.evictAll();
+
         // 顧客を削除
         customerRepository.deleteByEmail(email);
+        customerUserCache.evict(email);
+        registeredEmailFilter.recordDeleted(email);
+        paginationService.invalidate(PaginationService.CUSTOMER);
+        // 顧客と連鎖削除される履歴の一覧の総件数も破棄
+        paginationService.invalidate(PaginationService.AUDIT_LOG);
+        paginationService.invalidate(PaginationService.LOGIN_HISTORY);
+        paginationService.invalidate(PaginationService.NOTIFICATION_HISTORY);
 
         // 認証情報をクリア
         SecurityContextHolder.clearContext();
@@ -140,33 +198,95 @@ public class CustomerService {
         log.info("顧客削除完了: email={}", email);
     }
 
+    /**
+     * 顧客を検索（ページネーション対応）
+     * 総件数の取得方式がSLICEの場合はSliceを返す
+     */
     @Transactional(readOnly = true)
-    public Page<Customer> searchCustomersWithPagination(String name, String email, Pageable pageable) {
+    public Slice<Customer> searchCustomersWithPagination(String name, String email, Pageable pageable) {
         int offset = (int) pageable.getOffset();
-        int pageSize = pageable.getPageSize();
         String[] sortInfo = extractSortInfo(pageable);
-        List<Customer> customers = customerRepository.searchWithPagination(name, email, pageSize, offset, sortInfo[0], sortInfo[1]);
-        long total = customerRepository.countBySearch(name, email);
-        return new PageImpl<>(customers, pageable, total);
+        Set<String> nameTrigrams = nameTrigrams(name);
+        Set<String> emailTrigrams = emailTrigrams(email);
+        return paginationService.paginate(PaginationService.CUSTOMER, new Object[]{name, email}, pageable,
+            limit -> customerRepository.searchWithPagination(name, nameTrigrams, email, emailTrigrams, limit, offset, sortInfo[0], sortInfo[1]),
+            () -> customerRepository.countBySearch(name, nameTrigrams, email, emailTrigrams));
     }
 
+    /**
+     * 検索条件付きでキーセット（シーク）方式で顧客を取得
+     */
     @Transactional(readOnly = true)
-    public byte[] exportCustomersToCSV(String name, String email, Pageable pageable) {
-        // 検索・ソート条件に基づいて顧客を取得（全件）
+    public Slice<Customer> searchCustomersWithKeyset(String name, String email, CustomerCursor cursor, Pageable pageable) {
+        String[] sortInfo = extractKeysetSortInfo(pageable);
+        Set<String> nameTrigrams = nameTrigrams(name);
+        Set<String> emailTrigrams = emailTrigrams(email);
+        List<Customer> customers = seek(cursor, sortInfo[0], pageable.getPageSize() + 1,
+            (limit, cursorValue, cursorEmail) -> customerRepository.searchWithKeyset(name, nameTrigrams, email, emailTrigrams,
+                limit, sortInfo[0], sortInfo[1], cursorValue, cursorEmail),
+            (limit, cursorEmail) -> customerRepository.searchWithKeysetNullTail(name, nameTrigrams, email, emailTrigrams,
+                limit, sortInfo[0], cursorEmail));
+        return paginationService.toSlice(customers, pageable);
+    }
+
+    /**
+     * 取得結果の末尾から次ページのカーソルを生成（次ページがない場合はnull）
+     */
+    public CustomerCursor nextCursor(Slice<Customer> slice) {
+        if (!slice.hasNext() || !slice.hasContent()) {
+            return null;
+        }
+        Customer last = slice.getContent().get(slice.getNumberOfElements() - 1);
+        String sortProperty = slice.getSort().isSorted() ? slice.getSort().iterator().next().getProperty() : "registrationDate";
+        return CustomerCursor.fromEntity(last, sortProperty);
+    }
+
+    /**
+     * 検索・ソート条件に該当する顧客をCSV形式で出力ストリームに書き込む
+     * カーソルで1行ずつ読み出して書き込むため、件数によらずメモリ使用量は一定
+     */
+    @Transactional(readOnly = true)
+    public void exportCustomersToCSV(String name, String email, Pageable pageable, OutputStream out) {
         String[] sortInfo = extractSortInfo(pageable);
-        List<Customer> customers;
         
-        if (StringUtils.hasText(name) || StringUtils.hasText(email)) {
-            // 検索条件がある場合
-            customers = customerRepository.searchWithSort(name, email, sortInfo[0], sortInfo[1]);
-        } else {
-            // 検索条件がない場合
-            customers = customerRepository.findAllWithSort(sortInfo[0], sortInfo[1]);
+        try (Cursor<Customer> customers = StringUtils.hasText(name) || StringUtils.hasText(email)
+                // 検索条件がある場合
+                ? customerRepository.searchWithCursor(name, nameTrigrams(name), email, emailTrigrams(email), sortInfo[0], sortInfo[1])
+                // 検索条件がない場合
+                : customerRepository.findAllWithCursor(sortInfo[0], sortInfo[1])) {
+            long count = csvService.writeCustomerCsv(customers, out);
+            log.info("CSVエクスポート実行: 件数={}, 検索条件(name={}, email={})", count, name, email);
+        } catch (IOException e) {
+            throw new CsvGenerationException("CSV生成中にエラーが発生しました", e);
         }
-        
-        log.info("CSVエクスポート実行: 件数={}, 検索条件(name={}, email={})", customers.size(), name, email);
-        
-        return csvService.generateCustomerCsv(customers);
+    }
+
+    /**
+     * キーセット方式で最大limit件を取得
+     * ソート値がNULLでない行を範囲検索で取得し、足りない分はソート値がNULLの行（末尾にemail昇順で並ぶ）から取得する
+     * カーソルがNULLの行を指す場合はNULLの行だけを取得する（emailはNULLにならないため、NULLの行の取得は省略する）
+     */
+    private List<Customer> seek(CustomerCursor cursor, String sortColumn, int limit,
+                                KeysetQuery keysetQuery, BiFunction<Integer, String, List<Customer>> nullTailQuery) {
+        if (cursor != null && cursor.isNullSortValue()) {
+            return nullTailQuery.apply(limit, cursor.getEmail());
+        }
+        List<Customer> customers = keysetQuery.find(limit,
+            cursor != null ? cursor.typedSortValue(sortColumn) : null, cursor != null ? cursor.getEmail() : null);
+        if (customers.size() >= limit || "email".equals(sortColumn)) {
+            return customers;
+        }
+        List<Customer> result = new ArrayList<>(customers);
+        result.addAll(nullTailQuery.apply(limit - customers.size(), null));
+        return result;
+    }
+
+    /**
+     * キーセット方式でソート値がNULLでない行を取得するクエリ
+     */
+    @FunctionalInterface
+    private interface KeysetQuery {
+        List<Customer> find(int limit, Object cursorValue, String cursorEmail);
     }
 
     private boolean isUnderage(LocalDate birthDate) {
@@ -175,6 +295,20 @@ public class CustomerService {
         return age < 18; // 18歳未満を未成年とする
     }
 
+    /**
+     * 名前の部分一致検索で索引の絞り込みに使うトライグラム
+     */
+    private Set<String> nameTrigrams(String name) {
+        return trigramStopGrams.selectiveTrigrams(CustomerSearchIndexRepository.FIELD_NAME, name);
+    }
+
+    /**
+     * メールアドレスの部分一致検索で索引の絞り込みに使うトライグラム
+     */
+    private Set<String> emailTrigrams(String email) {
+        return trigramStopGrams.selectiveTrigrams(CustomerSearchIndexRepository.FIELD_EMAIL, email);
+    }
+
     private String[] extractSortInfo(Pageable pageable) {
         if (pageable.getSort().isSorted()) {
             Sort.Order order = pageable.getSort().iterator().next();
@@ -193,4 +327,15 @@ public class CustomerService {
         }
         return new String[]{null, null};
     }
+
+    /**
+     * キーセット用のソート情報を抽出（未指定時は登録日降順）
+     */
+    private String[] extractKeysetSortInfo(Pageable pageable) {
+        String[] sortInfo = extractSortInfo(pageable);
+        if (sortInfo[0] == null) {
+            return new String[]{"registration_date", "DESC"};
+        }
+        return sortInfo;
+    }
 }
@@ -0,0 +1,47 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.CustomerSearchProperties;
+import io.github.yoshikawaa.example.ai_sample.repository.CustomerSearchIndexRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+/**
+ * 履歴検索用のメールアドレス変換
+ * 入力されたメールアドレスの一部を、顧客のトライグラム索引から完全一致のメールアドレス（キー）に変換する
+ * ログイン履歴・監査ログ・通知履歴のメールアドレスはすべて顧客を参照するため、
+ * 変換したキーのIN条件で各履歴のメールアドレスのインデックスを使用して検索できる
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class EmailKeyResolver {
+
+    private final CustomerSearchIndexRepository customerSearchIndexRepository;
+    private final CustomerSearchProperties customerSearchProperties;
+    private final TrigramStopGrams trigramStopGrams;
+
+    /**
+     * メールアドレスの一部を完全一致のキーに変換
+     *
+     * @param partialEmail メールアドレスの一部
+     * @return 一致する顧客のメールアドレス（一致なしの場合は空）。
+     *         未指定の場合、または一致件数が上限を超える場合は部分一致で検索するためnull
+     */
+    public List<String> resolve(String partialEmail) {
+        if (!StringUtils.hasLength(partialEmail)) {
+            return null;
+        }
+        int limit = customerSearchProperties.getEmailKeyLimit();
+        List<String> emails = customerSearchIndexRepository.findEmailsByPartialEmail(partialEmail,
+            trigramStopGrams.selectiveTrigrams(CustomerSearchIndexRepository.FIELD_EMAIL, partialEmail), limit + 1);
+        if (emails.size() > limit) {
+            log.debug("一致するメールアドレスが上限を超えるため部分一致で検索: partialEmail={}, limit={}", partialEmail, limit);
+            return null;
+        }
+        return emails;
+    }
+}
@@ -2,6 +2,7 @@ package io.github.yoshikawaa.example.ai_sample.service;
 
 import org.springframework.lang.NonNull;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +12,13 @@ import org.springframework.stereotype.Service;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Slf4j
 @RequiredArgsConstructor
 @Service
@@ -28,18 +36,93 @@ public class EmailService {
      */
     public boolean sendEmail(@NonNull String to, @NonNull String subject, @NonNull String body) {
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(body, true); // true を指定すると HTML メールを送信可能
-
-            mailSender.send(message);
+            mailSender.send(createMessage(new EmailMessage(to, subject, body)));
             return true;
         } catch (MailException | MessagingException e) {
             log.error("メール送信失敗: to={}, subject={}, error={}", to, subject, e.getMessage(), e);
             return false;
         }
     }
+
+    /**
+     * メール一括送信
+     * 1回のSMTP接続（接続・認証は1回のみ）でまとめて送信する
+     * 一部のメールの送信に失敗しても残りのメールは送信する
+     *
+     * @param messages 送信するメール
+     * @return 送信結果（messagesと同じ順序、送信成功時true、失敗時false）
+     */
+    public boolean[] sendEmails(@NonNull List<EmailMessage> messages) {
+        boolean[] results = new boolean[messages.size()];
+        List<MimeMessage> mimeMessages = new ArrayList<>(messages.size());
+        Map<MimeMessage, Integer> indexes = new IdentityHashMap<>();
+        for (int i = 0; i < messages.size(); i++) {
+            try {
+                MimeMessage mimeMessage = createMessage(messages.get(i));
+                mimeMessages.add(mimeMessage);
+                indexes.put(mimeMessage, i);
+            } catch (MessagingException e) {
+                log.error("メール作成失敗: to={}, subject={}, error={}", messages.get(i).to(), messages.get(i).subject(), e.getMessage(), e);
+            }
+        }
+        if (mimeMessages.isEmpty()) {
+            return results;
+        }
+        indexes.values().forEach(i -> results[i] = true);
+        try {
+            mailSender.send(mimeMessages.toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                // 接続・認証の失敗などメールごとの結果がない場合はすべて失敗とする
+                Arrays.fill(results, false);
+            } else {
+                e.getFailedMessages().keySet().forEach(failed -> {
+                    Integer index = indexes.get(failed);
+                    if (index != null) {
+                        results[index] = false;
+                    }
+                });
+            }
+            log.error("メール一括送信で失敗: total={}, failed={}, error={}", messages.size(), countFailed(results), e.getMessage(), e);
+        } catch (MailException e) {
+            Arrays.fill(results, false);
+            log.error("メール一括送信失敗: total={}, error={}", messages.size(), e.getMessage(), e);
+        }
+        return results;
+    }
+
+    /**
+     * メール作成
+     * 添付ファイルを扱わないため、マルチパートにせず本文1パートだけのメールにする
+     * 通知の本文はテキストテンプレート（顧客の入力値をエスケープせずに埋め込む）から作成するため、常にtext/plainとする
+     */
+    private MimeMessage createMessage(EmailMessage message) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, MimeMessageHelper.MULTIPART_MODE_NO, StandardCharsets.UTF_8.name());
+
+        helper.setTo(message.to());
+        helper.setSubject(message.subject());
+        helper.setText(message.body(), false);
+        return mimeMessage;
+    }
+
+    private static long countFailed(boolean[] results) {
+        long failed = 0;
+        for (boolean result : results) {
+            if (!result) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * 送信するメール
+     *
+     * @param to 送信先メールアドレス
+     * @param subject 件名
+     * @param body 本文
+     */
+    public record EmailMessage(@NonNull String to, @NonNull String subject, @NonNull String body) {
+    }
 }
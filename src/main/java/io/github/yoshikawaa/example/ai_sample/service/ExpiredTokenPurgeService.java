@@ -0,0 +1,59 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.TokenPurgeProperties;
+import io.github.yoshikawaa.example.ai_sample.repository.AccountUnlockTokenRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.PasswordResetTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * 有効期限切れのトークン（パスワードリセット・アカウントロック解除）の削除
+ * 使われずに期限切れとなったトークンを定期的に削除し、トークンのテーブルが増え続けないようにする
+ * chunk-size件ずつ別々のトランザクションで削除し、1回のDELETEで長時間ロックを保持しない
+ */
+@Slf4j
+@RequiredArgsConstructor
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=Job,name=expiredTokenPurge")
+@Service
+public class ExpiredTokenPurgeService {
+
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final AccountUnlockTokenRepository accountUnlockTokenRepository;
+    private final TokenPurgeProperties tokenPurgeProperties;
+
+    /**
+     * 有効期限切れのトークンを削除
+     *
+     * @return 削除件数
+     */
+    @Scheduled(fixedDelayString = "${app.security.token-purge.interval-ms:3600000}",
+               initialDelayString = "${app.security.token-purge.interval-ms:3600000}")
+    @ManagedOperation(description = "有効期限切れのパスワードリセット・アカウントロック解除トークンを削除")
+    public int purge() {
+        long now = System.currentTimeMillis();
+        int passwordResetTokens = purgeInChunks(limit -> passwordResetTokenRepository.deleteExpired(now, limit));
+        int accountUnlockTokens = purgeInChunks(limit -> accountUnlockTokenRepository.deleteExpired(now, limit));
+        if (passwordResetTokens > 0 || accountUnlockTokens > 0) {
+            log.info("有効期限切れのトークンを削除: パスワードリセット={}件, アカウントロック解除={}件",
+                passwordResetTokens, accountUnlockTokens);
+        }
+        return passwordResetTokens + accountUnlockTokens;
+    }
+
+    private int purgeInChunks(IntUnaryOperator deleteChunk) {
+        int chunkSize = Math.max(1, tokenPurgeProperties.getChunkSize());
+        int total = 0;
+        int deleted;
+        do {
+            deleted = deleteChunk.applyAsInt(chunkSize);
+            total += deleted;
+        } while (deleted >= chunkSize);
+        return total;
+    }
+}
@@ -1,4 +1,3 @@
-
 package io.github.yoshikawaa.example.ai_sample.service;
 
 import java.time.LocalDateTime;
@@ -7,92 +6,79 @@ import java.time.format.DateTimeFormatter;
 
 
 import io.github.yoshikawaa.example.ai_sample.config.LoginAttemptProperties;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import io.github.yoshikawaa.example.ai_sample.model.LoginAttempt;
-import io.github.yoshikawaa.example.ai_sample.repository.LoginAttemptRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * ログイン試行の管理
+ * 失敗回数とロック状態はLoginAttemptTracker（メモリ）で判定し、DBへはLoginAttemptWriterでライトビハインドに反映する
+ */
 @Slf4j
 @RequiredArgsConstructor
 @Service
-@Transactional
 public class LoginAttemptService {
 
-    private final LoginAttemptRepository loginAttemptRepository;
+    private final LoginAttemptTracker loginAttemptTracker;
+    private final LoginAttemptWriter loginAttemptWriter;
     private final LoginAttemptProperties loginAttemptProperties;
     private final CustomerService customerService;
     private final NotificationService notificationService;
 
     /**
      * ログイン失敗回数を記録し、ロック閾値に達した場合はアカウントをロックしてtrueを返す。
-     * （トランザクション内で即時ロック判定が可能）
+     * （メモリ上で即時ロック判定が可能）
      */
     public boolean handleFailedLoginAttempt(String email) {
-        var loginAttemptOpt = loginAttemptRepository.findByEmail(email);
         long currentTime = System.currentTimeMillis();
+        int attemptCount = loginAttemptTracker.recordFailure(email, currentTime);
 
-        if (loginAttemptOpt.isEmpty()) {
-            // 初回失敗
-            LoginAttempt loginAttempt = new LoginAttempt();
-            loginAttempt.setEmail(email);
-            loginAttempt.setAttemptCount(1);
-            loginAttempt.setLastAttemptTime(currentTime);
-            // 1回目でロックはしない
-            loginAttempt.setLockedUntil(null);
-            loginAttemptRepository.insert(loginAttempt);
-            log.info("ログイン失敗記録: email={}, attemptCount=1", email);
+        if (attemptCount < loginAttemptProperties.getMax()) {
+            loginAttemptWriter.markDirty(email);
+            log.info("ログイン失敗記録: email={}, attemptCount={}", email, attemptCount);
             return false;
-        } else {
-            LoginAttempt loginAttempt = loginAttemptOpt.get();
-            int newAttemptCount = loginAttempt.getAttemptCount() + 1;
-            loginAttempt.setAttemptCount(newAttemptCount);
-            loginAttempt.setLastAttemptTime(currentTime);
-
-            if (newAttemptCount >= loginAttemptProperties.getMax()) {
-                // ロック通知を送信
-                var customer = customerService.getCustomerByEmail(email);
-                notificationService.sendAccountLockedNotification(customer);
-                
-                // ロック処理
-                long lockedUntil = currentTime + loginAttemptProperties.getLockDurationMs();
-                loginAttempt.setLockedUntil(lockedUntil);
-                loginAttemptRepository.update(loginAttempt);
-                String lockedUntilStr = formatTimestamp(lockedUntil);
-                log.warn("アカウントロック: email={}, lockedUntil={}", email, lockedUntilStr);
-                return true;
-            } else {
-                // ロック解除
-                loginAttempt.setLockedUntil(null);
-                loginAttemptRepository.update(loginAttempt);
-                log.info("ログイン失敗記録: email={}, attemptCount={}", email, newAttemptCount);
-                return false;
-            }
         }
+
+        long lockedUntil = currentTime + loginAttemptProperties.getLockDurationMs();
+        if (!loginAttemptTracker.tryLock(email, currentTime, lockedUntil)) {
+            // 同時に失敗した別リクエストがロック済み
+            loginAttemptWriter.markDirty(email);
+            return true;
+        }
+        loginAttemptWriter.markDirty(email);
+
+        // ロック通知を送信
+        var customer = customerService.getCustomerByEmail(email);
+        notificationService.sendAccountLockedNotification(customer);
+
+        String lockedUntilStr = formatTimestamp(lockedUntil);
+        log.warn("アカウントロック: email={}, lockedUntil={}", email, lockedUntilStr);
+        return true;
     }
 
-    @Transactional(readOnly = true)
     public boolean isLocked(String email) {
-        Long lockedUntil = extractLockedUntil(email);
-        if (lockedUntil == null) {
-            return false;
-        }
-        return System.currentTimeMillis() < lockedUntil;
+        return loginAttemptTracker.getLockedUntil(email, System.currentTimeMillis()) != null;
     }
 
-    @Transactional(readOnly = true)
     public String getLockedUntilFormatted(String email) {
-        Long lockedUntil = extractLockedUntil(email);
+        Long lockedUntil = loginAttemptTracker.getLockedUntil(email, System.currentTimeMillis());
         if (lockedUntil == null) {
             return null;
         }
         return formatTimestamp(lockedUntil);
     }
 
+    /**
+     * ログイン試行回数をリセット
+     * 記録がない場合（ログイン成功時の大半）はDBにアクセスしない
+     */
     public void resetAttempts(String email) {
-        log.info("ログイン試行回数リセット: email={}", email);
-        loginAttemptRepository.deleteByEmail(email);
+        if (loginAttemptTracker.contains(email)) {
+            loginAttemptTracker.remove(email);
+            log.info("ログイン試行回数リセット: email={}", email);
+            loginAttemptWriter.markDirty(email);
+        }
     }
 
     /**
@@ -101,24 +87,10 @@ public class LoginAttemptService {
      */
     public void lockAccountByAdmin(String email) {
         log.info("管理者によるアカウントロック: email={}", email);
-        var loginAttemptOpt = loginAttemptRepository.findByEmail(email);
         long currentTime = System.currentTimeMillis();
         long lockedUntil = currentTime + (365L * 24 * 60 * 60 * 1000); // 1年間
-
-        if (loginAttemptOpt.isEmpty()) {
-            LoginAttempt loginAttempt = new LoginAttempt();
-            loginAttempt.setEmail(email);
-            loginAttempt.setAttemptCount(loginAttemptProperties.getMax());
-            loginAttempt.setLastAttemptTime(currentTime);
-            loginAttempt.setLockedUntil(lockedUntil);
-            loginAttemptRepository.insert(loginAttempt);
-        } else {
-            LoginAttempt loginAttempt = loginAttemptOpt.get();
-            loginAttempt.setAttemptCount(loginAttemptProperties.getMax());
-            loginAttempt.setLastAttemptTime(currentTime);
-            loginAttempt.setLockedUntil(lockedUntil);
-            loginAttemptRepository.update(loginAttempt);
-        }
+        loginAttemptTracker.put(email, loginAttemptProperties.getMax(), currentTime, lockedUntil);
+        loginAttemptWriter.markDirty(email);
     }
 
     /**
@@ -127,16 +99,20 @@ public class LoginAttemptService {
      */
     public void unlockAccountByAdmin(String email) {
         log.info("管理者によるアカウントロック解除: email={}", email);
-        resetAttempts(email);
+        loginAttemptTracker.remove(email);
+        loginAttemptWriter.markDirty(email);
     }
 
     /**
-     * ログイン試行記録からlockedUntil値を安全に取得
+     * 失効した試行記録をメモリとDBから破棄
      */
-    private Long extractLockedUntil(String email) {
-        return loginAttemptRepository.findByEmail(email)
-            .map(LoginAttempt::getLockedUntil)
-            .orElse(null);
+    @Scheduled(fixedDelayString = "${app.security.login.attempt.sweep-interval-ms:60000}")
+    public void evictExpiredAttempts() {
+        var expired = loginAttemptTracker.evictExpired(System.currentTimeMillis());
+        if (!expired.isEmpty()) {
+            expired.forEach(loginAttemptWriter::markDirty);
+            log.debug("失効したログイン試行記録を破棄: {}件", expired.size());
+        }
     }
 
     private String formatTimestamp(long timestamp) {
@@ -0,0 +1,283 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.LoginAttemptProperties;
+import io.github.yoshikawaa.example.ai_sample.model.LoginAttempt;
+import io.github.yoshikawaa.example.ai_sample.repository.LoginAttemptRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ログイン試行記録のメモリ上のストア
+ * ログイン失敗の記録はこのストアで行い、DB（login_attempt）にはLoginAttemptWriterがライトビハインドで反映する
+ * 起動時にDBから有効な記録を読み込むため、ロック状態は再起動後も維持される
+ *
+ * <p>ロック判定では、メモリに記録がない場合またはsyncIntervalMsより前にDBと照合した記録の場合にDBを読み込み、
+ * 他のノードで設定・解除されたロックや失敗回数を反映する（DBの記録の方が新しい場合のみ置き換える）
+ * ログイン失敗の記録はロック判定の後に行われるため、他のノードでの失敗回数に続けて数えられる
+ *
+ * <p>解除・リセットで削除した記録は、DBからの削除がコミットされるまで削除待ちとし、DBを読み込まない
+ * （ライトビハインドの反映前にDBの古い記録を読み込み、解除・リセットを打ち消さないようにする）
+ *
+ * <p>メモリ上の記録はmaxEntriesを上限とし、超えた場合はDBに反映済みの記録を破棄する（次回のロック判定でDBから読み込む）
+ * メールアドレスごとの状態はアトミック変数で管理し、同一アカウントへの同時失敗でもロックを取得しない
+ * 最後の失敗からwindowMs経過した記録は失効し、回数は1からやり直しとなる
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class LoginAttemptTracker implements SmartInitializingSingleton {
+
+    private final LoginAttemptRepository loginAttemptRepository;
+    private final LoginAttemptProperties loginAttemptProperties;
+
+    private final Map<String, AttemptState> attempts = new ConcurrentHashMap<>();
+
+    /** DBへの反映待ちのメールアドレス */
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    /** DBからの削除待ちのメールアドレス（削除のコミットまでDBを読み込まない） */
+    private final Set<String> removed = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long now = System.currentTimeMillis();
+        List<LoginAttempt> active = loginAttemptRepository.findActive(now, now - loginAttemptProperties.getWindowMs());
+        // 上限を超える分はロック判定時にDBから読み込む
+        active.stream()
+            .limit(loginAttemptProperties.getMaxEntries())
+            .forEach(attempt -> attempts.put(attempt.getEmail(), AttemptState.of(attempt, now)));
+        log.info("ログイン試行記録を読み込み: {}件", Math.min(active.size(), loginAttemptProperties.getMaxEntries()));
+    }
+
+    /**
+     * ログイン失敗を記録し、保持期間内の失敗回数を返す
+     */
+    public int recordFailure(String email, long now) {
+        AttemptState state = attempts.get(email);
+        if (state == null) {
+            ensureCapacity();
+            state = attempts.computeIfAbsent(email, key -> new AttemptState(0, now, 0L, now));
+        }
+        long last = state.lastAttemptTime.getAndSet(now);
+        if (now - last > loginAttemptProperties.getWindowMs() && !state.isLocked(now)) {
+            state.attemptCount.set(0);
+        }
+        return state.attemptCount.incrementAndGet();
+    }
+
+    /**
+     * ロックを設定（ロック中でない場合のみ）
+     *
+     * @return ロックを設定した場合はtrue、同時実行した別スレッドが既にロックしていた場合はfalse
+     */
+    public boolean tryLock(String email, long now, long lockedUntil) {
+        AttemptState state = attempts.get(email);
+        if (state == null) {
+            return false;
+        }
+        long current = state.lockedUntil.get();
+        return current <= now && state.lockedUntil.compareAndSet(current, lockedUntil);
+    }
+
+    /**
+     * 試行記録を上書き（管理者による強制ロック）
+     */
+    public void put(String email, int attemptCount, long now, long lockedUntil) {
+        if (!attempts.containsKey(email)) {
+            ensureCapacity();
+        }
+        attempts.put(email, new AttemptState(attemptCount, now, lockedUntil, now));
+    }
+
+    /**
+     * 試行記録を削除し、DBからの削除待ちにする（呼び出し元はDBへの反映待ちとしてマークすること）
+     *
+     * @return 記録が存在した場合はtrue
+     */
+    public boolean remove(String email) {
+        removed.add(email);
+        return attempts.remove(email) != null;
+    }
+
+    /**
+     * 試行記録がメモリに存在するかを判定
+     */
+    public boolean contains(String email) {
+        return attempts.containsKey(email);
+    }
+
+    /**
+     * DBからの削除待ちを解除（DBへの反映のコミット後、または反映を破棄した場合に呼び出す）
+     */
+    public void clearRemoved(String email) {
+        removed.remove(email);
+    }
+
+    /**
+     * ロック期限を取得
+     * メモリに記録がない場合、またはDBとの照合からsyncIntervalMsを過ぎた場合はDBを読み込む
+     *
+     * @return ロック中の場合はロック期限、それ以外はnull
+     */
+    public Long getLockedUntil(String email, long now) {
+        AttemptState state = attempts.get(email);
+        if (state == null || (now - state.syncedAt >= loginAttemptProperties.getSyncIntervalMs() && !dirty.contains(email))) {
+            state = reload(email, state, now);
+        }
+        if (state == null || !state.isLocked(now)) {
+            return null;
+        }
+        return state.lockedUntil.get();
+    }
+
+    /**
+     * DBの記録をメモリに反映
+     * 読み込み中にこのノードで更新された記録や、DBより新しい記録は置き換えない
+     * メモリに記録がなくDBからの削除待ちの場合は、DBを読み込まない（削除前の記録を読み戻さない）
+     *
+     * @param current 読み込み前のメモリ上の記録（存在しない場合はnull）
+     * @return 反映後のメモリ上の記録（存在しない場合はnull）
+     */
+    private AttemptState reload(String email, AttemptState current, long now) {
+        if (current == null && removed.contains(email)) {
+            return null;
+        }
+        Optional<LoginAttempt> stored = loginAttemptRepository.findByEmail(email);
+        if (stored.isEmpty()) {
+            // 他のノードでの解除・リセット（反映待ちの記録は残す）
+            return current == null ? null : attempts.computeIfPresent(email,
+                (key, state) -> state == current && !dirty.contains(key) ? null : state);
+        }
+        AttemptState loaded = AttemptState.of(stored.get(), now);
+        if (current == null) {
+            if (removed.contains(email)) {
+                // 読み込み中に解除・リセットされた
+                return null;
+            }
+            ensureCapacity();
+            AttemptState existing = attempts.putIfAbsent(email, loaded);
+            return existing != null ? existing : loaded;
+        }
+        return attempts.computeIfPresent(email, (key, state) -> {
+            if (state != current || dirty.contains(key)) {
+                return state;
+            }
+            if (loaded.lastAttemptTime.get() >= state.lastAttemptTime.get()) {
+                return loaded;
+            }
+            state.syncedAt = now;
+            return state;
+        });
+    }
+
+    /**
+     * 記録数が上限に達している場合、DBに反映済みの記録を上限の9割まで破棄する
+     */
+    private void ensureCapacity() {
+        int maxEntries = loginAttemptProperties.getMaxEntries();
+        if (attempts.size() < maxEntries) {
+            return;
+        }
+        int target = maxEntries - maxEntries / 10;
+        var iterator = attempts.keySet().iterator();
+        int evicted = 0;
+        while (attempts.size() > target && iterator.hasNext()) {
+            String email = iterator.next();
+            if (!dirty.contains(email)) {
+                iterator.remove();
+                evicted++;
+            }
+        }
+        log.warn("ログイン試行記録が上限に達したため反映済みの記録を破棄: maxEntries={}, evicted={}", maxEntries, evicted);
+    }
+
+    /**
+     * DBに反映する内容を取得（記録が存在しない場合は削除対象）
+     */
+    public Optional<LoginAttempt> snapshot(String email) {
+        AttemptState state = attempts.get(email);
+        if (state == null) {
+            return Optional.empty();
+        }
+        long lockedUntil = state.lockedUntil.get();
+        return Optional.of(new LoginAttempt(email, state.attemptCount.get(),
+            lockedUntil != 0 ? lockedUntil : null, state.lastAttemptTime.get()));
+    }
+
+    /**
+     * DBへの反映待ちとしてマーク
+     *
+     * @return 新たにマークした場合はtrue（既に反映待ちの場合はfalse）
+     */
+    public boolean markDirty(String email) {
+        return dirty.add(email);
+    }
+
+    /**
+     * DBへの反映待ちを解除（反映直前に呼び出し、以降の変更は再度マークされる）
+     */
+    public void clearDirty(String email) {
+        dirty.remove(email);
+    }
+
+    /**
+     * 失効した記録をメモリから破棄
+     *
+     * @return 破棄したメールアドレス
+     */
+    public List<String> evictExpired(long now) {
+        long windowStart = now - loginAttemptProperties.getWindowMs();
+        List<String> expired = attempts.entrySet().stream()
+            .filter(entry -> !entry.getValue().isLocked(now) && entry.getValue().lastAttemptTime.get() <= windowStart)
+            .map(Map.Entry::getKey)
+            .toList();
+        expired.forEach(email -> attempts.computeIfPresent(email,
+            (key, state) -> !state.isLocked(now) && state.lastAttemptTime.get() <= windowStart ? null : state));
+        return expired;
+    }
+
+    /**
+     * 記録しているメールアドレスの数
+     */
+    public int size() {
+        return attempts.size();
+    }
+
+    /**
+     * メールアドレスごとの試行状態
+     */
+    private static final class AttemptState {
+        private final AtomicInteger attemptCount;
+        private final AtomicLong lastAttemptTime;
+        /** ロック期限（0はロックなし） */
+        private final AtomicLong lockedUntil;
+        /** DBと照合した時刻 */
+        private volatile long syncedAt;
+
+        private AttemptState(int attemptCount, long lastAttemptTime, long lockedUntil, long syncedAt) {
+            this.attemptCount = new AtomicInteger(attemptCount);
+            this.lastAttemptTime = new AtomicLong(lastAttemptTime);
+            this.lockedUntil = new AtomicLong(lockedUntil);
+            this.syncedAt = syncedAt;
+        }
+
+        private static AttemptState of(LoginAttempt attempt, long syncedAt) {
+            return new AttemptState(attempt.getAttemptCount(), attempt.getLastAttemptTime(),
+                attempt.getLockedUntil() != null ? attempt.getLockedUntil() : 0L, syncedAt);
+        }
+
+        private boolean isLocked(long now) {
+            return now < lockedUntil.get();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.LoginAttemptProperties;
+import io.github.yoshikawaa.example.ai_sample.repository.LoginAttemptRepository;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * ログイン試行記録のDBへのライトビハインド
+ * キューには変更のあったメールアドレスのみを積み、書き込み時点のLoginAttemptTrackerの状態をMERGE（記録がなければDELETE）する
+ * 同一アカウントへの連続失敗は反映待ちの間に1件にまとめられる
+ * 反映のコミット後にLoginAttemptTrackerの削除待ちを解除し、以降のロック判定でDBを読み込めるようにする
+ */
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=AsyncBatchWriter,name=loginAttempt")
+@Component
+public class LoginAttemptWriter extends AsyncBatchWriter<String> {
+
+    private final LoginAttemptTracker loginAttemptTracker;
+    private final LoginAttemptRepository loginAttemptRepository;
+    private final SqlSessionTemplate batchSqlSession;
+
+    public LoginAttemptWriter(LoginAttemptProperties loginAttemptProperties, LoginAttemptTracker loginAttemptTracker,
+                              LoginAttemptRepository loginAttemptRepository, SqlSessionFactory sqlSessionFactory,
+                              PlatformTransactionManager transactionManager) {
+        super("ログイン試行記録", loginAttemptProperties.getWrite(), transactionManager);
+        this.loginAttemptTracker = loginAttemptTracker;
+        this.loginAttemptRepository = loginAttemptRepository;
+        this.batchSqlSession = batchSqlSession(sqlSessionFactory);
+    }
+
+    /**
+     * メールアドレスの試行記録をDBへの反映待ちにする（既に反映待ちの場合は何もしない）
+     */
+    public void markDirty(String email) {
+        if (loginAttemptTracker.markDirty(email) && !write(email)) {
+            // キュー満杯で破棄された場合は次回の変更で再度反映待ちにする（削除は反映されないため、DBの記録を読み込めるようにする）
+            loginAttemptTracker.clearDirty(email);
+            loginAttemptTracker.clearRemoved(email);
+        }
+    }
+
+    @Override
+    protected void writeOne(String email) {
+        persist(loginAttemptRepository, email);
+    }
+
+    @Override
+    protected void writeBatch(List<String> emails) {
+        LoginAttemptRepository batchLoginAttemptRepository = batchSqlSession.getMapper(LoginAttemptRepository.class);
+        new LinkedHashSet<>(emails).forEach(email -> persist(batchLoginAttemptRepository, email));
+    }
+
+    private void persist(LoginAttemptRepository repository, String email) {
+        loginAttemptTracker.clearDirty(email);
+        loginAttemptTracker.snapshot(email).ifPresentOrElse(
+            repository::upsert,
+            () -> repository.deleteByEmail(email));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // バッチ実行の場合はコミット時にDBへ送信されるため、コミット後に解除する（ロールバック時は1件ずつの再試行で解除する）
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    loginAttemptTracker.clearRemoved(email);
+                }
+            });
+        } else {
+            loginAttemptTracker.clearRemoved(email);
+        }
+    }
+}
@@ -5,14 +5,14 @@ import io.github.yoshikawaa.example.ai_sample.model.LoginHistorySearchForm;
 import io.github.yoshikawaa.example.ai_sample.repository.LoginHistoryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -23,11 +23,15 @@ import java.util.List;
 public class LoginHistoryService {
 
     private final LoginHistoryRepository loginHistoryRepository;
+    private final LoginHistoryWriter loginHistoryWriter;
+    private final PaginationService paginationService;
+    private final EmailKeyResolver emailKeyResolver;
 
     /**
      * ログイン成功を記録
+     * 書き込みはLoginHistoryWriterに委譲する（既定では非同期、呼び出し元のトランザクションとは独立してコミット）
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void recordLoginSuccess(String email, String ipAddress, String userAgent) {
         try {
             LoginHistory loginHistory = new LoginHistory();
@@ -38,8 +42,9 @@ public class LoginHistoryService {
             loginHistory.setUserAgent(userAgent);
             loginHistory.setFailureReason(null);
 
-            loginHistoryRepository.insert(loginHistory);
-            log.info("ログイン成功を記録: email={}", email);
+            if (loginHistoryWriter.write(loginHistory)) {
+                log.info("ログイン成功を記録: email={}", email);
+            }
         } catch (Exception e) {
             log.error("ログイン履歴の記録に失敗: email={}", email, e);
         }
@@ -48,7 +53,7 @@ public class LoginHistoryService {
     /**
      * ログイン失敗を記録
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void recordLoginFailure(String email, String ipAddress, String userAgent, String failureReason) {
         try {
             LoginHistory loginHistory = new LoginHistory();
@@ -59,8 +64,9 @@ public class LoginHistoryService {
             loginHistory.setUserAgent(userAgent);
             loginHistory.setFailureReason(failureReason);
             
-            loginHistoryRepository.insert(loginHistory);
-            log.info("ログイン失敗を記録: email={}, reason={}", email, failureReason);
+            if (loginHistoryWriter.write(loginHistory)) {
+                log.info("ログイン失敗を記録: email={}, reason={}", email, failureReason);
+            }
         } catch (Exception e) {
             log.error("ログイン履歴の記録に失敗: email={}", email, e);
         }
@@ -69,7 +75,7 @@ public class LoginHistoryService {
     /**
      * アカウントロック時のログインを記録
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void recordLoginLocked(String email, String ipAddress, String userAgent) {
         try {
             LoginHistory loginHistory = new LoginHistory();
@@ -80,8 +86,9 @@ public class LoginHistoryService {
             loginHistory.setUserAgent(userAgent);
             loginHistory.setFailureReason("アカウントがロックされています");
             
-            loginHistoryRepository.insert(loginHistory);
-            log.info("アカウントロック中のログイン試行を記録: email={}", email);
+            if (loginHistoryWriter.write(loginHistory)) {
+                log.info("アカウントロック中のログイン試行を記録: email={}", email);
+            }
         } catch (Exception e) {
             log.error("ログイン履歴の記録に失敗: email={}", email, e);
         }
@@ -90,7 +97,7 @@ public class LoginHistoryService {
     /**
      * セッション超過を記録
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void recordSessionExceeded(String email, String ipAddress, String userAgent) {
         try {
             LoginHistory loginHistory = new LoginHistory();
@@ -101,8 +108,9 @@ public class LoginHistoryService {
             loginHistory.setUserAgent(userAgent);
             loginHistory.setFailureReason("最大セッション数超過");
             
-            loginHistoryRepository.insert(loginHistory);
-            log.info("セッション超過を記録: email={}", email);
+            if (loginHistoryWriter.write(loginHistory)) {
+                log.info("セッション超過を記録: email={}", email);
+            }
         } catch (Exception e) {
             log.error("ログイン履歴の記録に失敗: email={}", email, e);
         }
@@ -111,7 +119,7 @@ public class LoginHistoryService {
     /**
      * ログアウトを記録
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void recordLogout(String email, String ipAddress, String userAgent) {
         try {
             LoginHistory loginHistory = new LoginHistory();
@@ -122,8 +130,9 @@ public class LoginHistoryService {
             loginHistory.setUserAgent(userAgent);
             loginHistory.setFailureReason(null);
 
-            loginHistoryRepository.insert(loginHistory);
-            log.info("ログアウトを記録: email={}", email);
+            if (loginHistoryWriter.write(loginHistory)) {
+                log.info("ログアウトを記録: email={}", email);
+            }
         } catch (Exception e) {
             log.error("ログアウト履歴の記録に失敗: email={}", email, e);
         }
@@ -131,45 +140,51 @@ public class LoginHistoryService {
 
     /**
      * ログイン履歴を取得（ページネーション対応）
+     * 総件数の取得方式がSLICEの場合はSliceを返す
      */
     @Transactional(readOnly = true)
-    public Page<LoginHistory> getAllLoginHistoriesWithPagination(Pageable pageable) {
+    public Slice<LoginHistory> getAllLoginHistoriesWithPagination(Pageable pageable) {
         int offset = (int) pageable.getOffset();
-        int pageSize = pageable.getPageSize();
         String[] sortInfo = extractSortInfo(pageable);
-        List<LoginHistory> histories = loginHistoryRepository.findAllWithPagination(pageSize, offset, sortInfo[0], sortInfo[1]);
-        long total = loginHistoryRepository.count();
-        return new PageImpl<>(histories, pageable, total);
+        return paginationService.paginate(PaginationService.LOGIN_HISTORY, new Object[0], pageable,
+            limit -> loginHistoryRepository.findAllWithPagination(limit, offset, sortInfo[0], sortInfo[1]),
+            loginHistoryRepository::count);
     }
 
     /**
      * ログイン履歴を検索（ページネーション対応）
+     * 総件数の取得方式がSLICEの場合はSliceを返す
      */
     @Transactional(readOnly = true)
-    public Page<LoginHistory> searchLoginHistoriesWithPagination(LoginHistorySearchForm searchForm, Pageable pageable) {
+    public Slice<LoginHistory> searchLoginHistoriesWithPagination(LoginHistorySearchForm searchForm, Pageable pageable) {
         int offset = (int) pageable.getOffset();
-        int pageSize = pageable.getPageSize();
         String[] sortInfo = extractSortInfo(pageable);
+        String email = searchForm.getEmail();
+        List<String> emailKeys = emailKeyResolver.resolve(email);
+        String status = searchForm.getStatus();
+        LocalDate fromDate = searchForm.getFromDate();
+        LocalDate toDate = searchForm.getToDate();
         
-        List<LoginHistory> histories = loginHistoryRepository.searchWithPagination(
-            searchForm.getEmail(),
-            searchForm.getStatus(),
-            searchForm.getFromDate(),
-            searchForm.getToDate(),
-            pageSize,
-            offset,
-            sortInfo[0],
-            sortInfo[1]
-        );
-        
-        long total = loginHistoryRepository.countBySearch(
-            searchForm.getEmail(),
-            searchForm.getStatus(),
-            searchForm.getFromDate(),
-            searchForm.getToDate()
-        );
-        
-        return new PageImpl<>(histories, pageable, total);
+        return paginationService.paginate(PaginationService.LOGIN_HISTORY,
+            new Object[]{email, status, fromDate, toDate}, pageable,
+            limit -> loginHistoryRepository.searchWithPagination(
+                email,
+                emailKeys,
+                status,
+                fromDate,
+                toDate,
+                limit,
+                offset,
+                sortInfo[0],
+                sortInfo[1]
+            ),
+            () -> loginHistoryRepository.countBySearch(
+                email,
+                emailKeys,
+                status,
+                fromDate,
+                toDate
+            ));
     }
 
     /**
@@ -0,0 +1,80 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.LoginHistoryProperties;
+import io.github.yoshikawaa.example.ai_sample.model.LoginHistory;
+import io.github.yoshikawaa.example.ai_sample.repository.ActivityTimelineRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.LoginHistoryRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.StatisticsRepository;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * ログイン履歴の書き込み
+ * 認証成功・失敗・ログアウトのハンドラーからリダイレクト前に呼び出されるため、既定ではバッチINSERTで非同期に書き込む
+ * 未登録メールアドレスでのログイン失敗（クレデンシャルスタッフィング等）は外部キー制約により記録できないため、バッチでは対象外として除外する
+ * 記録したログイン履歴は同じトランザクションでアクティビティイベントにも投影し、日別のログイン数を加算する
+ */
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=AsyncBatchWriter,name=loginHistory")
+@Component
+public class LoginHistoryWriter extends AsyncBatchWriter<LoginHistory> {
+
+    private final LoginHistoryRepository loginHistoryRepository;
+    private final SqlSessionTemplate batchSqlSession;
+    private final PaginationService paginationService;
+    private final ActivityTimelineRepository activityTimelineRepository;
+    private final StatisticsRepository statisticsRepository;
+    private final StatisticsCache statisticsCache;
+
+    public LoginHistoryWriter(LoginHistoryProperties loginHistoryProperties, LoginHistoryRepository loginHistoryRepository,
+                              SqlSessionFactory sqlSessionFactory, PlatformTransactionManager transactionManager,
+                              PaginationService paginationService, ActivityTimelineRepository activityTimelineRepository,
+                              StatisticsRepository statisticsRepository, StatisticsCache statisticsCache) {
+        super("ログイン履歴", loginHistoryProperties.getWrite(), transactionManager);
+        this.loginHistoryRepository = loginHistoryRepository;
+        this.batchSqlSession = batchSqlSession(sqlSessionFactory);
+        this.paginationService = paginationService;
+        this.activityTimelineRepository = activityTimelineRepository;
+        this.statisticsRepository = statisticsRepository;
+        this.statisticsCache = statisticsCache;
+    }
+
+    @Override
+    protected void writeOne(LoginHistory loginHistory) {
+        loginHistoryRepository.insert(loginHistory);
+        activityTimelineRepository.projectLoginHistory(loginHistory.getId());
+        statisticsRepository.incrementLoginCount(loginHistory);
+        if (loginHistory.getLoginTime() != null) {
+            statisticsCache.evict(loginHistory.getLoginTime().toLocalDate());
+        }
+        paginationService.invalidate(PaginationService.LOGIN_HISTORY);
+    }
+
+    @Override
+    protected void writeBatch(List<LoginHistory> loginHistories) {
+        LoginHistoryRepository batchLoginHistoryRepository = batchSqlSession.getMapper(LoginHistoryRepository.class);
+        loginHistories.forEach(batchLoginHistoryRepository::insertIfCustomerExists);
+        StatisticsRepository batchStatisticsRepository = batchSqlSession.getMapper(StatisticsRepository.class);
+        loginHistories.forEach(batchStatisticsRepository::incrementLoginCount);
+        statisticsCache.evict(loginHistories.stream().map(LoginHistory::getLoginTime).filter(Objects::nonNull)
+            .map(LocalDateTime::toLocalDate).collect(Collectors.toSet()));
+
+        // バッチではIDを取得しないため、登録した顧客・期間の未投影分をまとめて投影する
+        // （DBの日時精度への丸めで範囲外とならないよう前後1秒広げる。投影済みの行は除外される）
+        Set<String> emails = loginHistories.stream().map(LoginHistory::getEmail).filter(Objects::nonNull).collect(Collectors.toSet());
+        List<LocalDateTime> times = loginHistories.stream().map(LoginHistory::getLoginTime).filter(Objects::nonNull).sorted().toList();
+        if (!emails.isEmpty() && !times.isEmpty()) {
+            batchSqlSession.getMapper(ActivityTimelineRepository.class)
+                .projectLoginHistories(emails, times.get(0).minusSeconds(1), times.get(times.size() - 1).plusSeconds(1));
+        }
+        paginationService.invalidate(PaginationService.LOGIN_HISTORY);
+    }
+}
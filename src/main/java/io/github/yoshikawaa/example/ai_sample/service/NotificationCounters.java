@@ -0,0 +1,178 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.model.NotificationCount;
+import io.github.yoshikawaa.example.ai_sample.model.NotificationHistory.NotificationType;
+import io.github.yoshikawaa.example.ai_sample.model.NotificationHistory.Status;
+import io.github.yoshikawaa.example.ai_sample.model.NotificationTypeCount;
+import io.github.yoshikawaa.example.ai_sample.repository.NotificationHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 通知種別・送信ステータスごとの通知履歴の件数
+ * 起動時に通知履歴から集計し、以降は通知履歴の記録・送信結果の反映のコミット後に加減算する
+ * 通知履歴画面の統計は、通知履歴の件数によらず集計クエリを実行せずに取得できる
+ *
+ * <p>顧客の削除に伴う通知履歴の削除や、他のインスタンスで記録された通知履歴は加減算されないため、
+ * 定期的な再集計（counters-reconcile-interval-ms）で通知履歴の件数に補正する
+ */
+@Slf4j
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=Counter,name=notification")
+@Component
+public class NotificationCounters {
+
+    private static final NotificationType[] TYPES = NotificationType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final NotificationHistoryRepository notificationHistoryRepository;
+
+    /** 通知種別（ordinal）× 送信ステータス（ordinal）の件数 */
+    private final LongAdder[][] counts = new LongAdder[TYPES.length][STATUSES.length];
+
+    public NotificationCounters(NotificationHistoryRepository notificationHistoryRepository) {
+        this.notificationHistoryRepository = notificationHistoryRepository;
+        for (LongAdder[] row : counts) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = new LongAdder();
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        reconcile();
+    }
+
+    /**
+     * 通知履歴を集計して件数を補正
+     * 集計中にコミットされた加減算は二重に数えることがあるが、次回の再集計で補正される
+     */
+    @Scheduled(fixedDelayString = "${app.notification.counters-reconcile-interval-ms:300000}",
+               initialDelayString = "${app.notification.counters-reconcile-interval-ms:300000}")
+    @ManagedOperation(description = "通知履歴を集計して件数を補正")
+    public void reconcile() {
+        long[][] before = snapshot();
+        long[][] actual = new long[TYPES.length][STATUSES.length];
+        for (NotificationCount count : notificationHistoryRepository.countByNotificationTypeAndStatus()) {
+            actual[count.getNotificationType().ordinal()][count.getStatus().ordinal()] = count.getCount();
+        }
+        long drift = 0;
+        for (int type = 0; type < TYPES.length; type++) {
+            for (int status = 0; status < STATUSES.length; status++) {
+                long delta = actual[type][status] - before[type][status];
+                if (delta != 0) {
+                    counts[type][status].add(delta);
+                    drift += Math.abs(delta);
+                }
+            }
+        }
+        if (drift > 0) {
+            log.info("通知履歴の件数を補正: ずれ={}件", drift);
+        }
+    }
+
+    /**
+     * 通知履歴の記録を反映（トランザクション中の場合はコミット後に反映する）
+     */
+    public void recordCreated(NotificationType notificationType, Status status) {
+        afterCommit(() -> counts[notificationType.ordinal()][status.ordinal()].increment());
+    }
+
+    /**
+     * 送信ステータスの変更を反映（トランザクション中の場合はコミット後に反映する）
+     */
+    public void recordStatusChange(NotificationType notificationType, Status from, Status to) {
+        if (from == to) {
+            return;
+        }
+        afterCommit(() -> {
+            counts[notificationType.ordinal()][from.ordinal()].decrement();
+            counts[notificationType.ordinal()][to.ordinal()].increment();
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // ========================================
+    // 件数
+    // ========================================
+
+    @ManagedAttribute(description = "通知履歴の総件数")
+    public long getTotalCount() {
+        long total = 0;
+        for (LongAdder[] row : counts) {
+            for (LongAdder count : row) {
+                total += count.sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 送信ステータスの件数
+     */
+    public long countByStatus(Status status) {
+        long total = 0;
+        for (LongAdder[] row : counts) {
+            total += row[status.ordinal()].sum();
+        }
+        return total;
+    }
+
+    /**
+     * 通知種別ごとの件数（件数の多い順、0件の通知種別を除く）
+     */
+    public List<NotificationTypeCount> getTypeCounts() {
+        List<NotificationTypeCount> typeCounts = new ArrayList<>(TYPES.length);
+        for (NotificationType type : TYPES) {
+            long total = 0;
+            for (LongAdder count : counts[type.ordinal()]) {
+                total += count.sum();
+            }
+            if (total > 0) {
+                typeCounts.add(new NotificationTypeCount(type.name(), total));
+            }
+        }
+        typeCounts.sort(Comparator.comparingLong(NotificationTypeCount::getCount).reversed());
+        return typeCounts;
+    }
+
+    @ManagedAttribute(description = "送信待ち（再送待ちを含む）の件数")
+    public long getPendingCount() {
+        return countByStatus(Status.PENDING);
+    }
+
+    private long[][] snapshot() {
+        long[][] snapshot = new long[TYPES.length][STATUSES.length];
+        for (int type = 0; type < TYPES.length; type++) {
+            for (int status = 0; status < STATUSES.length; status++) {
+                snapshot[type][status] = counts[type][status].sum();
+            }
+        }
+        return snapshot;
+    }
+}
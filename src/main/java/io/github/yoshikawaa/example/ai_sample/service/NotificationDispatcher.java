@@ -0,0 +1,265 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.NotificationProperties;
+import io.github.yoshikawaa.example.ai_sample.config.NotificationProperties.DispatchMode;
+import io.github.yoshikawaa.example.ai_sample.model.NotificationHistory;
+import io.github.yoshikawaa.example.ai_sample.repository.NotificationHistoryRepository;
+import io.github.yoshikawaa.example.ai_sample.service.EmailService.EmailMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 通知メールの送信
+ * 通知履歴を送信待ち（PENDING）として記録してから、専用の有界スレッドプールで送信し、送信結果を通知履歴に反映する
+ * 呼び出し元（リクエスト処理・ログイン失敗の記録など）はSMTPサーバーの応答を待たない
+ *
+ * <p>送信待ちの通知履歴は呼び出し元のトランザクションで記録し（トランザクショナルアウトボックス）、コミット後に送信する
+ * 呼び出し元のトランザクションはSMTPの送信を待たずにロックを解放し、ロールバックした場合は通知も送信しない
+ *
+ * <p>送信に失敗した通知は指数バックオフで再送し、最大送信試行回数を超えた場合は送信失敗として記録する
+ * 再送は定期的な再送チェックで行い、キュー満杯や再起動で送信されなかった通知も次回送信時刻を過ぎた時点で再送する
+ * 再送チェックで送信する通知はsend-batch-size件ずつ{@link EmailService#sendEmails(List)}で1回のSMTP接続にまとめて送信する
+ * 送信する通知は次回送信時刻を送信タイムアウト後まで延ばして確保し、複数のスレッド・インスタンスで二重に送信しない
+ * 送信件数・再送件数・失敗件数・キュー滞留数はJMX（spring.jmx.enabled=true）で参照できる
+ */
+@Slf4j
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=Dispatcher,name=notification")
+@Component
+public class NotificationDispatcher implements DisposableBean {
+
+    private static final String ERROR_MESSAGE = "メール送信失敗";
+
+    private final EmailService emailService;
+    private final NotificationHistoryService notificationHistoryService;
+    private final NotificationHistoryRepository notificationHistoryRepository;
+    private final NotificationProperties notificationProperties;
+    private final ThreadPoolExecutor executor;
+
+    /** 送信待ちキューにある、または送信中の通知のID（再送チェックで二重に送信しない） */
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    public NotificationDispatcher(EmailService emailService,
+                                  NotificationHistoryService notificationHistoryService,
+                                  NotificationHistoryRepository notificationHistoryRepository,
+                                  NotificationProperties notificationProperties) {
+        this.emailService = emailService;
+        this.notificationHistoryService = notificationHistoryService;
+        this.notificationHistoryRepository = notificationHistoryRepository;
+        this.notificationProperties = notificationProperties;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            notificationProperties.getDispatchThreads(), notificationProperties.getDispatchThreads(),
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(notificationProperties.getDispatchQueueCapacity()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "notification-dispatch-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * 通知メールを送信待ちとして記録し、送信する
+     * トランザクション中の場合はコミット後に送信する（コミット前に異常終了した場合も、次回送信時刻を過ぎた後の再送チェックで送信する）
+     * ASYNCの場合は送信待ちキューに積んで即座に戻る
+     */
+    public void dispatch(String email, NotificationHistory.NotificationType notificationType, String subject, String body) {
+        // 記録時点で送信タイムアウト後までを送信対象として確保する
+        NotificationHistory notification = notificationHistoryService.createPendingNotification(
+            email, notificationType, subject, body, leaseUntil(LocalDateTime.now()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(List.of(notification));
+                }
+            });
+        } else {
+            submit(List.of(notification));
+        }
+    }
+
+    /**
+     * 次回送信時刻を過ぎた送信待ちの通知を送信（再送チェック）
+     */
+    @Scheduled(fixedDelayString = "${app.notification.retry-poll-interval-ms:5000}",
+               initialDelayString = "${app.notification.retry-poll-interval-ms:5000}")
+    @ManagedOperation(description = "次回送信時刻を過ぎた送信待ちの通知を送信")
+    public void dispatchDue() {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationHistory> dueNotifications = notificationHistoryRepository.findDispatchable(
+            now, notificationProperties.getRetryBatchSize());
+        if (!dueNotifications.isEmpty()) {
+            log.debug("送信待ちの通知を送信: {}件", dueNotifications.size());
+        }
+        List<NotificationHistory> claimed = new ArrayList<>(dueNotifications.size());
+        for (NotificationHistory notification : dueNotifications) {
+            if (!inFlight.contains(notification.getId())
+                    && notificationHistoryRepository.claim(notification.getId(), now, leaseUntil(now)) > 0) {
+                claimed.add(notification);
+            }
+        }
+        // 再送・滞留分はまとめて1回のSMTP接続で送信する
+        int sendBatchSize = Math.max(1, notificationProperties.getSendBatchSize());
+        for (int from = 0; from < claimed.size(); from += sendBatchSize) {
+            submit(claimed.subList(from, Math.min(from + sendBatchSize, claimed.size())));
+        }
+    }
+
+    private LocalDateTime leaseUntil(LocalDateTime now) {
+        return now.plusNanos(TimeUnit.MILLISECONDS.toNanos(notificationProperties.getDispatchTimeoutMs()));
+    }
+
+    private void submit(List<NotificationHistory> notifications) {
+        List<NotificationHistory> batch = notifications.stream().filter(n -> inFlight.add(n.getId())).toList();
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (notificationProperties.getDispatchMode() == DispatchMode.SYNC) {
+            deliverAndRelease(batch);
+            return;
+        }
+        try {
+            executor.execute(() -> deliverAndRelease(batch));
+        } catch (RejectedExecutionException e) {
+            // 通知履歴は送信待ちのまま残し、次回送信時刻を過ぎた後の再送チェックで送信する
+            batch.forEach(n -> inFlight.remove(n.getId()));
+            rejectedCount.add(batch.size());
+            log.warn("送信待ちキューが満杯のため再送チェックで送信: ids={}, queueCapacity={}",
+                batch.stream().map(NotificationHistory::getId).toList(), notificationProperties.getDispatchQueueCapacity());
+        }
+    }
+
+    private void deliverAndRelease(List<NotificationHistory> batch) {
+        try {
+            boolean[] results = send(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                recordResult(batch.get(i), results[i]);
+            }
+        } finally {
+            batch.forEach(n -> inFlight.remove(n.getId()));
+        }
+    }
+
+    private boolean[] send(List<NotificationHistory> batch) {
+        if (batch.size() == 1) {
+            NotificationHistory notification = batch.get(0);
+            return new boolean[]{
+                emailService.sendEmail(notification.getRecipientEmail(), notification.getSubject(), notification.getBody())};
+        }
+        return emailService.sendEmails(batch.stream()
+            .map(n -> new EmailMessage(n.getRecipientEmail(), n.getSubject(), n.getBody()))
+            .toList());
+    }
+
+    private void recordResult(NotificationHistory notification, boolean success) {
+        LocalDateTime now = LocalDateTime.now();
+        int attemptCount = notification.getAttemptCount() + 1;
+        notification.setAttemptCount(attemptCount);
+        if (success) {
+            notification.setStatus(NotificationHistory.Status.SUCCESS);
+            notification.setErrorMessage(null);
+            notification.setNextAttemptAt(null);
+            notification.setSentAt(now);
+            sentCount.increment();
+        } else if (attemptCount >= notificationProperties.getMaxAttempts()) {
+            notification.setStatus(NotificationHistory.Status.FAILURE);
+            notification.setErrorMessage(ERROR_MESSAGE);
+            notification.setNextAttemptAt(null);
+            notification.setSentAt(now);
+            failedCount.increment();
+            log.error("最大送信試行回数を超えたため送信失敗: id={}, attemptCount={}", notification.getId(), attemptCount);
+        } else {
+            long delayMs = retryDelayMs(attemptCount);
+            notification.setErrorMessage(ERROR_MESSAGE);
+            notification.setNextAttemptAt(now.plusNanos(TimeUnit.MILLISECONDS.toNanos(delayMs)));
+            retryCount.increment();
+            log.warn("送信に失敗したため再送: id={}, attemptCount={}, delayMs={}", notification.getId(), attemptCount, delayMs);
+        }
+        try {
+            notificationHistoryService.recordDispatchResult(notification);
+        } catch (RuntimeException e) {
+            // 送信結果を反映できなかった通知は送信待ちのまま残し、次回送信時刻を過ぎた後に再送する
+            log.error("通知の送信結果を反映できませんでした: id={}", notification.getId(), e);
+        }
+    }
+
+    /**
+     * 再送までの待機時間（初回の待機時間 × 倍率^(試行回数-1)、最大待機時間まで）
+     */
+    private long retryDelayMs(int attemptCount) {
+        double delay = notificationProperties.getRetryInitialDelayMs()
+            * Math.pow(notificationProperties.getRetryMultiplier(), attemptCount - 1);
+        return (long) Math.min(delay, notificationProperties.getRetryMaxDelayMs());
+    }
+
+    @Override
+    public void destroy() {
+        // 送信待ちキューの残りは通知履歴に送信待ちとして残り、再起動後の再送チェックで送信する
+        executor.shutdownNow();
+    }
+
+    // ========================================
+    // メトリクス（JMX）
+    // ========================================
+
+    @ManagedAttribute(description = "送信に成功した件数")
+    public long getSentCount() {
+        return sentCount.sum();
+    }
+
+    @ManagedAttribute(description = "送信に失敗し再送待ちにした件数")
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    @ManagedAttribute(description = "最大送信試行回数を超えて送信失敗とした件数")
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    @ManagedAttribute(description = "送信待ちキュー満杯により再送チェックに回した件数")
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    @ManagedAttribute(description = "送信待ちキューに滞留している件数")
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @ManagedAttribute(description = "送信中の件数")
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @ManagedAttribute(description = "送信待ち（再送待ちを含む）の通知履歴の件数")
+    public long getPendingCount() {
+        return notificationHistoryRepository.countPending();
+    }
+}
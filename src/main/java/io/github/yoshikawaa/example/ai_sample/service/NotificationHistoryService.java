@@ -3,14 +3,13 @@ package io.github.yoshikawaa.example.ai_sample.service;
 import io.github.yoshikawaa.example.ai_sample.model.NotificationHistory;
 import io.github.yoshikawaa.example.ai_sample.model.NotificationHistorySearchForm;
 import io.github.yoshikawaa.example.ai_sample.model.NotificationTypeCount;
-import io.github.yoshikawaa.example.ai_sample.model.StatusCount;
+import io.github.yoshikawaa.example.ai_sample.repository.ActivityTimelineRepository;
 import io.github.yoshikawaa.example.ai_sample.repository.NotificationHistoryRepository;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -30,36 +29,68 @@ import java.util.List;
 public class NotificationHistoryService {
 
     private final NotificationHistoryRepository notificationHistoryRepository;
+    private final PaginationService paginationService;
+    private final ActivityTimelineRepository activityTimelineRepository;
+    private final EmailKeyResolver emailKeyResolver;
+    private final NotificationCounters notificationCounters;
 
     // ========================================
     // 履歴記録
     // ========================================
 
     /**
-     * 通知履歴を記録（別トランザクション）
-     * メール送信の成功/失敗に関わらず、履歴を確実に記録する
+     * 送信待ちの通知履歴を記録（呼び出し元のトランザクションで記録する）
+     * 通知履歴を送信待ちの通知のアウトボックスとし、ロック・パスワードリセットなどの更新と一緒にコミット・ロールバックする
+     * 送信結果は{@link #recordDispatchResult(NotificationHistory)}で反映する
+     *
+     * @param nextAttemptAt 送信されない場合に再送対象とする時刻
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void recordNotification(String recipientEmail,
-                                    NotificationHistory.NotificationType notificationType,
-                                    String subject,
-                                    String body,
-                                    boolean success,
-                                    String errorMessage) {
+    @Transactional
+    public NotificationHistory createPendingNotification(String recipientEmail,
+                                                         NotificationHistory.NotificationType notificationType,
+                                                         String subject,
+                                                         String body,
+                                                         LocalDateTime nextAttemptAt) {
         NotificationHistory notification = new NotificationHistory();
         notification.setRecipientEmail(recipientEmail);
         notification.setNotificationType(notificationType);
         notification.setSubject(subject);
         notification.setBody(body);
-        notification.setStatus(success ? NotificationHistory.Status.SUCCESS : NotificationHistory.Status.FAILURE);
-        notification.setErrorMessage(errorMessage);
-        notification.setSentAt(LocalDateTime.now());
+        notification.setStatus(NotificationHistory.Status.PENDING);
+        notification.setNextAttemptAt(nextAttemptAt);
         notification.setCreatedAt(LocalDateTime.now());
 
         notificationHistoryRepository.insert(notification);
+        notificationCounters.recordCreated(notificationType, NotificationHistory.Status.PENDING);
+        paginationService.invalidate(PaginationService.NOTIFICATION_HISTORY);
 
-        log.info("通知履歴記録: recipientEmail={}, notificationType={}, status={}",
-            recipientEmail, notificationType, notification.getStatus());
+        log.debug("送信待ちの通知履歴記録: id={}, recipientEmail={}, notificationType={}",
+            notification.getId(), recipientEmail, notificationType);
+        return notification;
+    }
+
+    /**
+     * 送信結果を通知履歴に反映（別トランザクション）
+     * 送信が完了（成功または最終的な失敗）した通知はアクティビティタイムラインに投影する
+     *
+     * @return 反映した場合はtrue、送信待ちでなくなっていた場合はfalse
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean recordDispatchResult(NotificationHistory notification) {
+        if (notificationHistoryRepository.updateDispatchResult(notification) == 0) {
+            log.warn("送信待ちでない通知履歴のため送信結果を反映しない: id={}", notification.getId());
+            return false;
+        }
+        notificationCounters.recordStatusChange(notification.getNotificationType(),
+            NotificationHistory.Status.PENDING, notification.getStatus());
+        if (notification.getStatus() != NotificationHistory.Status.PENDING) {
+            activityTimelineRepository.projectNotificationHistory(notification.getId());
+            log.info("通知履歴記録: recipientEmail={}, notificationType={}, status={}, attemptCount={}",
+                notification.getRecipientEmail(), notification.getNotificationType(), notification.getStatus(),
+                notification.getAttemptCount());
+        }
+        paginationService.invalidate(PaginationService.NOTIFICATION_HISTORY);
+        return true;
     }
 
     // ========================================
@@ -68,31 +99,33 @@ public class NotificationHistoryService {
 
     /**
      * 全件取得（ページネーション対応）
+     * 総件数の取得方式がSLICEの場合はSliceを返す
      */
     @Transactional(readOnly = true)
-    public Page<NotificationHistory> getAllNotificationHistoriesWithPagination(Pageable pageable) {
+    public Slice<NotificationHistory> getAllNotificationHistoriesWithPagination(Pageable pageable) {
         String[] sortInfo = extractSortInfo(pageable);
         String sortColumn = sortInfo[0];
         String sortDirection = sortInfo[1];
 
-        List<NotificationHistory> notifications = notificationHistoryRepository.findAllWithPagination(
-            pageable.getPageSize(),
-            (int) pageable.getOffset(),
-            sortColumn,
-            sortDirection
-        );
-        long total = notificationHistoryRepository.count();
-
-        return new PageImpl<>(notifications, pageable, total);
+        return paginationService.paginate(PaginationService.NOTIFICATION_HISTORY, new Object[0], pageable,
+            limit -> notificationHistoryRepository.findAllWithPagination(
+                limit,
+                (int) pageable.getOffset(),
+                sortColumn,
+                sortDirection
+            ),
+            notificationHistoryRepository::count);
     }
 
     /**
      * 検索（ページネーション対応）
+     * 総件数の取得方式がSLICEの場合はSliceを返す
      */
     @Transactional(readOnly = true)
-    public Page<NotificationHistory> searchNotificationHistoriesWithPagination(NotificationHistorySearchForm searchForm,
+    public Slice<NotificationHistory> searchNotificationHistoriesWithPagination(NotificationHistorySearchForm searchForm,
                                                                                  Pageable pageable) {
         String recipientEmail = searchForm.getRecipientEmail();
+        List<String> recipientEmailKeys = emailKeyResolver.resolve(recipientEmail);
         NotificationHistory.NotificationType notificationType = searchForm.getNotificationType();
         NotificationHistory.Status status = searchForm.getStatus();
         LocalDate startDate = searchForm.getStartDate();
@@ -106,26 +139,28 @@ public class NotificationHistoryService {
         String sortColumn = sortInfo[0];
         String sortDirection = sortInfo[1];
 
-        List<NotificationHistory> notifications = notificationHistoryRepository.searchWithPagination(
-            recipientEmail,
-            notificationType,
-            status,
-            startDateTime,
-            endDateTime,
-            pageable.getPageSize(),
-            (int) pageable.getOffset(),
-            sortColumn,
-            sortDirection
-        );
-        long total = notificationHistoryRepository.countBySearch(
-            recipientEmail,
-            notificationType,
-            status,
-            startDateTime,
-            endDateTime
-        );
-
-        return new PageImpl<>(notifications, pageable, total);
+        return paginationService.paginate(PaginationService.NOTIFICATION_HISTORY,
+            new Object[]{recipientEmail, notificationType, status, startDateTime, endDateTime}, pageable,
+            limit -> notificationHistoryRepository.searchWithPagination(
+                recipientEmail,
+                recipientEmailKeys,
+                notificationType,
+                status,
+                startDateTime,
+                endDateTime,
+                limit,
+                (int) pageable.getOffset(),
+                sortColumn,
+                sortDirection
+            ),
+            () -> notificationHistoryRepository.countBySearch(
+                recipientEmail,
+                recipientEmailKeys,
+                notificationType,
+                status,
+                startDateTime,
+                endDateTime
+            ));
     }
 
     // ========================================
@@ -134,29 +169,23 @@ public class NotificationHistoryService {
 
     /**
      * 統計情報を取得
+     * 通知履歴を集計せず、NotificationCountersの件数から求める（DBにアクセスしない）
+     * 成功率は送信が完了した通知（成功・失敗）に対する割合とし、送信待ち（再送待ちを含む）は別に集計する
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public NotificationHistoryStatistics getStatistics() {
-        // 総送信数
-        long totalCount = notificationHistoryRepository.count();
-
-        // ステータスごとの集計
-        List<StatusCount> statusCounts = notificationHistoryRepository.countByStatus();
-        long successCount = statusCounts.stream()
-            .filter(c -> "SUCCESS".equals(c.getStatus()))
-            .mapToLong(StatusCount::getCount)
-            .sum();
-        long failureCount = statusCounts.stream()
-            .filter(c -> "FAILURE".equals(c.getStatus()))
-            .mapToLong(StatusCount::getCount)
-            .sum();
-
-        double successRate = totalCount > 0 ? (double) successCount / totalCount * 100 : 0.0;
+        long totalCount = notificationCounters.getTotalCount();
+        long successCount = notificationCounters.countByStatus(NotificationHistory.Status.SUCCESS);
+        long failureCount = notificationCounters.countByStatus(NotificationHistory.Status.FAILURE);
+        long pendingCount = notificationCounters.countByStatus(NotificationHistory.Status.PENDING);
+
+        long completedCount = successCount + failureCount;
+        double successRate = completedCount > 0 ? (double) successCount / completedCount * 100 : 0.0;
 
         // 通知種別ごとの集計
-        List<NotificationTypeCount> typeCounts = notificationHistoryRepository.countByNotificationType();
+        List<NotificationTypeCount> typeCounts = notificationCounters.getTypeCounts();
 
-        return new NotificationHistoryStatistics(totalCount, successCount, failureCount, successRate, typeCounts);
+        return new NotificationHistoryStatistics(totalCount, successCount, failureCount, pendingCount, successRate, typeCounts);
     }
 
     // ========================================
@@ -202,6 +231,7 @@ public class NotificationHistoryService {
         private final long totalCount;
         private final long successCount;
         private final long failureCount;
+        private final long pendingCount;
         private final double successRate;
         private final List<NotificationTypeCount> typeCounts;
     }
@@ -7,18 +7,21 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
 /**
  * 通知メール送信の共通サービス
  * すべての通知の文面生成とメール送信を一元管理
+ * 本文は通知種別ごとのテンプレートからNotificationTemplateRendererで生成する
  */
 @Slf4j
 @RequiredArgsConstructor
 @Service
 public class NotificationService {
 
-    private final EmailService emailService;
-    private final NotificationHistoryService notificationHistoryService;
+    private final NotificationDispatcher notificationDispatcher;
     private final AccountUnlockProperties accountUnlockProperties;
+    private final NotificationTemplateRenderer notificationTemplateRenderer;
 
     // ========================================
     // アカウントロック関連
@@ -31,10 +34,8 @@ public class NotificationService {
         log.info("アカウントロック通知メール送信: email={}", customer.getEmail());
         String unlockRequestLink = accountUnlockProperties.getHostUrl() + "/account-unlock/request?email=" + customer.getEmail();
         String subject = "【重要】アカウントがロックされました";
-        String body = String.format(
-            "%s様\n\nセキュリティ保護のため、アカウントが一時的にロックされました。\n\n解除をご希望の場合は以下のリンクから申請してください。\n\n解除申請リンク: %s\n\nご不明点はサポートまでご連絡ください。",
-            customer.getName(), unlockRequestLink
-        );
+        String body = notificationTemplateRenderer.render(NotificationHistory.NotificationType.ACCOUNT_LOCK,
+            Map.of("name", customer.getName(), "unlockRequestLink", unlockRequestLink));
         
         sendAndRecordEmail(customer.getEmail(), NotificationHistory.NotificationType.ACCOUNT_LOCK, subject, body);
     }
@@ -47,10 +48,8 @@ public class NotificationService {
         log.debug("アカウント解除リンク: {}", unlockLink);
         
         String subject = "【アカウント解除申請】ご案内";
-        String body = String.format(
-            "%s様\n\nアカウント解除申請を受け付けました。\n\n下記リンクから解除手続きを完了してください。\n\n解除リンク: %s\n\n有効期限: %d分\n\nご不明点はサポートまでご連絡ください。",
-            name, unlockLink, expiryMinutes
-        );
+        String body = notificationTemplateRenderer.render(NotificationHistory.NotificationType.ACCOUNT_UNLOCK,
+            Map.of("name", name, "unlockLink", unlockLink, "expiryMinutes", expiryMinutes));
         
         sendAndRecordEmail(email, NotificationHistory.NotificationType.ACCOUNT_UNLOCK, subject, body);
     }
@@ -62,7 +61,7 @@ public class NotificationService {
         log.info("アカウントロック解除完了通知送信: email={}", email);
         
         String subject = "アカウントロック解除完了";
-        String body = "アカウントのロックが解除されました。ログインしてください。";
+        String body = notificationTemplateRenderer.render(NotificationHistory.NotificationType.ACCOUNT_UNLOCK_COMPLETE, Map.of());
         
         sendAndRecordEmail(email, NotificationHistory.NotificationType.ACCOUNT_UNLOCK_COMPLETE, subject, body);
     }
@@ -79,7 +78,8 @@ public class NotificationService {
         log.debug("リセットリンク：{}", resetLink);
         
         String subject = "パスワードリセット";
-        String body = "以下のリンクをクリックしてパスワードをリセットしてください: " + resetLink;
+        String body = notificationTemplateRenderer.render(NotificationHistory.NotificationType.PASSWORD_RESET,
+            Map.of("resetLink", resetLink));
         
         sendAndRecordEmail(email, NotificationHistory.NotificationType.PASSWORD_RESET, subject, body);
     }
@@ -91,13 +91,14 @@ public class NotificationService {
         log.info("パスワードリセット完了通知送信: email={}", email);
         
         String subject = "パスワードリセット完了";
-        String body = "パスワードのリセットが完了しました。新しいパスワードでログインしてください。";
+        String body = notificationTemplateRenderer.render(NotificationHistory.NotificationType.PASSWORD_RESET_COMPLETE, Map.of());
         
         sendAndRecordEmail(email, NotificationHistory.NotificationType.PASSWORD_RESET_COMPLETE, subject, body);
     }
 
     /**
      * メール送信と履歴記録を実行（共通処理）
+     * 送信待ちとして履歴を記録し、NotificationDispatcherで送信する（SMTPサーバーの応答を待たない）
      * 
      * @param email 送信先メールアドレス
      * @param notificationType 通知種別
@@ -108,14 +109,6 @@ public class NotificationService {
                                      NotificationHistory.NotificationType notificationType,
                                      String subject, 
                                      String body) {
-        boolean success = emailService.sendEmail(email, subject, body);
-        notificationHistoryService.recordNotification(
-            email,
-            notificationType,
-            subject,
-            body,
-            success,
-            success ? null : "メール送信失敗"
-        );
+        notificationDispatcher.dispatch(email, notificationType, subject, body);
     }
 }
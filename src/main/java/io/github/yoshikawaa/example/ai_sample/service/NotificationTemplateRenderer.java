@@ -0,0 +1,72 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.model.NotificationHistory.NotificationType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.util.FastStringWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 通知メール本文の生成
+ * 通知種別ごとのテキストテンプレート（templates/mail/{通知種別}.txt）をThymeleafのTEXTモードで描画する
+ *
+ * <p>画面用のテンプレートエンジンとは別のエンジンを使い、spring.thymeleaf.cacheの設定に関わらずテンプレートをキャッシュする
+ * 起動時にすべての通知種別のテンプレートを解析しておき、送信ごとには解析済みのテンプレートに変数を埋め込むだけにする
+ */
+@Slf4j
+@Component
+public class NotificationTemplateRenderer {
+
+    private static final String TEMPLATE_PREFIX = "templates/mail/";
+    private static final String TEMPLATE_SUFFIX = ".txt";
+
+    /** 描画バッファの初期サイズ（通知メール本文が収まる大きさ） */
+    private static final int BUFFER_SIZE = 512;
+
+    private final SpringTemplateEngine templateEngine;
+    private final Map<NotificationType, String> templateNames = new EnumMap<>(NotificationType.class);
+
+    public NotificationTemplateRenderer() {
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix(TEMPLATE_PREFIX);
+        templateResolver.setSuffix(TEMPLATE_SUFFIX);
+        templateResolver.setTemplateMode(TemplateMode.TEXT);
+        templateResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        templateResolver.setCacheable(true);
+        templateResolver.setCacheTTLMs(null); // 解析済みのテンプレートを破棄しない
+
+        this.templateEngine = new SpringTemplateEngine();
+        this.templateEngine.setTemplateResolver(templateResolver);
+        this.templateEngine.setEnableSpringELCompiler(true);
+
+        // 起動時にすべてのテンプレートを解析してキャッシュする（テンプレートがない場合は起動に失敗する）
+        for (NotificationType notificationType : NotificationType.values()) {
+            String templateName = notificationType.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            templateNames.put(notificationType, templateName);
+            templateEngine.process(templateName, new Context(Locale.JAPANESE));
+        }
+        log.debug("通知メールのテンプレートを解析: {}件", templateNames.size());
+    }
+
+    /**
+     * 通知メール本文を生成
+     *
+     * @param notificationType 通知種別
+     * @param variables テンプレートに埋め込む変数
+     * @return 本文
+     */
+    public String render(NotificationType notificationType, Map<String, Object> variables) {
+        // 同期化されたStringWriterではなく、拡張の起きにくい大きさで確保したバッファに描画する
+        FastStringWriter writer = new FastStringWriter(BUFFER_SIZE);
+        templateEngine.process(templateNames.get(notificationType), new Context(Locale.JAPANESE, variables), writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.PaginationProperties;
+import io.github.yoshikawaa.example.ai_sample.config.PaginationProperties.CountMode;
+import io.github.yoshikawaa.example.ai_sample.util.ExpiringLruCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * ページネーションサービス
+ * 一覧ごとに設定された方式（EXACT / CACHED / SLICE）で総件数を解決し、PageまたはSliceを生成する
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class PaginationService {
+
+    public static final String CUSTOMER = "customer";
+    public static final String AUDIT_LOG = "audit-log";
+    public static final String LOGIN_HISTORY = "login-history";
+    public static final String NOTIFICATION_HISTORY = "notification-history";
+
+    private final PaginationProperties paginationProperties;
+
+    /** 一覧名 → (検索条件 → 総件数) */
+    private final Map<String, ExpiringLruCache<List<Object>, Long>> countCache = new ConcurrentHashMap<>();
+
+    /**
+     * ページを取得
+     *
+     * @param listName 一覧名
+     * @param criteria 検索条件（総件数キャッシュのキー）
+     * @param pageable ページネーション情報
+     * @param fetcher 取得件数を受け取り、該当ページの行を返す処理
+     * @param counter 総件数を返す処理
+     * @return EXACT/CACHEDの場合はPage、SLICEの場合はSlice
+     */
+    public <T> Slice<T> paginate(String listName, Object[] criteria, Pageable pageable,
+                                 IntFunction<List<T>> fetcher, LongSupplier counter) {
+        int pageSize = pageable.getPageSize();
+        return switch (getCountMode(listName)) {
+            case SLICE -> toSlice(fetcher.apply(pageSize + 1), pageable);
+            case CACHED -> new PageImpl<>(fetcher.apply(pageSize), pageable, getCachedCount(listName, criteria, counter));
+            case EXACT -> new PageImpl<>(fetcher.apply(pageSize), pageable, counter.getAsLong());
+        };
+    }
+
+    /**
+     * ページサイズ+1件取得した結果をSliceに変換（超過分の有無で次ページ判定）
+     */
+    public <T> Slice<T> toSlice(List<T> rows, Pageable pageable) {
+        int pageSize = pageable.getPageSize();
+        boolean hasNext = rows.size() > pageSize;
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageSize) : rows, pageable, hasNext);
+    }
+
+    /**
+     * 一覧の総件数キャッシュを破棄（登録・削除時に呼び出す）
+     * トランザクション中の場合はコミット後にも破棄し、コミット前に他のスレッドが数えた古い総件数を残さない
+     * （キャッシュが未作成でも、コミット前に他のスレッドが作成してキャッシュした総件数を破棄できるよう作成しておく）
+     */
+    public void invalidate(String listName) {
+        ExpiringLruCache<List<Object>, Long> cache = getCountCache(listName);
+        cache.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidateAll();
+                }
+            });
+        }
+    }
+
+    /**
+     * 一覧の総件数の取得方式を取得
+     */
+    public CountMode getCountMode(String listName) {
+        return paginationProperties.getCountModes().getOrDefault(listName, paginationProperties.getCountMode());
+    }
+
+    /**
+     * 総件数をキャッシュから取得し、なければ数えてキャッシュする
+     * 数えている間に破棄された場合は、破棄前の総件数をキャッシュしない（有効期間が0以下の場合は常に数える）
+     */
+    private long getCachedCount(String listName, Object[] criteria, LongSupplier counter) {
+        ExpiringLruCache<List<Object>, Long> cache = getCountCache(listName);
+        return cache.get(Arrays.asList(criteria), key -> {
+            long total = counter.getAsLong();
+            log.debug("総件数キャッシュ更新: listName={}, criteria={}, total={}", listName, key, total);
+            return total;
+        }, total -> paginationProperties.getCountCacheTtlMs() > 0);
+    }
+
+    /**
+     * 一覧の総件数キャッシュを取得（なければ作成）
+     */
+    private ExpiringLruCache<List<Object>, Long> getCountCache(String listName) {
+        return countCache.computeIfAbsent(listName,
+            key -> new ExpiringLruCache<>(paginationProperties.getCountCacheMaxEntries(), paginationProperties.getCountCacheTtlMs()));
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.PasswordResetProperties;
+import io.github.yoshikawaa.example.ai_sample.config.PasswordResetProperties.RequestMode;
+import io.github.yoshikawaa.example.ai_sample.util.RequestContextUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * パスワードリセットリクエストの受付
+ * 顧客の検索・トークンの発行・通知の記録を専用の有界スレッドプールで行い、リクエスト処理スレッドは処理待ちキューに積んで即座に戻る
+ * 登録済みのメールアドレスと登録されていないメールアドレスで応答時間が変わらないため、応答時間から登録の有無を推測できない
+ *
+ * <p>処理待ちキューが満杯の場合、および停止後はリクエスト処理スレッドで処理する（リクエストを失わないことを優先し、
+ * キューが満杯の間は応答時間が変わりうる。満杯が続く負荷はレート制限で抑える）
+ * 停止時は処理待ちキューの残りを処理してから終了する（request-shutdown-timeout-msまで待つ）
+ * 呼び出し元で処理した件数・キュー滞留数はJMX（spring.jmx.enabled=true）で参照できる
+ */
+@Slf4j
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=Dispatcher,name=passwordReset")
+@Component
+public class PasswordResetRequestDispatcher implements DisposableBean {
+
+    private final PasswordResetService passwordResetService;
+    private final PasswordResetProperties properties;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder processedCount = new LongAdder();
+    private final LongAdder callerRunsCount = new LongAdder();
+
+    public PasswordResetRequestDispatcher(PasswordResetService passwordResetService, PasswordResetProperties properties) {
+        this.passwordResetService = passwordResetService;
+        this.properties = properties;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            properties.getRequestThreads(), properties.getRequestThreads(),
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(properties.getRequestQueueCapacity()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-reset-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * パスワードリセットリンクの送信を受け付ける
+     * IPアドレスはリクエスト処理スレッドで取得し、監査ログに記録する
+     */
+    public void dispatch(String email) {
+        String ipAddress = RequestContextUtil.getClientIpAddress();
+        if (properties.getRequestMode() == RequestMode.SYNC) {
+            process(email, ipAddress);
+            return;
+        }
+        try {
+            executor.execute(() -> process(email, ipAddress));
+        } catch (RejectedExecutionException e) {
+            if (!executor.isShutdown()) {
+                callerRunsCount.increment();
+                log.warn("処理待ちキューが満杯のためリクエスト処理スレッドで処理: email={}, queueCapacity={}",
+                    email, properties.getRequestQueueCapacity());
+            }
+            process(email, ipAddress);
+        }
+    }
+
+    private void process(String email, String ipAddress) {
+        try {
+            passwordResetService.sendResetLink(email, ipAddress);
+            processedCount.increment();
+        } catch (RuntimeException e) {
+            log.error("パスワードリセットリクエストの処理に失敗: email={}", email, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(properties.getRequestShutdownTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                log.warn("停止待ちの上限を超えたためパスワードリセットリクエストを破棄: 未処理={}件", executor.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ========================================
+    // メトリクス（JMX）
+    // ========================================
+
+    @ManagedAttribute(description = "処理したパスワードリセットリクエストの件数")
+    public long getProcessedCount() {
+        return processedCount.sum();
+    }
+
+    @ManagedAttribute(description = "処理待ちキュー満杯によりリクエスト処理スレッドで処理した件数")
+    public long getCallerRunsCount() {
+        return callerRunsCount.sum();
+    }
+
+    @ManagedAttribute(description = "処理待ちキューに滞留している件数")
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+}
@@ -5,6 +5,8 @@ import io.github.yoshikawaa.example.ai_sample.model.AuditLog;
 import io.github.yoshikawaa.example.ai_sample.model.PasswordResetToken;
 import io.github.yoshikawaa.example.ai_sample.repository.CustomerRepository;
 import io.github.yoshikawaa.example.ai_sample.repository.PasswordResetTokenRepository;
+import io.github.yoshikawaa.example.ai_sample.security.CustomerUserCache;
+import io.github.yoshikawaa.example.ai_sample.security.RegisteredEmailFilter;
 import io.github.yoshikawaa.example.ai_sample.util.RequestContextUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +16,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
@@ -28,10 +31,24 @@ public class PasswordResetService {
     private final PasswordEncoder passwordEncoder;
     private final LoginAttemptService loginAttemptService;
     private final AuditLogService auditLogService;
+    private final CustomerUserCache customerUserCache;
+    private final RegisteredEmailFilter registeredEmailFilter;
 
     public void sendResetLink(@NonNull String email) {
+        sendResetLink(email, RequestContextUtil.getClientIpAddress());
+    }
+
+    /**
+     * パスワードリセットリンクを送信
+     * 登録されていないメールアドレスは何もせずに終了するため、リクエスト処理スレッドから呼び出すと応答時間が変わる
+     * 利用者からのリクエストは{@link PasswordResetRequestDispatcher}を経由して専用のスレッドで処理する
+     *
+     * @param ipAddress 監査ログに記録するIPアドレス
+     */
+    public void sendResetLink(@NonNull String email, String ipAddress) {
         // セキュリティ: メールアドレスの存在有無を外部に漏らさない
-        var customerOpt = customerRepository.findByEmail(email);
+        // 登録されていないことが確定したメールアドレスは顧客情報を検索しない
+        var customerOpt = registeredEmailFilter.mightExist(email) ? customerRepository.findByEmail(email) : Optional.empty();
         if (customerOpt.isEmpty()) {
             log.warn("パスワードリセット試行: 存在しないメールアドレス {}", email);
             return; // 成功と同じ動作（セキュリティ対策）
@@ -50,7 +67,7 @@ public class PasswordResetService {
         notificationService.sendPasswordResetLink(email, resetLink);
 
         // 監査ログを記録
-        auditLogService.recordAudit(email, email, AuditLog.ActionType.PASSWORD_RESET, "パスワードリセットリンク送信", RequestContextUtil.getClientIpAddress());
+        auditLogService.recordAudit(email, email, AuditLog.ActionType.PASSWORD_RESET, "パスワードリセットリンク送信", ipAddress);
     }
 
     @Transactional(readOnly = true)
@@ -67,6 +84,7 @@ public class PasswordResetService {
 
         // ハッシュ化されたパスワードを保存
         customerRepository.updatePassword(email, hashedPassword);
+        customerUserCache.evict(email);
 
         // パスワードリセット完了通知を送信
         notificationService.sendPasswordResetComplete(email);
@@ -0,0 +1,128 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.StatisticsProperties;
+import io.github.yoshikawaa.example.ai_sample.model.StatisticsDto;
+import io.github.yoshikawaa.example.ai_sample.util.ExpiringLruCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * 統計データのキャッシュ（キー: 開始日・終了日）
+ * 当日を含まない期間のみを対象とし、有効期間は設けない（当日分はStatisticsServiceで毎回集計する）
+ *
+ * <p>集計済みの日の統計が変わる処理（日付をまたいだ登録・顧客削除・再集計）は
+ * {@link #evict(Collection)}または{@link #evictAll()}で明示的に破棄する
+ */
+@Slf4j
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=Cache,name=statistics")
+@Component
+public class StatisticsCache {
+
+    private final StatisticsProperties statisticsProperties;
+    private final ExpiringLruCache<DateRange, StatisticsDto> cache;
+
+    public StatisticsCache(StatisticsProperties statisticsProperties) {
+        this.statisticsProperties = statisticsProperties;
+        this.cache = new ExpiringLruCache<>(statisticsProperties.getCacheMaxEntries(), 0);
+    }
+
+    /**
+     * キャッシュから期間の統計データを取得し、なければ読み込んでキャッシュする
+     * 一部の統計を取得できなかった結果はキャッシュしない
+     */
+    public StatisticsDto get(LocalDate startDate, LocalDate endDate, BiFunction<LocalDate, LocalDate, StatisticsDto> loader) {
+        if (!statisticsProperties.isCacheEnabled()) {
+            return loader.apply(startDate, endDate);
+        }
+        return cache.get(new DateRange(startDate, endDate),
+            range -> copyOf(loader.apply(range.startDate(), range.endDate())),
+            dto -> !dto.isPartial());
+    }
+
+    /**
+     * 指定日を含む期間の統計データを破棄
+     * トランザクション中の場合はコミット後にも破棄する（コミット前に読み込まれた古い統計を残さない）
+     */
+    public void evict(Collection<LocalDate> dates) {
+        if (dates.isEmpty()) {
+            return;
+        }
+        List<LocalDate> targets = List.copyOf(dates);
+        cache.invalidateIf(range -> range.containsAny(targets));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateIf(range -> range.containsAny(targets));
+                }
+            });
+        }
+        log.debug("統計データキャッシュ破棄: dates={}", targets);
+    }
+
+    /**
+     * 指定日を含む期間の統計データを破棄
+     */
+    public void evict(LocalDate date) {
+        if (date != null) {
+            evict(List.of(date));
+        }
+    }
+
+    /**
+     * すべての統計データを破棄
+     * トランザクション中の場合はコミット後にも破棄する
+     */
+    @ManagedOperation(description = "キャッシュしている統計データをすべて破棄")
+    public void evictAll() {
+        cache.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateAll();
+                }
+            });
+        }
+    }
+
+    @ManagedAttribute(description = "キャッシュしている統計データの件数（期間の数）")
+    public int getSize() {
+        return cache.size();
+    }
+
+    @ManagedAttribute(description = "キャッシュから統計データを返した件数")
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    @ManagedAttribute(description = "キャッシュになく統計データを集計した件数")
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    /**
+     * 呼び出し元での変更がキャッシュに影響しないよう、リストを変更不可にして保持する
+     */
+    private static StatisticsDto copyOf(StatisticsDto dto) {
+        return new StatisticsDto(List.copyOf(dto.getCustomerStatistics()), List.copyOf(dto.getLoginStatistics()),
+            List.copyOf(dto.getUsageStatistics()), dto.getStartDate(), dto.getEndDate(), dto.getUnavailableStatistics());
+    }
+
+    private record DateRange(LocalDate startDate, LocalDate endDate) {
+
+        boolean containsAny(Collection<LocalDate> dates) {
+            return dates.stream().anyMatch(date -> !date.isBefore(startDate) && !date.isAfter(endDate));
+        }
+    }
+}
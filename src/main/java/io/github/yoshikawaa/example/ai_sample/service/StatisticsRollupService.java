@@ -0,0 +1,75 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.StatisticsProperties;
+import io.github.yoshikawaa.example.ai_sample.repository.StatisticsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * 統計画面用の日別集計の再集計
+ * 日別集計は登録時の加算で最新に保たれるが、非同期書き込みの失敗等によるずれを元テーブルからの再集計で補正する
+ */
+@Slf4j
+@RequiredArgsConstructor
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=Job,name=statisticsRollup")
+@Service
+@Transactional
+public class StatisticsRollupService {
+
+    private final StatisticsRepository statisticsRepository;
+    private final StatisticsProperties statisticsProperties;
+    private final StatisticsCache statisticsCache;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (statisticsProperties.isRollupRebuildOnStartup()) {
+            rebuildAll();
+        }
+    }
+
+    /**
+     * 直近の日別集計を元テーブルから再集計
+     */
+    @Scheduled(fixedDelayString = "${app.statistics.rollup-reconcile-interval-ms:3600000}",
+               initialDelayString = "${app.statistics.rollup-reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        rebuild(today.minusDays(statisticsProperties.getRollupReconcileDays() - 1L), today);
+    }
+
+    /**
+     * すべての日別集計を元テーブルから作り直す
+     */
+    @ManagedOperation(description = "すべての日別集計を元テーブルから作り直す")
+    public void rebuildAll() {
+        rebuild(null, null);
+    }
+
+    /**
+     * 期間の日別集計を元テーブルから作り直す
+     *
+     * @param startDate 開始日（nullの場合は全期間）
+     * @param endDate 終了日（nullの場合は全期間）
+     */
+    public void rebuild(LocalDate startDate, LocalDate endDate) {
+        long start = System.currentTimeMillis();
+        statisticsRepository.deleteCustomerStatistics(startDate, endDate);
+        int customerRows = statisticsRepository.insertCustomerStatistics(startDate, endDate);
+        statisticsRepository.deleteLoginStatistics(startDate, endDate);
+        int loginRows = statisticsRepository.insertLoginStatistics(startDate, endDate);
+        statisticsRepository.deleteUsageStatistics(startDate, endDate);
+        int usageRows = statisticsRepository.insertUsageStatistics(startDate, endDate);
+        statisticsCache.evictAll();
+        log.info("日別集計の再集計: startDate={}, endDate={}, 顧客={}行, ログイン={}行, 利用状況={}行, elapsed={}ms",
+            startDate, endDate, customerRows, loginRows, usageRows, System.currentTimeMillis() - start);
+    }
+}
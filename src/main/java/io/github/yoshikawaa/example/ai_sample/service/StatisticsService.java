@@ -1,47 +1,124 @@
 package io.github.yoshikawaa.example.ai_sample.service;
 
+import io.github.yoshikawaa.example.ai_sample.config.StatisticsProperties;
 import io.github.yoshikawaa.example.ai_sample.model.AuditLog;
 import io.github.yoshikawaa.example.ai_sample.model.CustomerStatistics;
+import io.github.yoshikawaa.example.ai_sample.model.LoginHistory;
 import io.github.yoshikawaa.example.ai_sample.model.LoginStatistics;
 import io.github.yoshikawaa.example.ai_sample.model.StatisticsDto;
+import io.github.yoshikawaa.example.ai_sample.model.StatisticsDto.StatisticsType;
 import io.github.yoshikawaa.example.ai_sample.model.UsageStatistics;
 import io.github.yoshikawaa.example.ai_sample.repository.StatisticsRepository;
 import io.github.yoshikawaa.example.ai_sample.util.RequestContextUtil;
 import io.github.yoshikawaa.example.ai_sample.util.SecurityContextUtil;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 /**
  * 統計サービス
+ * 顧客数推移・ログイン統計・利用状況統計の3つのクエリを専用の有界スレッドプールで並列に実行する
+ * 各クエリはそれぞれ読み取り専用トランザクション（別コネクション）で実行し、
+ * タイムアウト・エラーとなった統計は空として残りの統計のみを返す
+ * 前日までの期間の統計はStatisticsCacheにキャッシュし、当日以降の期間のみ毎回集計する
+ *
+ * <p>クエリごとの所要時間・タイムアウト件数・エラー件数はJMX（spring.jmx.enabled=true）で参照できる
  */
 @Slf4j
-@RequiredArgsConstructor
+@ManagedResource(objectName = "io.github.yoshikawaa.example.ai_sample:type=Query,name=statistics")
 @Service
-@Transactional
-public class StatisticsService {
-    
+public class StatisticsService implements DisposableBean {
+
     private final StatisticsRepository statisticsRepository;
     private final AuditLogService auditLogService;
-    
+    private final StatisticsProperties statisticsProperties;
+    private final StatisticsCache statisticsCache;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<StatisticsType, QueryMetrics> metrics = new EnumMap<>(StatisticsType.class);
+    private final LongAdder partialCount = new LongAdder();
+
+    public StatisticsService(StatisticsRepository statisticsRepository,
+                             AuditLogService auditLogService,
+                             StatisticsProperties statisticsProperties,
+                             StatisticsCache statisticsCache,
+                             PlatformTransactionManager transactionManager) {
+        this.statisticsRepository = statisticsRepository;
+        this.auditLogService = auditLogService;
+        this.statisticsProperties = statisticsProperties;
+        this.statisticsCache = statisticsCache;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.readOnlyTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // タイムアウト後もクエリが残り続けないよう、ステートメントにもタイムアウトを設定する
+        this.readOnlyTransactionTemplate.setTimeout(
+            (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(statisticsProperties.getQueryTimeoutMs() + 999)));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            statisticsProperties.getQueryThreads(), statisticsProperties.getQueryThreads(),
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(statisticsProperties.getQueryQueueCapacity()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "statistics-query-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        for (StatisticsType type : StatisticsType.values()) {
+            metrics.put(type, new QueryMetrics());
+        }
+    }
+
     /**
-     * すべての統計データを1トランザクションで取得し、アクセスログを記録
+     * すべての統計データを取得し、アクセスログを記録
+     * 前日までの期間はキャッシュから取得し、当日以降の期間のみ集計して合算する
      * 
      * @param startDate 開始日
      * @param endDate 終了日
-     * @return 統計データ
+     * @return 統計データ（取得できなかった統計は空リストとし、unavailableStatisticsに含める）
      */
     public StatisticsDto getStatistics(LocalDate startDate, LocalDate endDate) {
         log.info("統計データ取得: startDate={}, endDate={}", startDate, endDate);
         
-        // 統計データ取得
-        List<CustomerStatistics> customerStats = statisticsRepository.getCustomerStatistics(startDate, endDate);
-        List<LoginStatistics> loginStats = statisticsRepository.getLoginStatistics(startDate, endDate);
-        List<UsageStatistics> usageStats = statisticsRepository.getUsageStatistics(startDate, endDate);
+        // 統計データ取得（前日までの期間はキャッシュ、当日以降の期間は毎回集計）
+        LocalDate today = LocalDate.now();
+        LocalDate closedEndDate = endDate.isBefore(today) ? endDate : today.minusDays(1);
+        LocalDate openStartDate = startDate.isAfter(today) ? startDate : today;
+        List<StatisticsDto> parts = new ArrayList<>();
+        if (!startDate.isAfter(closedEndDate)) {
+            parts.add(statisticsCache.get(startDate, closedEndDate, this::query));
+        }
+        if (!openStartDate.isAfter(endDate)) {
+            parts.add(query(openStartDate, endDate));
+        }
+        StatisticsDto statistics = merge(parts, startDate, endDate);
         
         // 統計画面アクセスを記録
         String performedBy = SecurityContextUtil.getAuthenticatedUsername("unknown");
@@ -56,6 +133,184 @@ public class StatisticsService {
         
         log.info("統計画面アクセス記録: performedBy={}, startDate={}, endDate={}", performedBy, startDate, endDate);
         
-        return new StatisticsDto(customerStats, loginStats, usageStats, startDate, endDate);
+        return statistics;
+    }
+
+    /**
+     * 期間の3つの統計クエリを並列に実行
+     */
+    private StatisticsDto query(LocalDate startDate, LocalDate endDate) {
+        CompletableFuture<List<CustomerStatistics>> customerFuture =
+            submit(StatisticsType.CUSTOMER, () -> statisticsRepository.getCustomerStatistics(startDate, endDate));
+        CompletableFuture<List<LoginStatistics>> loginFuture =
+            submit(StatisticsType.LOGIN, () -> statisticsRepository.getLoginStatistics(startDate, endDate));
+        CompletableFuture<List<UsageStatistics>> usageFuture =
+            submit(StatisticsType.USAGE, () -> statisticsRepository.getUsageStatistics(startDate, endDate));
+
+        // 3つのクエリは同時に実行するため、タイムアウトは取得開始からの共通の期限とする
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(statisticsProperties.getQueryTimeoutMs());
+        List<StatisticsType> unavailable = new ArrayList<>();
+        List<CustomerStatistics> customerStats = join(StatisticsType.CUSTOMER, customerFuture, deadline, unavailable);
+        List<LoginStatistics> loginStats = join(StatisticsType.LOGIN, loginFuture, deadline, unavailable);
+        List<UsageStatistics> usageStats = join(StatisticsType.USAGE, usageFuture, deadline, unavailable);
+        if (!unavailable.isEmpty()) {
+            partialCount.increment();
+            log.warn("一部の統計データを取得できませんでした: unavailable={}, startDate={}, endDate={}", unavailable, startDate, endDate);
+        }
+        return new StatisticsDto(customerStats, loginStats, usageStats, startDate, endDate, List.copyOf(unavailable));
+    }
+
+    /**
+     * 期間ごとの統計データを合算（顧客数推移は連結、ログイン・利用状況はステータス・アクションタイプ別に合計）
+     */
+    private static StatisticsDto merge(List<StatisticsDto> parts, LocalDate startDate, LocalDate endDate) {
+        if (parts.size() == 1) {
+            StatisticsDto part = parts.get(0);
+            return new StatisticsDto(part.getCustomerStatistics(), part.getLoginStatistics(), part.getUsageStatistics(),
+                startDate, endDate, part.getUnavailableStatistics());
+        }
+        List<CustomerStatistics> customerStats = new ArrayList<>();
+        Map<LoginHistory.Status, Long> loginCounts = new TreeMap<>(Comparator.comparing(Enum::name));
+        Map<AuditLog.ActionType, Long> usageCounts = new TreeMap<>(Comparator.comparing(Enum::name));
+        Set<StatisticsType> unavailable = EnumSet.noneOf(StatisticsType.class);
+        for (StatisticsDto part : parts) {
+            customerStats.addAll(part.getCustomerStatistics());
+            part.getLoginStatistics().forEach(stat -> loginCounts.merge(stat.getStatus(), stat.getCount(), Long::sum));
+            part.getUsageStatistics().forEach(stat -> usageCounts.merge(stat.getActionType(), stat.getCount(), Long::sum));
+            unavailable.addAll(part.getUnavailableStatistics());
+        }
+        List<LoginStatistics> loginStats = loginCounts.entrySet().stream()
+            .map(entry -> new LoginStatistics(entry.getKey(), entry.getValue()))
+            .toList();
+        List<UsageStatistics> usageStats = usageCounts.entrySet().stream()
+            .map(entry -> new UsageStatistics(entry.getKey(), entry.getValue()))
+            .toList();
+        return new StatisticsDto(customerStats, loginStats, usageStats, startDate, endDate, List.copyOf(unavailable));
+    }
+
+    private <T> CompletableFuture<List<T>> submit(StatisticsType type, Supplier<List<T>> query) {
+        QueryMetrics queryMetrics = metrics.get(type);
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                try {
+                    return readOnlyTransactionTemplate.execute(status -> query.get());
+                } finally {
+                    queryMetrics.record(System.nanoTime() - start);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> List<T> join(StatisticsType type, CompletableFuture<List<T>> future, long deadline, List<StatisticsType> unavailable) {
+        QueryMetrics queryMetrics = metrics.get(type);
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // 実行中のクエリはステートメントのタイムアウトで終了する（割り込みはコネクションを壊すおそれがあるため行わない）
+            future.cancel(false);
+            queryMetrics.timeoutCount.increment();
+            log.warn("統計クエリがタイムアウトしました: type={}, timeoutMs={}", type, statisticsProperties.getQueryTimeoutMs());
+        } catch (ExecutionException e) {
+            queryMetrics.failureCount.increment();
+            log.error("統計クエリに失敗しました: type={}", type, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+        }
+        unavailable.add(type);
+        return List.of();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    // ========================================
+    // メトリクス（JMX）
+    // ========================================
+
+    @ManagedAttribute(description = "顧客数推移クエリの平均所要時間（ミリ秒）")
+    public double getCustomerQueryAverageMillis() {
+        return metrics.get(StatisticsType.CUSTOMER).getAverageMillis();
+    }
+
+    @ManagedAttribute(description = "顧客数推移クエリの最大所要時間（ミリ秒）")
+    public double getCustomerQueryMaxMillis() {
+        return metrics.get(StatisticsType.CUSTOMER).getMaxMillis();
+    }
+
+    @ManagedAttribute(description = "ログイン統計クエリの平均所要時間（ミリ秒）")
+    public double getLoginQueryAverageMillis() {
+        return metrics.get(StatisticsType.LOGIN).getAverageMillis();
+    }
+
+    @ManagedAttribute(description = "ログイン統計クエリの最大所要時間（ミリ秒）")
+    public double getLoginQueryMaxMillis() {
+        return metrics.get(StatisticsType.LOGIN).getMaxMillis();
+    }
+
+    @ManagedAttribute(description = "利用状況統計クエリの平均所要時間（ミリ秒）")
+    public double getUsageQueryAverageMillis() {
+        return metrics.get(StatisticsType.USAGE).getAverageMillis();
+    }
+
+    @ManagedAttribute(description = "利用状況統計クエリの最大所要時間（ミリ秒）")
+    public double getUsageQueryMaxMillis() {
+        return metrics.get(StatisticsType.USAGE).getMaxMillis();
+    }
+
+    @ManagedAttribute(description = "統計クエリのタイムアウト件数")
+    public long getTimeoutCount() {
+        return metrics.values().stream().mapToLong(m -> m.timeoutCount.sum()).sum();
+    }
+
+    @ManagedAttribute(description = "統計クエリのエラー件数（実行待ちキュー満杯を含む）")
+    public long getFailureCount() {
+        return metrics.values().stream().mapToLong(m -> m.failureCount.sum()).sum();
+    }
+
+    @ManagedAttribute(description = "一部の統計を取得できなかった件数")
+    public long getPartialCount() {
+        return partialCount.sum();
+    }
+
+    @ManagedAttribute(description = "実行中の統計クエリ数")
+    public int getActiveQueryCount() {
+        return executor.getActiveCount();
+    }
+
+    @ManagedAttribute(description = "実行待ちの統計クエリ数")
+    public int getQueuedQueryCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * クエリごとの所要時間・タイムアウト件数・エラー件数
+     */
+    private static class QueryMetrics {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder timeoutCount = new LongAdder();
+        private final LongAdder failureCount = new LongAdder();
+
+        void record(long elapsedNanos) {
+            count.increment();
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+        }
+
+        double getAverageMillis() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / n;
+        }
+
+        double getMaxMillis() {
+            return maxNanos.get() / 1_000_000.0;
+        }
     }
 }
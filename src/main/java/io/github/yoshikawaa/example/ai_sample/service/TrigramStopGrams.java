@@ -0,0 +1,74 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.util.TrigramUtil;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 部分一致検索の絞り込みに使わないトライグラム（ストップグラム）
+ * 多くの顧客に含まれるトライグラム（メールアドレスの「.co」「com」「@ex」など）は候補をほとんど絞り込めず、
+ * 索引の集計が顧客数に比例して重くなるため、検索語のトライグラムから除いて絞り込む
+ *
+ * <p>CustomerSearchIndexServiceが索引の出現頻度から定期的に更新する
+ * 検索時は呼び出し元が絞り込みに使うトライグラムを求め、検索系SQLにパラメータとして渡す
+ *
+ * <p>検索語はLIKEで照合するため「%」「_」はワイルドカード（「\」はエスケープ文字）として働く
+ * これらを含むトライグラムは索引の文字と一致するとは限らないため、絞り込みに使わない
+ */
+@Component
+public class TrigramStopGrams {
+
+    /** LIKEで特別な意味を持つ文字（H2のデフォルトのエスケープ文字を含む） */
+    private static final String LIKE_SPECIAL_CHARS = "%_\\";
+
+    /** 索引の種類 → ストップグラム（更新時に丸ごと差し替える） */
+    private volatile Map<String, Set<String>> stopGrams = Map.of();
+
+    /**
+     * 検索語のトライグラムのうち、絞り込みに使うもの（ストップグラム・LIKEのワイルドカードを含むものを除く）を取得
+     *
+     * @param field 索引の種類
+     * @param text 検索語
+     * @return 絞り込みに使うトライグラム（空の場合は索引を使わずに照合する）
+     */
+    public Set<String> selectiveTrigrams(String field, String text) {
+        Set<String> trigrams = TrigramUtil.trigrams(text);
+        Set<String> excluded = stopGrams.getOrDefault(field, Set.of());
+        if (trigrams.isEmpty() || (excluded.isEmpty() && !containsLikeSpecialChar(text))) {
+            return trigrams;
+        }
+        Set<String> selective = new LinkedHashSet<>(trigrams);
+        selective.removeAll(excluded);
+        selective.removeIf(TrigramStopGrams::containsLikeSpecialChar);
+        return selective;
+    }
+
+    private static boolean containsLikeSpecialChar(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (LIKE_SPECIAL_CHARS.indexOf(text.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 索引の種類のストップグラムを差し替える
+     */
+    public synchronized void update(String field, Set<String> fieldStopGrams) {
+        Map<String, Set<String>> updated = new HashMap<>(stopGrams);
+        updated.put(field, Set.copyOf(fieldStopGrams));
+        stopGrams = Map.copyOf(updated);
+    }
+
+    /**
+     * 索引の種類のストップグラムを取得
+     */
+    public Set<String> get(String field) {
+        return stopGrams.getOrDefault(field, Set.of());
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.yoshikawaa.example.ai_sample.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 文字列のBloomフィルター
+ * 登録した値は必ず「含まれる可能性あり」と判定し、登録していない値は偽陽性率の割合で誤って「含まれる可能性あり」と判定する
+ * 値の削除はできない（削除が必要な場合は作り直す）
+ *
+ * <p>ビット列はAtomicLongArrayで保持し、登録・判定はロックを取得しない
+ * 判定は値の有無によらずすべてのビットを参照し、処理時間から登録の有無を推測されないようにする
+ */
+public class BloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN_RATIO = 0x9e3779b97f4a7c15L;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedInsertions;
+
+    /**
+     * @param expectedInsertions 登録する値の数（超えると偽陽性率が上がる）
+     * @param falsePositiveRate 偽陽性率（0より大きく1未満）
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("登録数は1以上、偽陽性率は0より大きく1未満を指定してください");
+        }
+        // 最適なビット数 m = -n ln(p) / (ln 2)^2、ハッシュ関数の数 k = m / n ln 2
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * Long.SIZE;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    /**
+     * 値を登録
+     */
+    public void put(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ GOLDEN_RATIO) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bitCount);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current = bits.get(word);
+            while ((current & mask) == 0) {
+                long witness = bits.compareAndExchange(word, current, current | mask);
+                if (witness == current) {
+                    break;
+                }
+                current = witness;
+            }
+        }
+    }
+
+    /**
+     * 値が含まれる可能性があるか判定
+     *
+     * @return 登録した値の場合は必ずtrue、falseの場合は登録されていない
+     */
+    public boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ GOLDEN_RATIO) | 1L;
+        boolean contains = true;
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bitCount);
+            // 途中で判定が確定しても打ち切らない（処理時間を一定にする）
+            contains &= (bits.get((int) (index >>> 6)) & (1L << index)) != 0;
+        }
+        return contains;
+    }
+
+    /**
+     * ビット数
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * ハッシュ関数の数
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * 登録する値の数（構築時の指定）
+     */
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * 立っているビットの割合（1に近いほど偽陽性率が高い）
+     */
+    public double getFillRatio() {
+        long set = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            set += Long.bitCount(bits.get(i));
+        }
+        return (double) set / bitCount;
+    }
+
+    /**
+     * 文字列の64ビットハッシュ（FNV-1a + 拡散）
+     */
+    private static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * ビットを拡散（MurmurHash3のfmix64）
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.yoshikawaa.example.ai_sample.util;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.util.StringUtils;
+
+import com.opencsv.bean.CsvBindByPosition;
+import com.opencsv.bean.CsvDate;
+
+/**
+ * DTOクラスごとに事前構築するCSV行ライター
+ * 列順（@CsvBindByPosition）・日付書式（@CsvDate）・getterの解決はクラスごとに一度だけ行い、
+ * 行の書き込み時はリフレクションを使わずにエスケープ済みの値をバッファへ直接追記する
+ * 出力形式はOpenCSV（applyQuotesToAll=false）と同一
+ */
+public final class CsvRowWriter<T> {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final char LINE_END = '\n';
+
+    /** DTOクラス → 行ライター */
+    private static final Map<Class<?>, CsvRowWriter<?>> CACHE = new ConcurrentHashMap<>();
+
+    /** 列順に並んだ値の取得処理（nullの場合は空文字として出力） */
+    private final Function<T, String>[] columns;
+
+    private CsvRowWriter(Function<T, String>[] columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * DTOクラスの行ライターを取得（初回のみ構築し、以降はキャッシュを返す）
+     *
+     * @param dtoClass @CsvBindByPositionが付与されたフィールドを持つDTOクラス
+     * @return 行ライター
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CsvRowWriter<T> forClass(Class<T> dtoClass) {
+        return (CsvRowWriter<T>) CACHE.computeIfAbsent(dtoClass, CsvRowWriter::build);
+    }
+
+    /**
+     * DTO1件分のCSV行（改行を含む）をバッファに追記
+     *
+     * @param dto DTO
+     * @param buffer 追記先バッファ
+     */
+    public void appendRow(T dto, StringBuilder buffer) {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                buffer.append(SEPARATOR);
+            }
+            appendEscaped(columns[i].apply(dto), buffer);
+        }
+        buffer.append(LINE_END);
+    }
+
+    /**
+     * 値をエスケープしてバッファに追記
+     * 区切り文字・ダブルクォート・改行を含む場合のみダブルクォートで囲み、ダブルクォートは二重化する
+     */
+    static void appendEscaped(String value, StringBuilder buffer) {
+        if (value == null) {
+            return;
+        }
+        if (!needsQuote(value)) {
+            buffer.append(value);
+            return;
+        }
+        buffer.append(QUOTE);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == QUOTE) {
+                buffer.append(QUOTE);
+            }
+            buffer.append(c);
+        }
+        buffer.append(QUOTE);
+    }
+
+    private static boolean needsQuote(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == SEPARATOR || c == QUOTE || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> CsvRowWriter<T> build(Class<T> dtoClass) {
+        Field[] fields = Arrays.stream(dtoClass.getDeclaredFields())
+            .filter(field -> field.isAnnotationPresent(CsvBindByPosition.class))
+            .sorted(Comparator.comparingInt(field -> field.getAnnotation(CsvBindByPosition.class).position()))
+            .toArray(Field[]::new);
+        if (fields.length == 0) {
+            throw new IllegalArgumentException("@CsvBindByPositionが付与されたフィールドがありません: " + dtoClass.getName());
+        }
+
+        // ジェネリクス型の配列は生成できないため原型で生成する（要素はすべて下のループで設定するFunction<T, String>）
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Function<T, String>[] columns = new Function[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            Function<T, Object> getter = compileGetter(dtoClass, fields[i]);
+            Function<Object, String> formatter = formatter(fields[i]);
+            columns[i] = dto -> {
+                Object value = getter.apply(dto);
+                return value == null ? null : formatter.apply(value);
+            };
+        }
+        return new CsvRowWriter<>(columns);
+    }
+
+    /**
+     * getterをFunctionとして生成（行ごとのリフレクション呼び出しを避ける）
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Function<T, Object> compileGetter(Class<T> dtoClass, Field field) {
+        try {
+            Method getter = dtoClass.getMethod(getterName(field));
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(getter);
+            return (Function<T, Object>) LambdaMetafactory.metafactory(
+                    lookup,
+                    "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    handle.type().wrap())
+                .getTarget()
+                .invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("CSV列のgetterを生成できません: " + dtoClass.getName() + "." + field.getName(), e);
+        }
+    }
+
+    private static String getterName(Field field) {
+        String prefix = field.getType() == boolean.class ? "is" : "get";
+        return prefix + StringUtils.capitalize(field.getName());
+    }
+
+    private static Function<Object, String> formatter(Field field) {
+        CsvDate csvDate = field.getAnnotation(CsvDate.class);
+        if (csvDate != null && TemporalAccessor.class.isAssignableFrom(field.getType())) {
+            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern(csvDate.value());
+            return value -> dateFormatter.format((TemporalAccessor) value);
+        }
+        return String::valueOf;
+    }
+}
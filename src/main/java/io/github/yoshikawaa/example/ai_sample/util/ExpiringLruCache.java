@@ -0,0 +1,162 @@
+package io.github.yoshikawaa.example.ai_sample.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 件数上限と有効期間を持つLRUキャッシュ
+ * 上限を超えた場合は最も長く参照されていないエントリを破棄し、有効期間を過ぎたエントリは参照時に破棄する
+ * 有効期間に0以下を指定した場合は期限切れとせず、上限超過または無効化まで保持する
+ * 再読み込み間隔を指定した場合、読み込みから間隔を過ぎたエントリは{@link #get}で読み込み直して置き換える
+ * （読み込み結果がnullの場合は破棄する。他のノードでの更新・削除を反映するため）
+ *
+ * <p>読み込み中に無効化された場合は読み込み結果をキャッシュしない（無効化前の古い値が残ることを防ぐ）
+ *
+ * @param <K> キーの型
+ * @param <V> 値の型
+ */
+public class ExpiringLruCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlMs;
+    private final long refreshMs;
+    private final Map<K, Entry<V>> entries;
+
+    /** 無効化のたびに進める世代（読み込み中の無効化を検出する） */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public ExpiringLruCache(int maxEntries, long ttlMs) {
+        this(maxEntries, ttlMs, 0);
+    }
+
+    /**
+     * @param refreshMs 再読み込み間隔（0以下の場合は再読み込みしない）
+     */
+    public ExpiringLruCache(int maxEntries, long ttlMs, long refreshMs) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.refreshMs = refreshMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > ExpiringLruCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * キャッシュから取得し、なければ読み込んでキャッシュする
+     * 読み込みはロック外で行う（同じキーの同時読み込みは許容する）
+     *
+     * @param loader 読み込み処理（nullを返した場合はキャッシュしない）
+     */
+    public V get(K key, Function<K, V> loader) {
+        return get(key, loader, value -> true);
+    }
+
+    /**
+     * キャッシュから取得し、なければ読み込んでキャッシュする
+     *
+     * @param loader 読み込み処理（nullを返した場合はキャッシュしない）
+     * @param cacheable 読み込み結果をキャッシュするかの判定（falseの場合は結果を返すのみ）
+     */
+    public V get(K key, Function<K, V> loader, Predicate<? super V> cacheable) {
+        Entry<V> cached = getEntry(key);
+        if (cached != null && cached.refreshAt() > System.currentTimeMillis()) {
+            hitCount.increment();
+            return cached.value();
+        }
+        missCount.increment();
+        long loadGeneration = generation.get();
+        V loaded = loader.apply(key);
+        synchronized (entries) {
+            if (loaded != null && cacheable.test(loaded)) {
+                if (generation.get() == loadGeneration) {
+                    long now = System.currentTimeMillis();
+                    entries.put(key, new Entry<>(loaded, ttlMs > 0 ? now + ttlMs : Long.MAX_VALUE,
+                        refreshMs > 0 ? now + refreshMs : Long.MAX_VALUE));
+                }
+            } else if (cached != null) {
+                // 再読み込みでキャッシュしない結果になった場合は古いエントリを残さない
+                entries.remove(key);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * キャッシュから取得（有効期間切れの場合はnull）
+     */
+    public V getIfPresent(K key) {
+        Entry<V> entry = getEntry(key);
+        return entry != null ? entry.value() : null;
+    }
+
+    private Entry<V> getEntry(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() <= System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * エントリを無効化
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * 条件に一致するキーのエントリを無効化
+     */
+    public void invalidateIf(Predicate<? super K> predicate) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.keySet().removeIf(predicate);
+        }
+    }
+
+    /**
+     * 全エントリを無効化
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private record Entry<V>(V value, long expiresAt, long refreshAt) {
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.yoshikawaa.example.ai_sample.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * キーごとのトークンバケットによるレート制限
+ * バケットはcapacity個のトークンを持ち、refillIntervalNanosごとに1個補充される（最大capacity個）
+ *
+ * <p>バケットの状態はトークンが満杯に戻る時刻のみで表し、AtomicLongのCASで更新するためロックを取得しない
+ * 満杯に戻ったバケットは保持する必要がないため{@link #sweep(long)}で破棄する
+ * 保持数が上限に達している間の新しいキーは共有のバケットで制限し、キーの種類によらずメモリ使用量を抑える
+ *
+ * <p>破棄と同時に取得したトークンは数えられないことがあるが、破棄するのは満杯のバケットのみのため制限は大きくずれない
+ * 時刻はSystem.nanoTime()の値を呼び出し元から渡す
+ */
+public class TokenBucketRateLimiter {
+
+    /** 保持数の上限を超えた新しいキーが共有するバケットのキー（呼び出し元は空文字列をキーにしない） */
+    private static final String OVERFLOW_KEY = "";
+
+    private final long refillIntervalNanos;
+    private final long burstNanos;
+    private final int maxEntries;
+
+    /** キーごとのトークンが満杯に戻る時刻 */
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final LongAdder overflowCount = new LongAdder();
+
+    /**
+     * @param capacity バケットのトークン数
+     * @param refillIntervalNanos トークンを1個補充する間隔（ナノ秒）
+     * @param maxEntries 保持するバケット数の上限
+     */
+    public TokenBucketRateLimiter(int capacity, long refillIntervalNanos, int maxEntries) {
+        if (capacity < 1 || refillIntervalNanos < 1) {
+            throw new IllegalArgumentException("トークン数・補充間隔は1以上を指定してください");
+        }
+        this.refillIntervalNanos = refillIntervalNanos;
+        this.burstNanos = capacity * refillIntervalNanos;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * トークンを1個取得
+     *
+     * @param key キー
+     * @param now 現在時刻（System.nanoTime()）
+     * @return 取得できた場合は0、取得できない場合は次にトークンが補充されるまでの時間（ナノ秒）
+     */
+    public long tryAcquire(String key, long now) {
+        AtomicLong bucket = bucket(key, now);
+        while (true) {
+            long fullAt = bucket.get();
+            long next = (fullAt - now > 0 ? fullAt : now) + refillIntervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong bucket(String key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        String bucketKey = key;
+        if (buckets.size() >= maxEntries) {
+            overflowCount.increment();
+            bucketKey = OVERFLOW_KEY;
+        }
+        return buckets.computeIfAbsent(bucketKey, k -> new AtomicLong(now));
+    }
+
+    /**
+     * トークンが満杯に戻ったバケットを破棄
+     *
+     * @param now 現在時刻（System.nanoTime()）
+     * @return 破棄したバケット数
+     */
+    public int sweep(long now) {
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        return Math.max(before - buckets.size(), 0);
+    }
+
+    /**
+     * 保持しているバケット数
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * 保持数の上限により共有のバケットで制限した回数
+     */
+    public long getOverflowCount() {
+        return overflowCount.sum();
+    }
+}
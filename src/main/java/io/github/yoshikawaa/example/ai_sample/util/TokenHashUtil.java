@@ -0,0 +1,39 @@
+package io.github.yoshikawaa.example.ai_sample.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * パスワードリセット・アカウントロック解除のトークンを保存・検索用のキーにハッシュ化するユーティリティクラス
+ * トークンそのものはDBに保存せず、SHA-256のハッシュ値（16進数64文字）を一意索引のキーとして保存・検索する
+ */
+public class TokenHashUtil {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private TokenHashUtil() {
+        // ユーティリティクラスのためインスタンス化を禁止
+    }
+
+    /**
+     * トークンをハッシュ化
+     * MyBatisのSQLからも呼び出す（{@code @io.github.yoshikawaa.example.ai_sample.util.TokenHashUtil@hash(token)}）
+     *
+     * @param token トークン
+     * @return SHA-256のハッシュ値（16進数小文字、nullの場合はnull）
+     */
+    public static String hash(String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance(ALGORITHM).digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256はすべてのJava実装で利用できる
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.yoshikawaa.example.ai_sample.util;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 部分一致検索用のトライグラム（連続する3文字）を生成するユーティリティクラス
+ * 索引の作成と検索語の分解で同じ規則（小文字化・コードポイント単位）を用いる
+ */
+public class TrigramUtil {
+
+    /** トライグラムの文字数 */
+    public static final int GRAM_LENGTH = 3;
+
+    private TrigramUtil() {
+        // ユーティリティクラスのためインスタンス化を禁止
+    }
+
+    /**
+     * 文字列を小文字化してトライグラムに分解
+     *
+     * @param text 対象文字列
+     * @return 重複を除いたトライグラム（3文字未満またはnullの場合は空）
+     */
+    public static Set<String> trigrams(String text) {
+        if (text == null) {
+            return Collections.emptySet();
+        }
+        int[] codePoints = text.toLowerCase(Locale.ROOT).codePoints().toArray();
+        if (codePoints.length < GRAM_LENGTH) {
+            return Collections.emptySet();
+        }
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= codePoints.length; i++) {
+            trigrams.add(new String(codePoints, i, GRAM_LENGTH));
+        }
+        return trigrams;
+    }
+}
@@ -1,12 +1,20 @@
 
 -- 依存テーブルを先にDROP
+DROP TABLE IF EXISTS http_session_registry;
+DROP TABLE IF EXISTS http_session_principal;
+DROP TABLE IF EXISTS activity_event;
+DROP TABLE IF EXISTS daily_customer_statistics;
+DROP TABLE IF EXISTS daily_login_statistics;
+DROP TABLE IF EXISTS daily_usage_statistics;
 DROP TABLE IF EXISTS notification_history;
 DROP TABLE IF EXISTS audit_log;
 DROP TABLE IF EXISTS login_history;
 DROP TABLE IF EXISTS account_unlock_token;
 DROP TABLE IF EXISTS login_attempt;
 DROP TABLE IF EXISTS password_reset_tokens;
+DROP TABLE IF EXISTS customer_search_trigram;
 DROP TABLE IF EXISTS customer;
+DROP TABLE IF EXISTS customer_registration_mark;
 
 CREATE TABLE customer (
     email VARCHAR(255) PRIMARY KEY,
@@ -16,17 +24,72 @@ CREATE TABLE customer (
     birth_date DATE,
     phone_number VARCHAR(20),
     address VARCHAR(255),
-    role VARCHAR(20) NOT NULL DEFAULT 'USER'
+    role VARCHAR(20) NOT NULL DEFAULT 'USER',
+    -- 登録時の登録の目印（登録済みメールアドレスのフィルターへの取り込み用。登録処理以外で追加した顧客はNULL）
+    registration_mark BIGINT
 );
 
+-- キーセットページネーション用（ソートカラム + タイブレーカーのemail）
+-- タイブレーカーは昇順・降順ともemail昇順のため、ソート方向ごとに列の方向を合わせた索引を作成する
+-- （ソート値がNULLの行の取得はソートカラムのIS NULLとemailの範囲条件で昇順の索引を使用する）
+CREATE INDEX idx_customer_registration_date ON customer(registration_date, email);
+CREATE INDEX idx_customer_registration_date_desc ON customer(registration_date DESC, email);
+CREATE INDEX idx_customer_name ON customer(name, email);
+CREATE INDEX idx_customer_name_desc ON customer(name DESC, email);
+CREATE INDEX idx_customer_birth_date ON customer(birth_date, email);
+CREATE INDEX idx_customer_birth_date_desc ON customer(birth_date DESC, email);
+CREATE INDEX idx_customer_registration_mark ON customer(registration_mark, email);
+
+-- 顧客の登録ごとに進める登録の目印（登録済みメールアドレスのフィルターが他のインスタンスでの登録を検出する）
+-- 登録のトランザクションで同じ行を更新するため目印はコミット順に進み、読み取った目印以前の登録はすべてコミット済みとなる
+CREATE TABLE customer_registration_mark (
+    id INT PRIMARY KEY,
+    mark BIGINT NOT NULL
+);
+INSERT INTO customer_registration_mark (id, mark) VALUES (1, 0);
+
+-- 顧客の名前・メールアドレスの部分一致検索用のトライグラム索引（field: 'N'=名前, 'E'=メールアドレス）
+-- 検索語のトライグラムをすべて含む顧客に絞り込んでからLIKEで照合する
+CREATE TABLE customer_search_trigram (
+    field CHAR(1) NOT NULL,
+    trigram VARCHAR(12) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    PRIMARY KEY (field, trigram, email),
+    FOREIGN KEY (email) REFERENCES customer(email) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_customer_search_trigram_email ON customer_search_trigram(email);
+
 CREATE TABLE password_reset_tokens (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     email VARCHAR(255) NOT NULL,
-    reset_token VARCHAR(255) NOT NULL,
+    reset_token VARCHAR(255) NOT NULL, -- トークンのSHA-256ハッシュ値（トークンそのものは保存しない）
     token_expiry BIGINT NOT NULL,
     FOREIGN KEY (email) REFERENCES customer(email) ON DELETE CASCADE
 );
 
+CREATE UNIQUE INDEX idx_password_reset_tokens_reset_token ON password_reset_tokens(reset_token);
+CREATE INDEX idx_password_reset_tokens_token_expiry ON password_reset_tokens(token_expiry);
+
+-- 同時ログイン数の判定に使用するセッション（全インスタンスで共有、インスタンスごとのリースが切れたセッションは無効）
+CREATE TABLE http_session_registry (
+    session_id VARCHAR(255) PRIMARY KEY,
+    principal_name VARCHAR(255) NOT NULL,
+    node_id VARCHAR(64) NOT NULL, -- セッションを保持するインスタンス
+    last_request BIGINT NOT NULL,
+    expired BOOLEAN NOT NULL DEFAULT FALSE,
+    lease_until BIGINT NOT NULL -- インスタンスのハートビートで延長する
+);
+
+CREATE INDEX idx_http_session_registry_principal_name ON http_session_registry(principal_name);
+CREATE INDEX idx_http_session_registry_node_id ON http_session_registry(node_id);
+CREATE INDEX idx_http_session_registry_lease_until ON http_session_registry(lease_until);
+
+-- 同時ログイン数の判定から登録までをユーザーごとに直列化するためのロック行（SELECT ... FOR UPDATEで取得する）
+CREATE TABLE http_session_principal (
+    principal_name VARCHAR(255) PRIMARY KEY
+);
+
 CREATE TABLE login_attempt (
     email VARCHAR(255) PRIMARY KEY,
     attempt_count INT NOT NULL DEFAULT 0,
@@ -39,12 +102,15 @@ CREATE TABLE login_attempt (
 CREATE TABLE account_unlock_token (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     email VARCHAR(255) NOT NULL,
-    unlock_token VARCHAR(255) NOT NULL,
+    unlock_token VARCHAR(255) NOT NULL, -- トークンのSHA-256ハッシュ値（トークンそのものは保存しない）
     token_expiry BIGINT NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (email) REFERENCES customer(email) ON DELETE CASCADE
 );
 
+CREATE UNIQUE INDEX idx_account_unlock_token_unlock_token ON account_unlock_token(unlock_token);
+CREATE INDEX idx_account_unlock_token_token_expiry ON account_unlock_token(token_expiry);
+
 -- ログイン履歴テーブル
 CREATE TABLE login_history (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -86,8 +152,10 @@ CREATE TABLE notification_history (
     notification_type VARCHAR(50) NOT NULL,  -- 'PASSWORD_RESET', 'ACCOUNT_LOCK', 'ACCOUNT_UNLOCK', 'PASSWORD_RESET_COMPLETE', 'ACCOUNT_UNLOCK_COMPLETE'
     subject VARCHAR(255) NOT NULL,
     body TEXT,
-    status VARCHAR(20) NOT NULL,             -- 'SUCCESS', 'FAILURE'
+    status VARCHAR(20) NOT NULL,             -- 'PENDING', 'SUCCESS', 'FAILURE'
     error_message TEXT,
+    attempt_count INT DEFAULT 0 NOT NULL,    -- 送信試行回数
+    next_attempt_at TIMESTAMP,               -- PENDINGの次回送信時刻（送信待ちキューから漏れた場合もこの時刻以降に再送する）
     sent_at TIMESTAMP,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (recipient_email) REFERENCES customer(email) ON DELETE CASCADE
@@ -97,3 +165,44 @@ CREATE INDEX idx_notification_history_recipient ON notification_history(recipien
 CREATE INDEX idx_notification_history_type ON notification_history(notification_type);
 CREATE INDEX idx_notification_history_status ON notification_history(status);
 CREATE INDEX idx_notification_history_sent_at ON notification_history(sent_at);
+CREATE INDEX idx_notification_history_pending ON notification_history(status, next_attempt_at);
+
+-- アクティビティイベントテーブル（監査ログ・ログイン履歴・通知履歴を顧客ごとのタイムラインとして投影した追記専用テーブル）
+CREATE TABLE activity_event (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    email VARCHAR(255) NOT NULL,
+    event_time TIMESTAMP NOT NULL,
+    activity_type VARCHAR(30),
+    description VARCHAR(255),
+    detail TEXT,
+    ip_address VARCHAR(45),
+    status VARCHAR(20),
+    source_type VARCHAR(30) NOT NULL,     -- 'AUDIT_LOG', 'LOGIN_HISTORY', 'NOTIFICATION_HISTORY'
+    source_id BIGINT NOT NULL,            -- 投影元テーブルのID
+    FOREIGN KEY (email) REFERENCES customer(email) ON DELETE CASCADE
+);
+
+-- 投影元1行につき1件（バックフィルの重複防止）
+CREATE UNIQUE INDEX uk_activity_event_source ON activity_event(source_type, source_id);
+-- タイムライン表示用（顧客ごとの日時降順の範囲スキャン）
+CREATE INDEX idx_activity_event_timeline ON activity_event(email, event_time DESC, activity_type);
+
+-- 日別集計テーブル（統計画面用。登録時に加算し、定期的に元テーブルから再集計する）
+CREATE TABLE daily_customer_statistics (
+    stat_date DATE PRIMARY KEY,           -- 登録日
+    customer_count BIGINT NOT NULL
+);
+
+CREATE TABLE daily_login_statistics (
+    stat_date DATE NOT NULL,              -- ログイン日
+    status VARCHAR(20) NOT NULL,
+    login_count BIGINT NOT NULL,
+    PRIMARY KEY (stat_date, status)
+);
+
+CREATE TABLE daily_usage_statistics (
+    stat_date DATE NOT NULL,              -- 操作日
+    action_type VARCHAR(50) NOT NULL,
+    action_count BIGINT NOT NULL,
+    PRIMARY KEY (stat_date, action_type)
+);
@@ -1,15 +1,13 @@
 
 package io.github.yoshikawaa.example.ai_sample.config;
 
-import io.github.yoshikawaa.example.ai_sample.service.EmailService;
-import io.github.yoshikawaa.example.ai_sample.service.NotificationHistoryService;
-import static org.mockito.ArgumentMatchers.any;
+import io.github.yoshikawaa.example.ai_sample.service.NotificationDispatcher;
 import static org.mockito.Mockito.when;
 
 import io.github.yoshikawaa.example.ai_sample.model.Customer;
-import io.github.yoshikawaa.example.ai_sample.model.LoginAttempt;
 import io.github.yoshikawaa.example.ai_sample.repository.CustomerRepository;
 import io.github.yoshikawaa.example.ai_sample.repository.LoginAttemptRepository;
+import io.github.yoshikawaa.example.ai_sample.service.LoginAttemptTracker;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -61,11 +59,12 @@ class SecurityConfigTest {
     @MockitoBean
     private LoginAttemptRepository loginAttemptRepository;
 
-    @MockitoBean
-    private EmailService emailService;
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
 
+    // 通知メールの送信を抑止
     @MockitoBean
-    private NotificationHistoryService notificationHistoryService;
+    private NotificationDispatcher notificationDispatcher;
 
     @BeforeEach
     void setUpCustomer() {
@@ -90,11 +89,8 @@ class SecurityConfigTest {
         // CustomerRepository の findByEmail メソッドをモック
         when(customerRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testCustomer));
         
-        // LoginAttemptRepositoryのモック: アカウントはロックされていない
-        when(loginAttemptRepository.findByEmail("test@example.com")).thenReturn(Optional.empty());
-        
-        // EmailServiceのメール送信を抑止（booleanを返すメソッドなのでwhenを使用）
-        when(emailService.sendEmail(any(), any(), any())).thenReturn(true);
+        // ログイン試行記録なし: アカウントはロックされていない
+        loginAttemptTracker.remove("test@example.com");
     }
 
     @Test
@@ -118,15 +114,9 @@ class SecurityConfigTest {
     @Test
     @DisplayName("ロック状態のユーザーは/account-lockedにリダイレクトされる（認証フロー全体）")
     void testLogin_LockedUser_RedirectsToAccountLocked() throws Exception {
-        // ロック状態のLoginAttemptを返す
+        // ロック状態の試行記録を設定（未来時刻でロック中）
         String email = "test@example.com";
-        LoginAttempt lockedAttempt = new LoginAttempt();
-        lockedAttempt.setEmail(email);
-        lockedAttempt.setAttemptCount(5);
-        lockedAttempt.setLastAttemptTime(System.currentTimeMillis());
-        // 未来時刻でロック中
-        lockedAttempt.setLockedUntil(System.currentTimeMillis() + 1000000L);
-        when(loginAttemptRepository.findByEmail(email)).thenReturn(Optional.of(lockedAttempt));
+        loginAttemptTracker.put(email, 5, System.currentTimeMillis(), System.currentTimeMillis() + 1000000L);
 
         // ログイン試行→ロック画面にリダイレクトされることを検証
         mockMvc.perform(formLogin("/login").user(email).password("password123"))
@@ -137,14 +127,9 @@ class SecurityConfigTest {
     @Test
     @DisplayName("5回目失敗で即ロック画面に遷移する（認証フロー全体）")
     void testLogin_ImmediateLock_RedirectsToAccountLocked() throws Exception {
-        // 5回目失敗直前の状態（attemptCount=4, lockedUntil=null）を返す
+        // 5回目失敗直前の状態（attemptCount=4, ロックなし）を設定
         String email = "test@example.com";
-        LoginAttempt attempt = new LoginAttempt();
-        attempt.setEmail(email);
-        attempt.setAttemptCount(4);
-        attempt.setLastAttemptTime(System.currentTimeMillis());
-        attempt.setLockedUntil(null);
-        when(loginAttemptRepository.findByEmail(email)).thenReturn(Optional.of(attempt));
+        loginAttemptTracker.put(email, 4, System.currentTimeMillis(), 0L);
 
         // ログイン試行（誤ったパスワードで5回目失敗を発生させる）→ロック画面にリダイレクトされることを検証
         mockMvc.perform(formLogin("/login").user(email).password("wrongPassword"))
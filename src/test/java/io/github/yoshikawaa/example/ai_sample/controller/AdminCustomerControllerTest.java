@@ -4,21 +4,25 @@ import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -26,17 +30,22 @@ import java.util.Arrays;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
@@ -45,6 +54,7 @@ import io.github.yoshikawaa.example.ai_sample.config.SecurityConfig;
 import io.github.yoshikawaa.example.ai_sample.exception.CustomerNotFoundException;
 import io.github.yoshikawaa.example.ai_sample.exception.UnderageCustomerException;
 import io.github.yoshikawaa.example.ai_sample.model.Customer;
+import io.github.yoshikawaa.example.ai_sample.model.CustomerCursor;
 import io.github.yoshikawaa.example.ai_sample.service.ActivityTimelineService;
 import io.github.yoshikawaa.example.ai_sample.service.CustomerService;
 import io.github.yoshikawaa.example.ai_sample.service.LoginAttemptService;
@@ -147,6 +157,71 @@ class AdminCustomerControllerTest {
             verify(customerService, times(1)).searchCustomersWithPagination(eq("John"), eq("john@example.com"), any());
         }
 
+        @Test
+        @DisplayName("GET /admin/customers: カーソル指定時はキーセット方式で取得し、次ページのリンクにカーソルを設定する")
+        @WithMockUser(username = "admin@example.com", roles = "ADMIN")
+        void testShowCustomers_Keyset() throws Exception {
+            Customer customer = new Customer(
+                "john.doe@example.com",
+                "password123",
+                "John Doe",
+                LocalDate.of(2023, 3, 1),
+                LocalDate.of(1990, 5, 20),
+                "123-456-7890",
+                "123 Main St",
+                Customer.Role.USER
+            );
+            Slice<Customer> customerSlice = new SliceImpl<>(Arrays.asList(customer), PageRequest.of(0, 1), true);
+            when(customerService.getAllCustomersWithKeyset(eq(new CustomerCursor("2023-04-01", "alice@example.com")), any()))
+                .thenReturn(customerSlice);
+            when(customerService.nextCursor(customerSlice)).thenReturn(new CustomerCursor("2023-03-01", "john.doe@example.com"));
+
+            MvcResult result = mockMvc.perform(get("/admin/customers")
+                        .param("after", "2023-04-01")
+                        .param("afterEmail", "alice@example.com"))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("admin-customer-list"))
+                    .andExpect(model().attribute("customerPage", customerSlice))
+                    .andExpect(model().attribute("keyset", true))
+                    .andReturn();
+
+            assertThat(result.getResponse().getContentAsString())
+                .contains("after=2023-03-01")
+                .contains("afterEmail=john.doe@example.com");
+            verify(customerService, times(0)).getAllCustomersWithPagination(any());
+        }
+
+        @Test
+        @DisplayName("GET /admin/customers: カーソルのソート値が日付として解釈できない場合は400を返す")
+        @WithMockUser(username = "admin@example.com", roles = "ADMIN")
+        void testShowCustomers_Keyset_不正なカーソル() throws Exception {
+            mockMvc.perform(get("/admin/customers")
+                        .param("after", "not-a-date")
+                        .param("afterEmail", "alice@example.com"))
+                    .andExpect(status().isBadRequest());
+
+            verify(customerService, times(0)).getAllCustomersWithKeyset(any(), any());
+        }
+
+        @Test
+        @DisplayName("GET /admin/customers/search: カーソル指定時は検索条件付きでキーセット方式で取得する")
+        @WithMockUser(username = "admin@example.com", roles = "ADMIN")
+        void testSearchCustomers_Keyset() throws Exception {
+            Slice<Customer> customerSlice = new SliceImpl<>(emptyList(), PageRequest.of(0, 10), false);
+            when(customerService.searchCustomersWithKeyset(eq("John"), eq(null), eq(new CustomerCursor("John A", "a@example.com")), any()))
+                .thenReturn(customerSlice);
+
+            mockMvc.perform(get("/admin/customers/search")
+                        .param("name", "John")
+                        .param("after", "John A")
+                        .param("afterEmail", "a@example.com"))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("admin-customer-list"))
+                    .andExpect(model().attribute("customerPage", customerSlice));
+
+            verify(customerService, times(0)).searchCustomersWithPagination(any(), any(), any());
+        }
+
         @Test
         @DisplayName("GET /admin/customers/search: 検索条件なしで全件取得")
         @WithMockUser(username = "admin@example.com", roles = "ADMIN")
@@ -190,15 +265,15 @@ class AdminCustomerControllerTest {
             String csvContent = "\uFEFFEmail,Name,Registration Date,Birth Date,Phone Number,Address\n" +
                             "\"test@example.com\",\"Test User\",\"2023-01-01\",\"1990-01-01\",\"123-4567\",\"Address\"";
             byte[] csvData = csvContent.getBytes(java.nio.charset.StandardCharsets.UTF_8);
-            when(customerService.exportCustomersToCSV(eq(null), eq(null), any())).thenReturn(csvData);
+            doAnswer(writes(csvData)).when(customerService).exportCustomersToCSV(eq(null), eq(null), any(), any());
 
-            mockMvc.perform(get("/admin/customers/export"))
+            performAsync(get("/admin/customers/export"))
                     .andExpect(status().isOk())
                     .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
                     .andExpect(header().exists("Content-Disposition"))
                     .andExpect(content().bytes(csvData));
 
-            verify(customerService, times(1)).exportCustomersToCSV(eq(null), eq(null), any());
+            verify(customerService, times(1)).exportCustomersToCSV(eq(null), eq(null), any(), any());
         }
 
         @Test
@@ -454,13 +529,14 @@ class AdminCustomerControllerTest {
         @WithMockUser(username = "admin@example.com", roles = "ADMIN")
         void testExportCustomersToCSV_WithSearchConditions() throws Exception {
             byte[] csvData = "Email,Name\nalice@example.com,Alice\n".getBytes(StandardCharsets.UTF_8);
-            when(customerService.exportCustomersToCSV(eq("Alice"), any(), any())).thenReturn(csvData);
+            doAnswer(writes(csvData)).when(customerService).exportCustomersToCSV(eq("Alice"), any(), any(), any());
 
-            mockMvc.perform(get("/admin/customers/export")
+            performAsync(get("/admin/customers/export")
                             .param("name", "Alice"))
                     .andExpect(status().isOk())
                     .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
-                    .andExpect(header().exists("Content-Disposition"));
+                    .andExpect(header().exists("Content-Disposition"))
+                    .andExpect(content().bytes(csvData));
         }
 
         @Test
@@ -468,9 +544,9 @@ class AdminCustomerControllerTest {
         @WithMockUser(username = "admin@example.com", roles = "ADMIN")
         void testExportCustomersToCSV_WithSort() throws Exception {
             byte[] csvData = "Email,Name\nalice@example.com,Alice\nbob@example.com,Bob\n".getBytes(StandardCharsets.UTF_8);
-            when(customerService.exportCustomersToCSV(any(), any(), any())).thenReturn(csvData);
+            doAnswer(writes(csvData)).when(customerService).exportCustomersToCSV(any(), any(), any(), any());
 
-            mockMvc.perform(get("/admin/customers/export")
+            performAsync(get("/admin/customers/export")
                             .param("sort", "email,asc"))
                     .andExpect(status().isOk())
                     .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"));
@@ -481,9 +557,9 @@ class AdminCustomerControllerTest {
         @WithMockUser(username = "admin@example.com", roles = "ADMIN")
         void testExportCustomersToCSV_CheckFilename() throws Exception {
             byte[] csvData = "Email,Name\n".getBytes(StandardCharsets.UTF_8);
-            when(customerService.exportCustomersToCSV(any(), any(), any())).thenReturn(csvData);
+            doAnswer(writes(csvData)).when(customerService).exportCustomersToCSV(any(), any(), any(), any());
 
-            MvcResult result = mockMvc.perform(get("/admin/customers/export"))
+            MvcResult result = performAsync(get("/admin/customers/export"))
                     .andExpect(status().isOk())
                     .andReturn();
 
@@ -1089,4 +1165,29 @@ class AdminCustomerControllerTest {
                     .andExpect(status().is3xxRedirection());
         }
     }
+
+    // ========================================
+    // ヘルパーメソッド
+    // ========================================
+
+    /**
+     * 非同期（StreamingResponseBody）のレスポンスを待ち合わせてリクエストを実行
+     */
+    private ResultActions performAsync(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(mvcResult));
+    }
+
+    /**
+     * 出力ストリームに指定データを書き込むAnswerを生成
+     */
+    private Answer<Void> writes(byte[] data) {
+        return invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            out.write(data);
+            return null;
+        };
+    }
 }
@@ -17,6 +17,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 
 import org.springframework.security.test.context.support.WithAnonymousUser;
@@ -81,12 +83,35 @@ class AdminLoginHistoryControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin-login-history"))
                 .andExpect(model().attributeExists("historyPage"))
+                .andExpect(model().attribute("totalCounted", true))
                 .andExpect(model().attributeExists("loginHistorySearchForm"));
 
             // 検証
             verify(loginHistoryService, times(1)).getAllLoginHistoriesWithPagination(any(Pageable.class));
         }
 
+        @Test
+        @DisplayName("総件数を取得しない方式（Slice）でもログイン履歴一覧を表示できる")
+        @WithMockUser(username = "admin@example.com", roles = "ADMIN")
+        void testShowLoginHistory_Slice() throws Exception {
+            // テストデータ
+            List<LoginHistory> histories = Arrays.asList(
+                createLoginHistory(1L, "user1@example.com", "SUCCESS")
+            );
+            Pageable pageable = PageRequest.of(0, 20, Sort.by("loginTime").descending());
+            Slice<LoginHistory> slice = new SliceImpl<>(histories, pageable, true);
+
+            // モックの動作を定義
+            when(loginHistoryService.getAllLoginHistoriesWithPagination(any(Pageable.class))).thenReturn(slice);
+
+            // リクエストを実行
+            mockMvc.perform(get("/admin/login-history"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("admin-login-history"))
+                .andExpect(model().attribute("historyPage", slice))
+                .andExpect(model().attribute("totalCounted", false));
+        }
+
         @Test
         @DisplayName("管理者はページネーションでログイン履歴を表示できる")
         @WithMockUser(username = "admin@example.com", roles = "ADMIN")
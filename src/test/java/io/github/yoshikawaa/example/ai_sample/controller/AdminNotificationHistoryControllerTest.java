@@ -78,7 +78,7 @@ class AdminNotificationHistoryControllerTest {
         typeCount2.setCount(30L);
 
         testStatistics = new NotificationHistoryService.NotificationHistoryStatistics(
-            100L, 90L, 10L, 90.0,
+            100L, 90L, 10L, 0L, 90.0,
             Arrays.asList(typeCount1, typeCount2)
         );
     }
@@ -353,7 +353,7 @@ class AdminNotificationHistoryControllerTest {
         void adminCanAccessNotificationHistory() throws Exception {
             when(notificationHistoryService.getAllNotificationHistoriesWithPagination(any())).thenReturn(new PageImpl<>(Collections.emptyList()));
             NotificationHistoryService.NotificationHistoryStatistics mockStatistics =
-                new NotificationHistoryService.NotificationHistoryStatistics(0, 0, 0, 0.0, Collections.emptyList());
+                new NotificationHistoryService.NotificationHistoryStatistics(0, 0, 0, 0, 0.0, Collections.emptyList());
             when(notificationHistoryService.getStatistics()).thenReturn(mockStatistics);
             mockMvc.perform(get("/admin/notification-history"))
                 .andExpect(status().isOk());
@@ -24,11 +24,13 @@ import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
@@ -106,6 +108,27 @@ class AdminStatisticsControllerTest {
         verify(statisticsService, times(1)).getStatistics(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
     }
 
+    @Test
+    @DisplayName("一部の統計を取得できなかった場合は警告を表示する")
+    @WithMockUser(roles = "ADMIN")
+    void testShowStatistics_Partial() throws Exception {
+        StatisticsDto mockData = new StatisticsDto(
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            LocalDate.of(2026, 1, 1),
+            LocalDate.of(2026, 1, 31),
+            Arrays.asList(StatisticsDto.StatisticsType.LOGIN)
+        );
+
+        when(statisticsService.getStatistics(any(), any()))
+            .thenReturn(mockData);
+
+        mockMvc.perform(get("/admin/statistics"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("<span>LOGIN</span>")));
+    }
+
     @Test
     @DisplayName("パラメータなしの場合はデフォルト期間（過去30日）で表示（@ModelAttributeメソッドで設定）")
     @WithMockUser(roles = "ADMIN")
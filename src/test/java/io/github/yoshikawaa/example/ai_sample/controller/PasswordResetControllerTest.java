@@ -4,6 +4,7 @@ import io.github.yoshikawaa.example.ai_sample.config.SecurityConfig;
 import io.github.yoshikawaa.example.ai_sample.exception.InvalidTokenException;
 import io.github.yoshikawaa.example.ai_sample.service.LoginAttemptService;
 import io.github.yoshikawaa.example.ai_sample.service.LoginHistoryService;
+import io.github.yoshikawaa.example.ai_sample.service.PasswordResetRequestDispatcher;
 import io.github.yoshikawaa.example.ai_sample.service.PasswordResetService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -38,6 +39,9 @@ class PasswordResetControllerTest {
     @MockitoBean
     private PasswordResetService passwordResetService;
 
+    @MockitoBean
+    private PasswordResetRequestDispatcher passwordResetRequestDispatcher;
+
     @MockitoBean
     private LoginAttemptService loginAttemptService;
 
@@ -56,7 +60,7 @@ class PasswordResetControllerTest {
     @DisplayName("POST /password-reset/request: 正常にリセットリンクを送信する")
     void testHandleResetRequest_正常系() throws Exception {
         // Arrange
-        doNothing().when(passwordResetService).sendResetLink("test@example.com");
+        doNothing().when(passwordResetRequestDispatcher).dispatch("test@example.com");
 
         // Act & Assert
 
@@ -72,7 +76,7 @@ class PasswordResetControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(view().name("password-reset-complete"));
 
-        verify(passwordResetService).sendResetLink("test@example.com");
+        verify(passwordResetRequestDispatcher).dispatch("test@example.com");
     }
 
     @Test
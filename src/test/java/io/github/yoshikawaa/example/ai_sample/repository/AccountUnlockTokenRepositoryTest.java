@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import io.github.yoshikawaa.example.ai_sample.model.Customer;
+import io.github.yoshikawaa.example.ai_sample.util.TokenHashUtil;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -34,6 +35,7 @@ class AccountUnlockTokenRepositoryTest {
         AccountUnlockToken found = repository.findByToken("unlock-token");
         assertThat(found).isNotNull();
         assertThat(found.getEmail()).isEqualTo("test@example.com");
+        assertThat(found.getUnlockToken()).isEqualTo(TokenHashUtil.hash("unlock-token")); // ハッシュ値で保存される
     }
 
     @Test
@@ -48,4 +50,23 @@ class AccountUnlockTokenRepositoryTest {
         AccountUnlockToken found = repository.findByToken("unlock-token");
         assertThat(found).isNull();
     }
+
+    @Test
+    @DisplayName("有効期限切れのトークンを最大limit件ずつ削除できる")
+    void testDeleteExpired() {
+        // 事前にcustomer登録
+        Customer customer = new Customer("test@example.com", "dummy", "テストユーザー", java.time.LocalDate.now(), java.time.LocalDate.now(), "", "", Customer.Role.USER);
+        customerRepository.insert(customer);
+        long now = System.currentTimeMillis();
+        repository.insert(new AccountUnlockToken("test@example.com", "expired-token-1", now - 1000));
+        repository.insert(new AccountUnlockToken("test@example.com", "expired-token-2", now - 2000));
+        repository.insert(new AccountUnlockToken("test@example.com", "valid-token", now + 10000));
+
+        assertThat(repository.deleteExpired(now, 1)).isEqualTo(1);
+        assertThat(repository.deleteExpired(now, 10)).isEqualTo(1);
+
+        assertThat(repository.findByToken("expired-token-1")).isNull();
+        assertThat(repository.findByToken("expired-token-2")).isNull();
+        assertThat(repository.findByToken("valid-token")).isNotNull();
+    }
 }
@@ -18,6 +18,7 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -124,6 +125,11 @@ class ActivityTimelineRepositoryTest {
         notification2.setSentAt(now);
         notification2.setStatus(NotificationHistory.Status.SUCCESS);
         notificationHistoryRepository.insert(notification2);
+
+        // 投影元の登録後にアクティビティイベントへ投影
+        activityTimelineRepository.backfillAuditLog(0, Long.MAX_VALUE);
+        activityTimelineRepository.backfillLoginHistory(0, Long.MAX_VALUE);
+        activityTimelineRepository.backfillNotificationHistory(0, Long.MAX_VALUE);
     }
 
     @Test
@@ -394,4 +400,126 @@ class ActivityTimelineRepositoryTest {
         // 検証: 3件（AuditLog3, LoginHistory2, AuditLog2）
         assertThat(count).isEqualTo(3);
     }
+
+    // ========================================
+    // 投影
+    // ========================================
+
+    @Test
+    @DisplayName("バックフィルは投影済みの行を除外する（再実行しても重複しない）")
+    void testBackfill_Idempotent() {
+        assertThat(activityTimelineRepository.backfillAuditLog(0, Long.MAX_VALUE)).isZero();
+        assertThat(activityTimelineRepository.backfillLoginHistory(0, Long.MAX_VALUE)).isZero();
+        assertThat(activityTimelineRepository.backfillNotificationHistory(0, Long.MAX_VALUE)).isZero();
+
+        long count = activityTimelineRepository.countActivityTimeline(testEmail, now.minusDays(7), now.plusDays(1), null);
+        assertThat(count).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("バックフィルは指定したID範囲のみ投影する")
+    void testBackfill_IdRange() {
+        AuditLog auditLog = newAuditLog(testEmail, now.minusHours(1));
+        auditLogRepository.insert(auditLog);
+
+        assertThat(activityTimelineRepository.backfillAuditLog(0, auditLog.getId() - 1)).isZero();
+        assertThat(activityTimelineRepository.backfillAuditLog(auditLog.getId() - 1, auditLog.getId())).isEqualTo(1);
+        assertThat(activityTimelineRepository.findMaxAuditLogId()).isEqualTo(auditLog.getId());
+    }
+
+    @Test
+    @DisplayName("監査ログをIDで投影できる（投影済みの場合は何もしない）")
+    void testProjectAuditLog() {
+        AuditLog auditLog = newAuditLog(testEmail, now.minusHours(1));
+        auditLogRepository.insert(auditLog);
+
+        assertThat(activityTimelineRepository.projectAuditLog(auditLog.getId())).isEqualTo(1);
+        assertThat(activityTimelineRepository.projectAuditLog(auditLog.getId())).isZero();
+
+        List<ActivityTimeline> result = activityTimelineRepository.findActivityTimeline(
+            testEmail, now.minusHours(2), now.minusMinutes(1), null, 10, 0);
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getActivityType()).isEqualTo(ActivityType.INFO_UPDATED);
+        assertThat(result.get(0).getTimestamp()).isEqualTo(now.minusHours(1));
+    }
+
+    @Test
+    @DisplayName("対象顧客のない監査ログは投影しない")
+    void testProjectAuditLog_NoTarget() {
+        AuditLog auditLog = newAuditLog(null, now.minusHours(1));
+        auditLogRepository.insert(auditLog);
+
+        assertThat(activityTimelineRepository.projectAuditLog(auditLog.getId())).isZero();
+    }
+
+    @Test
+    @DisplayName("指定顧客・期間の未投影の監査ログをまとめて投影できる")
+    void testProjectAuditLogs() {
+        auditLogRepository.insert(newAuditLog(testEmail, now.minusHours(3)));
+        auditLogRepository.insert(newAuditLog(testEmail, now.minusHours(2)));
+        auditLogRepository.insert(newAuditLog(testEmail, now.minusHours(1)));
+
+        int projected = activityTimelineRepository.projectAuditLogs(
+            Set.of(testEmail), now.minusHours(3), now.minusHours(2));
+
+        assertThat(projected).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("ログイン履歴をIDで投影し、指定顧客・期間の未投影分をまとめて投影できる")
+    void testProjectLoginHistory() {
+        LoginHistory loginHistory1 = newLoginHistory(now.minusHours(2));
+        LoginHistory loginHistory2 = newLoginHistory(now.minusHours(1));
+        loginHistoryRepository.insert(loginHistory1);
+        loginHistoryRepository.insert(loginHistory2);
+
+        assertThat(activityTimelineRepository.projectLoginHistory(loginHistory1.getId())).isEqualTo(1);
+        assertThat(activityTimelineRepository.projectLoginHistories(
+            Set.of(testEmail), now.minusHours(2), now.minusHours(1))).isEqualTo(1);
+
+        long count = activityTimelineRepository.countActivityTimeline(testEmail, now.minusHours(2), now.minusMinutes(1), null);
+        assertThat(count).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("通知履歴をIDで投影できる（送信エラーは詳細に含める）")
+    void testProjectNotificationHistory() {
+        NotificationHistory notification = new NotificationHistory();
+        notification.setRecipientEmail(testEmail);
+        notification.setNotificationType(NotificationHistory.NotificationType.ACCOUNT_UNLOCK);
+        notification.setSubject("アカウントロック解除");
+        notification.setSentAt(now.minusHours(1));
+        notification.setStatus(NotificationHistory.Status.FAILURE);
+        notification.setErrorMessage("接続エラー");
+        notificationHistoryRepository.insert(notification);
+
+        assertThat(activityTimelineRepository.projectNotificationHistory(notification.getId())).isEqualTo(1);
+
+        List<ActivityTimeline> result = activityTimelineRepository.findActivityTimeline(
+            testEmail, now.minusHours(2), now.minusMinutes(1), null, 10, 0);
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getDetail()).isEqualTo("件名: アカウントロック解除\nエラー: 接続エラー");
+        assertThat(result.get(0).getStatus()).isEqualTo("FAILURE");
+    }
+
+    private AuditLog newAuditLog(String targetEmail, LocalDateTime actionTime) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setPerformedBy("admin@example.com");
+        auditLog.setTargetEmail(targetEmail);
+        auditLog.setActionType(AuditLog.ActionType.UPDATE);
+        auditLog.setActionDetail("情報更新");
+        auditLog.setActionTime(actionTime);
+        auditLog.setIpAddress("192.168.1.100");
+        return auditLog;
+    }
+
+    private LoginHistory newLoginHistory(LocalDateTime loginTime) {
+        LoginHistory loginHistory = new LoginHistory();
+        loginHistory.setEmail(testEmail);
+        loginHistory.setStatus(LoginHistory.Status.SUCCESS);
+        loginHistory.setLoginTime(loginTime);
+        loginHistory.setIpAddress("192.168.1.100");
+        loginHistory.setUserAgent("Mozilla/5.0");
+        return loginHistory;
+    }
 }
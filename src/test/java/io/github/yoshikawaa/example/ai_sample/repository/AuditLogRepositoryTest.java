@@ -157,7 +157,7 @@ class AuditLogRepositoryTest {
 
         // 検索: targetEmail="test-user@example.com"
         List<AuditLog> logs = auditLogRepository.searchWithPagination(
-            null, "test-user@example.com", null, null, null, 10, 0, null, null
+            null, null, "test-user@example.com", null, null, null, null, 10, 0, null, null
         );
 
         // 検証
@@ -175,7 +175,7 @@ class AuditLogRepositoryTest {
 
         // 検索: actionType="CREATE"
         List<AuditLog> logs = auditLogRepository.searchWithPagination(
-            null, null, AuditLog.ActionType.CREATE, null, null, 10, 0, null, null
+            null, null, null, null, AuditLog.ActionType.CREATE, null, null, 10, 0, null, null
         );
 
         // 検証
@@ -193,7 +193,7 @@ class AuditLogRepositoryTest {
 
         // 検索: fromDate=2024-01-01, toDate=2024-01-31
         List<AuditLog> logs = auditLogRepository.searchWithPagination(
-            null, null, null, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), 10, 0, null, null
+            null, null, null, null, null, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), 10, 0, null, null
         );
 
         // 検証: 1月のログのみ取得される
@@ -210,7 +210,7 @@ class AuditLogRepositoryTest {
 
         // 検索: performedBy="admin" AND actionType="CREATE"
         List<AuditLog> logs = auditLogRepository.searchWithPagination(
-            "admin", null, AuditLog.ActionType.CREATE, null, null, 10, 0, null, null
+            "admin", null, null, null, AuditLog.ActionType.CREATE, null, null, 10, 0, null, null
         );
 
         // 検証
@@ -228,7 +228,7 @@ class AuditLogRepositoryTest {
         insertAuditLog("test-user@example.com", "test-admin@example.com", "CREATE", "顧客登録", LocalDateTime.now());
 
         // 検索条件でカウント actionType="CREATE"
-        long count = auditLogRepository.countBySearch(null, null, AuditLog.ActionType.CREATE, null, null);
+        long count = auditLogRepository.countBySearch(null, null, null, null, AuditLog.ActionType.CREATE, null, null);
 
         // 検証
         assertThat(count).isEqualTo(2);
@@ -244,7 +244,7 @@ class AuditLogRepositoryTest {
 
         // 検索条件なし
         List<AuditLog> logs = auditLogRepository.searchWithPagination(
-            null, null, null, null, null, 10, 0, null, null
+            null, null, null, null, null, null, null, 10, 0, null, null
         );
 
         // 検証: 全件取得される
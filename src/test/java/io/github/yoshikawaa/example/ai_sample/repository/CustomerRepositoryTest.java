@@ -2,6 +2,10 @@
 package io.github.yoshikawaa.example.ai_sample.repository;
 
 import io.github.yoshikawaa.example.ai_sample.model.Customer;
+import io.github.yoshikawaa.example.ai_sample.service.TrigramStopGrams;
+import io.github.yoshikawaa.example.ai_sample.util.TrigramUtil;
+import org.apache.ibatis.cursor.Cursor;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
@@ -15,6 +19,7 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Optional;
+import java.util.Set;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @MybatisTest
@@ -36,6 +41,22 @@ class CustomerRepositoryTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CustomerSearchIndexRepository customerSearchIndexRepository;
+
+    @BeforeEach
+    void setUp() {
+        // 初期データの顧客に検索用の索引を作成（アプリケーションでは起動時のバックフィルで作成される）
+        customerSearchIndexRepository.findUnindexedCustomers(null, 1000).forEach(this::index);
+    }
+
+    private void index(Customer customer) {
+        customerSearchIndexRepository.insertTrigrams(customer.getEmail(), CustomerSearchIndexRepository.FIELD_NAME,
+            TrigramUtil.trigrams(customer.getName()));
+        customerSearchIndexRepository.insertTrigrams(customer.getEmail(), CustomerSearchIndexRepository.FIELD_EMAIL,
+            TrigramUtil.trigrams(customer.getEmail()));
+    }
+
     // ========================================
     // 全件取得系
     // ========================================
@@ -67,6 +88,170 @@ class CustomerRepositoryTest {
         assertThat(allEmails).doesNotHaveDuplicates();
     }
 
+    @Test
+    @DisplayName("findAllWithKeyset: カーソルを辿って全件を重複なく取得できる（OFFSET方式と同じ順序）")
+    void testFindAllWithKeyset() {
+        List<Customer> offsetAll = customerRepository.findAllWithPagination(100, 0, "registration_date", "DESC");
+
+        List<String> keysetEmails = new ArrayList<>();
+        String cursorValue = null;
+        String cursorEmail = null;
+        while (true) {
+            List<Customer> page = customerRepository.findAllWithKeyset(5, "registration_date", "DESC", cursorValue, cursorEmail);
+            page.forEach(c -> keysetEmails.add(c.getEmail()));
+            if (page.size() < 5) {
+                break;
+            }
+            Customer last = page.get(page.size() - 1);
+            cursorValue = last.getRegistrationDate().toString();
+            cursorEmail = last.getEmail();
+        }
+
+        assertThat(keysetEmails).doesNotHaveDuplicates();
+        assertThat(keysetEmails).hasSize((int) customerRepository.count());
+        // 登録日の降順であること
+        assertThat(offsetAll.stream().map(Customer::getEmail).toList()).containsExactlyInAnyOrderElementsOf(keysetEmails);
+        List<LocalDate> dates = keysetEmails.stream()
+            .map(email -> customerRepository.findByEmail(email).orElseThrow().getRegistrationDate())
+            .toList();
+        assertThat(dates).isSortedAccordingTo(java.util.Comparator.reverseOrder());
+    }
+
+    @Test
+    @DisplayName("findAllWithKeyset: 同じソート値の行はemail昇順でタイブレークされる")
+    void testFindAllWithKeyset_タイブレーク() {
+        // admin@example.com と john.doe@example.com は登録日が同じ（2023-01-01）
+        List<Customer> page = customerRepository.findAllWithKeyset(10, "registration_date", "ASC", "2023-01-01", "admin@example.com");
+
+        assertThat(page.get(0).getEmail()).isEqualTo("john.doe@example.com");
+        assertThat(page).extracting(Customer::getEmail).doesNotContain("admin@example.com");
+    }
+
+    @Test
+    @DisplayName("findAllWithKeyset: 名前の昇順でカーソル以降を取得できる")
+    void testFindAllWithKeyset_名前昇順() {
+        List<Customer> page = customerRepository.findAllWithKeyset(3, "name", "ASC", "John Doe", "john.doe@example.com");
+
+        assertThat(page).hasSize(3);
+        assertThat(page).allMatch(c -> c.getName().compareTo("John Doe") > 0);
+        assertThat(page).extracting(Customer::getName).isSorted();
+    }
+
+    @Test
+    @DisplayName("findAllWithKeyset: ソート値がNULLの行は含めない")
+    void testFindAllWithKeyset_NULLを除外() {
+        customerRepository.insert(new Customer("null1@example.com", "password", null, LocalDate.of(2024, 1, 1), null, "000-0001", "Address", Customer.Role.USER));
+
+        List<Customer> first = customerRepository.findAllWithKeyset(100, "birth_date", "ASC", null, null);
+        List<Customer> next = customerRepository.findAllWithKeyset(100, "name", "DESC", "Z", "a@example.com");
+
+        assertThat(first).extracting(Customer::getEmail).doesNotContain("null1@example.com");
+        assertThat(next).extracting(Customer::getEmail).doesNotContain("null1@example.com");
+    }
+
+    @Test
+    @DisplayName("findAllWithKeysetNullTail: ソート値がNULLの行だけをemail昇順でカーソル以降から取得する")
+    void testFindAllWithKeysetNullTail() {
+        customerRepository.insert(new Customer("null1@example.com", "password", null, LocalDate.of(2024, 1, 1), null, "000-0001", "Address", Customer.Role.USER));
+        customerRepository.insert(new Customer("null2@example.com", "password", null, LocalDate.of(2024, 1, 1), null, "000-0002", "Address", Customer.Role.USER));
+        customerRepository.insert(new Customer("null3@example.com", "password", null, LocalDate.of(2024, 1, 1), null, "000-0003", "Address", Customer.Role.USER));
+
+        assertThat(customerRepository.findAllWithKeysetNullTail(10, "birth_date", null)).extracting(Customer::getEmail)
+            .containsExactly("null1@example.com", "null2@example.com", "null3@example.com");
+        assertThat(customerRepository.findAllWithKeysetNullTail(1, "name", "null1@example.com")).extracting(Customer::getEmail)
+            .containsExactly("null2@example.com");
+    }
+
+    @Test
+    @DisplayName("findAllWithPagination/findAllWithKeyset: 同じソート値・NULLのソート値を含む場合もOFFSET方式とキーセット方式が同じ順序で全件を重複なく辿る")
+    void testOffsetAndKeyset_同値とNULLを含むソート値() {
+        // 登録日が同じ行と、名前・生年月日がNULLの行を追加する
+        customerRepository.insert(new Customer("tie2@example.com", "password", "Tie", LocalDate.of(2024, 1, 1), LocalDate.of(1990, 1, 1), "000-0002", "Address", Customer.Role.USER));
+        customerRepository.insert(new Customer("tie1@example.com", "password", "Tie", LocalDate.of(2024, 1, 1), LocalDate.of(1990, 1, 1), "000-0001", "Address", Customer.Role.USER));
+        customerRepository.insert(new Customer("null2@example.com", "password", null, LocalDate.of(2024, 1, 1), null, "000-0004", "Address", Customer.Role.USER));
+        customerRepository.insert(new Customer("null1@example.com", "password", null, LocalDate.of(2024, 1, 1), null, "000-0003", "Address", Customer.Role.USER));
+        int total = (int) customerRepository.count();
+
+        for (String[] sort : new String[][]{{"registration_date", "DESC"}, {"registration_date", "ASC"},
+                {"birth_date", "ASC"}, {"birth_date", "DESC"}, {"name", "ASC"}, {"name", "DESC"}}) {
+            List<String> offsetEmails = new ArrayList<>();
+            for (int offset = 0; offset < total; offset += 2) {
+                customerRepository.findAllWithPagination(2, offset, sort[0], sort[1]).forEach(c -> offsetEmails.add(c.getEmail()));
+            }
+
+            // キーセット方式で辿る（アプリケーションと同じく、NULLでない行の後にNULLの行を取得する）
+            List<String> keysetEmails = new ArrayList<>();
+            Object cursorValue = null;
+            String cursorEmail = null;
+            while (true) {
+                List<Customer> page = customerRepository.findAllWithKeyset(2, sort[0], sort[1], cursorValue, cursorEmail);
+                page.forEach(c -> keysetEmails.add(c.getEmail()));
+                if (page.size() < 2) {
+                    break;
+                }
+                Customer last = page.get(page.size() - 1);
+                cursorValue = sort[0].equals("name") ? last.getName()
+                    : sort[0].equals("birth_date") ? last.getBirthDate() : last.getRegistrationDate();
+                cursorEmail = last.getEmail();
+            }
+            String nullCursorEmail = null;
+            while (true) {
+                List<Customer> page = customerRepository.findAllWithKeysetNullTail(2, sort[0], nullCursorEmail);
+                page.forEach(c -> keysetEmails.add(c.getEmail()));
+                if (page.size() < 2) {
+                    break;
+                }
+                nullCursorEmail = page.get(page.size() - 1).getEmail();
+            }
+
+            assertThat(offsetEmails).as("%s %s", sort[0], sort[1]).doesNotHaveDuplicates().hasSize(total);
+            assertThat(keysetEmails).as("%s %s", sort[0], sort[1]).containsExactlyElementsOf(offsetEmails);
+            // 同じソート値の行はemail昇順
+            assertThat(offsetEmails.indexOf("tie1@example.com")).isLessThan(offsetEmails.indexOf("tie2@example.com"));
+            if (!sort[0].equals("registration_date")) {
+                // NULLの行は昇順・降順とも末尾にemail昇順で並ぶ
+                assertThat(offsetEmails.subList(total - 2, total)).containsExactly("null1@example.com", "null2@example.com");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("searchWithKeysetNullTail: 検索条件に一致するソート値がNULLの行だけをカーソル以降からemail昇順で取得する")
+    void testSearchWithKeysetNullTail() {
+        customerRepository.insert(new Customer("null1@example.com", "password", "Null Keyset", LocalDate.of(2024, 1, 1), null, "000-0001", "Address", Customer.Role.USER));
+        customerRepository.insert(new Customer("null2@example.com", "password", "Null Keyset", LocalDate.of(2024, 1, 1), null, "000-0002", "Address", Customer.Role.USER));
+        customerRepository.insert(new Customer("null3@example.com", "password", "Null Keyset", LocalDate.of(2024, 1, 1), LocalDate.of(1990, 1, 1), "000-0003", "Address", Customer.Role.USER));
+        customerSearchIndexRepository.findUnindexedCustomers(null, 1000).forEach(this::index);
+
+        List<Customer> page = customerRepository.searchWithKeysetNullTail("Null Keyset", TrigramUtil.trigrams("Null Keyset"), null, null, 10, "birth_date", "null1@example.com");
+
+        assertThat(page).extracting(Customer::getEmail).containsExactly("null2@example.com");
+    }
+
+    @Test
+    @DisplayName("findAllWithCursor: カーソルで全件を1行ずつ取得できる（ソート順はfindAllWithSortと同じ）")
+    void testFindAllWithCursor() throws Exception {
+        List<String> cursorEmails = new ArrayList<>();
+        try (Cursor<Customer> cursor = customerRepository.findAllWithCursor("name", "ASC")) {
+            cursor.forEach(c -> cursorEmails.add(c.getEmail()));
+        }
+
+        List<String> sortedEmails = customerRepository.findAllWithSort("name", "ASC").stream().map(Customer::getEmail).toList();
+        assertThat(cursorEmails).containsExactlyElementsOf(sortedEmails);
+    }
+
+    @Test
+    @DisplayName("searchWithCursor: 検索条件に一致する顧客をカーソルで取得できる")
+    void testSearchWithCursor() throws Exception {
+        List<Customer> customers = new ArrayList<>();
+        try (Cursor<Customer> cursor = customerRepository.searchWithCursor("john", TrigramUtil.trigrams("john"), null, null, null, null)) {
+            cursor.forEach(customers::add);
+        }
+
+        assertThat(customers).isNotEmpty();
+        assertThat(customers).allMatch(c -> c.getName().toLowerCase().contains("john"));
+    }
+
     @Test
     @DisplayName("count: 全顧客数を取得できる")
     void testCount() {
@@ -82,23 +267,86 @@ class CustomerRepositoryTest {
     @DisplayName("searchWithPagination: 検索条件でページネーション")
     void testSearchWithPagination() {
         // 名前で検索（1ページ目）
-        List<Customer> results = customerRepository.searchWithPagination("Doe", null, 2, 0, null, null);
+        List<Customer> results = customerRepository.searchWithPagination("Doe", TrigramUtil.trigrams("Doe"), null, null, 2, 0, null, null);
         assertThat(results).hasSizeLessThanOrEqualTo(2);
         assertThat(results).allMatch(c -> c.getName().toLowerCase().contains("doe"));
     }
 
+    @Test
+    @DisplayName("searchWithKeyset: 検索条件とカーソルを組み合わせて取得できる")
+    void testSearchWithKeyset() {
+        List<Customer> first = customerRepository.searchWithKeyset("Doe", TrigramUtil.trigrams("Doe"), null, null, 1, "email", "ASC", null, null);
+        assertThat(first).hasSize(1);
+        assertThat(first.get(0).getEmail()).isEqualTo("jane.doe@example.com");
+
+        Customer last = first.get(0);
+        List<Customer> next = customerRepository.searchWithKeyset("Doe", TrigramUtil.trigrams("Doe"), null, null, 1, "email", "ASC", last.getEmail(), last.getEmail());
+        assertThat(next).hasSize(1);
+        assertThat(next.get(0).getEmail()).isEqualTo("john.doe@example.com");
+    }
+
     @Test
     @DisplayName("countBySearch: 検索結果の件数を取得できる")
     void testCountBySearch() {
         // 名前で検索
-        long count = customerRepository.countBySearch("Doe", null);
+        long count = customerRepository.countBySearch("Doe", TrigramUtil.trigrams("Doe"), null, null);
         assertThat(count).isGreaterThanOrEqualTo(2); // John Doe, Jane Doe
 
         // 該当なし
-        long noResults = customerRepository.countBySearch("NonExistent", null);
+        long noResults = customerRepository.countBySearch("NonExistent", TrigramUtil.trigrams("NonExistent"), null, null);
         assertThat(noResults).isZero();
     }
 
+    @Test
+    @DisplayName("searchWithPagination: 3文字以上の検索語は索引で絞り込み、大文字小文字を区別せず部分一致で照合する")
+    void testSearchWithPagination_索引() {
+        Customer customer = new Customer("trigram.search@example.com", "password", "Trigram Searcher", LocalDate.now(),
+            LocalDate.of(1990, 1, 1), "000-0000-0000", "Test Address", Customer.Role.USER);
+        customerRepository.insert(customer);
+
+        // 索引がない顧客は3文字以上の検索語では検索されない
+        assertThat(customerRepository.countBySearch("searcher", TrigramUtil.trigrams("searcher"), null, null)).isZero();
+
+        index(customer);
+        assertThat(customerRepository.searchWithPagination("SEARCHER", TrigramUtil.trigrams("SEARCHER"), null, null, 10, 0, null, null))
+            .extracting(Customer::getEmail).containsExactly("trigram.search@example.com");
+        assertThat(customerRepository.countBySearch(null, null, "RAM.SEARCH@", TrigramUtil.trigrams("RAM.SEARCH@"))).isEqualTo(1);
+        // 索引の候補に含まれても、連続した部分文字列でなければ一致しない
+        assertThat(customerRepository.countBySearch("searchertrigram", TrigramUtil.trigrams("searchertrigram"), null, null)).isZero();
+        // 絞り込みに使うトライグラムがない場合（すべてストップグラム）は索引を使わずに照合する
+        Customer unindexed = new Customer("stopgram.search@example.com", "password", "Stopgram Searcher", LocalDate.now(),
+            LocalDate.of(1990, 1, 1), "000-0000-0000", "Test Address", Customer.Role.USER);
+        customerRepository.insert(unindexed);
+        assertThat(customerRepository.countBySearch("searcher", Set.of(), null, null)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("countBySearch: 検索語の「%」「_」はLIKEのワイルドカードとして照合する")
+    void testCountBySearch_ワイルドカード() {
+        Customer customer = new Customer("wildcard.term@example.com", "password", "Wildcard Xyz", LocalDate.now(),
+            LocalDate.of(1990, 1, 1), "000-0000-0000", "Test Address", Customer.Role.USER);
+        customerRepository.insert(customer);
+        index(customer);
+        TrigramStopGrams trigramStopGrams = new TrigramStopGrams();
+
+        assertThat(customerRepository.countBySearch("dcard_xyz",
+            trigramStopGrams.selectiveTrigrams(CustomerSearchIndexRepository.FIELD_NAME, "dcard_xyz"), null, null)).isEqualTo(1);
+        assertThat(customerRepository.countBySearch("wild%xyz",
+            trigramStopGrams.selectiveTrigrams(CustomerSearchIndexRepository.FIELD_NAME, "wild%xyz"), null, null)).isEqualTo(1);
+        assertThat(customerRepository.countBySearch(null, null, "wildcard_term@",
+            trigramStopGrams.selectiveTrigrams(CustomerSearchIndexRepository.FIELD_EMAIL, "wildcard_term@"))).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("countBySearch: 3文字未満の検索語は索引を使わずに照合する")
+    void testCountBySearch_短い検索語() {
+        Customer customer = new Customer("short.term@example.com", "password", "Qx Short", LocalDate.now(),
+            LocalDate.of(1990, 1, 1), "000-0000-0000", "Test Address", Customer.Role.USER);
+        customerRepository.insert(customer);
+
+        assertThat(customerRepository.countBySearch("qx", TrigramUtil.trigrams("qx"), null, null)).isEqualTo(1);
+    }
+
     // ========================================
     // 単一取得
     // ========================================
@@ -0,0 +1,50 @@
+package io.github.yoshikawaa.example.ai_sample.repository;
+
+import io.github.yoshikawaa.example.ai_sample.model.LoginAttempt;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@MybatisTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("LoginAttemptRepository のテスト")
+class LoginAttemptRepositoryTest {
+
+    @Autowired
+    private LoginAttemptRepository loginAttemptRepository;
+
+    @Test
+    @DisplayName("upsert: 記録がなければ登録し、あれば更新する")
+    void testUpsert() {
+        long now = System.currentTimeMillis();
+        loginAttemptRepository.upsert(new LoginAttempt("upsert@example.com", 1, null, now));
+        loginAttemptRepository.upsert(new LoginAttempt("upsert@example.com", 5, now + 60000, now + 1));
+
+        LoginAttempt found = loginAttemptRepository.findByEmail("upsert@example.com").orElseThrow();
+        assertThat(found.getAttemptCount()).isEqualTo(5);
+        assertThat(found.getLockedUntil()).isEqualTo(now + 60000);
+        assertThat(found.getLastAttemptTime()).isEqualTo(now + 1);
+    }
+
+    @Test
+    @DisplayName("findActive: ロック中または保持期間内に失敗がある記録のみ取得する")
+    void testFindActive() {
+        long now = System.currentTimeMillis();
+        long windowStart = now - 1800000;
+        loginAttemptRepository.insert(new LoginAttempt("locked@example.com", 5, now + 60000, now - 3600000));
+        loginAttemptRepository.insert(new LoginAttempt("recent@example.com", 2, null, now - 1000));
+        loginAttemptRepository.insert(new LoginAttempt("stale@example.com", 2, null, now - 3600000));
+        loginAttemptRepository.insert(new LoginAttempt("unlocked@example.com", 5, now - 1000, now - 3600000));
+
+        List<LoginAttempt> active = loginAttemptRepository.findActive(now, windowStart);
+
+        assertThat(active).extracting(LoginAttempt::getEmail)
+            .containsExactlyInAnyOrder("locked@example.com", "recent@example.com");
+    }
+}
@@ -67,6 +67,29 @@ class LoginHistoryRepositoryTest {
         assertThat(history.getId()).isNotNull();
     }
 
+    @Test
+    @DisplayName("insertIfCustomerExists: 顧客が存在する場合のみログイン履歴を保存する")
+    void testInsertIfCustomerExists() {
+        long before = loginHistoryRepository.count();
+
+        LoginHistory history = new LoginHistory();
+        history.setEmail("test@example.com");
+        history.setLoginTime(LocalDateTime.now());
+        history.setStatus(LoginHistory.Status.SUCCESS);
+        history.setIpAddress("192.168.1.1");
+        history.setUserAgent("Mozilla/5.0");
+        loginHistoryRepository.insertIfCustomerExists(history);
+
+        LoginHistory unknown = new LoginHistory();
+        unknown.setEmail("unknown@example.com");
+        unknown.setLoginTime(LocalDateTime.now());
+        unknown.setStatus(LoginHistory.Status.FAILURE);
+        unknown.setFailureReason("Bad credentials");
+        loginHistoryRepository.insertIfCustomerExists(unknown);
+
+        assertThat(loginHistoryRepository.count()).isEqualTo(before + 1);
+    }
+
     @Test
     @DisplayName("findAllWithPagination: ページネーションで全件取得できる")
     void testFindAllWithPagination() {
@@ -127,7 +150,7 @@ class LoginHistoryRepositoryTest {
         loginHistoryRepository.insert(history2);
 
         List<LoginHistory> histories = loginHistoryRepository.searchWithPagination(
-            "test", null, null, null, 10, 0, "login_time", "DESC"
+            "test", null, null, null, null, 10, 0, "login_time", "DESC"
         );
 
         assertThat(histories).hasSize(1);
@@ -156,7 +179,7 @@ class LoginHistoryRepositoryTest {
         loginHistoryRepository.insert(history2);
 
         List<LoginHistory> histories = loginHistoryRepository.searchWithPagination(
-            null, "FAILURE", null, null, 10, 0, "login_time", "DESC"
+            null, null, "FAILURE", null, null, 10, 0, "login_time", "DESC"
         );
 
         assertThat(histories).hasSize(1);
@@ -176,12 +199,55 @@ class LoginHistoryRepositoryTest {
         loginHistoryRepository.insert(history);
 
         List<LoginHistory> histories = loginHistoryRepository.searchWithPagination(
-            null, null, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), 10, 0, "login_time", "DESC"
+            null, null, null, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), 10, 0, "login_time", "DESC"
         );
 
         assertThat(histories).hasSizeGreaterThanOrEqualTo(1);
     }
 
+    @Test
+    @DisplayName("searchWithPagination: メールアドレスの完全一致キーが指定された場合はキーで検索する")
+    void testSearchWithPaginationByEmailKeys() {
+        for (String email : List.of("test1@example.com", "test2@example.com", "other@example.com")) {
+            LoginHistory history = new LoginHistory();
+            history.setEmail(email);
+            history.setLoginTime(LocalDateTime.now());
+            history.setStatus(LoginHistory.Status.SUCCESS);
+            history.setIpAddress("192.168.1.1");
+            history.setUserAgent("Mozilla/5.0");
+            loginHistoryRepository.insert(history);
+        }
+
+        List<LoginHistory> histories = loginHistoryRepository.searchWithPagination(
+            "test", List.of("test1@example.com", "test2@example.com"), null, null, null, 10, 0, "login_time", "DESC"
+        );
+        long count = loginHistoryRepository.countBySearch(
+            "test", List.of("test1@example.com", "test2@example.com"), null, null, null);
+
+        assertThat(histories).extracting(LoginHistory::getEmail)
+            .containsExactlyInAnyOrder("test1@example.com", "test2@example.com");
+        assertThat(count).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("searchWithPagination: メールアドレスの完全一致キーが空の場合は0件")
+    void testSearchWithPaginationByEmptyEmailKeys() {
+        LoginHistory history = new LoginHistory();
+        history.setEmail("test@example.com");
+        history.setLoginTime(LocalDateTime.now());
+        history.setStatus(LoginHistory.Status.SUCCESS);
+        history.setIpAddress("192.168.1.1");
+        history.setUserAgent("Mozilla/5.0");
+        loginHistoryRepository.insert(history);
+
+        List<LoginHistory> histories = loginHistoryRepository.searchWithPagination(
+            "test", List.of(), null, null, null, 10, 0, "login_time", "DESC"
+        );
+
+        assertThat(histories).isEmpty();
+        assertThat(loginHistoryRepository.countBySearch("test", List.of(), null, null, null)).isZero();
+    }
+
     @Test
     @DisplayName("countBySearch: 検索条件での件数を取得できる")
     void testCountBySearch() {
@@ -203,7 +269,7 @@ class LoginHistoryRepositoryTest {
         history2.setFailureReason("パスワード誤り");
         loginHistoryRepository.insert(history2);
 
-        long count = loginHistoryRepository.countBySearch("test", null, null, null);
+        long count = loginHistoryRepository.countBySearch("test", null, null, null, null);
 
         assertThat(count).isGreaterThanOrEqualTo(1);
     }
@@ -145,7 +145,7 @@ class NotificationHistoryRepositoryTest {
             insertNotificationHistory("jane@example.com", "ACCOUNT_LOCK", "Subject 2", "FAILURE", LocalDateTime.now());
 
             List<NotificationHistory> result = notificationHistoryRepository.searchWithPagination(
-                "john", null, null, null, null, 10, 0, null, null
+                "john", null, null, null, null, null, 10, 0, null, null
             );
 
             assertThat(result).hasSize(1);
@@ -159,7 +159,7 @@ class NotificationHistoryRepositoryTest {
             insertNotificationHistory("user2@example.com", "ACCOUNT_LOCK", "Subject 2", "FAILURE", LocalDateTime.now());
 
             List<NotificationHistory> result = notificationHistoryRepository.searchWithPagination(
-                null, NotificationHistory.NotificationType.PASSWORD_RESET, null, null, null, 10, 0, null, null
+                null, null, NotificationHistory.NotificationType.PASSWORD_RESET, null, null, null, 10, 0, null, null
             );
 
             assertThat(result).hasSize(1);
@@ -173,7 +173,7 @@ class NotificationHistoryRepositoryTest {
             insertNotificationHistory("user2@example.com", "ACCOUNT_LOCK", "Subject 2", "FAILURE", LocalDateTime.now());
 
             List<NotificationHistory> result = notificationHistoryRepository.searchWithPagination(
-                null, null, NotificationHistory.Status.SUCCESS, null, null, 10, 0, null, null
+                null, null, null, NotificationHistory.Status.SUCCESS, null, null, 10, 0, null, null
             );
 
             assertThat(result).hasSize(1);
@@ -187,7 +187,7 @@ class NotificationHistoryRepositoryTest {
             insertNotificationHistory("user2@example.com", "ACCOUNT_LOCK", "Subject 2", "FAILURE", LocalDateTime.of(2023, 2, 1, 10, 0));
 
             List<NotificationHistory> result = notificationHistoryRepository.searchWithPagination(
-                null, null, null,
+                null, null, null, null,
                 LocalDateTime.of(2023, 1, 15, 0, 0),
                 LocalDateTime.of(2023, 2, 15, 0, 0),
                 10, 0, null, null
@@ -206,6 +206,7 @@ class NotificationHistoryRepositoryTest {
 
             List<NotificationHistory> result = notificationHistoryRepository.searchWithPagination(
                 "john",
+                null,
                 NotificationHistory.NotificationType.PASSWORD_RESET,
                 NotificationHistory.Status.SUCCESS,
                 null, null, 10, 0, null, null
@@ -229,10 +230,78 @@ class NotificationHistoryRepositoryTest {
             insertNotificationHistory("jane@example.com", "PASSWORD_RESET", "Subject 3", "SUCCESS", LocalDateTime.now());
 
             long count = notificationHistoryRepository.countBySearch(
-                "john", null, null, null, null
+                "john", null, null, null, null, null
             );
 
             assertThat(count).isEqualTo(2);
         }
     }
+
+    // ========================================
+    // 送信（送信待ちの通知）
+    // ========================================
+
+    @Nested
+    @DisplayName("findDispatchable / updateDispatchResult: 送信待ちの通知")
+    class DispatchTest {
+
+        private NotificationHistory insertPending(String recipientEmail, LocalDateTime nextAttemptAt) {
+            NotificationHistory notification = new NotificationHistory();
+            notification.setRecipientEmail(recipientEmail);
+            notification.setNotificationType(NotificationHistory.NotificationType.PASSWORD_RESET);
+            notification.setSubject("Pending");
+            notification.setBody("Test body");
+            notification.setStatus(NotificationHistory.Status.PENDING);
+            notification.setNextAttemptAt(nextAttemptAt);
+            notification.setCreatedAt(LocalDateTime.now());
+            notificationHistoryRepository.insert(notification);
+            return notification;
+        }
+
+        @Test
+        @DisplayName("次回送信時刻を過ぎた送信待ちの通知のみ、次回送信時刻の古い順に取得できる")
+        void testFindDispatchable() {
+            LocalDateTime now = LocalDateTime.now();
+            NotificationHistory later = insertPending("user1@example.com", now.minusMinutes(1));
+            NotificationHistory earlier = insertPending("user2@example.com", now.minusMinutes(2));
+            insertPending("user3@example.com", now.plusMinutes(1));
+            insertNotificationHistory("user4@example.com", "PASSWORD_RESET", "Sent", "SUCCESS", now.minusMinutes(3));
+
+            List<NotificationHistory> result = notificationHistoryRepository.findDispatchable(now, 10);
+
+            assertThat(result).extracting(NotificationHistory::getId).containsExactly(earlier.getId(), later.getId());
+            assertThat(notificationHistoryRepository.countPending()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("次回送信時刻を過ぎた通知のみ確保でき、確保済みの通知は確保できない")
+        void testClaim() {
+            LocalDateTime now = LocalDateTime.now();
+            NotificationHistory due = insertPending("user1@example.com", now.minusSeconds(1));
+            NotificationHistory notDue = insertPending("user2@example.com", now.plusMinutes(1));
+
+            assertThat(notificationHistoryRepository.claim(due.getId(), now, now.plusMinutes(1))).isEqualTo(1);
+            assertThat(notificationHistoryRepository.claim(due.getId(), now, now.plusMinutes(1))).isZero();
+            assertThat(notificationHistoryRepository.claim(notDue.getId(), now, now.plusMinutes(1))).isZero();
+            assertThat(notificationHistoryRepository.findDispatchable(now, 10)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("送信待ちの通知のみ送信結果を反映できる")
+        void testUpdateDispatchResult() {
+            NotificationHistory notification = insertPending("user1@example.com", LocalDateTime.now());
+            notification.setStatus(NotificationHistory.Status.SUCCESS);
+            notification.setAttemptCount(1);
+            notification.setNextAttemptAt(null);
+            notification.setSentAt(LocalDateTime.now());
+
+            assertThat(notificationHistoryRepository.updateDispatchResult(notification)).isEqualTo(1);
+            assertThat(notificationHistoryRepository.updateDispatchResult(notification)).isZero();
+
+            NotificationHistory found = notificationHistoryRepository.findById(notification.getId());
+            assertThat(found.getStatus()).isEqualTo(NotificationHistory.Status.SUCCESS);
+            assertThat(found.getAttemptCount()).isEqualTo(1);
+            assertThat(found.getNextAttemptAt()).isNull();
+        }
+    }
 }
@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 
 import io.github.yoshikawaa.example.ai_sample.model.Customer;
+import io.github.yoshikawaa.example.ai_sample.util.TokenHashUtil;
 
 import java.time.LocalDate;
 
@@ -56,7 +57,7 @@ class PasswordResetTokenRepositoryTest {
         PasswordResetToken savedToken = passwordResetTokenRepository.findByResetToken("test-token-123");
         assertThat(savedToken).isNotNull();
         assertThat(savedToken.getEmail()).isEqualTo("test@example.com");
-        assertThat(savedToken.getResetToken()).isEqualTo("test-token-123");
+        assertThat(savedToken.getResetToken()).isEqualTo(TokenHashUtil.hash("test-token-123")); // ハッシュ値で保存される
         assertThat(savedToken.getTokenExpiry()).isGreaterThan(System.currentTimeMillis());
     }
 
@@ -104,7 +105,7 @@ class PasswordResetTokenRepositoryTest {
         // 検証
         assertThat(foundToken).isNotNull();
         assertThat(foundToken.getEmail()).isEqualTo("test@example.com");
-        assertThat(foundToken.getResetToken()).isEqualTo("test-token-456");
+        assertThat(foundToken.getResetToken()).isEqualTo(TokenHashUtil.hash("test-token-456")); // ハッシュ値で保存される
     }
 
     @Test
@@ -165,4 +166,21 @@ class PasswordResetTokenRepositoryTest {
         assertThat(foundToken).isNotNull();
         assertThat(foundToken.getTokenExpiry()).isLessThan(System.currentTimeMillis());
     }
+
+    @Test
+    @DisplayName("deleteExpired: 有効期限切れのトークンを最大limit件ずつ削除する")
+    void testDeleteExpired() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            passwordResetTokenRepository.insert(new PasswordResetToken("test@example.com", "expired-token-" + i, now - 1000 - i));
+        }
+        passwordResetTokenRepository.insert(new PasswordResetToken("test@example.com", "valid-token", now + 3600000));
+
+        assertThat(passwordResetTokenRepository.deleteExpired(now, 2)).isEqualTo(2);
+        assertThat(passwordResetTokenRepository.deleteExpired(now, 2)).isEqualTo(1);
+        assertThat(passwordResetTokenRepository.deleteExpired(now, 2)).isZero();
+
+        assertThat(passwordResetTokenRepository.findByResetToken("expired-token-0")).isNull();
+        assertThat(passwordResetTokenRepository.findByResetToken("valid-token")).isNotNull();
+    }
 }
@@ -61,6 +61,32 @@ class StatisticsRepositoryTest {
         auditLogRepository.insert(new AuditLog(null, "admin@example.com", "customer2@example.com", AuditLog.ActionType.UPDATE, "Updated customer", LocalDateTime.of(2026, 1, 16, 9, 0), "192.168.1.100"));
         auditLogRepository.insert(new AuditLog(null, "admin@example.com", "customer3@example.com", AuditLog.ActionType.DELETE, "Deleted customer", LocalDateTime.of(2026, 1, 17, 9, 0), "192.168.1.100"));
         auditLogRepository.insert(new AuditLog(null, "admin@example.com", null, AuditLog.ActionType.VIEW_STATISTICS, "Viewed statistics", LocalDateTime.of(2026, 1, 18, 9, 0), "192.168.1.100"));
+
+        // 元テーブルから日別集計を作り直す
+        rebuild(null, null);
+    }
+
+    private void rebuild(LocalDate startDate, LocalDate endDate) {
+        statisticsRepository.deleteCustomerStatistics(startDate, endDate);
+        statisticsRepository.insertCustomerStatistics(startDate, endDate);
+        statisticsRepository.deleteLoginStatistics(startDate, endDate);
+        statisticsRepository.insertLoginStatistics(startDate, endDate);
+        statisticsRepository.deleteUsageStatistics(startDate, endDate);
+        statisticsRepository.insertUsageStatistics(startDate, endDate);
+    }
+
+    private long loginCount(LoginHistory.Status status, LocalDate date) {
+        return statisticsRepository.getLoginStatistics(date, date).stream()
+            .filter(s -> s.getStatus() == status)
+            .mapToLong(LoginStatistics::getCount)
+            .sum();
+    }
+
+    private long usageCount(AuditLog.ActionType actionType, LocalDate date) {
+        return statisticsRepository.getUsageStatistics(date, date).stream()
+            .filter(s -> s.getActionType() == actionType)
+            .mapToLong(UsageStatistics::getCount)
+            .sum();
     }
 
     @Test
@@ -193,4 +219,89 @@ class StatisticsRepositoryTest {
         
         assertThat(result).isEmpty();
     }
+
+    // ========================================
+    // 集計の加算・減算
+    // ========================================
+
+    @Test
+    @DisplayName("登録時に日別の顧客数・ログイン数・操作数を加算できる")
+    void testIncrement() {
+        LocalDate date = LocalDate.of(2026, 1, 15);
+        Customer customer = new Customer("customer5@example.com", "password5", "Customer5", date, LocalDate.of(1994, 5, 5), "090-5555-5555", "Address5", Customer.Role.USER);
+        customerRepository.insert(customer);
+        LoginHistory loginHistory = new LoginHistory(null, "customer5@example.com", LocalDateTime.of(2026, 1, 15, 12, 0), LoginHistory.Status.SUCCESS, null, "192.168.1.5", "Mozilla/5.0");
+        AuditLog auditLog = new AuditLog(null, "admin@example.com", "customer5@example.com", AuditLog.ActionType.CREATE, "Created customer", LocalDateTime.of(2026, 1, 15, 12, 0), "192.168.1.100");
+
+        statisticsRepository.incrementCustomerCount("customer5@example.com");
+        statisticsRepository.incrementLoginCount(loginHistory);
+        statisticsRepository.incrementUsageCount(auditLog);
+
+        assertThat(statisticsRepository.getCustomerStatistics(date, date).get(0).getCount()).isEqualTo(3);
+        assertThat(loginCount(LoginHistory.Status.SUCCESS, date)).isEqualTo(3);
+        assertThat(usageCount(AuditLog.ActionType.CREATE, date)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("集計のない日・ステータスは新規に加算される")
+    void testIncrement_NewRow() {
+        LocalDate date = LocalDate.of(2026, 2, 1);
+        statisticsRepository.incrementLoginCount(new LoginHistory(null, "customer1@example.com", date.atTime(8, 0), LoginHistory.Status.LOGOUT, null, "192.168.1.1", "Mozilla/5.0"));
+        statisticsRepository.incrementUsageCount(new AuditLog(null, "admin@example.com", null, AuditLog.ActionType.VIEW_STATISTICS, null, date.atTime(8, 0), "192.168.1.100"));
+
+        assertThat(loginCount(LoginHistory.Status.LOGOUT, date)).isEqualTo(1);
+        assertThat(usageCount(AuditLog.ActionType.VIEW_STATISTICS, date)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("未登録メールアドレスのログインは加算しない")
+    void testIncrementLoginCount_UnknownEmail() {
+        LocalDate date = LocalDate.of(2026, 1, 16);
+        statisticsRepository.incrementLoginCount(new LoginHistory(null, "unknown@example.com", date.atTime(8, 0), LoginHistory.Status.FAILURE, "Bad credentials", "192.168.1.1", "curl/8.0"));
+
+        assertThat(loginCount(LoginHistory.Status.FAILURE, date)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("顧客削除前に顧客数と連鎖削除される履歴を減算できる")
+    void testSubtract() {
+        statisticsRepository.subtractCustomer("customer1@example.com");
+        statisticsRepository.subtractLoginHistory("customer1@example.com");
+        statisticsRepository.subtractAuditLog("customer1@example.com");
+        customerRepository.deleteByEmail("customer1@example.com");
+
+        LocalDate startDate = LocalDate.of(2026, 1, 1);
+        LocalDate endDate = LocalDate.of(2026, 1, 31);
+        List<CustomerStatistics> customerStats = statisticsRepository.getCustomerStatistics(startDate, endDate);
+        List<LoginStatistics> loginStats = statisticsRepository.getLoginStatistics(startDate, endDate);
+        List<UsageStatistics> usageStats = statisticsRepository.getUsageStatistics(startDate, endDate);
+
+        // 減算結果は元テーブルからの再集計と一致する
+        rebuild(null, null);
+        assertThat(customerStats).isEqualTo(statisticsRepository.getCustomerStatistics(startDate, endDate));
+        assertThat(loginStats).isEqualTo(statisticsRepository.getLoginStatistics(startDate, endDate));
+        assertThat(usageStats).isEqualTo(statisticsRepository.getUsageStatistics(startDate, endDate));
+        assertThat(loginStats).extracting(LoginStatistics::getStatus)
+            .doesNotContain(LoginHistory.Status.SESSION_EXCEEDED);
+        assertThat(usageStats).extracting(UsageStatistics::getActionType)
+            .doesNotContain(AuditLog.ActionType.CREATE);
+    }
+
+    // ========================================
+    // 再集計
+    // ========================================
+
+    @Test
+    @DisplayName("期間を指定して再集計すると、期間内の集計のみ元テーブルと一致する")
+    void testRebuild_Range() {
+        LocalDate date = LocalDate.of(2026, 1, 16);
+        // 元テーブルを直接変更して集計とずれを生じさせる
+        loginHistoryRepository.insert(new LoginHistory(null, "customer3@example.com", date.atTime(12, 0), LoginHistory.Status.FAILURE, "Invalid credentials", "192.168.1.3", "Mozilla/5.0"));
+        loginHistoryRepository.insert(new LoginHistory(null, "customer3@example.com", date.plusDays(1).atTime(12, 0), LoginHistory.Status.FAILURE, "Invalid credentials", "192.168.1.3", "Mozilla/5.0"));
+
+        rebuild(date, date);
+
+        assertThat(loginCount(LoginHistory.Status.FAILURE, date)).isEqualTo(2);
+        assertThat(loginCount(LoginHistory.Status.FAILURE, date.plusDays(1))).isZero();
+    }
 }
@@ -0,0 +1,121 @@
+package io.github.yoshikawaa.example.ai_sample.security;
+
+import io.github.yoshikawaa.example.ai_sample.config.PasswordHashingProperties;
+import io.github.yoshikawaa.example.ai_sample.exception.PasswordHashingRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BoundedPasswordEncoder のテスト")
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.destroy();
+    }
+
+    private BoundedPasswordEncoder create(int threads, int queueCapacity, long timeoutMs, int strength) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(threads);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setTimeoutMs(timeoutMs);
+        properties.setBcryptStrength(strength);
+        return new BoundedPasswordEncoder(properties);
+    }
+
+    @Test
+    @DisplayName("encode / matches: 専用スレッドでハッシュ化・照合し、件数と処理時間を記録する")
+    void testEncodeAndMatches() {
+        encoder = create(1, 10, 5000, 4);
+
+        String encoded = encoder.encode("password");
+
+        assertThat(encoded).startsWith("$2a$04$");
+        assertThat(encoder.matches("password", encoded)).isTrue();
+        assertThat(encoder.matches("wrong", encoded)).isFalse();
+        assertThat(encoder.getEncodeCount()).isEqualTo(1);
+        assertThat(encoder.getMatchesCount()).isEqualTo(2);
+        assertThat(encoder.getRejectedCount()).isZero();
+        assertThat(encoder.getMaxExecutionMs()).isPositive();
+        assertThat(encoder.getAverageExecutionMs()).isPositive();
+    }
+
+    @Test
+    @DisplayName("encode: 実行待ちが上限を超えた場合は即座に拒否する")
+    void testEncode_Rejected() {
+        encoder = create(1, 1, 60000, 14);
+
+        // 1件目で実行中、2件目で実行待ちキューを埋める
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("running"));
+        waitUntil(() -> encoder.getActiveCount() == 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("queued"));
+        waitUntil(() -> encoder.getQueueDepth() == 1);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> encoder.encode("rejected"))
+            .isInstanceOf(PasswordHashingRejectedException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(500);
+        assertThat(encoder.getRejectedCount()).isEqualTo(1);
+
+        running.cancel(true);
+        queued.cancel(true);
+    }
+
+    @Test
+    @DisplayName("matches: 待機時間の上限を超えた場合は拒否する")
+    void testMatches_Timeout() {
+        encoder = create(1, 10, 1, 14);
+        String encoded = "$2a$14$" + "a".repeat(53);
+
+        assertThatThrownBy(() -> encoder.matches("password", encoded))
+            .isInstanceOf(PasswordHashingRejectedException.class);
+        assertThat(encoder.getTimeoutCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("setStrength: コストを上げると、低いコストのハッシュは再ハッシュ対象になる")
+    void testSetStrength_UpgradeEncoding() {
+        encoder = create(1, 10, 5000, 4);
+        String encoded = encoder.encode("password");
+        assertThat(encoder.upgradeEncoding(encoded)).isFalse();
+
+        encoder.setStrength(5);
+
+        assertThat(encoder.getStrength()).isEqualTo(5);
+        assertThat(encoder.upgradeEncoding(encoded)).isTrue();
+        assertThat(encoder.encode("password")).startsWith("$2a$05$");
+        // 低いコストのハッシュも照合できる
+        assertThat(encoder.matches("password", encoded)).isTrue();
+    }
+
+    @Test
+    @DisplayName("setStrength: 範囲外のコストは指定できない")
+    void testSetStrength_Invalid() {
+        encoder = create(1, 10, 5000, 4);
+
+        assertThatThrownBy(() -> encoder.setStrength(3)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(encoder.getStrength()).isEqualTo(4);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("条件成立の待機がタイムアウト").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
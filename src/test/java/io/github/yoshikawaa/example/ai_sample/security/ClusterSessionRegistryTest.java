@@ -0,0 +1,214 @@
+package io.github.yoshikawaa.example.ai_sample.security;
+
+import io.github.yoshikawaa.example.ai_sample.AiSampleApplication;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.web.session.HttpSessionDestroyedEvent;
+import org.springframework.security.web.authentication.session.CompositeSessionAuthenticationStrategy;
+import org.springframework.security.web.authentication.session.ConcurrentSessionControlAuthenticationStrategy;
+import org.springframework.security.web.authentication.session.RegisterSessionAuthenticationStrategy;
+import org.springframework.security.web.authentication.session.SessionAuthenticationException;
+import org.springframework.security.web.authentication.session.SessionAuthenticationStrategy;
+import org.springframework.security.web.session.HttpSessionIdChangedEvent;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 1つのH2サーバーを共有する2つのインスタンス（アプリケーションコンテキスト）で、セッションを共有できることを確認する
+ * ハートビートはテストから呼び出す
+ */
+@DisplayName("ClusterSessionRegistry のテスト")
+class ClusterSessionRegistryTest {
+
+    private static final long LEASE_MS = 2000;
+
+    private static Server h2Server;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static ClusterSessionRegistry registryA;
+    private static ClusterSessionRegistry registryB;
+
+    @BeforeAll
+    static void startNodes() throws Exception {
+        h2Server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        String url = "jdbc:h2:tcp://localhost:" + h2Server.getPort() + "/mem:cluster;DB_CLOSE_DELAY=-1";
+        nodeA = startNode(url, "node-a", true);
+        // 2つ目のインスタンスはスキーマを作り直さない（1つ目のインスタンスのセッションを消さない）
+        nodeB = startNode(url, "node-b", false);
+        registryA = nodeA.getBean(ClusterSessionRegistry.class);
+        registryB = nodeB.getBean(ClusterSessionRegistry.class);
+    }
+
+    private static ConfigurableApplicationContext startNode(String url, String nodeId, boolean initSchema) {
+        // application.yamlの設定より優先するため、コマンドライン引数で指定する
+        return new SpringApplicationBuilder(AiSampleApplication.class).run(
+            "--server.port=0",
+            "--spring.datasource.url=" + url,
+            "--spring.sql.init.mode=" + (initSchema ? "always" : "never"),
+            "--app.security.session-registry.node-id=" + nodeId,
+            "--app.security.session-registry.heartbeat-interval-ms=3600000",
+            "--app.security.session-registry.lease-ms=" + LEASE_MS);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (h2Server != null) {
+            h2Server.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("一方のインスタンスで登録したセッションを、他方のインスタンスの同時ログイン数の判定で参照できる")
+    void testRegisterNewSession() {
+        registryA.registerNewSession("register-a", "register@example.com");
+
+        List<SessionInformation> sessions = registryB.getAllSessions("register@example.com", false);
+        assertThat(sessions).extracting(SessionInformation::getSessionId).containsExactly("register-a");
+        assertThat(registryB.getAllPrincipals()).contains("register@example.com");
+
+        // リクエストごとのセッション確認は、インスタンスが保持するセッションのみを参照する
+        assertThat(registryA.getSessionInformation("register-a")).isNotNull();
+        assertThat(registryB.getSessionInformation("register-a")).isNull();
+    }
+
+    @Test
+    @DisplayName("他方のインスタンスで失効させたセッションは、保持するインスタンスのハートビートで失効する")
+    void testExpireNow() {
+        registryA.registerNewSession("expire-a", "expire@example.com");
+
+        registryB.getAllSessions("expire@example.com", false).get(0).expireNow();
+
+        assertThat(registryB.getAllSessions("expire@example.com", false)).isEmpty();
+        assertThat(registryB.getAllSessions("expire@example.com", true)).hasSize(1);
+        assertThat(registryA.getSessionInformation("expire-a").isExpired()).isFalse();
+
+        registryA.heartbeat();
+
+        assertThat(registryA.getSessionInformation("expire-a").isExpired()).isTrue();
+        assertThat(registryA.getRemoteExpiredCount()).isPositive();
+    }
+
+    @Test
+    @DisplayName("セッションの破棄・セッションIDの変更（HttpSessionEventPublisherのイベント）を他方のインスタンスに反映する")
+    void testSessionEvents() {
+        registryA.registerNewSession("event-old", "event@example.com");
+
+        nodeA.publishEvent(new HttpSessionIdChangedEvent(new MockHttpSession(null, "event-new"), "event-old"));
+
+        assertThat(registryB.getAllSessions("event@example.com", false))
+            .extracting(SessionInformation::getSessionId).containsExactly("event-new");
+
+        nodeA.publishEvent(new HttpSessionDestroyedEvent(new MockHttpSession(null, "event-new")));
+
+        assertThat(registryA.getSessionInformation("event-new")).isNull();
+        assertThat(registryB.getAllSessions("event@example.com", true)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("最終リクエスト日時はハートビートで他方のインスタンスに反映する")
+    void testRefreshLastRequest() throws Exception {
+        registryA.registerNewSession("refresh-a", "refresh@example.com");
+        long registeredAt = registryB.getAllSessions("refresh@example.com", false).get(0).getLastRequest().getTime();
+        Thread.sleep(20);
+
+        registryA.refreshLastRequest("refresh-a");
+        assertThat(registryB.getAllSessions("refresh@example.com", false).get(0).getLastRequest().getTime())
+            .isEqualTo(registeredAt);
+
+        registryA.heartbeat();
+        assertThat(registryB.getAllSessions("refresh@example.com", false).get(0).getLastRequest().getTime())
+            .isGreaterThan(registeredAt);
+    }
+
+    @Test
+    @DisplayName("ハートビートのないインスタンスのセッションはリースが切れて無効となり、ハートビートの再開で登録し直す")
+    void testLeaseExpiry() throws Exception {
+        registryA.registerNewSession("lease-a", "lease@example.com");
+        Thread.sleep(LEASE_MS + 100);
+
+        assertThat(registryB.getAllSessions("lease@example.com", true)).isEmpty();
+        long purgedCount = registryB.getPurgedCount();
+        registryB.heartbeat();
+        assertThat(registryB.getPurgedCount()).isGreaterThan(purgedCount);
+
+        registryA.heartbeat();
+        assertThat(registryB.getAllSessions("lease@example.com", false))
+            .extracting(SessionInformation::getSessionId).containsExactly("lease-a");
+    }
+
+    @Test
+    @DisplayName("同じユーザーが両方のインスタンスに同時にログインした場合、同時ログイン数の判定と登録を直列化して一方のみ許可する")
+    void testConcurrentLogin() throws Exception {
+        String principal = "concurrent@example.com";
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> loginA = executor.submit(() -> login(registryA, principal, "concurrent-a", start));
+            Future<Boolean> loginB = executor.submit(() -> login(registryB, principal, "concurrent-b", start));
+            start.countDown();
+
+            assertThat(List.of(loginA.get(10, TimeUnit.SECONDS), loginB.get(10, TimeUnit.SECONDS))).containsExactlyInAnyOrder(true, false);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(registryA.getAllSessions(principal, true)).hasSize(1);
+    }
+
+    /**
+     * SecurityConfigと同じく、同時ログイン数の判定から登録までをrunExclusivelyで実行する
+     * 判定と登録の間で待機し、直列化されていなければ両方のログインが上限内と判定されるようにする
+     *
+     * @return ログインを許可した場合はtrue、同時ログイン数の上限で拒否した場合はfalse
+     */
+    private static boolean login(ClusterSessionRegistry registry, String principal, String sessionId, CountDownLatch start)
+            throws InterruptedException {
+        ConcurrentSessionControlAuthenticationStrategy concurrentSessionControl = new ConcurrentSessionControlAuthenticationStrategy(registry);
+        concurrentSessionControl.setMaximumSessions(1);
+        concurrentSessionControl.setExceptionIfMaximumExceeded(true);
+        SessionAuthenticationStrategy slowCheck = (authentication, request, response) -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        SessionAuthenticationStrategy strategy = new CompositeSessionAuthenticationStrategy(
+            List.of(concurrentSessionControl, slowCheck, new RegisterSessionAuthenticationStrategy(registry)));
+
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(principal, null, List.of());
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(new MockHttpSession(null, sessionId));
+        start.await();
+        try {
+            registry.runExclusively(principal,
+                () -> strategy.onAuthentication(authentication, request, new MockHttpServletResponse()));
+            return true;
+        } catch (SessionAuthenticationException e) {
+            return false;
+        }
+    }
+}
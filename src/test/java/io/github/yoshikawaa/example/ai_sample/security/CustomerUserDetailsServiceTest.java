@@ -9,12 +9,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
 import java.time.LocalDate;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -30,10 +34,14 @@ class CustomerUserDetailsServiceTest {
     @MockitoBean
     private LoginAttemptService loginAttemptService;
 
+    @Autowired
+    private CustomerUserCache customerUserCache;
+
     private Customer testCustomer;
 
     @BeforeEach
     void setUp() {
+        customerUserCache.evictAll();
         testCustomer = new Customer(
             "test@example.com",
             "encodedPassword",
@@ -127,4 +135,116 @@ class CustomerUserDetailsServiceTest {
         UserDetails adminDetails = customerUserDetailsService.loadUserByUsername("admin@example.com");
         assertThat(adminDetails.getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
     }
+
+    // ========================================
+    // 顧客情報キャッシュ
+    // ========================================
+
+    @Test
+    @DisplayName("2回目以降の読み込みはキャッシュから取得し、DBにアクセスしない")
+    void testLoadUserByUsername_Cached() {
+        // given
+        when(customerRepository.findByEmail("test@example.com"))
+            .thenReturn(Optional.of(testCustomer));
+
+        // when
+        customerUserDetailsService.loadUserByUsername("test@example.com");
+        UserDetails userDetails = customerUserDetailsService.loadUserByUsername("test@example.com");
+
+        // then
+        assertThat(userDetails.getUsername()).isEqualTo("test@example.com");
+        verify(customerRepository, times(1)).findByEmail("test@example.com");
+    }
+
+    @Test
+    @DisplayName("キャッシュを破棄すると次回の読み込みで最新の顧客情報を取得する")
+    void testLoadUserByUsername_Evicted() {
+        // given
+        when(customerRepository.findByEmail("test@example.com"))
+            .thenReturn(Optional.of(testCustomer));
+        customerUserDetailsService.loadUserByUsername("test@example.com");
+
+        Customer updated = new Customer("test@example.com", "newEncodedPassword", "Updated User",
+            LocalDate.now(), LocalDate.of(1990, 1, 1), "123-456-7890", "123 Test St", Customer.Role.USER);
+        when(customerRepository.findByEmail("test@example.com"))
+            .thenReturn(Optional.of(updated));
+
+        // when
+        customerUserCache.evict("test@example.com");
+        UserDetails userDetails = customerUserDetailsService.loadUserByUsername("test@example.com");
+
+        // then
+        assertThat(userDetails.getPassword()).isEqualTo("newEncodedPassword");
+        verify(customerRepository, times(2)).findByEmail("test@example.com");
+    }
+
+    @Test
+    @DisplayName("ロック状態はキャッシュせず、読み込みのたびに判定する")
+    void testLoadUserByUsername_LockStateNotCached() {
+        // given
+        when(customerRepository.findByEmail("test@example.com"))
+            .thenReturn(Optional.of(testCustomer));
+        when(loginAttemptService.isLocked("test@example.com")).thenReturn(false);
+        assertThat(customerUserDetailsService.loadUserByUsername("test@example.com").isAccountNonLocked()).isTrue();
+
+        // when
+        when(loginAttemptService.isLocked("test@example.com")).thenReturn(true);
+        UserDetails userDetails = customerUserDetailsService.loadUserByUsername("test@example.com");
+
+        // then
+        assertThat(userDetails.isAccountNonLocked()).isFalse();
+        verify(customerRepository, times(1)).findByEmail("test@example.com");
+    }
+
+    @Test
+    @DisplayName("取得した顧客情報を変更してもキャッシュには影響しない")
+    void testLoadUserByUsername_ReturnsCopy() {
+        // given
+        when(customerRepository.findByEmail("test@example.com"))
+            .thenReturn(Optional.of(testCustomer));
+        CustomerUserDetails first = (CustomerUserDetails) customerUserDetailsService.loadUserByUsername("test@example.com");
+
+        // when
+        first.getCustomer().setName("Changed");
+        CustomerUserDetails second = (CustomerUserDetails) customerUserDetailsService.loadUserByUsername("test@example.com");
+
+        // then
+        assertThat(second.getCustomer().getName()).isEqualTo("Test User");
+    }
+
+    @Test
+    @DisplayName("存在しないユーザーはキャッシュせず、UsernameNotFoundExceptionをスローする")
+    void testLoadUserByUsername_NotFoundNotCached() {
+        // given
+        when(customerRepository.findByEmail("unknown@example.com")).thenReturn(Optional.empty());
+
+        // when & then
+        assertThatThrownBy(() -> customerUserDetailsService.loadUserByUsername("unknown@example.com"))
+            .isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> customerUserDetailsService.loadUserByUsername("unknown@example.com"))
+            .isInstanceOf(UsernameNotFoundException.class);
+        verify(customerRepository, times(2)).findByEmail("unknown@example.com");
+    }
+
+    @Test
+    @DisplayName("updatePassword: 再ハッシュしたパスワードを保存し、キャッシュを破棄する")
+    void testUpdatePassword() {
+        // given
+        when(customerRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testCustomer));
+        when(loginAttemptService.isLocked("test@example.com")).thenReturn(false);
+        UserDetails user = customerUserDetailsService.loadUserByUsername("test@example.com");
+
+        // when
+        UserDetails updated = customerUserDetailsService.updatePassword(user, "rehashedPassword");
+
+        // then
+        verify(customerRepository).updatePassword("test@example.com", "rehashedPassword");
+        assertThat(updated.getPassword()).isEqualTo("rehashedPassword");
+        assertThat(updated.getUsername()).isEqualTo("test@example.com");
+        assertThat(updated.isAccountNonLocked()).isTrue();
+
+        // キャッシュを破棄したため、次回はDBから取得する
+        customerUserDetailsService.loadUserByUsername("test@example.com");
+        verify(customerRepository, times(2)).findByEmail("test@example.com");
+    }
 }
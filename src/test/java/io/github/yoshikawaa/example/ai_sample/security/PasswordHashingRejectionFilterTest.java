@@ -0,0 +1,54 @@
+package io.github.yoshikawaa.example.ai_sample.security;
+
+import io.github.yoshikawaa.example.ai_sample.exception.PasswordHashingRejectedException;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PasswordHashingRejectionFilter のテスト")
+class PasswordHashingRejectionFilterTest {
+
+    private final PasswordHashingRejectionFilter filter = new PasswordHashingRejectionFilter(3);
+
+    @Test
+    @DisplayName("パスワード処理を拒否した場合は503とRetry-Afterを返す")
+    void testRejected() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/login"), response, (request, res) -> {
+            throw new PasswordHashingRejectedException("混雑");
+        });
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("3");
+    }
+
+    @Test
+    @DisplayName("コントローラ・入力チェックで拒否した場合（原因の例外）も503を返す")
+    void testRejected_Cause() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/mypage/change-password"), response, (request, res) -> {
+            throw new ServletException(new IllegalStateException(new PasswordHashingRejectedException("混雑")));
+        });
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("3");
+    }
+
+    @Test
+    @DisplayName("その他の例外はそのままスローする")
+    void testOtherException() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("GET", "/"), response, (request, res) -> {
+            throw new IllegalStateException("その他");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+}
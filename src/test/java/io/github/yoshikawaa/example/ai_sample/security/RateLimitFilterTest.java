@@ -0,0 +1,134 @@
+package io.github.yoshikawaa.example.ai_sample.security;
+
+import io.github.yoshikawaa.example.ai_sample.service.AccountLockService;
+import io.github.yoshikawaa.example.ai_sample.service.PasswordResetService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "app.security.rate-limit.enabled=true",
+    "app.security.rate-limit.ip.capacity=3",
+    "app.security.rate-limit.ip.refill-interval-ms=60000",
+    "app.security.rate-limit.account.capacity=2",
+    "app.security.rate-limit.account.refill-interval-ms=6000"
+})
+@AutoConfigureMockMvc
+@DisplayName("RateLimitFilter のテスト")
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
+    @MockitoBean
+    private PasswordResetService passwordResetService;
+
+    @MockitoBean
+    private AccountLockService accountLockService;
+
+    // テストごとに異なるIPアドレス（接続元）・メールアドレスを使い、バケットを共有しない
+
+    @Test
+    @DisplayName("IPアドレスごとの上限を超えたリクエストは、処理の前に429（Retry-After付き）を返す")
+    void testIpLimit() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/account-unlock").param("token", "token" + i)
+                    .with(remoteAddr("203.0.113.1")))
+                .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/account-unlock").param("token", "token3")
+                .with(remoteAddr("203.0.113.1")))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "60"));
+        verify(accountLockService, times(3)).unlockAccount(anyString());
+        assertThat(loginRateLimiter.getIpRejectedCount()).isPositive();
+
+        // 別のIPアドレスは制限されない
+        mockMvc.perform(get("/account-unlock").param("token", "token4")
+                .with(remoteAddr("203.0.113.2")))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("X-Forwarded-Forを変えても接続元のIPアドレスで制限する")
+    void testIpLimit_XForwardedFor() throws Exception {
+        int bucketCount = loginRateLimiter.getIpBucketCount();
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/account-unlock").param("token", "xff" + i)
+                    .with(remoteAddr("203.0.113.10")).header("X-Forwarded-For", "198.18.0." + i))
+                .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/account-unlock").param("token", "xff3")
+                .with(remoteAddr("203.0.113.10")).header("X-Forwarded-For", "198.18.0.3"))
+            .andExpect(status().isTooManyRequests());
+        // X-Forwarded-Forの値ごとにバケットを作らない
+        assertThat(loginRateLimiter.getIpBucketCount()).isLessThanOrEqualTo(bucketCount + 1);
+    }
+
+    @Test
+    @DisplayName("メールアドレスごとの上限は、IPアドレスが異なっても大文字小文字を区別せずに適用する")
+    void testAccountLimit() throws Exception {
+        mockMvc.perform(post("/password-reset/request").param("email", "limit@example.com").with(csrf())
+                .with(remoteAddr("198.51.100.1")))
+            .andExpect(status().is3xxRedirection());
+        mockMvc.perform(post("/password-reset/request").param("email", "Limit@Example.com").with(csrf())
+                .with(remoteAddr("198.51.100.2")))
+            .andExpect(status().is3xxRedirection());
+
+        mockMvc.perform(post("/password-reset/request").param("email", "limit@example.com").with(csrf())
+                .with(remoteAddr("198.51.100.3")))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "6"));
+        verify(passwordResetService, times(2)).sendResetLink(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("CSRFトークンの検証より前に制限する")
+    void testBeforeCsrf() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/account-unlock/request").param("email", "csrf@example.com").param("name", "Test")
+                    .with(remoteAddr("192.0.2.1")))
+                .andExpect(status().isForbidden());
+        }
+
+        mockMvc.perform(post("/account-unlock/request").param("email", "csrf@example.com").param("name", "Test")
+                .with(remoteAddr("192.0.2.1")))
+            .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    @DisplayName("画面の表示は制限しない")
+    void testNotTarget() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/password-reset/request").with(remoteAddr("192.0.2.100")))
+                .andExpect(status().isOk());
+        }
+    }
+
+    private static RequestPostProcessor remoteAddr(String remoteAddr) {
+        return request -> {
+            request.setRemoteAddr(remoteAddr);
+            return request;
+        };
+    }
+}
@@ -0,0 +1,199 @@
+package io.github.yoshikawaa.example.ai_sample.security;
+
+import io.github.yoshikawaa.example.ai_sample.model.Customer;
+import io.github.yoshikawaa.example.ai_sample.repository.CustomerRepository;
+import io.github.yoshikawaa.example.ai_sample.service.CustomerService;
+import io.github.yoshikawaa.example.ai_sample.service.NotificationService;
+import io.github.yoshikawaa.example.ai_sample.service.PasswordResetService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = {
+    "app.security.registered-email-filter.enabled=true",
+    "app.security.registered-email-filter.min-capacity=1"
+})
+@DisplayName("RegisteredEmailFilter のテスト")
+class RegisteredEmailFilterTest {
+
+    private static final String EMAIL = "bloom.test@example.com";
+    private static final String UNKNOWN_EMAIL = "unknown.bloom@example.com";
+
+    @Autowired
+    private RegisteredEmailFilter registeredEmailFilter;
+
+    @Autowired
+    private CustomerUserDetailsService customerUserDetailsService;
+
+    @Autowired
+    private PasswordResetService passwordResetService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // 通知メールの送信を抑止
+    @MockitoBean
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        registeredEmailFilter.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteByEmail(EMAIL);
+    }
+
+    @Test
+    @DisplayName("起動時に登録済みの顧客から構築し、登録されていないメールアドレスを判定できる")
+    void testBuild() {
+        assertThat(registeredEmailFilter.getEntryCount()).isEqualTo(customerRepository.count());
+        assertThat(registeredEmailFilter.getCapacity()).isEqualTo(customerRepository.count() * 2);
+        assertThat(registeredEmailFilter.mightExist("john.doe@example.com")).isTrue();
+        assertThat(registeredEmailFilter.mightExist(UNKNOWN_EMAIL)).isFalse();
+    }
+
+    @Test
+    @DisplayName("loadUserByUsername: 登録されていないメールアドレスは顧客情報を検索せずに見つからないとする")
+    void testLoadUserByUsername_Unknown() {
+        long missCount = registeredEmailFilter.getMissCount();
+
+        assertThatThrownBy(() -> customerUserDetailsService.loadUserByUsername(UNKNOWN_EMAIL))
+            .isInstanceOf(UsernameNotFoundException.class);
+        assertThat(registeredEmailFilter.getMissCount()).isEqualTo(missCount + 1);
+
+        // 登録済みのメールアドレスは検索する
+        assertThat(customerUserDetailsService.loadUserByUsername("john.doe@example.com").getUsername())
+            .isEqualTo("john.doe@example.com");
+    }
+
+    @Test
+    @DisplayName("sendResetLink: 登録されていないメールアドレスはトークンを発行せず、成功と同じく終了する")
+    void testSendResetLink_Unknown() {
+        long missCount = registeredEmailFilter.getMissCount();
+
+        passwordResetService.sendResetLink(UNKNOWN_EMAIL);
+
+        assertThat(registeredEmailFilter.getMissCount()).isEqualTo(missCount + 1);
+        verify(notificationService, never()).sendPasswordResetLink(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("registerCustomer・deleteCustomer: 登録した顧客は登録済みと判定し、削除した顧客は作り直しで取り除く")
+    void testRegisterAndDelete() {
+        transactionTemplate.executeWithoutResult(status -> customerService.registerCustomer(newCustomer()));
+
+        assertThat(registeredEmailFilter.mightExist(EMAIL)).isTrue();
+        assertThat(customerUserDetailsService.loadUserByUsername(EMAIL).getUsername()).isEqualTo(EMAIL);
+
+        customerService.deleteCustomer(EMAIL);
+        // 削除してもフィルターからは取り除けない（顧客情報の検索で見つからないとする）
+        assertThat(registeredEmailFilter.getStaleCount()).isEqualTo(1);
+        assertThatThrownBy(() -> customerUserDetailsService.loadUserByUsername(EMAIL))
+            .isInstanceOf(UsernameNotFoundException.class);
+
+        registeredEmailFilter.rebuild();
+        assertThat(registeredEmailFilter.getStaleCount()).isZero();
+        assertThat(registeredEmailFilter.mightExist(EMAIL)).isFalse();
+    }
+
+    @Test
+    @DisplayName("registerCustomer: ロールバックした顧客は登録済みと判定するが、顧客情報の検索で見つからないとする")
+    void testRegister_Rollback() {
+        transactionTemplate.executeWithoutResult(status -> {
+            customerService.registerCustomer(newCustomer());
+            status.setRollbackOnly();
+        });
+
+        assertThat(registeredEmailFilter.mightExist(EMAIL)).isTrue();
+        assertThatThrownBy(() -> customerUserDetailsService.loadUserByUsername(EMAIL))
+            .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("mightExist: 他のインスタンスで登録された顧客は登録の目印の進みを検出して取り込み、登録済みと判定する")
+    void testMightExist_他のインスタンスでの登録() {
+        long markSyncCount = registeredEmailFilter.getMarkSyncCount();
+        long entryCount = registeredEmailFilter.getEntryCount();
+
+        // 他のインスタンスでの登録（このインスタンスのフィルターを経由せずに共有DBへ登録され、登録の目印が進む）
+        transactionTemplate.executeWithoutResult(status -> {
+            customerRepository.insert(newCustomer());
+            customerRepository.incrementRegistrationMark();
+            customerRepository.updateRegistrationMark(EMAIL);
+        });
+
+        assertThat(registeredEmailFilter.mightExist(EMAIL)).isTrue();
+        assertThat(customerUserDetailsService.loadUserByUsername(EMAIL).getUsername()).isEqualTo(EMAIL);
+        assertThat(registeredEmailFilter.getMarkSyncCount()).isEqualTo(markSyncCount + 1);
+        assertThat(registeredEmailFilter.getEntryCount()).isEqualTo(entryCount + 1);
+
+        // 目印が進んでいなければ取り込まずに登録されていないと判定する
+        assertThat(registeredEmailFilter.mightExist(UNKNOWN_EMAIL)).isFalse();
+        assertThat(registeredEmailFilter.getMarkSyncCount()).isEqualTo(markSyncCount + 1);
+    }
+
+    @Test
+    @DisplayName("syncRecentRegistrations: 登録の目印なしで追加された顧客は取り込むまで見つからず、取り込み後は登録済みと判定する")
+    void testSyncRecentRegistrations_目印なしの登録() {
+        // 登録処理を経由せずに共有DBへ追加される（登録の目印は進まない）
+        customerRepository.insert(newCustomer());
+
+        assertThat(registeredEmailFilter.mightExist(EMAIL)).isFalse();
+        assertThatThrownBy(() -> customerUserDetailsService.loadUserByUsername(EMAIL))
+            .isInstanceOf(UsernameNotFoundException.class);
+
+        long entryCount = registeredEmailFilter.getEntryCount();
+        registeredEmailFilter.syncRecentRegistrations();
+
+        assertThat(registeredEmailFilter.mightExist(EMAIL)).isTrue();
+        assertThat(customerUserDetailsService.loadUserByUsername(EMAIL).getUsername()).isEqualTo(EMAIL);
+        assertThat(registeredEmailFilter.getEntryCount()).isEqualTo(entryCount + 1);
+
+        // 取り込み済みの顧客は再度数えない
+        registeredEmailFilter.syncRecentRegistrations();
+        assertThat(registeredEmailFilter.getEntryCount()).isEqualTo(entryCount + 1);
+    }
+
+    @Test
+    @DisplayName("rebuildIfRequested: 登録数が容量を超えた場合は作り直す")
+    void testRebuild_Capacity() {
+        long rebuildCount = registeredEmailFilter.getRebuildCount();
+        long capacity = registeredEmailFilter.getCapacity();
+        for (long i = registeredEmailFilter.getEntryCount(); i <= capacity; i++) {
+            registeredEmailFilter.add("capacity" + i + "@example.com");
+        }
+        assertThat(registeredEmailFilter.getEntryCount()).isGreaterThan(capacity);
+
+        registeredEmailFilter.rebuildIfRequested();
+
+        assertThat(registeredEmailFilter.getRebuildCount()).isEqualTo(rebuildCount + 1);
+        assertThat(registeredEmailFilter.getEntryCount()).isEqualTo(customerRepository.count());
+    }
+
+    private static Customer newCustomer() {
+        return new Customer(EMAIL, "password", "Bloom Test", LocalDate.now(), LocalDate.of(1990, 1, 1),
+            "000-0000-0000", "Test Address", Customer.Role.USER);
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.model.AuditLog;
+import io.github.yoshikawaa.example.ai_sample.model.Customer;
+import io.github.yoshikawaa.example.ai_sample.model.LoginHistory;
+import io.github.yoshikawaa.example.ai_sample.model.NotificationHistory;
+import io.github.yoshikawaa.example.ai_sample.repository.ActivityTimelineRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.AuditLogRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.CustomerRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.LoginHistoryRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.NotificationHistoryRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.activity-event.backfill-chunk-size=2")
+@DisplayName("ActivityEventBackfillService のテスト")
+class ActivityEventBackfillServiceTest {
+
+    @Autowired
+    private ActivityEventBackfillService activityEventBackfillService;
+
+    @Autowired
+    private ActivityTimelineRepository activityTimelineRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private LoginHistoryRepository loginHistoryRepository;
+
+    @Autowired
+    private NotificationHistoryRepository notificationHistoryRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    @DisplayName("backfill: 未投影の既存データをチャンクごとに投影し、再実行しても重複しない")
+    void testBackfill() {
+        // バックフィルは別トランザクションで実行されるため、専用の顧客を登録してテスト後に削除する
+        String email = "backfill@example.com";
+        LocalDateTime time = LocalDateTime.of(2020, 1, 1, 12, 0);
+        customerRepository.insert(new Customer(email, "password", "Backfill User", LocalDate.now(),
+            LocalDate.of(1990, 1, 1), "000-0000-0000", "Test Address", Customer.Role.USER));
+        try {
+            assertBackfill(email, time);
+        } finally {
+            customerRepository.deleteByEmail(email);
+        }
+    }
+
+    private void assertBackfill(String email, LocalDateTime time) {
+
+        // 投影を経由せずに投影元へ直接登録（投影導入前の既存データ）
+        for (int i = 0; i < 3; i++) {
+            AuditLog auditLog = new AuditLog();
+            auditLog.setPerformedBy("admin@example.com");
+            auditLog.setTargetEmail(email);
+            auditLog.setActionType(AuditLog.ActionType.UPDATE);
+            auditLog.setActionTime(time.plusMinutes(i));
+            auditLogRepository.insert(auditLog);
+        }
+        LoginHistory loginHistory = new LoginHistory();
+        loginHistory.setEmail(email);
+        loginHistory.setStatus(LoginHistory.Status.SUCCESS);
+        loginHistory.setLoginTime(time.plusMinutes(10));
+        loginHistoryRepository.insert(loginHistory);
+        NotificationHistory notification = new NotificationHistory();
+        notification.setRecipientEmail(email);
+        notification.setNotificationType(NotificationHistory.NotificationType.ACCOUNT_LOCK);
+        notification.setSubject("アカウントロック");
+        notification.setStatus(NotificationHistory.Status.SUCCESS);
+        notification.setSentAt(time.plusMinutes(20));
+        notificationHistoryRepository.insert(notification);
+
+        long projected = activityEventBackfillService.backfill();
+
+        assertThat(projected).isGreaterThanOrEqualTo(5);
+        assertThat(activityTimelineRepository.countActivityTimeline(email, time, time.plusHours(1), null)).isEqualTo(5);
+        assertThat(activityEventBackfillService.backfill()).isZero();
+    }
+}
@@ -0,0 +1,270 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.AsyncWriteProperties;
+import io.github.yoshikawaa.example.ai_sample.config.AsyncWriteProperties.OverflowPolicy;
+import io.github.yoshikawaa.example.ai_sample.config.AsyncWriteProperties.WriteMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("AsyncBatchWriter のテスト")
+class AsyncBatchWriterTest {
+
+    private TestWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.blocker.countDown();
+            writer.stop();
+        }
+    }
+
+    // ========================================
+    // 同期書き込み
+    // ========================================
+
+    @Test
+    @DisplayName("write: SYNCの場合は呼び出し元のスレッドで1件ずつ書き込む")
+    void testWrite_Sync() {
+        writer = new TestWriter(properties(WriteMode.SYNC, 10, 3, OverflowPolicy.BLOCK));
+        writer.start();
+
+        assertThat(writer.write("a")).isTrue();
+
+        assertThat(writer.single).containsExactly("a");
+        assertThat(writer.batches).isEmpty();
+        assertThat(writer.isRunning()).isFalse();
+        assertThat(writer.getWrittenCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("write: ASYNCでも開始前は同期的に書き込む")
+    void testWrite_NotStarted() {
+        writer = new TestWriter(properties(WriteMode.ASYNC, 10, 3, OverflowPolicy.BLOCK));
+
+        writer.write("a");
+
+        assertThat(writer.single).containsExactly("a");
+        assertThat(writer.getEnqueuedCount()).isZero();
+    }
+
+    // ========================================
+    // 非同期書き込み
+    // ========================================
+
+    @Test
+    @DisplayName("write: ASYNCの場合はバッチサイズ単位でまとめて書き込む")
+    void testWrite_Async_FlushBySize() {
+        writer = new TestWriter(properties(WriteMode.ASYNC, 100, 3, OverflowPolicy.BLOCK, 60_000));
+        writer.start();
+
+        for (int i = 0; i < 6; i++) {
+            writer.write("r" + i);
+        }
+
+        // 書き込み件数はフラッシュ回数より先に加算されるため、フラッシュ回数も待つ
+        waitUntil(() -> writer.getWrittenCount() == 6 && writer.getFlushCount() == 2);
+        assertThat(writer.single).isEmpty();
+        assertThat(writer.batches).allSatisfy(batch -> assertThat(batch).hasSize(3));
+        assertThat(writer.getEnqueuedCount()).isEqualTo(6);
+        assertThat(writer.getFlushCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("write: バッチサイズに満たない場合もflushIntervalMs経過で書き込む")
+    void testWrite_Async_FlushByInterval() {
+        writer = new TestWriter(properties(WriteMode.ASYNC, 100, 50, OverflowPolicy.BLOCK, 50));
+        writer.start();
+
+        writer.write("a");
+        writer.write("b");
+
+        waitUntil(() -> writer.getWrittenCount() == 2);
+        assertThat(writer.batches).containsExactly(List.of("a", "b"));
+        assertThat(writer.getQueueDepth()).isZero();
+    }
+
+    @Test
+    @DisplayName("write: バッチ書き込みに失敗した場合は1件ずつ再試行し、失敗したレコードのみ破棄する")
+    void testWrite_Async_BatchFailureRetriesOneByOne() {
+        writer = new TestWriter(properties(WriteMode.ASYNC, 100, 3, OverflowPolicy.BLOCK, 50));
+        writer.failOn = "bad";
+        writer.start();
+
+        writer.write("a");
+        writer.write("bad");
+        writer.write("b");
+
+        waitUntil(() -> writer.getWrittenCount() == 2);
+        assertThat(writer.batches).isEmpty();
+        assertThat(writer.single).containsExactly("a", "b");
+        assertThat(writer.getFailedCount()).isEqualTo(1);
+    }
+
+    // ========================================
+    // キュー満杯時の動作
+    // ========================================
+
+    @Test
+    @DisplayName("write: DROPの場合はキュー満杯時に破棄してfalseを返す")
+    void testWrite_Overflow_Drop() {
+        writer = blockedWriter(OverflowPolicy.DROP);
+
+        assertThat(writer.write("overflow")).isFalse();
+        assertThat(writer.getDroppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("write: BLOCKの場合はofferTimeoutMsまで待機した後に破棄する")
+    void testWrite_Overflow_Block() {
+        writer = blockedWriter(OverflowPolicy.BLOCK);
+
+        long start = System.nanoTime();
+        assertThat(writer.write("overflow")).isFalse();
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(50);
+        assertThat(writer.getDroppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("write: CALLER_RUNSの場合はキュー満杯時に呼び出し元で書き込む")
+    void testWrite_Overflow_CallerRuns() {
+        writer = blockedWriter(OverflowPolicy.CALLER_RUNS);
+
+        assertThat(writer.write("overflow")).isTrue();
+
+        assertThat(writer.single).containsExactly("overflow");
+        assertThat(writer.getDroppedCount()).isZero();
+    }
+
+    // ========================================
+    // 停止
+    // ========================================
+
+    @Test
+    @DisplayName("stop: キューに残ったレコードを書き込んでから停止する")
+    void testStop_FlushesRemaining() {
+        writer = blockedWriter(OverflowPolicy.DROP);
+
+        writer.blocker.countDown();
+        writer.stop();
+
+        assertThat(writer.isRunning()).isFalse();
+        assertThat(writer.getQueueDepth()).isZero();
+        assertThat(writer.getWrittenCount()).isEqualTo(3);
+        assertThat(writer.getFlushCount()).isGreaterThanOrEqualTo(2);
+        assertThat(writer.getMaxFlushMillis()).isGreaterThanOrEqualTo(writer.getLastFlushMillis());
+    }
+
+    @Test
+    @DisplayName("write: 停止後は同期的に書き込む")
+    void testWrite_AfterStop() {
+        writer = new TestWriter(properties(WriteMode.ASYNC, 10, 3, OverflowPolicy.BLOCK, 50));
+        writer.start();
+        writer.stop();
+
+        writer.write("a");
+
+        assertThat(writer.single).containsExactly("a");
+    }
+
+    // ========================================
+    // ヘルパー
+    // ========================================
+
+    /**
+     * 1件目のバッチ書き込みで停止させ、キュー（容量2）を満杯にしたWriterを生成
+     */
+    private TestWriter blockedWriter(OverflowPolicy overflowPolicy) {
+        TestWriter blocked = new TestWriter(properties(WriteMode.ASYNC, 2, 1, overflowPolicy, 50));
+        blocked.block = true;
+        blocked.start();
+        blocked.write("first");
+        waitUntil(() -> blocked.getQueueDepth() == 0 && blocked.blocking);
+        blocked.write("queued1");
+        blocked.write("queued2");
+        assertThat(blocked.getQueueRemainingCapacity()).isZero();
+        return blocked;
+    }
+
+    private static AsyncWriteProperties properties(WriteMode mode, int queueCapacity, int batchSize, OverflowPolicy overflowPolicy) {
+        return properties(mode, queueCapacity, batchSize, overflowPolicy, 1000);
+    }
+
+    private static AsyncWriteProperties properties(WriteMode mode, int queueCapacity, int batchSize, OverflowPolicy overflowPolicy, long flushIntervalMs) {
+        AsyncWriteProperties properties = new AsyncWriteProperties();
+        properties.setMode(mode);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setBatchSize(batchSize);
+        properties.setOverflowPolicy(overflowPolicy);
+        properties.setFlushIntervalMs(flushIntervalMs);
+        properties.setOfferTimeoutMs(50);
+        return properties;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("条件成立の待機がタイムアウト").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * 書き込み内容を記録するテスト用Writer
+     */
+    static class TestWriter extends AsyncBatchWriter<String> {
+        final List<String> single = Collections.synchronizedList(new ArrayList<>());
+        final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch blocker = new CountDownLatch(1);
+        volatile boolean block;
+        volatile boolean blocking;
+        volatile String failOn;
+
+        TestWriter(AsyncWriteProperties properties) {
+            super("テスト", properties, mock(PlatformTransactionManager.class));
+        }
+
+        @Override
+        protected void writeOne(String record) {
+            if (record.equals(failOn)) {
+                throw new IllegalStateException("書き込み失敗");
+            }
+            single.add(record);
+        }
+
+        @Override
+        protected void writeBatch(List<String> records) {
+            if (block) {
+                blocking = true;
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                block = false;
+            }
+            if (records.contains(failOn)) {
+                throw new IllegalStateException("書き込み失敗");
+            }
+            batches.add(List.copyOf(records));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.model.AuditLog;
+import io.github.yoshikawaa.example.ai_sample.repository.ActivityTimelineRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.AuditLogRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "app.audit-log.write.mode=ASYNC",
+    "app.audit-log.write.batch-size=5",
+    "app.audit-log.write.flush-interval-ms=50"
+})
+@DisplayName("AuditLogWriter のテスト（ASYNC）")
+class AuditLogWriterTest {
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private ActivityTimelineRepository activityTimelineRepository;
+
+    // ========================================
+    // 非同期バッチ書き込み
+    // ========================================
+
+    @Test
+    @DisplayName("recordAudit: ASYNCの場合はバッチINSERTでDBに書き込まれる")
+    void testRecordAudit_Async() {
+        long before = auditLogRepository.count();
+        long written = auditLogWriter.getWrittenCount();
+
+        for (int i = 0; i < 7; i++) {
+            auditLogService.recordAudit("admin@example.com", "john.doe@example.com", AuditLog.ActionType.VIEW_STATISTICS, "統計閲覧", "127.0.0.1");
+        }
+
+        waitUntil(() -> auditLogWriter.getWrittenCount() == written + 7);
+        assertThat(auditLogRepository.count()).isEqualTo(before + 7);
+        assertThat(auditLogWriter.getQueueDepth()).isZero();
+        assertThat(auditLogWriter.getFailedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("recordAudit: バッチINSERTした監査ログはアクティビティイベントにも投影される")
+    void testRecordAudit_Async_ProjectsActivityEvents() {
+        LocalDateTime start = LocalDateTime.now().minusMinutes(1);
+        LocalDateTime end = LocalDateTime.now().plusMinutes(1);
+        long before = activityTimelineRepository.countActivityTimeline("jane.doe@example.com", start, end, null);
+        long written = auditLogWriter.getWrittenCount();
+
+        for (int i = 0; i < 3; i++) {
+            auditLogService.recordAudit("admin@example.com", "jane.doe@example.com", AuditLog.ActionType.UPDATE, "更新", "127.0.0.1");
+        }
+
+        waitUntil(() -> auditLogWriter.getWrittenCount() == written + 3);
+        long count = activityTimelineRepository.countActivityTimeline("jane.doe@example.com", start, end, null);
+        assertThat(count).isEqualTo(before + 3);
+    }
+
+    @Test
+    @DisplayName("recordAudit: 削除済み顧客の監査ログのみ失敗し、同じバッチの他の監査ログは書き込まれる")
+    void testRecordAudit_Async_PartialFailure() {
+        long before = auditLogRepository.count();
+        long written = auditLogWriter.getWrittenCount();
+        long failed = auditLogWriter.getFailedCount();
+
+        auditLogService.recordAudit("admin@example.com", "john.doe@example.com", AuditLog.ActionType.UPDATE, "更新", "127.0.0.1");
+        auditLogService.recordAudit("admin@example.com", "deleted@example.com", AuditLog.ActionType.DELETE, "顧客削除", "127.0.0.1");
+        auditLogService.recordAudit("admin@example.com", "jane.doe@example.com", AuditLog.ActionType.UPDATE, "更新", "127.0.0.1");
+
+        waitUntil(() -> auditLogWriter.getWrittenCount() + auditLogWriter.getFailedCount() == written + failed + 3);
+        assertThat(auditLogWriter.getFailedCount()).isEqualTo(failed + 1);
+        assertThat(auditLogRepository.count()).isEqualTo(before + 2);
+    }
+
+    @Test
+    @DisplayName("stop: 停止時にキューの残りを書き込む")
+    void testStop_Flush() {
+        long before = auditLogRepository.count();
+        try {
+            auditLogService.recordAudit("admin@example.com", "jane.doe@example.com", AuditLog.ActionType.UPDATE, "停止前", "127.0.0.1");
+            auditLogWriter.stop();
+
+            assertThat(auditLogRepository.count()).isEqualTo(before + 1);
+        } finally {
+            auditLogWriter.start();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("条件成立の待機がタイムアウト").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
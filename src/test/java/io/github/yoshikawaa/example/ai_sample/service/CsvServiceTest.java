@@ -1,17 +1,23 @@
 package io.github.yoshikawaa.example.ai_sample.service;
 
+import io.github.yoshikawaa.example.ai_sample.exception.CsvGenerationException;
 import io.github.yoshikawaa.example.ai_sample.model.Customer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @DisplayName("CsvService のテスト")
@@ -87,7 +93,7 @@ class CsvServiceTest {
         // 検証
         String csv = new String(csvData, java.nio.charset.StandardCharsets.UTF_8);
         
-        // OpenCSVがダブルクォートをエスケープすることを確認
+        // ダブルクォートが二重化されることを確認
         assertThat(csv).contains("\"Test \"\"Nickname\"\" User\"");
     }
 
@@ -105,7 +111,7 @@ class CsvServiceTest {
         // 検証
         String csv = new String(csvData, java.nio.charset.StandardCharsets.UTF_8);
         
-        // OpenCSVがカンマを含むフィールドをクォートで囲むことを確認
+        // カンマを含むフィールドがクォートで囲まれることを確認
         assertThat(csv).contains("\"User, Test\"");
         assertThat(csv).contains("\"123 Main St, Apt 4\"");
     }
@@ -124,7 +130,7 @@ class CsvServiceTest {
         // 検証
         String csv = new String(csvData, java.nio.charset.StandardCharsets.UTF_8);
         
-        // OpenCSVが改行を含むフィールドをクォートで囲むことを確認
+        // 改行を含むフィールドがクォートで囲まれることを確認
         assertThat(csv).contains("\"123 Main St\nApt 4\"");
     }
 
@@ -161,4 +167,43 @@ class CsvServiceTest {
         assertThat(csv).contains("user0@example.com");
         assertThat(csv).contains("user999@example.com");
     }
+
+    @Test
+    @DisplayName("writeCustomerCsv: 出力ストリームに書き込み、行数を返す（ストリームはクローズしない）")
+    void testWriteCustomerCsv() {
+        // テストデータの準備
+        List<Customer> customers = Arrays.asList(
+            new Customer("alice@example.com", "password", "Alice", LocalDate.of(2023, 1, 1), LocalDate.of(1990, 1, 1), "111-1111", "Address1", Customer.Role.USER),
+            new Customer("bob@example.com", "password", "Bob", LocalDate.of(2023, 2, 1), LocalDate.of(1992, 2, 2), "222-2222", "Address2", Customer.Role.USER)
+        );
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        // サービスメソッドを呼び出し
+        long count = csvService.writeCustomerCsv(customers, out);
+
+        // 検証: generateCustomerCsvと同じ内容が書き込まれる
+        assertThat(count).isEqualTo(2);
+        assertThat(out.toByteArray()).isEqualTo(csvService.generateCustomerCsv(customers));
+        assertThat(closed.get()).isFalse();
+    }
+
+    @Test
+    @DisplayName("writeCustomerCsv: 書き込み失敗時はCsvGenerationExceptionをスローする")
+    void testWriteCustomerCsv_IOException() {
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> csvService.writeCustomerCsv(Collections.emptyList(), out))
+            .isInstanceOf(CsvGenerationException.class);
+    }
 }
@@ -0,0 +1,125 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.CustomerSearchProperties;
+import io.github.yoshikawaa.example.ai_sample.model.Customer;
+import io.github.yoshikawaa.example.ai_sample.repository.CustomerRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.CustomerSearchIndexRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.customer-search.backfill-chunk-size=2")
+@DisplayName("CustomerSearchIndexService のテスト")
+class CustomerSearchIndexServiceTest {
+
+    @Autowired
+    private CustomerSearchIndexService customerSearchIndexService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerSearchProperties customerSearchProperties;
+
+    @Autowired
+    private TrigramStopGrams trigramStopGrams;
+
+    @Test
+    @Transactional
+    @DisplayName("index: 登録した顧客を名前・メールアドレスで検索できる")
+    void testIndex() {
+        Customer customer = newCustomer("index.test@example.com", "Indexed Person");
+        customerRepository.insert(customer);
+
+        customerSearchIndexService.index(customer);
+
+        assertThat(countBySearch("indexed", null)).isEqualTo(1);
+        assertThat(countBySearch(null, "index.test")).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("reindexName: 名前の更新後は新しい名前でのみ検索できる")
+    void testReindexName() {
+        Customer customer = newCustomer("reindex.test@example.com", "Before Rename");
+        customerRepository.insert(customer);
+        customerSearchIndexService.index(customer);
+
+        customer.setName("After Rename");
+        customerRepository.updateCustomerInfo(customer);
+        customerSearchIndexService.reindexName(customer.getEmail(), customer.getName());
+
+        assertThat(countBySearch("before rename", null)).isZero();
+        assertThat(countBySearch("after rename", null)).isEqualTo(1);
+        assertThat(countBySearch(null, "reindex.test")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("backfill: 索引のない顧客の索引をチャンクごとに作成し、再実行しても重複しない")
+    void testBackfill() {
+        // バックフィルは別トランザクションで実行されるため、専用の顧客を登録してテスト後に削除する
+        String[] emails = {"backfill.index1@example.com", "backfill.index2@example.com", "backfill.index3@example.com"};
+        for (String email : emails) {
+            customerRepository.insert(newCustomer(email, "Backfill Indexed"));
+        }
+        try {
+            assertThat(countBySearch("backfill indexed", null)).isZero();
+
+            assertThat(customerSearchIndexService.backfill()).isEqualTo(3);
+            assertThat(customerSearchIndexService.backfill()).isZero();
+
+            assertThat(countBySearch("backfill indexed", null)).isEqualTo(3);
+        } finally {
+            for (String email : emails) {
+                customerRepository.deleteByEmail(email);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("refreshStopGrams: 多くの顧客に含まれるトライグラムを絞り込みから除き、すべて該当する検索語もLIKEで照合する")
+    void testRefreshStopGrams() {
+        long minCount = customerSearchProperties.getStopGramMinCount();
+        double ratio = customerSearchProperties.getStopGramRatio();
+        customerSearchProperties.setStopGramMinCount(1);
+        customerSearchProperties.setStopGramRatio(0.5);
+        try {
+            customerSearchIndexService.refreshStopGrams();
+
+            // 全顧客のメールアドレスに含まれるドメインのトライグラムはストップグラム
+            assertThat(trigramStopGrams.get(CustomerSearchIndexRepository.FIELD_EMAIL)).contains("exa", ".co", "com");
+            assertThat(trigramStopGrams.selectiveTrigrams(CustomerSearchIndexRepository.FIELD_EMAIL, "example.com")).isEmpty();
+            assertThat(trigramStopGrams.selectiveTrigrams(CustomerSearchIndexRepository.FIELD_EMAIL, "john.doe@example.com"))
+                .contains("joh").doesNotContain("com");
+
+            // 検索結果は変わらない
+            assertThat(countBySearch(null, "example.com")).isEqualTo(customerRepository.count());
+            assertThat(countBySearch(null, "john.doe@example.com")).isEqualTo(1);
+        } finally {
+            customerSearchProperties.setStopGramMinCount(minCount);
+            customerSearchProperties.setStopGramRatio(ratio);
+            customerSearchIndexService.refreshStopGrams();
+        }
+        assertThat(trigramStopGrams.get(CustomerSearchIndexRepository.FIELD_EMAIL)).isEmpty();
+    }
+
+    /**
+     * CustomerServiceと同じく、ストップグラムを除いたトライグラムで検索結果の件数を取得
+     */
+    private long countBySearch(String name, String email) {
+        return customerRepository.countBySearch(
+            name, trigramStopGrams.selectiveTrigrams(CustomerSearchIndexRepository.FIELD_NAME, name),
+            email, trigramStopGrams.selectiveTrigrams(CustomerSearchIndexRepository.FIELD_EMAIL, email));
+    }
+
+    private Customer newCustomer(String email, String name) {
+        return new Customer(email, "password", name, LocalDate.now(),
+            LocalDate.of(1990, 1, 1), "000-0000-0000", "Test Address", Customer.Role.USER);
+    }
+}
@@ -4,32 +4,42 @@ import io.github.yoshikawaa.example.ai_sample.exception.CustomerNotFoundExceptio
 import io.github.yoshikawaa.example.ai_sample.exception.UnderageCustomerException;
 import io.github.yoshikawaa.example.ai_sample.model.AuditLog;
 import io.github.yoshikawaa.example.ai_sample.model.Customer;
+import io.github.yoshikawaa.example.ai_sample.model.CustomerCursor;
 import io.github.yoshikawaa.example.ai_sample.repository.AuditLogRepository;
 import io.github.yoshikawaa.example.ai_sample.repository.CustomerRepository;
+import io.github.yoshikawaa.example.ai_sample.util.TrigramUtil;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -54,6 +64,9 @@ class CustomerServiceTest {
     @MockitoBean
     private AuditLogService auditLogService;
 
+    @MockitoBean
+    private CustomerSearchIndexService customerSearchIndexService;
+
     @Autowired
     private CustomerService customerService;
 
@@ -123,7 +136,7 @@ class CustomerServiceTest {
         when(customerRepository.count()).thenReturn(2L);
 
         // サービスメソッドを呼び出し
-        Page<Customer> page = customerService.getAllCustomersWithPagination(pageable);
+        Page<Customer> page = (Page<Customer>) customerService.getAllCustomersWithPagination(pageable);
 
         // 検証
         assertThat(page.getContent()).hasSize(2);
@@ -147,7 +160,7 @@ class CustomerServiceTest {
         when(customerRepository.count()).thenReturn(2L);
 
         // サービスメソッドを呼び出し
-        Page<Customer> result = customerService.getAllCustomersWithPagination(pageable);
+        Page<Customer> result = (Page<Customer>) customerService.getAllCustomersWithPagination(pageable);
 
         // 検証
         assertThat(result.getContent()).hasSize(2);
@@ -170,7 +183,7 @@ class CustomerServiceTest {
         when(customerRepository.count()).thenReturn(2L);
 
         // サービスメソッドを呼び出し
-        Page<Customer> result = customerService.getAllCustomersWithPagination(pageable);
+        Page<Customer> result = (Page<Customer>) customerService.getAllCustomersWithPagination(pageable);
 
         // 検証
         assertThat(result.getContent()).hasSize(2);
@@ -193,7 +206,7 @@ class CustomerServiceTest {
         when(customerRepository.count()).thenReturn(2L);
 
         // サービスメソッドを呼び出し
-        Page<Customer> result = customerService.getAllCustomersWithPagination(pageable);
+        Page<Customer> result = (Page<Customer>) customerService.getAllCustomersWithPagination(pageable);
 
         // 検証
         assertThat(result.getContent()).hasSize(2);
@@ -215,7 +228,7 @@ class CustomerServiceTest {
         when(customerRepository.count()).thenReturn(1L);
 
         // サービスメソッドを呼び出し
-        Page<Customer> result = customerService.getAllCustomersWithPagination(pageable);
+        Page<Customer> result = (Page<Customer>) customerService.getAllCustomersWithPagination(pageable);
 
         // 検証: デフォルトの registration_date でソートされる
         assertThat(result.getContent()).hasSize(1);
@@ -253,6 +266,9 @@ class CustomerServiceTest {
         verify(customerRepository, times(1)).insert(argThat(customer -> 
             customer.getPassword().equals(hashedPassword) // ハッシュ化されたパスワードが渡されていることを確認
         ));
+
+        // 検索用の索引を作成することを検証
+        verify(customerSearchIndexService, times(1)).index(newCustomer);
     }
 
     @Test
@@ -360,6 +376,7 @@ class CustomerServiceTest {
 
         // リポジトリの呼び出しを検証
         verify(customerRepository, times(1)).updateCustomerInfo(customer);
+        verify(customerSearchIndexService, times(1)).reindexName("john.doe@example.com", "Updated Name");
     }
 
     @Test
@@ -417,20 +434,20 @@ class CustomerServiceTest {
     void testSearchCustomersWithPagination() {
         // モックの動作を定義
         Pageable pageable = PageRequest.of(0, 10);
-        when(customerRepository.searchWithPagination("John", "john@example.com", 10, 0, null, null)).thenReturn(Arrays.asList(
+        when(customerRepository.searchWithPagination("John", TrigramUtil.trigrams("John"), "john@example.com", TrigramUtil.trigrams("john@example.com"), 10, 0, null, null)).thenReturn(Arrays.asList(
             new Customer("john.doe@example.com", "password123", "John Doe", LocalDate.of(2023, 1, 1), LocalDate.of(1990, 1, 1), "123-456-7890", "123 Main St", Customer.Role.USER)
         ));
-        when(customerRepository.countBySearch("John", "john@example.com")).thenReturn(1L);
+        when(customerRepository.countBySearch("John", TrigramUtil.trigrams("John"), "john@example.com", TrigramUtil.trigrams("john@example.com"))).thenReturn(1L);
 
         // サービスメソッドを呼び出し
-        Page<Customer> page = customerService.searchCustomersWithPagination("John", "john@example.com", pageable);
+        Page<Customer> page = (Page<Customer>) customerService.searchCustomersWithPagination("John", "john@example.com", pageable);
 
         // 検証
         assertThat(page.getContent()).hasSize(1);
         assertThat(page.getTotalElements()).isEqualTo(1);
         assertThat(page.getContent().get(0).getName()).isEqualTo("John Doe");
-        verify(customerRepository, times(1)).searchWithPagination("John", "john@example.com", 10, 0, null, null);
-        verify(customerRepository, times(1)).countBySearch("John", "john@example.com");
+        verify(customerRepository, times(1)).searchWithPagination("John", TrigramUtil.trigrams("John"), "john@example.com", TrigramUtil.trigrams("john@example.com"), 10, 0, null, null);
+        verify(customerRepository, times(1)).countBySearch("John", TrigramUtil.trigrams("John"), "john@example.com", TrigramUtil.trigrams("john@example.com"));
     }
 
     @Test
@@ -440,20 +457,114 @@ class CustomerServiceTest {
         Pageable pageable = PageRequest.of(0, 10, org.springframework.data.domain.Sort.by("email").ascending());
         
         // モックの動作を定義
-        when(customerRepository.searchWithPagination("test", null, 10, 0, "email", "ASC")).thenReturn(Arrays.asList(
+        when(customerRepository.searchWithPagination("test", TrigramUtil.trigrams("test"), null, Set.of(), 10, 0, "email", "ASC")).thenReturn(Arrays.asList(
             new Customer("alice@example.com", "password", "Alice Test", LocalDate.of(2023, 1, 1), LocalDate.of(1990, 1, 1), "111-1111", "Address1", Customer.Role.USER),
             new Customer("bob@example.com", "password", "Bob Test", LocalDate.of(2023, 2, 2), LocalDate.of(1992, 2, 2), "222-2222", "Address2", Customer.Role.USER)
         ));
-        when(customerRepository.countBySearch("test", null)).thenReturn(2L);
+        when(customerRepository.countBySearch("test", TrigramUtil.trigrams("test"), null, Set.of())).thenReturn(2L);
 
         // サービスメソッドを呼び出し
-        Page<Customer> result = customerService.searchCustomersWithPagination("test", null, pageable);
+        Page<Customer> result = (Page<Customer>) customerService.searchCustomersWithPagination("test", null, pageable);
 
         // 検証
         assertThat(result.getContent()).hasSize(2);
         assertThat(result.getContent().get(0).getEmail()).isEqualTo("alice@example.com");
         assertThat(result.getContent().get(1).getEmail()).isEqualTo("bob@example.com");
-        verify(customerRepository, times(1)).searchWithPagination("test", null, 10, 0, "email", "ASC");
+        verify(customerRepository, times(1)).searchWithPagination("test", TrigramUtil.trigrams("test"), null, Set.of(), 10, 0, "email", "ASC");
+    }
+
+    // ========================================
+    // キーセットページネーション
+    // ========================================
+
+    @Test
+    @DisplayName("getAllCustomersWithKeyset: ページサイズ+1件取得し、超過分があれば次ページありのSliceを返す")
+    void testGetAllCustomersWithKeyset_HasNext() {
+        Pageable pageable = PageRequest.of(0, 2, org.springframework.data.domain.Sort.by("registrationDate").descending());
+        when(customerRepository.findAllWithKeyset(3, "registration_date", "DESC", LocalDate.of(2023, 3, 1), "alice@example.com")).thenReturn(Arrays.asList(
+            new Customer("bob@example.com", "password", "Bob", LocalDate.of(2023, 2, 2), LocalDate.of(1992, 2, 2), "222-2222", "Address2", Customer.Role.USER),
+            new Customer("carol@example.com", "password", "Carol", LocalDate.of(2023, 1, 1), LocalDate.of(1993, 3, 3), "333-3333", "Address3", Customer.Role.USER),
+            new Customer("dave@example.com", "password", "Dave", LocalDate.of(2022, 12, 1), LocalDate.of(1994, 4, 4), "444-4444", "Address4", Customer.Role.USER)
+        ));
+
+        Slice<Customer> result = customerService.getAllCustomersWithKeyset(new CustomerCursor("2023-03-01", "alice@example.com"), pageable);
+
+        assertThat(result.getContent()).extracting(Customer::getEmail).containsExactly("bob@example.com", "carol@example.com");
+        assertThat(result.hasNext()).isTrue();
+        verify(customerRepository, times(0)).count();
+
+        // 次ページのカーソルは末尾要素のソートキーとemail
+        CustomerCursor next = customerService.nextCursor(result);
+        assertThat(next.getSortValue()).isEqualTo("2023-01-01");
+        assertThat(next.getEmail()).isEqualTo("carol@example.com");
+    }
+
+    @Test
+    @DisplayName("getAllCustomersWithKeyset: カーソル未指定・ソート未指定時は登録日降順で先頭から取得する")
+    void testGetAllCustomersWithKeyset_FirstPage() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(customerRepository.findAllWithKeyset(11, "registration_date", "DESC", null, null)).thenReturn(Arrays.asList(
+            new Customer("bob@example.com", "password", "Bob", LocalDate.of(2023, 2, 2), LocalDate.of(1992, 2, 2), "222-2222", "Address2", Customer.Role.USER)
+        ));
+
+        Slice<Customer> result = customerService.getAllCustomersWithKeyset(null, pageable);
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.hasNext()).isFalse();
+        assertThat(customerService.nextCursor(result)).isNull();
+    }
+
+    @Test
+    @DisplayName("getAllCustomersWithKeyset: カーソルのソート値が空文字列の場合はNULLの行だけをカーソル以降から取得する")
+    void testGetAllCustomersWithKeyset_NullSortValue() {
+        Pageable pageable = PageRequest.of(0, 2, org.springframework.data.domain.Sort.by("birthDate").ascending());
+        when(customerRepository.findAllWithKeysetNullTail(3, "birth_date", "alice@example.com")).thenReturn(Arrays.asList(
+            new Customer("bob@example.com", "password", "Bob", LocalDate.of(2023, 2, 2), null, "222-2222", "Address2", Customer.Role.USER)
+        ));
+
+        Slice<Customer> result = customerService.getAllCustomersWithKeyset(new CustomerCursor("", "alice@example.com"), pageable);
+
+        assertThat(result.getContent()).extracting(Customer::getEmail).containsExactly("bob@example.com");
+        verify(customerRepository, times(0)).findAllWithKeyset(anyInt(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("getAllCustomersWithKeyset: ソート値がNULLでない行が足りない場合はNULLの行を先頭から続けて取得する")
+    void testGetAllCustomersWithKeyset_NullTail() {
+        Pageable pageable = PageRequest.of(0, 2, org.springframework.data.domain.Sort.by("name").descending());
+        when(customerRepository.findAllWithKeyset(3, "name", "DESC", "Carol", "carol@example.com")).thenReturn(Arrays.asList(
+            new Customer("bob@example.com", "password", "Bob", LocalDate.of(2023, 2, 2), null, "222-2222", "Address2", Customer.Role.USER)
+        ));
+        when(customerRepository.findAllWithKeysetNullTail(2, "name", null)).thenReturn(Arrays.asList(
+            new Customer("dave@example.com", "password", null, LocalDate.of(2023, 2, 2), null, "444-4444", "Address4", Customer.Role.USER),
+            new Customer("erin@example.com", "password", null, LocalDate.of(2023, 2, 2), null, "555-5555", "Address5", Customer.Role.USER)
+        ));
+
+        Slice<Customer> result = customerService.getAllCustomersWithKeyset(new CustomerCursor("Carol", "carol@example.com"), pageable);
+
+        assertThat(result.getContent()).extracting(Customer::getEmail).containsExactly("bob@example.com", "dave@example.com");
+        assertThat(result.hasNext()).isTrue();
+        // 次ページのカーソルはNULLの行を指す
+        CustomerCursor next = customerService.nextCursor(result);
+        assertThat(next.getSortValue()).isNull();
+        assertThat(next.getEmail()).isEqualTo("dave@example.com");
+    }
+
+    @Test
+    @DisplayName("searchCustomersWithKeyset: 検索条件とソート情報を渡してキーセット検索できる")
+    void testSearchCustomersWithKeyset() {
+        Pageable pageable = PageRequest.of(0, 1, org.springframework.data.domain.Sort.by("name").ascending());
+        when(customerRepository.searchWithKeyset("Test", TrigramUtil.trigrams("Test"), null, Set.of(), 2, "name", "ASC", "Alice Test", "alice@example.com")).thenReturn(Arrays.asList(
+            new Customer("bob@example.com", "password", "Bob Test", LocalDate.of(2023, 2, 2), LocalDate.of(1992, 2, 2), "222-2222", "Address2", Customer.Role.USER),
+            new Customer("carol@example.com", "password", "Carol Test", LocalDate.of(2023, 1, 1), LocalDate.of(1993, 3, 3), "333-3333", "Address3", Customer.Role.USER)
+        ));
+
+        Slice<Customer> result = customerService.searchCustomersWithKeyset("Test", null, new CustomerCursor("Alice Test", "alice@example.com"), pageable);
+
+        assertThat(result.getContent()).extracting(Customer::getEmail).containsExactly("bob@example.com");
+        assertThat(result.hasNext()).isTrue();
+        assertThat(customerService.nextCursor(result).getSortValue()).isEqualTo("Bob Test");
+        verify(customerRepository, times(0)).countBySearch(any(), any(), any(), any());
     }
 
     // ========================================
@@ -462,7 +573,7 @@ class CustomerServiceTest {
 
     @Test
     @DisplayName("exportCustomersToCSV: 全顧客をCSVエクスポートできる")
-    void testExportCustomersToCSV_AllCustomers() {
+    void testExportCustomersToCSV_AllCustomers() throws Exception {
         // テストデータ
         List<Customer> customers = Arrays.asList(
             new Customer("bob@example.com", "password", "Bob", LocalDate.of(2023, 2, 1), LocalDate.of(1992, 2, 2), "222-2222", "Address2", Customer.Role.USER),
@@ -471,22 +582,25 @@ class CustomerServiceTest {
         byte[] mockCsvData = "CSV data".getBytes();
         
         // モックの動作を定義
-        when(customerRepository.findAllWithSort(any(), any())).thenReturn(customers);
-        when(csvService.generateCustomerCsv(customers)).thenReturn(mockCsvData);
+        Cursor<Customer> cursor = cursorOf(customers);
+        when(customerRepository.findAllWithCursor(any(), any())).thenReturn(cursor);
+        when(csvService.writeCustomerCsv(eq(cursor), any())).thenAnswer(writes(mockCsvData));
 
         // サービスメソッドを呼び出し
         Pageable pageable = PageRequest.of(0, 10);
-        byte[] csvData = customerService.exportCustomersToCSV(null, null, pageable);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        customerService.exportCustomersToCSV(null, null, pageable, out);
 
         // 検証
-        assertThat(csvData).isEqualTo(mockCsvData);
-        verify(customerRepository, times(1)).findAllWithSort(any(), any());
-        verify(csvService, times(1)).generateCustomerCsv(customers);
+        assertThat(out.toByteArray()).isEqualTo(mockCsvData);
+        verify(customerRepository, times(1)).findAllWithCursor(any(), any());
+        verify(csvService, times(1)).writeCustomerCsv(eq(cursor), any());
+        verify(cursor, times(1)).close();
     }
 
     @Test
     @DisplayName("exportCustomersToCSV: 検索条件でフィルタリングしてエクスポートできる")
-    void testExportCustomersToCSV_WithSearchConditions() {
+    void testExportCustomersToCSV_WithSearchConditions() throws Exception {
         // テストデータ
         List<Customer> customers = Arrays.asList(
             new Customer("alice@example.com", "password", "Alice", LocalDate.of(2023, 1, 1), LocalDate.of(1990, 1, 1), "111-1111", "Address1", Customer.Role.USER)
@@ -494,22 +608,25 @@ class CustomerServiceTest {
         byte[] mockCsvData = "CSV data".getBytes();
         
         // モックの動作を定義
-        when(customerRepository.searchWithSort(eq("Alice"), any(), any(), any())).thenReturn(customers);
-        when(csvService.generateCustomerCsv(customers)).thenReturn(mockCsvData);
+        Cursor<Customer> cursor = cursorOf(customers);
+        when(customerRepository.searchWithCursor(eq("Alice"), any(), any(), any(), any(), any())).thenReturn(cursor);
+        when(csvService.writeCustomerCsv(eq(cursor), any())).thenAnswer(writes(mockCsvData));
 
         // サービスメソッドを呼び出し
         Pageable pageable = PageRequest.of(0, 10);
-        byte[] csvData = customerService.exportCustomersToCSV("Alice", null, pageable);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        customerService.exportCustomersToCSV("Alice", null, pageable, out);
 
         // 検証
-        assertThat(csvData).isEqualTo(mockCsvData);
-        verify(customerRepository, times(1)).searchWithSort(eq("Alice"), any(), any(), any());
-        verify(csvService, times(1)).generateCustomerCsv(customers);
+        assertThat(out.toByteArray()).isEqualTo(mockCsvData);
+        verify(customerRepository, times(1)).searchWithCursor(eq("Alice"), any(), any(), any(), any(), any());
+        verify(csvService, times(1)).writeCustomerCsv(eq(cursor), any());
+        verify(cursor, times(1)).close();
     }
 
     @Test
     @DisplayName("exportCustomersToCSV: ソート順を適用してエクスポートできる")
-    void testExportCustomersToCSV_WithSorting() {
+    void testExportCustomersToCSV_WithSorting() throws Exception {
         // テストデータ（name ASC: Alice first, then Bob）
         List<Customer> customers = Arrays.asList(
             new Customer("alice@example.com", "password", "Alice", LocalDate.of(2023, 1, 1), LocalDate.of(1990, 1, 1), "111-1111", "Address1", Customer.Role.USER),
@@ -518,22 +635,25 @@ class CustomerServiceTest {
         byte[] mockCsvData = "CSV data".getBytes();
         
         // モックの動作を定義
-        when(customerRepository.findAllWithSort(any(), any())).thenReturn(customers);
-        when(csvService.generateCustomerCsv(customers)).thenReturn(mockCsvData);
+        Cursor<Customer> cursor = cursorOf(customers);
+        when(customerRepository.findAllWithCursor(any(), any())).thenReturn(cursor);
+        when(csvService.writeCustomerCsv(eq(cursor), any())).thenAnswer(writes(mockCsvData));
 
         // サービスメソッドを呼び出し（名前の昇順でソート）
         Pageable pageable = PageRequest.of(0, 10, org.springframework.data.domain.Sort.by("name").ascending());
-        byte[] csvData = customerService.exportCustomersToCSV(null, null, pageable);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        customerService.exportCustomersToCSV(null, null, pageable, out);
 
         // 検証
-        assertThat(csvData).isEqualTo(mockCsvData);
-        verify(customerRepository, times(1)).findAllWithSort(any(), any());
-        verify(csvService, times(1)).generateCustomerCsv(customers);
+        assertThat(out.toByteArray()).isEqualTo(mockCsvData);
+        verify(customerRepository, times(1)).findAllWithCursor(any(), any());
+        verify(csvService, times(1)).writeCustomerCsv(eq(cursor), any());
+        verify(cursor, times(1)).close();
     }
 
     @Test
     @DisplayName("exportCustomersToCSV: ダブルクォートを含むデータをエクスポートできる")
-    void testExportCustomersToCSV_EscapeDoubleQuotes() {
+    void testExportCustomersToCSV_EscapeDoubleQuotes() throws Exception {
         // テストデータ（ダブルクォートを含む名前）
         List<Customer> customers = Arrays.asList(
             new Customer("test@example.com", "password", "Test \"Name\"", LocalDate.of(2023, 1, 1), LocalDate.of(1990, 1, 1), "111-1111", "Address \"1\"", Customer.Role.USER)
@@ -541,22 +661,25 @@ class CustomerServiceTest {
         byte[] mockCsvData = "CSV data".getBytes();
         
         // モックの動作を定義
-        when(customerRepository.findAllWithSort(any(), any())).thenReturn(customers);
-        when(csvService.generateCustomerCsv(customers)).thenReturn(mockCsvData);
+        Cursor<Customer> cursor = cursorOf(customers);
+        when(customerRepository.findAllWithCursor(any(), any())).thenReturn(cursor);
+        when(csvService.writeCustomerCsv(eq(cursor), any())).thenAnswer(writes(mockCsvData));
 
         // サービスメソッドを呼び出し
         Pageable pageable = PageRequest.of(0, 10);
-        byte[] csvData = customerService.exportCustomersToCSV(null, null, pageable);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        customerService.exportCustomersToCSV(null, null, pageable, out);
 
         // 検証
-        assertThat(csvData).isEqualTo(mockCsvData);
-        verify(customerRepository, times(1)).findAllWithSort(any(), any());
-        verify(csvService, times(1)).generateCustomerCsv(customers);
+        assertThat(out.toByteArray()).isEqualTo(mockCsvData);
+        verify(customerRepository, times(1)).findAllWithCursor(any(), any());
+        verify(csvService, times(1)).writeCustomerCsv(eq(cursor), any());
+        verify(cursor, times(1)).close();
     }
 
     @Test
     @DisplayName("exportCustomersToCSV: 降順ソートを適用してエクスポートできる")
-    void testExportCustomersToCSV_WithDescendingSort() {
+    void testExportCustomersToCSV_WithDescendingSort() throws Exception {
         // テストデータ（name DESC: Bob first, then Alice）
         List<Customer> customers = Arrays.asList(
             new Customer("bob@example.com", "password", "Bob", LocalDate.of(2023, 2, 1), LocalDate.of(1992, 2, 2), "222-2222", "Address2", Customer.Role.USER),
@@ -565,22 +688,25 @@ class CustomerServiceTest {
         byte[] mockCsvData = "CSV data".getBytes();
         
         // モックの動作を定義
-        when(customerRepository.findAllWithSort(any(), any())).thenReturn(customers);
-        when(csvService.generateCustomerCsv(customers)).thenReturn(mockCsvData);
+        Cursor<Customer> cursor = cursorOf(customers);
+        when(customerRepository.findAllWithCursor(any(), any())).thenReturn(cursor);
+        when(csvService.writeCustomerCsv(eq(cursor), any())).thenAnswer(writes(mockCsvData));
 
         // サービスメソッドを呼び出し（名前の降順でソート）
         Pageable pageable = PageRequest.of(0, 10, org.springframework.data.domain.Sort.by("name").descending());
-        byte[] csvData = customerService.exportCustomersToCSV(null, null, pageable);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        customerService.exportCustomersToCSV(null, null, pageable, out);
 
         // 検証
-        assertThat(csvData).isEqualTo(mockCsvData);
-        verify(customerRepository, times(1)).findAllWithSort(any(), any());
-        verify(csvService, times(1)).generateCustomerCsv(customers);
+        assertThat(out.toByteArray()).isEqualTo(mockCsvData);
+        verify(customerRepository, times(1)).findAllWithCursor(any(), any());
+        verify(csvService, times(1)).writeCustomerCsv(eq(cursor), any());
+        verify(cursor, times(1)).close();
     }
 
     @Test
     @DisplayName("exportCustomersToCSV: emailでソートしてエクスポートできる")
-    void testExportCustomersToCSV_SortByEmail() {
+    void testExportCustomersToCSV_SortByEmail() throws Exception {
         // テストデータ（email ASC: alice@ first, then bob@）
         List<Customer> customers = Arrays.asList(
             new Customer("alice@example.com", "password", "Alice", LocalDate.of(2023, 1, 1), LocalDate.of(1990, 1, 1), "111-1111", "Address1", Customer.Role.USER),
@@ -589,22 +715,25 @@ class CustomerServiceTest {
         byte[] mockCsvData = "CSV data".getBytes();
         
         // モックの動作を定義
-        when(customerRepository.findAllWithSort(any(), any())).thenReturn(customers);
-        when(csvService.generateCustomerCsv(customers)).thenReturn(mockCsvData);
+        Cursor<Customer> cursor = cursorOf(customers);
+        when(customerRepository.findAllWithCursor(any(), any())).thenReturn(cursor);
+        when(csvService.writeCustomerCsv(eq(cursor), any())).thenAnswer(writes(mockCsvData));
 
         // サービスメソッドを呼び出し（emailの昇順でソート）
         Pageable pageable = PageRequest.of(0, 10, org.springframework.data.domain.Sort.by("email").ascending());
-        byte[] csvData = customerService.exportCustomersToCSV(null, null, pageable);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        customerService.exportCustomersToCSV(null, null, pageable, out);
 
         // 検証
-        assertThat(csvData).isEqualTo(mockCsvData);
-        verify(customerRepository, times(1)).findAllWithSort(any(), any());
-        verify(csvService, times(1)).generateCustomerCsv(customers);
+        assertThat(out.toByteArray()).isEqualTo(mockCsvData);
+        verify(customerRepository, times(1)).findAllWithCursor(any(), any());
+        verify(csvService, times(1)).writeCustomerCsv(eq(cursor), any());
+        verify(cursor, times(1)).close();
     }
 
     @Test
     @DisplayName("exportCustomersToCSV: birthDateでソートしてエクスポートできる")
-    void testExportCustomersToCSV_SortByBirthDate() {
+    void testExportCustomersToCSV_SortByBirthDate() throws Exception {
         // テストデータ（birth_date ASC: Alice (1990) first, then Bob (1992)）
         List<Customer> customers = Arrays.asList(
             new Customer("alice@example.com", "password", "Alice", LocalDate.of(2023, 1, 1), LocalDate.of(1990, 1, 1), "111-1111", "Address1", Customer.Role.USER),
@@ -613,22 +742,25 @@ class CustomerServiceTest {
         byte[] mockCsvData = "CSV data".getBytes();
         
         // モックの動作を定義
-        when(customerRepository.findAllWithSort(any(), any())).thenReturn(customers);
-        when(csvService.generateCustomerCsv(customers)).thenReturn(mockCsvData);
+        Cursor<Customer> cursor = cursorOf(customers);
+        when(customerRepository.findAllWithCursor(any(), any())).thenReturn(cursor);
+        when(csvService.writeCustomerCsv(eq(cursor), any())).thenAnswer(writes(mockCsvData));
 
         // サービスメソッドを呼び出し（生年月日の昇順でソート）
         Pageable pageable = PageRequest.of(0, 10, org.springframework.data.domain.Sort.by("birthDate").ascending());
-        byte[] csvData = customerService.exportCustomersToCSV(null, null, pageable);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        customerService.exportCustomersToCSV(null, null, pageable, out);
 
         // 検証
-        assertThat(csvData).isEqualTo(mockCsvData);
-        verify(customerRepository, times(1)).findAllWithSort(any(), any());
-        verify(csvService, times(1)).generateCustomerCsv(customers);
+        assertThat(out.toByteArray()).isEqualTo(mockCsvData);
+        verify(customerRepository, times(1)).findAllWithCursor(any(), any());
+        verify(csvService, times(1)).writeCustomerCsv(eq(cursor), any());
+        verify(cursor, times(1)).close();
     }
 
     @Test
     @DisplayName("exportCustomersToCSV: 未知のプロパティでソートした場合はregistrationDateでソートされる")
-    void testExportCustomersToCSV_SortByUnknownProperty() {
+    void testExportCustomersToCSV_SortByUnknownProperty() throws Exception {
         // テストデータ（unknown property with ASC defaults to registration_date ASC: Alice (Jan) first, then Bob (Feb)）
         List<Customer> customers = Arrays.asList(
             new Customer("alice@example.com", "password", "Alice", LocalDate.of(2023, 1, 1), LocalDate.of(1990, 1, 1), "111-1111", "Address1", Customer.Role.USER),
@@ -637,22 +769,25 @@ class CustomerServiceTest {
         byte[] mockCsvData = "CSV data".getBytes();
         
         // モックの動作を定義
-        when(customerRepository.findAllWithSort(any(), any())).thenReturn(customers);
-        when(csvService.generateCustomerCsv(customers)).thenReturn(mockCsvData);
+        Cursor<Customer> cursor = cursorOf(customers);
+        when(customerRepository.findAllWithCursor(any(), any())).thenReturn(cursor);
+        when(csvService.writeCustomerCsv(eq(cursor), any())).thenAnswer(writes(mockCsvData));
 
         // サービスメソッドを呼び出し（未知のプロパティでソート）
         Pageable pageable = PageRequest.of(0, 10, org.springframework.data.domain.Sort.by("unknownProperty").ascending());
-        byte[] csvData = customerService.exportCustomersToCSV(null, null, pageable);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        customerService.exportCustomersToCSV(null, null, pageable, out);
 
         // 検証
-        assertThat(csvData).isEqualTo(mockCsvData);
-        verify(customerRepository, times(1)).findAllWithSort(any(), any());
-        verify(csvService, times(1)).generateCustomerCsv(customers);
+        assertThat(out.toByteArray()).isEqualTo(mockCsvData);
+        verify(customerRepository, times(1)).findAllWithCursor(any(), any());
+        verify(csvService, times(1)).writeCustomerCsv(eq(cursor), any());
+        verify(cursor, times(1)).close();
     }
 
     @Test
     @DisplayName("exportCustomersToCSV: registrationDateでソートしてエクスポートできる")
-    void testExportCustomersToCSV_SortByRegistrationDate() {
+    void testExportCustomersToCSV_SortByRegistrationDate() throws Exception {
         // テストデータ（registration_date ASC: Alice (Jan) first, then Bob (Feb)）
         List<Customer> customers = Arrays.asList(
             new Customer("alice@example.com", "password", "Alice", LocalDate.of(2023, 1, 1), LocalDate.of(1990, 1, 1), "111-1111", "Address1", Customer.Role.USER),
@@ -661,22 +796,25 @@ class CustomerServiceTest {
         byte[] mockCsvData = "CSV data".getBytes();
         
         // モックの動作を定義
-        when(customerRepository.findAllWithSort(any(), any())).thenReturn(customers);
-        when(csvService.generateCustomerCsv(customers)).thenReturn(mockCsvData);
+        Cursor<Customer> cursor = cursorOf(customers);
+        when(customerRepository.findAllWithCursor(any(), any())).thenReturn(cursor);
+        when(csvService.writeCustomerCsv(eq(cursor), any())).thenAnswer(writes(mockCsvData));
 
         // サービスメソッドを呼び出し（登録日の昇順でソート）
         Pageable pageable = PageRequest.of(0, 10, org.springframework.data.domain.Sort.by("registrationDate").ascending());
-        byte[] csvData = customerService.exportCustomersToCSV(null, null, pageable);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        customerService.exportCustomersToCSV(null, null, pageable, out);
 
         // 検証
-        assertThat(csvData).isEqualTo(mockCsvData);
-        verify(customerRepository, times(1)).findAllWithSort(any(), any());
-        verify(csvService, times(1)).generateCustomerCsv(customers);
+        assertThat(out.toByteArray()).isEqualTo(mockCsvData);
+        verify(customerRepository, times(1)).findAllWithCursor(any(), any());
+        verify(csvService, times(1)).writeCustomerCsv(eq(cursor), any());
+        verify(cursor, times(1)).close();
     }
 
     @Test
     @DisplayName("exportCustomersToCSV: emailのみで検索してエクスポートできる")
-    void testExportCustomersToCSV_WithEmailOnly() {
+    void testExportCustomersToCSV_WithEmailOnly() throws Exception {
         // テストデータ
         List<Customer> customers = Arrays.asList(
             new Customer("alice@example.com", "password", "Alice", LocalDate.of(2023, 1, 1), LocalDate.of(1990, 1, 1), "111-1111", "Address1", Customer.Role.USER)
@@ -684,22 +822,25 @@ class CustomerServiceTest {
         byte[] mockCsvData = "CSV data".getBytes();
         
         // モックの動作を定義
-        when(customerRepository.searchWithSort(any(), eq("alice@example.com"), any(), any())).thenReturn(customers);
-        when(csvService.generateCustomerCsv(customers)).thenReturn(mockCsvData);
+        Cursor<Customer> cursor = cursorOf(customers);
+        when(customerRepository.searchWithCursor(any(), any(), eq("alice@example.com"), any(), any(), any())).thenReturn(cursor);
+        when(csvService.writeCustomerCsv(eq(cursor), any())).thenAnswer(writes(mockCsvData));
 
         // サービスメソッドを呼び出し
         Pageable pageable = PageRequest.of(0, 10);
-        byte[] csvData = customerService.exportCustomersToCSV(null, "alice@example.com", pageable);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        customerService.exportCustomersToCSV(null, "alice@example.com", pageable, out);
 
         // 検証
-        assertThat(csvData).isEqualTo(mockCsvData);
-        verify(customerRepository, times(1)).searchWithSort(any(), eq("alice@example.com"), any(), any());
-        verify(csvService, times(1)).generateCustomerCsv(customers);
+        assertThat(out.toByteArray()).isEqualTo(mockCsvData);
+        verify(customerRepository, times(1)).searchWithCursor(any(), any(), eq("alice@example.com"), any(), any(), any());
+        verify(csvService, times(1)).writeCustomerCsv(eq(cursor), any());
+        verify(cursor, times(1)).close();
     }
 
     @Test
     @DisplayName("exportCustomersToCSV: nameとemailの両方で検索してエクスポートできる")
-    void testExportCustomersToCSV_WithBothNameAndEmail() {
+    void testExportCustomersToCSV_WithBothNameAndEmail() throws Exception {
         // テストデータ
         List<Customer> customers = Arrays.asList(
             new Customer("alice@example.com", "password", "Alice", LocalDate.of(2023, 1, 1), LocalDate.of(1990, 1, 1), "111-1111", "Address1", Customer.Role.USER)
@@ -707,16 +848,44 @@ class CustomerServiceTest {
         byte[] mockCsvData = "CSV data".getBytes();
         
         // モックの動作を定義
-        when(customerRepository.searchWithSort(eq("Alice"), eq("alice@example.com"), any(), any())).thenReturn(customers);
-        when(csvService.generateCustomerCsv(customers)).thenReturn(mockCsvData);
+        Cursor<Customer> cursor = cursorOf(customers);
+        when(customerRepository.searchWithCursor(eq("Alice"), any(), eq("alice@example.com"), any(), any(), any())).thenReturn(cursor);
+        when(csvService.writeCustomerCsv(eq(cursor), any())).thenAnswer(writes(mockCsvData));
 
         // サービスメソッドを呼び出し
         Pageable pageable = PageRequest.of(0, 10);
-        byte[] csvData = customerService.exportCustomersToCSV("Alice", "alice@example.com", pageable);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        customerService.exportCustomersToCSV("Alice", "alice@example.com", pageable, out);
 
         // 検証
-        assertThat(csvData).isEqualTo(mockCsvData);
-        verify(customerRepository, times(1)).searchWithSort(eq("Alice"), eq("alice@example.com"), any(), any());
-        verify(csvService, times(1)).generateCustomerCsv(customers);
+        assertThat(out.toByteArray()).isEqualTo(mockCsvData);
+        verify(customerRepository, times(1)).searchWithCursor(eq("Alice"), any(), eq("alice@example.com"), any(), any(), any());
+        verify(csvService, times(1)).writeCustomerCsv(eq(cursor), any());
+        verify(cursor, times(1)).close();
+    }
+
+    // ========================================
+    // ヘルパーメソッド
+    // ========================================
+
+    /**
+     * リストを返すCursorのモックを生成
+     */
+    @SuppressWarnings("unchecked")
+    private Cursor<Customer> cursorOf(List<Customer> customers) {
+        Cursor<Customer> cursor = mock(Cursor.class);
+        when(cursor.iterator()).thenReturn(customers.iterator());
+        return cursor;
+    }
+
+    /**
+     * 出力ストリームに指定データを書き込むAnswerを生成
+     */
+    private Answer<Long> writes(byte[] data) {
+        return invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write(data);
+            return 1L;
+        };
     }
 }
@@ -0,0 +1,66 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.model.Customer;
+import io.github.yoshikawaa.example.ai_sample.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.customer-search.email-key-limit=2")
+@Transactional
+@DisplayName("EmailKeyResolver のテスト")
+class EmailKeyResolverTest {
+
+    @Autowired
+    private EmailKeyResolver emailKeyResolver;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerSearchIndexService customerSearchIndexService;
+
+    @BeforeEach
+    void setUp() {
+        for (String email : new String[]{"resolver.alpha@example.com", "resolver.beta@example.com", "keys.gamma@example.com"}) {
+            Customer customer = new Customer(email, "password", "Resolver Test", LocalDate.now(),
+                LocalDate.of(1990, 1, 1), "000-0000-0000", "Test Address", Customer.Role.USER);
+            customerRepository.insert(customer);
+            customerSearchIndexService.index(customer);
+        }
+    }
+
+    @Test
+    @DisplayName("resolve: メールアドレスの一部に一致する顧客のメールアドレスに変換する")
+    void testResolve() {
+        assertThat(emailKeyResolver.resolve("resolver."))
+            .containsExactly("resolver.alpha@example.com", "resolver.beta@example.com");
+        assertThat(emailKeyResolver.resolve("gamma@")).containsExactly("keys.gamma@example.com");
+    }
+
+    @Test
+    @DisplayName("resolve: 一致する顧客がいない場合は空のリストを返す")
+    void testResolve_NoMatch() {
+        assertThat(emailKeyResolver.resolve("no-such-customer")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("resolve: 未指定の場合はnullを返す")
+    void testResolve_Blank() {
+        assertThat(emailKeyResolver.resolve(null)).isNull();
+        assertThat(emailKeyResolver.resolve("")).isNull();
+    }
+
+    @Test
+    @DisplayName("resolve: 一致件数が上限を超える場合は部分一致で検索するためnullを返す")
+    void testResolve_OverLimit() {
+        assertThat(emailKeyResolver.resolve("example.com")).isNull();
+    }
+}
@@ -2,6 +2,8 @@ package io.github.yoshikawaa.example.ai_sample.service;
 
 import com.icegreen.greenmail.util.GreenMail;
 import com.icegreen.greenmail.util.ServerSetup;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
 import jakarta.mail.internet.MimeMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,6 +17,9 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -78,17 +83,39 @@ class EmailServiceTest {
     }
 
     @Test
-    @DisplayName("sendEmail: HTMLメールとして送信される（setText の第2引数が true）")
-    void testSendEmail_HTML形式の確認() {
+    @DisplayName("sendEmail: HTMLタグを含む本文（顧客の入力値など）も text/html にせず text/plain で送信される")
+    void testSendEmail_HTML形式の確認() throws Exception {
         // Arrange
-        doNothing().when(mailSender).send(any(MimeMessage.class));
+        MimeMessage message = new MimeMessage((Session) null);
+        when(mailSender.createMimeMessage()).thenReturn(message);
 
-        // Act & Assert
-        assertThatCode(() -> emailService.sendEmail("test@example.com", "HTMLメール", "<h1>HTML本文</h1>"))
-            .doesNotThrowAnyException();
-        
-        verify(mailSender).createMimeMessage();
-        verify(mailSender).send(mimeMessage);
+        // Act
+        boolean result = emailService.sendEmail("test@example.com", "HTMLメール", "<h1>HTML本文</h1>");
+
+        // Assert
+        assertThat(result).isTrue();
+        message.saveChanges();
+        assertThat(message.getContentType()).startsWith("text/plain").contains("UTF-8");
+        assertThat(message.getContent()).isEqualTo("<h1>HTML本文</h1>");
+        verify(mailSender).send(message);
+    }
+
+    @Test
+    @DisplayName("sendEmail: テキストの本文はマルチパートにせず text/plain で送信される")
+    void testSendEmail_テキスト形式の確認() throws Exception {
+        // Arrange
+        MimeMessage message = new MimeMessage((Session) null);
+        when(mailSender.createMimeMessage()).thenReturn(message);
+
+        // Act
+        boolean result = emailService.sendEmail("test@example.com", "テキストメール", "1 < 2 の本文\n改行あり");
+
+        // Assert
+        assertThat(result).isTrue();
+        message.saveChanges();
+        assertThat(message.getContentType()).startsWith("text/plain").contains("UTF-8");
+        assertThat(message.getContent()).isEqualTo("1 < 2 の本文\n改行あり");
+        verify(mailSender).send(message);
     }
 
     @Test
@@ -167,4 +194,58 @@ class EmailServiceTest {
         verify(mailSender).createMimeMessage();
         verify(mailSender).send(mimeMessage);
     }
+
+    @Test
+    @DisplayName("sendEmails: 複数のメールを1回の送信でまとめて送信する")
+    void testSendEmails_一括送信() {
+        // Arrange
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> mock(MimeMessage.class));
+
+        // Act
+        boolean[] results = emailService.sendEmails(List.of(
+            new EmailService.EmailMessage("user1@example.com", "件名1", "本文1"),
+            new EmailService.EmailMessage("user2@example.com", "件名2", "本文2"),
+            new EmailService.EmailMessage("user3@example.com", "件名3", "本文3")));
+
+        // Assert
+        assertThat(results).containsExactly(true, true, true);
+        verify(mailSender, times(3)).createMimeMessage();
+        verify(mailSender, times(1)).send(any(MimeMessage[].class));
+    }
+
+    @Test
+    @DisplayName("sendEmails: 一部のメールの送信に失敗した場合、失敗したメールのみ false を返す")
+    void testSendEmails_一部失敗() {
+        // Arrange
+        MimeMessage first = mock(MimeMessage.class);
+        MimeMessage second = mock(MimeMessage.class);
+        when(mailSender.createMimeMessage()).thenReturn(first, second);
+        doThrow(new MailSendException(Map.of(second, new MessagingException("宛先エラー"))))
+                .when(mailSender).send(any(MimeMessage[].class));
+
+        // Act
+        boolean[] results = emailService.sendEmails(List.of(
+            new EmailService.EmailMessage("user1@example.com", "件名1", "本文1"),
+            new EmailService.EmailMessage("user2@example.com", "件名2", "本文2")));
+
+        // Assert
+        assertThat(results).containsExactly(true, false);
+    }
+
+    @Test
+    @DisplayName("sendEmails: 接続に失敗した場合、すべて false を返す")
+    void testSendEmails_接続失敗() {
+        // Arrange
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> mock(MimeMessage.class));
+        doThrow(new MailSendException("SMTP接続エラー"))
+                .when(mailSender).send(any(MimeMessage[].class));
+
+        // Act
+        boolean[] results = emailService.sendEmails(List.of(
+            new EmailService.EmailMessage("user1@example.com", "件名1", "本文1"),
+            new EmailService.EmailMessage("user2@example.com", "件名2", "本文2")));
+
+        // Assert
+        assertThat(results).containsExactly(false, false);
+    }
 }
@@ -0,0 +1,43 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.repository.AccountUnlockTokenRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.PasswordResetTokenRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "app.security.token-purge.chunk-size=2")
+@DisplayName("ExpiredTokenPurgeService のテスト")
+class ExpiredTokenPurgeServiceTest {
+
+    @Autowired
+    private ExpiredTokenPurgeService expiredTokenPurgeService;
+
+    @MockitoBean
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @MockitoBean
+    private AccountUnlockTokenRepository accountUnlockTokenRepository;
+
+    @Test
+    @DisplayName("purge: 削除件数がchunk-sizeに満たなくなるまで繰り返し削除する")
+    void testPurge() {
+        when(passwordResetTokenRepository.deleteExpired(anyLong(), eq(2))).thenReturn(2, 2, 1);
+        when(accountUnlockTokenRepository.deleteExpired(anyLong(), eq(2))).thenReturn(0);
+
+        int purged = expiredTokenPurgeService.purge();
+
+        assertThat(purged).isEqualTo(5);
+        verify(passwordResetTokenRepository, times(3)).deleteExpired(anyLong(), eq(2));
+        verify(accountUnlockTokenRepository, times(1)).deleteExpired(anyLong(), eq(2));
+    }
+}
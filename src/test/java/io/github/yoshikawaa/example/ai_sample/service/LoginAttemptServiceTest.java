@@ -1,20 +1,24 @@
-
 package io.github.yoshikawaa.example.ai_sample.service;
 
 import static org.mockito.ArgumentMatchers.any;
-import org.junit.jupiter.api.BeforeEach;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
-import static org.mockito.Mockito.doAnswer;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -37,109 +41,120 @@ class LoginAttemptServiceTest {
         @MockitoBean
         private LoginAttemptRepository loginAttemptRepository;
 
+        // 通知メールの送信を抑止
         @MockitoBean
-        private EmailService emailService;
-
-        @MockitoBean
-        private NotificationHistoryService notificationHistoryService;
+        private NotificationDispatcher notificationDispatcher;
 
         @Autowired
         private LoginAttemptService loginAttemptService;
 
-        @BeforeEach
-        void setUpEmailService() {
-            // EmailServiceのメール送信を抑止（booleanを返すメソッドなのでwhenを使用）
-            when(emailService.sendEmail(any(), any(), any())).thenReturn(true);
-        }
+        @Autowired
+        private LoginAttemptTracker loginAttemptTracker;
+
+        // ========================================
+        // ログイン失敗の記録
+        // ========================================
 
         @Test
         @DisplayName("handleFailedLoginAttempt: 初回失敗でログイン試行を記録できる")
         void testHandleFailedLoginAttempt_FirstTime() {
             // Given
-            String email = "test@example.com";
-            when(loginAttemptRepository.findByEmail(email)).thenReturn(Optional.empty());
+            String email = "first@example.com";
 
             // When
-            loginAttemptService.handleFailedLoginAttempt(email);
+            boolean locked = loginAttemptService.handleFailedLoginAttempt(email);
 
-            // Then
-            verify(loginAttemptRepository, times(1)).insert(any(LoginAttempt.class));
+            // Then: DBは参照せず、試行記録を反映する
+            assertThat(locked).isFalse();
+            LoginAttempt persisted = captureUpsert();
+            assertThat(persisted.getEmail()).isEqualTo(email);
+            assertThat(persisted.getAttemptCount()).isEqualTo(1);
+            assertThat(persisted.getLockedUntil()).isNull();
+            verify(loginAttemptRepository, never()).findByEmail(anyString());
         }
 
         @Test
         @DisplayName("handleFailedLoginAttempt: 2回目以降の失敗でカウントを増やす")
         void testHandleFailedLoginAttempt_Increment() {
             // Given
-            String email = "test@example.com";
-            LoginAttempt existingAttempt = new LoginAttempt();
-            existingAttempt.setEmail(email);
-            existingAttempt.setAttemptCount(2);
-            existingAttempt.setLockedUntil(null);
-            existingAttempt.setLastAttemptTime(System.currentTimeMillis());
-            when(loginAttemptRepository.findByEmail(email)).thenReturn(Optional.of(existingAttempt));
+            String email = "increment@example.com";
+            loginAttemptService.handleFailedLoginAttempt(email);
 
             // When
             loginAttemptService.handleFailedLoginAttempt(email);
 
             // Then
-            verify(loginAttemptRepository, times(1)).update(any(LoginAttempt.class));
+            ArgumentCaptor<LoginAttempt> captor = ArgumentCaptor.forClass(LoginAttempt.class);
+            verify(loginAttemptRepository, times(2)).upsert(captor.capture());
+            assertThat(captor.getAllValues().get(1).getAttemptCount()).isEqualTo(2);
         }
 
         @Test
         @DisplayName("handleFailedLoginAttempt: 5回目の失敗でアカウントロックする")
         void testHandleFailedLoginAttempt_Lock() {
             // Given
-            String email = "test@example.com";
-            LoginAttempt existingAttempt = new LoginAttempt();
-            existingAttempt.setEmail(email);
-            existingAttempt.setAttemptCount(4);
-            existingAttempt.setLockedUntil(null);
-            existingAttempt.setLastAttemptTime(System.currentTimeMillis());
-            when(loginAttemptRepository.findByEmail(email)).thenReturn(Optional.of(existingAttempt));
-
-            // 顧客情報のスタブ
+            String email = "lock@example.com";
             Customer mockCustomer = new Customer();
             mockCustomer.setEmail(email);
             mockCustomer.setName("Test User");
             when(customerService.getCustomerByEmail(email)).thenReturn(mockCustomer);
+            for (int i = 0; i < 4; i++) {
+                assertThat(loginAttemptService.handleFailedLoginAttempt(email)).isFalse();
+            }
 
             // When
-            loginAttemptService.handleFailedLoginAttempt(email);
+            boolean locked = loginAttemptService.handleFailedLoginAttempt(email);
 
             // Then
-            verify(loginAttemptRepository, times(1)).update(any(LoginAttempt.class));
+            assertThat(locked).isTrue();
+            assertThat(loginAttemptService.isLocked(email)).isTrue();
+            verify(customerService, times(1)).getCustomerByEmail(email);
+            ArgumentCaptor<LoginAttempt> captor = ArgumentCaptor.forClass(LoginAttempt.class);
+            verify(loginAttemptRepository, times(5)).upsert(captor.capture());
+            assertThat(captor.getValue().getAttemptCount()).isEqualTo(5);
+            assertThat(captor.getValue().getLockedUntil()).isGreaterThan(System.currentTimeMillis());
         }
 
+        @Test
+        @DisplayName("handleFailedLoginAttempt: 保持期間を過ぎた失敗回数はリセットされる")
+        void testHandleFailedLoginAttempt_WindowExpired() {
+            // Given: 31分前に4回失敗
+            String email = "window@example.com";
+            loginAttemptTracker.put(email, 4, System.currentTimeMillis() - 31 * 60 * 1000L, 0L);
+
+            // When
+            boolean locked = loginAttemptService.handleFailedLoginAttempt(email);
+
+            // Then
+            assertThat(locked).isFalse();
+            assertThat(captureUpsert().getAttemptCount()).isEqualTo(1);
+        }
+
+        // ========================================
+        // ロック判定
+        // ========================================
+
         @Test
         @DisplayName("isLocked: ロック中の場合trueを返す")
         void testIsLocked_Locked() {
             // Given
-            String email = "test@example.com";
-            LoginAttempt lockedAttempt = new LoginAttempt();
-            lockedAttempt.setEmail(email);
-            lockedAttempt.setAttemptCount(5);
-            lockedAttempt.setLockedUntil(System.currentTimeMillis() + 1000000); // 未来の時刻
-            lockedAttempt.setLastAttemptTime(System.currentTimeMillis());
-            when(loginAttemptRepository.findByEmail(email)).thenReturn(Optional.of(lockedAttempt));
+            String email = "locked@example.com";
+            loginAttemptTracker.put(email, 5, System.currentTimeMillis(), System.currentTimeMillis() + 1000000);
 
             // When
             boolean isLocked = loginAttemptService.isLocked(email);
 
-            // Then
+            // Then: DBは参照しない
             assertThat(isLocked).isTrue();
+            verify(loginAttemptRepository, never()).findByEmail(anyString());
         }
 
         @Test
         @DisplayName("isLocked: ロック期間が過ぎた場合falseを返す")
         void testIsLocked_Expired() {
             // Given
-            String email = "test@example.com";
-            LoginAttempt expiredAttempt = new LoginAttempt();
-            expiredAttempt.setEmail(email);
-            expiredAttempt.setAttemptCount(5);
-            expiredAttempt.setLockedUntil(System.currentTimeMillis() - 1000); // 過去の時刻
-            expiredAttempt.setLastAttemptTime(System.currentTimeMillis());
-            when(loginAttemptRepository.findByEmail(email)).thenReturn(Optional.of(expiredAttempt));
+            String email = "expired@example.com";
+            loginAttemptTracker.put(email, 5, System.currentTimeMillis(), System.currentTimeMillis() - 1000); // 過去の時刻
 
             // When
             boolean isLocked = loginAttemptService.isLocked(email);
@@ -148,51 +163,74 @@ class LoginAttemptServiceTest {
             assertThat(isLocked).isFalse();
         }
 
+        @Test
+        @DisplayName("isLocked: メモリにもDBにも試行記録がない場合falseを返す")
+        void testIsLocked_NoRecord() {
+            // When
+            boolean isLocked = loginAttemptService.isLocked("norecord@example.com");
+
+            // Then
+            assertThat(isLocked).isFalse();
+            verify(loginAttemptRepository, times(1)).findByEmail("norecord@example.com");
+            assertThat(loginAttemptTracker.snapshot("norecord@example.com")).isEmpty();
+        }
 
         @Test
-        @DisplayName("isLocked: lockedUntilがnullの場合falseを返す")
-        void testIsLocked_LockedUntilNull() {
+        @DisplayName("isLocked: メモリに記録がない場合、他のノードで設定されたロックをDBから読み込む")
+        void testIsLocked_LockedOnOtherNode() {
             // Given
-            String email = "test@example.com";
-            LoginAttempt attempt = new LoginAttempt();
-            attempt.setEmail(email);
-            attempt.setAttemptCount(3);
-            attempt.setLockedUntil(null);
-            attempt.setLastAttemptTime(System.currentTimeMillis());
-            when(loginAttemptRepository.findByEmail(email)).thenReturn(Optional.of(attempt));
+            String email = "othernode@example.com";
+            long now = System.currentTimeMillis();
+            when(loginAttemptRepository.findByEmail(email))
+                .thenReturn(Optional.of(new LoginAttempt(email, 5, now + 600_000, now)));
 
             // When
             boolean isLocked = loginAttemptService.isLocked(email);
 
-            // Then
-            assertThat(isLocked).isFalse();
+            // Then: 以降の失敗はDBの失敗回数に続けて数える
+            assertThat(isLocked).isTrue();
+            assertThat(loginAttemptTracker.snapshot(email).orElseThrow().getAttemptCount()).isEqualTo(5);
         }
 
+        // ========================================
+        // リセット
+        // ========================================
+
         @Test
         @DisplayName("resetAttempts: ログイン試行記録を削除する")
         void testResetAttempts() {
             // Given
-            String email = "test@example.com";
+            String email = "reset@example.com";
+            loginAttemptService.handleFailedLoginAttempt(email);
 
             // When
             loginAttemptService.resetAttempts(email);
 
             // Then
             verify(loginAttemptRepository, times(1)).deleteByEmail(email);
+            assertThat(loginAttemptTracker.snapshot(email)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("resetAttempts: 試行記録がない場合はDBにアクセスしない")
+        void testResetAttempts_NoRecord() {
+            // When
+            loginAttemptService.resetAttempts("noattempt@example.com");
+
+            // Then
+            verify(loginAttemptRepository, never()).deleteByEmail(anyString());
         }
 
+        // ========================================
+        // ロック期限の表示
+        // ========================================
 
         @Test
-        @DisplayName("getLockedUntilFormatted: lockedUntilがnullの場合nullを返す")
+        @DisplayName("getLockedUntilFormatted: ロックされていない場合nullを返す")
         void testGetLockedUntilFormatted_LockedUntilNull() {
             // Given
-            String email = "test@example.com";
-            LoginAttempt attempt = new LoginAttempt();
-            attempt.setEmail(email);
-            attempt.setAttemptCount(3);
-            attempt.setLockedUntil(null);
-            attempt.setLastAttemptTime(System.currentTimeMillis());
-            when(loginAttemptRepository.findByEmail(email)).thenReturn(Optional.of(attempt));
+            String email = "notlocked@example.com";
+            loginAttemptTracker.put(email, 3, System.currentTimeMillis(), 0L);
 
             // When
             String formattedTime = loginAttemptService.getLockedUntilFormatted(email);
@@ -205,14 +243,9 @@ class LoginAttemptServiceTest {
         @DisplayName("getLockedUntilFormatted: lockedUntilが設定されている場合、日付文字列を返す")
         void testGetLockedUntilFormatted_ReturnsFormattedString() {
             // Given
-            String email = "test@example.com";
+            String email = "formatted@example.com";
             long lockedUntil = System.currentTimeMillis() + 3600_000; // 1時間後
-            LoginAttempt attempt = new LoginAttempt();
-            attempt.setEmail(email);
-            attempt.setAttemptCount(3);
-            attempt.setLockedUntil(lockedUntil);
-            attempt.setLastAttemptTime(System.currentTimeMillis());
-            when(loginAttemptRepository.findByEmail(email)).thenReturn(Optional.of(attempt));
+            loginAttemptTracker.put(email, 3, System.currentTimeMillis(), lockedUntil);
 
             // When
             String formattedTime = loginAttemptService.getLockedUntilFormatted(email);
@@ -223,54 +256,81 @@ class LoginAttemptServiceTest {
             assertThat(formattedTime).matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}");
         }
 
+        // ========================================
+        // 管理者によるロック・解除
+        // ========================================
+
         @Test
-        @DisplayName("lockAccountByAdmin: 既存レコードがない場合、新規レコードを作成してロックする")
-        void testLockAccountByAdmin_NewRecord() {
+        @DisplayName("lockAccountByAdmin: 1年間のロックを設定して反映する")
+        void testLockAccountByAdmin() {
             // Given
-            String email = "newuser@example.com";
-            when(loginAttemptRepository.findByEmail(email)).thenReturn(Optional.empty());
+            String email = "adminlock@example.com";
 
             // When
             loginAttemptService.lockAccountByAdmin(email);
 
             // Then
-            verify(loginAttemptRepository, times(1)).insert(any(LoginAttempt.class));
-            verify(loginAttemptRepository, times(0)).update(any(LoginAttempt.class));
+            assertThat(loginAttemptService.isLocked(email)).isTrue();
+            LoginAttempt persisted = captureUpsert();
+            assertThat(persisted.getAttemptCount()).isEqualTo(5);
+            assertThat(persisted.getLockedUntil()).isGreaterThan(System.currentTimeMillis() + 364L * 24 * 60 * 60 * 1000);
         }
 
         @Test
-        @DisplayName("lockAccountByAdmin: 既存レコードがある場合、更新してロックする")
-        void testLockAccountByAdmin_ExistingRecord() {
+        @DisplayName("unlockAccountByAdmin: アカウントロックを解除する")
+        void testUnlockAccountByAdmin() {
             // Given
-            String email = "existinguser@example.com";
-            LoginAttempt existingAttempt = new LoginAttempt();
-            existingAttempt.setEmail(email);
-            existingAttempt.setAttemptCount(2);
-            existingAttempt.setLockedUntil(null);
-            existingAttempt.setLastAttemptTime(System.currentTimeMillis());
-            when(loginAttemptRepository.findByEmail(email)).thenReturn(Optional.of(existingAttempt));
+            String email = "lockeduser@example.com";
+            loginAttemptService.lockAccountByAdmin(email);
 
             // When
-            loginAttemptService.lockAccountByAdmin(email);
+            loginAttemptService.unlockAccountByAdmin(email);
 
             // Then
-            verify(loginAttemptRepository, times(0)).insert(any(LoginAttempt.class));
-            verify(loginAttemptRepository, times(1)).update(any(LoginAttempt.class));
+            assertThat(loginAttemptService.isLocked(email)).isFalse();
+            verify(loginAttemptRepository, times(1)).deleteByEmail(email);
         }
 
+        // ========================================
+        // 失効・読み込み
+        // ========================================
+
         @Test
-        @DisplayName("unlockAccountByAdmin: アカウントロックを解除する")
-        void testUnlockAccountByAdmin() {
+        @DisplayName("evictExpiredAttempts: 失効した試行記録をメモリとDBから破棄する")
+        void testEvictExpiredAttempts() {
             // Given
-            String email = "lockeduser@example.com";
+            String email = "evict@example.com";
+            loginAttemptTracker.put(email, 2, System.currentTimeMillis() - 31 * 60 * 1000L, 0L);
 
             // When
-            loginAttemptService.unlockAccountByAdmin(email);
+            loginAttemptService.evictExpiredAttempts();
 
             // Then
+            assertThat(loginAttemptTracker.snapshot(email)).isEmpty();
             verify(loginAttemptRepository, times(1)).deleteByEmail(email);
         }
 
+        @Test
+        @DisplayName("afterSingletonsInstantiated: 起動時にDBの有効な試行記録を読み込む")
+        void testLoadOnStartup() {
+            // Given
+            String email = "restart@example.com";
+            long lockedUntil = System.currentTimeMillis() + 600_000;
+            when(loginAttemptRepository.findActive(anyLong(), anyLong()))
+                .thenReturn(List.of(new LoginAttempt(email, 5, lockedUntil, System.currentTimeMillis())));
+
+            // When
+            loginAttemptTracker.afterSingletonsInstantiated();
+
+            // Then
+            assertThat(loginAttemptService.isLocked(email)).isTrue();
+        }
+
+        private LoginAttempt captureUpsert() {
+            ArgumentCaptor<LoginAttempt> captor = ArgumentCaptor.forClass(LoginAttempt.class);
+            verify(loginAttemptRepository).upsert(captor.capture());
+            return captor.getValue();
+        }
     }
 
     @Nested
@@ -288,47 +348,20 @@ class LoginAttemptServiceTest {
         @MockitoBean
         private LoginAttemptRepository loginAttemptRepository;
 
+        // 通知メールの送信を抑止
         @MockitoBean
-        private EmailService emailService;
-
-        @MockitoBean
-        private NotificationHistoryService notificationHistoryService;
+        private NotificationDispatcher notificationDispatcher;
 
         @Autowired
         private LoginAttemptService loginAttemptService;
 
-        @BeforeEach
-        void setUpEmailService() {
-            // EmailServiceのメール送信を抑止（booleanを返すメソッドなのでwhenを使用）
-            when(emailService.sendEmail(any(), any(), any())).thenReturn(true);
-        }
+        @Autowired
+        private LoginAttemptTracker loginAttemptTracker;
 
         @Test
         @DisplayName("max値を変更した場合、その回数でロックされることを検証する")
         void testHandleFailedLoginAttempt_LockThresholdChange() {
             String email = "lock3@example.com";
-            final LoginAttempt[] currentAttempt = {null};
-            // findByEmailの挙動を模擬
-            when(loginAttemptRepository.findByEmail(email)).thenAnswer(invocation -> {
-                if (currentAttempt[0] == null) {
-                    return Optional.empty();
-                }
-                return Optional.of(currentAttempt[0]);
-            });
-            // insertの挙動を模擬
-            doAnswer(invocation -> {
-                LoginAttempt inserted = invocation.getArgument(0);
-                currentAttempt[0] = inserted;
-                return null;
-            }).when(loginAttemptRepository).insert(any(LoginAttempt.class));
-            // updateの挙動を模擬
-            org.mockito.Mockito.doAnswer(invocation -> {
-                LoginAttempt updated = invocation.getArgument(0);
-                currentAttempt[0].setAttemptCount(updated.getAttemptCount());
-                currentAttempt[0].setLastAttemptTime(updated.getLastAttemptTime());
-                currentAttempt[0].setLockedUntil(updated.getLockedUntil());
-                return null;
-            }).when(loginAttemptRepository).update(any(LoginAttempt.class));
 
             // 顧客情報のスタブ
             Customer mockCustomer = new Customer();
@@ -339,48 +372,26 @@ class LoginAttemptServiceTest {
             // 1回目失敗（まだロックされない）
             boolean locked1 = loginAttemptService.handleFailedLoginAttempt(email);
             assertThat(locked1).isFalse();
-            assertThat(currentAttempt[0].getAttemptCount()).isEqualTo(1);
-            assertThat(currentAttempt[0].getLockedUntil()).isNull();
+            assertThat(loginAttemptTracker.snapshot(email).orElseThrow().getAttemptCount()).isEqualTo(1);
+            assertThat(loginAttemptTracker.snapshot(email).orElseThrow().getLockedUntil()).isNull();
 
             // 2回目失敗（まだロックされない）
             boolean locked2 = loginAttemptService.handleFailedLoginAttempt(email);
             assertThat(locked2).isFalse();
-            assertThat(currentAttempt[0].getAttemptCount()).isEqualTo(2);
-            assertThat(currentAttempt[0].getLockedUntil()).isNull();
+            assertThat(loginAttemptTracker.snapshot(email).orElseThrow().getAttemptCount()).isEqualTo(2);
+            assertThat(loginAttemptTracker.snapshot(email).orElseThrow().getLockedUntil()).isNull();
 
             // 3回目失敗（ロックされる）
             boolean locked3 = loginAttemptService.handleFailedLoginAttempt(email);
             assertThat(locked3).isTrue();
-            assertThat(currentAttempt[0].getAttemptCount()).isEqualTo(3);
-            assertThat(currentAttempt[0].getLockedUntil()).isNotNull();
+            assertThat(loginAttemptTracker.snapshot(email).orElseThrow().getAttemptCount()).isEqualTo(3);
+            assertThat(loginAttemptTracker.snapshot(email).orElseThrow().getLockedUntil()).isNotNull();
         }
 
         @Test
         @DisplayName("lock-duration-msを変更した場合、ロック時間が反映されることを検証する")
         void testHandleFailedLoginAttempt_LockDurationChange() {
             String email = "lockduration@example.com";
-            final LoginAttempt[] currentAttempt = {null};
-            // findByEmailの挙動を模擬
-            when(loginAttemptRepository.findByEmail(email)).thenAnswer(invocation -> {
-                if (currentAttempt[0] == null) {
-                    return Optional.empty();
-                }
-                return Optional.of(currentAttempt[0]);
-            });
-            // insertの挙動を模擬
-            org.mockito.Mockito.doAnswer(invocation -> {
-                LoginAttempt inserted = invocation.getArgument(0);
-                currentAttempt[0] = inserted;
-                return null;
-            }).when(loginAttemptRepository).insert(any(LoginAttempt.class));
-            // updateの挙動を模擬
-            org.mockito.Mockito.doAnswer(invocation -> {
-                LoginAttempt updated = invocation.getArgument(0);
-                currentAttempt[0].setAttemptCount(updated.getAttemptCount());
-                currentAttempt[0].setLastAttemptTime(updated.getLastAttemptTime());
-                currentAttempt[0].setLockedUntil(updated.getLockedUntil());
-                return null;
-            }).when(loginAttemptRepository).update(any(LoginAttempt.class));
 
             // 顧客情報のスタブ
             Customer mockCustomer = new Customer();
@@ -397,11 +408,188 @@ class LoginAttemptServiceTest {
             boolean locked = loginAttemptService.handleFailedLoginAttempt(email);
             long after = System.currentTimeMillis();
             assertThat(locked).isTrue();
-            assertThat(currentAttempt[0].getLockedUntil()).isNotNull();
+            Long lockedUntil = loginAttemptTracker.snapshot(email).orElseThrow().getLockedUntil();
+            assertThat(lockedUntil).isNotNull();
             // 設定値（60000ms）±100ms程度の誤差で検証
             long expected = 60000L;
-            long actual = currentAttempt[0].getLockedUntil() - before;
+            long actual = lockedUntil - before;
             assertThat(actual).isBetween(expected - 100, expected + (after - before) + 100);
         }
     }
+
+    @Nested
+    @SpringBootTest(properties = {
+        "app.security.login.attempt.sync-interval-ms=0",
+        "app.security.login.attempt.max-entries=10"
+    })
+    @DisplayName("他のノードとの照合・記録数の上限の動作検証")
+    class SyncAndCapacityTest {
+
+        @MockitoBean
+        private CustomerService customerService;
+
+        @MockitoBean
+        private LoginAttemptRepository loginAttemptRepository;
+
+        // 通知メールの送信を抑止
+        @MockitoBean
+        private NotificationDispatcher notificationDispatcher;
+
+        @Autowired
+        private LoginAttemptService loginAttemptService;
+
+        @Autowired
+        private LoginAttemptTracker loginAttemptTracker;
+
+        @Test
+        @DisplayName("isLocked: 他のノードでロックが解除された場合（DBに記録がない場合）はメモリの記録を破棄する")
+        void testIsLocked_UnlockedOnOtherNode() {
+            // Given
+            String email = "unlocked-elsewhere@example.com";
+            loginAttemptTracker.put(email, 5, System.currentTimeMillis() - 1000, System.currentTimeMillis() + 600_000);
+
+            // When
+            boolean isLocked = loginAttemptService.isLocked(email);
+
+            // Then
+            assertThat(isLocked).isFalse();
+            assertThat(loginAttemptTracker.snapshot(email)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("isLocked: 他のノードでロックされた場合（DBの記録の方が新しい場合）はDBの記録に置き換える")
+        void testIsLocked_NewerRecordOnOtherNode() {
+            // Given
+            String email = "newer-elsewhere@example.com";
+            long now = System.currentTimeMillis();
+            loginAttemptTracker.put(email, 3, now - 10_000, 0L);
+            when(loginAttemptRepository.findByEmail(email))
+                .thenReturn(Optional.of(new LoginAttempt(email, 5, now + 600_000, now)));
+
+            // When
+            boolean isLocked = loginAttemptService.isLocked(email);
+
+            // Then
+            assertThat(isLocked).isTrue();
+            assertThat(loginAttemptTracker.snapshot(email).orElseThrow().getAttemptCount()).isEqualTo(5);
+        }
+
+        @Test
+        @DisplayName("isLocked: DBの記録の方が古い場合（反映中の記録）はメモリの記録を維持する")
+        void testIsLocked_OlderRecordInDb() {
+            // Given
+            String email = "older-in-db@example.com";
+            long now = System.currentTimeMillis();
+            loginAttemptTracker.put(email, 5, now, now + 600_000);
+            when(loginAttemptRepository.findByEmail(email))
+                .thenReturn(Optional.of(new LoginAttempt(email, 4, null, now - 10_000)));
+
+            // When
+            boolean isLocked = loginAttemptService.isLocked(email);
+
+            // Then
+            assertThat(isLocked).isTrue();
+            assertThat(loginAttemptTracker.snapshot(email).orElseThrow().getAttemptCount()).isEqualTo(5);
+        }
+
+        @Test
+        @DisplayName("handleFailedLoginAttempt: 記録数が上限に達した場合、DBに反映済みの記録を破棄する")
+        void testHandleFailedLoginAttempt_MaxEntries() {
+            // When: 上限を超えるメールアドレスで失敗
+            for (int i = 0; i < 25; i++) {
+                loginAttemptService.handleFailedLoginAttempt("spray" + i + "@example.com");
+            }
+
+            // Then: 上限を超えず、最後の失敗は記録されている
+            assertThat(loginAttemptTracker.size()).isLessThanOrEqualTo(10);
+            assertThat(loginAttemptTracker.snapshot("spray24@example.com")).isPresent();
+            verify(loginAttemptRepository, times(25)).upsert(any(LoginAttempt.class));
+        }
+    }
+
+    @Nested
+    @SpringBootTest(properties = {
+        "app.security.login.attempt.write.mode=ASYNC",
+        "app.security.login.attempt.write.flush-interval-ms=1000",
+        "app.security.login.attempt.sync-interval-ms=0"
+    })
+    @DisplayName("ライトビハインド（ASYNC）の動作検証")
+    class AsyncWriteTest {
+
+        @MockitoBean
+        private CustomerService customerService;
+
+        // 通知メールの送信を抑止
+        @MockitoBean
+        private NotificationDispatcher notificationDispatcher;
+
+        @Autowired
+        private LoginAttemptService loginAttemptService;
+
+        @Autowired
+        private LoginAttemptTracker loginAttemptTracker;
+
+        @Autowired
+        private LoginAttemptWriter loginAttemptWriter;
+
+        @Autowired
+        private LoginAttemptRepository loginAttemptRepository;
+
+        @Test
+        @DisplayName("unlockAccountByAdmin: DBへの反映前のロック判定でDBのロック中の記録を読み戻さず、解除が反映される")
+        void testUnlockAccountByAdmin_BeforeFlush() {
+            // Given: DBにロック中の記録があり、ロック判定でメモリに読み込まれている
+            String email = "async-unlock@example.com";
+            long now = System.currentTimeMillis();
+            loginAttemptRepository.upsert(new LoginAttempt(email, 5, now + 600_000, now));
+            assertThat(loginAttemptService.isLocked(email)).isTrue();
+            long written = loginAttemptWriter.getWrittenCount();
+
+            // When
+            loginAttemptService.unlockAccountByAdmin(email);
+
+            // Then: 反映前のロック判定でもロックされていない
+            assertThat(loginAttemptService.isLocked(email)).isFalse();
+            assertThat(loginAttemptTracker.snapshot(email)).isEmpty();
+            waitUntil(() -> loginAttemptWriter.getWrittenCount() > written);
+            assertThat(loginAttemptRepository.findByEmail(email)).isEmpty();
+            assertThat(loginAttemptService.isLocked(email)).isFalse();
+        }
+
+        @Test
+        @DisplayName("resetAttempts: DBへの反映前のログイン失敗はリセット前の失敗回数に続けて数えない")
+        void testResetAttempts_BeforeFlush() {
+            // Given: DBに失敗回数4の記録があり、ロック判定でメモリに読み込まれている
+            String email = "async-reset@example.com";
+            long now = System.currentTimeMillis();
+            loginAttemptRepository.upsert(new LoginAttempt(email, 4, null, now));
+            assertThat(loginAttemptService.isLocked(email)).isFalse();
+            assertThat(loginAttemptTracker.snapshot(email).orElseThrow().getAttemptCount()).isEqualTo(4);
+            long written = loginAttemptWriter.getWrittenCount();
+
+            // When: リセット直後（DBへの反映前）にロック判定とログイン失敗
+            loginAttemptService.resetAttempts(email);
+            boolean locked = loginAttemptService.isLocked(email) || loginAttemptService.handleFailedLoginAttempt(email);
+
+            // Then: 失敗回数は1からやり直し、DBにも反映される
+            assertThat(locked).isFalse();
+            assertThat(loginAttemptTracker.snapshot(email).orElseThrow().getAttemptCount()).isEqualTo(1);
+            waitUntil(() -> loginAttemptRepository.findByEmail(email).map(LoginAttempt::getAttemptCount).orElse(0) == 1
+                && loginAttemptWriter.getWrittenCount() > written);
+            assertThat(loginAttemptRepository.findByEmail(email).orElseThrow().getLockedUntil()).isNull();
+        }
+
+        private static void waitUntil(BooleanSupplier condition) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!condition.getAsBoolean()) {
+                assertThat(System.nanoTime()).as("条件成立の待機がタイムアウト").isLessThan(deadline);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
 }
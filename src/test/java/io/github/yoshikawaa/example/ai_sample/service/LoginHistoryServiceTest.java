@@ -191,7 +191,7 @@ class LoginHistoryServiceTest {
         when(loginHistoryRepository.count()).thenReturn(2L);
 
         // サービスメソッドを呼び出し
-        Page<LoginHistory> page = loginHistoryService.getAllLoginHistoriesWithPagination(pageable);
+        Page<LoginHistory> page = (Page<LoginHistory>) loginHistoryService.getAllLoginHistoriesWithPagination(pageable);
 
         // 検証
         assertThat(page.getContent()).hasSize(2);
@@ -215,7 +215,7 @@ class LoginHistoryServiceTest {
         when(loginHistoryRepository.count()).thenReturn(2L);
 
         // サービスメソッドを呼び出し
-        Page<LoginHistory> page = loginHistoryService.getAllLoginHistoriesWithPagination(pageable);
+        Page<LoginHistory> page = (Page<LoginHistory>) loginHistoryService.getAllLoginHistoriesWithPagination(pageable);
 
         // 検証
         assertThat(page.getContent()).hasSize(2);
@@ -261,23 +261,23 @@ class LoginHistoryServiceTest {
         // モックの動作を定義
         Pageable pageable = PageRequest.of(0, 20);
         when(loginHistoryRepository.searchWithPagination(
-            eq("user@example.com"), eq("SUCCESS"), any(), any(), eq(20), eq(0), any(), any()
+            eq("user@example.com"), any(), eq("SUCCESS"), any(), any(), eq(20), eq(0), any(), any()
         )).thenReturn(histories);
         when(loginHistoryRepository.countBySearch(
-            eq("user@example.com"), eq("SUCCESS"), any(), any()
+            eq("user@example.com"), any(), eq("SUCCESS"), any(), any()
         )).thenReturn(1L);
 
         // サービスメソッドを呼び出し
-        Page<LoginHistory> page = loginHistoryService.searchLoginHistoriesWithPagination(searchForm, pageable);
+        Page<LoginHistory> page = (Page<LoginHistory>) loginHistoryService.searchLoginHistoriesWithPagination(searchForm, pageable);
 
         // 検証
         assertThat(page.getContent()).hasSize(1);
         assertThat(page.getTotalElements()).isEqualTo(1);
         verify(loginHistoryRepository, times(1)).searchWithPagination(
-            eq("user@example.com"), eq("SUCCESS"), any(), any(), eq(20), eq(0), any(), any()
+            eq("user@example.com"), any(), eq("SUCCESS"), any(), any(), eq(20), eq(0), any(), any()
         );
         verify(loginHistoryRepository, times(1)).countBySearch(
-            eq("user@example.com"), eq("SUCCESS"), any(), any()
+            eq("user@example.com"), any(), eq("SUCCESS"), any(), any()
         );
     }
 
@@ -296,20 +296,20 @@ class LoginHistoryServiceTest {
         // モックの動作を定義
         Pageable pageable = PageRequest.of(0, 20);
         when(loginHistoryRepository.searchWithPagination(
-            any(), any(), eq(LocalDate.of(2024, 1, 1)), eq(LocalDate.of(2024, 1, 31)), 
+            any(), any(), any(), eq(LocalDate.of(2024, 1, 1)), eq(LocalDate.of(2024, 1, 31)), 
             anyInt(), anyInt(), any(), any()
         )).thenReturn(histories);
         when(loginHistoryRepository.countBySearch(
-            any(), any(), eq(LocalDate.of(2024, 1, 1)), eq(LocalDate.of(2024, 1, 31))
+            any(), any(), any(), eq(LocalDate.of(2024, 1, 1)), eq(LocalDate.of(2024, 1, 31))
         )).thenReturn(1L);
 
         // サービスメソッドを呼び出し
-        Page<LoginHistory> page = loginHistoryService.searchLoginHistoriesWithPagination(searchForm, pageable);
+        Page<LoginHistory> page = (Page<LoginHistory>) loginHistoryService.searchLoginHistoriesWithPagination(searchForm, pageable);
 
         // 検証
         assertThat(page.getContent()).hasSize(1);
         verify(loginHistoryRepository, times(1)).searchWithPagination(
-            any(), any(), eq(LocalDate.of(2024, 1, 1)), eq(LocalDate.of(2024, 1, 31)), 
+            any(), any(), any(), eq(LocalDate.of(2024, 1, 1)), eq(LocalDate.of(2024, 1, 31)), 
             anyInt(), anyInt(), any(), any()
         );
     }
@@ -328,19 +328,19 @@ class LoginHistoryServiceTest {
         // モックの動作を定義
         Pageable pageable = PageRequest.of(0, 20, Sort.by("loginTime").descending());
         when(loginHistoryRepository.searchWithPagination(
-            any(), eq("SUCCESS"), any(), any(), eq(20), eq(0), eq("login_time"), eq("DESC")
+            any(), any(), eq("SUCCESS"), any(), any(), eq(20), eq(0), eq("login_time"), eq("DESC")
         )).thenReturn(histories);
         when(loginHistoryRepository.countBySearch(
-            any(), eq("SUCCESS"), any(), any()
+            any(), any(), eq("SUCCESS"), any(), any()
         )).thenReturn(1L);
 
         // サービスメソッドを呼び出し
-        Page<LoginHistory> page = loginHistoryService.searchLoginHistoriesWithPagination(searchForm, pageable);
+        Page<LoginHistory> page = (Page<LoginHistory>) loginHistoryService.searchLoginHistoriesWithPagination(searchForm, pageable);
 
         // 検証
         assertThat(page.getContent()).hasSize(1);
         verify(loginHistoryRepository, times(1)).searchWithPagination(
-            any(), eq("SUCCESS"), any(), any(), eq(20), eq(0), eq("login_time"), eq("DESC")
+            any(), any(), eq("SUCCESS"), any(), any(), eq(20), eq(0), eq("login_time"), eq("DESC")
         );
     }
 
@@ -382,7 +382,7 @@ class LoginHistoryServiceTest {
         when(loginHistoryRepository.count()).thenReturn(1L);
 
         // サービスメソッドを呼び出し
-        Page<LoginHistory> page = loginHistoryService.getAllLoginHistoriesWithPagination(pageable);
+        Page<LoginHistory> page = (Page<LoginHistory>) loginHistoryService.getAllLoginHistoriesWithPagination(pageable);
 
         // 検証: statusがstatusにマッピングされる
         assertThat(page.getContent()).hasSize(1);
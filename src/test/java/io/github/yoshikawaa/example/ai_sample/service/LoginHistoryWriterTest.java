@@ -0,0 +1,98 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.repository.ActivityTimelineRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.LoginHistoryRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "app.login-history.write.mode=ASYNC",
+    "app.login-history.write.batch-size=10",
+    "app.login-history.write.flush-interval-ms=50"
+})
+@DisplayName("LoginHistoryWriter のテスト（ASYNC）")
+class LoginHistoryWriterTest {
+
+    @Autowired
+    private LoginHistoryService loginHistoryService;
+
+    @Autowired
+    private LoginHistoryWriter loginHistoryWriter;
+
+    @Autowired
+    private LoginHistoryRepository loginHistoryRepository;
+
+    @Autowired
+    private ActivityTimelineRepository activityTimelineRepository;
+
+    // ========================================
+    // 非同期バッチ書き込み
+    // ========================================
+
+    @Test
+    @DisplayName("recordLogin*: ASYNCの場合はバッチINSERTでDBに書き込まれる")
+    void testRecordLogin_Async() {
+        long before = loginHistoryRepository.count();
+        long written = loginHistoryWriter.getWrittenCount();
+
+        loginHistoryService.recordLoginSuccess("john.doe@example.com", "127.0.0.1", "Mozilla/5.0");
+        loginHistoryService.recordLoginFailure("jane.doe@example.com", "127.0.0.1", "Mozilla/5.0", "Bad credentials");
+        loginHistoryService.recordLogout("john.doe@example.com", "127.0.0.1", "Mozilla/5.0");
+
+        waitUntil(() -> loginHistoryWriter.getWrittenCount() == written + 3);
+        assertThat(loginHistoryRepository.count()).isEqualTo(before + 3);
+        assertThat(loginHistoryWriter.getFailedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("recordLogin*: バッチINSERTしたログイン履歴はアクティビティイベントにも投影される")
+    void testRecordLogin_Async_ProjectsActivityEvents() {
+        LocalDateTime start = LocalDateTime.now().minusMinutes(1);
+        LocalDateTime end = LocalDateTime.now().plusMinutes(1);
+        long before = activityTimelineRepository.countActivityTimeline("jane.doe@example.com", start, end, null);
+        long written = loginHistoryWriter.getWrittenCount();
+
+        loginHistoryService.recordLoginSuccess("jane.doe@example.com", "127.0.0.1", "Mozilla/5.0");
+        loginHistoryService.recordLoginFailure("unknown@example.com", "127.0.0.1", "curl/8.0", "Bad credentials");
+        loginHistoryService.recordLogout("jane.doe@example.com", "127.0.0.1", "Mozilla/5.0");
+
+        waitUntil(() -> loginHistoryWriter.getWrittenCount() == written + 3);
+        long count = activityTimelineRepository.countActivityTimeline("jane.doe@example.com", start, end, null);
+        assertThat(count).isEqualTo(before + 2);
+    }
+
+    @Test
+    @DisplayName("recordLoginFailure: 未登録メールアドレスはバッチを失敗させずに除外される")
+    void testRecordLoginFailure_UnknownEmail() {
+        long before = loginHistoryRepository.count();
+        long written = loginHistoryWriter.getWrittenCount();
+
+        loginHistoryService.recordLoginFailure("unknown@example.com", "127.0.0.1", "curl/8.0", "Bad credentials");
+        loginHistoryService.recordLoginFailure("john.doe@example.com", "127.0.0.1", "Mozilla/5.0", "Bad credentials");
+
+        waitUntil(() -> loginHistoryWriter.getWrittenCount() == written + 2);
+        assertThat(loginHistoryRepository.count()).isEqualTo(before + 1);
+        assertThat(loginHistoryWriter.getFailedCount()).isZero();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("条件成立の待機がタイムアウト").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
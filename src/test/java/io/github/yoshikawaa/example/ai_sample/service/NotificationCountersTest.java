@@ -0,0 +1,100 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.model.NotificationCount;
+import io.github.yoshikawaa.example.ai_sample.model.NotificationHistory.NotificationType;
+import io.github.yoshikawaa.example.ai_sample.model.NotificationHistory.Status;
+import io.github.yoshikawaa.example.ai_sample.model.NotificationTypeCount;
+import io.github.yoshikawaa.example.ai_sample.repository.NotificationHistoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("NotificationCounters のテスト")
+class NotificationCountersTest {
+
+    private final NotificationHistoryRepository notificationHistoryRepository = mock(NotificationHistoryRepository.class);
+    private final NotificationCounters counters = new NotificationCounters(notificationHistoryRepository);
+
+    @BeforeEach
+    void setUp() {
+        when(notificationHistoryRepository.countByNotificationTypeAndStatus()).thenReturn(List.of(
+            new NotificationCount(NotificationType.PASSWORD_RESET, Status.SUCCESS, 4L),
+            new NotificationCount(NotificationType.ACCOUNT_LOCK, Status.FAILURE, 1L)));
+        counters.reconcile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("reconcile: 通知履歴の集計結果で件数を初期化する")
+    void testReconcile_Seed() {
+        assertThat(counters.getTotalCount()).isEqualTo(5L);
+        assertThat(counters.countByStatus(Status.SUCCESS)).isEqualTo(4L);
+        assertThat(counters.countByStatus(Status.FAILURE)).isEqualTo(1L);
+        assertThat(counters.getTypeCounts()).containsExactly(
+            new NotificationTypeCount("PASSWORD_RESET", 4L),
+            new NotificationTypeCount("ACCOUNT_LOCK", 1L));
+    }
+
+    @Test
+    @DisplayName("recordCreated / recordStatusChange: トランザクション外では即座に加減算する")
+    void testRecord() {
+        counters.recordCreated(NotificationType.ACCOUNT_UNLOCK, Status.PENDING);
+        assertThat(counters.getPendingCount()).isEqualTo(1L);
+
+        counters.recordStatusChange(NotificationType.ACCOUNT_UNLOCK, Status.PENDING, Status.SUCCESS);
+
+        assertThat(counters.getPendingCount()).isZero();
+        assertThat(counters.countByStatus(Status.SUCCESS)).isEqualTo(5L);
+        assertThat(counters.getTotalCount()).isEqualTo(6L);
+    }
+
+    @Test
+    @DisplayName("recordStatusChange: 送信ステータスが変わらない場合は加減算しない")
+    void testRecordStatusChange_Unchanged() {
+        counters.recordStatusChange(NotificationType.PASSWORD_RESET, Status.PENDING, Status.PENDING);
+
+        assertThat(counters.getPendingCount()).isZero();
+        assertThat(counters.getTotalCount()).isEqualTo(5L);
+    }
+
+    @Test
+    @DisplayName("recordCreated: トランザクション中はコミット後に加算する")
+    void testRecordCreated_Transaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        counters.recordCreated(NotificationType.PASSWORD_RESET, Status.PENDING);
+        assertThat(counters.getPendingCount()).isZero();
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertThat(counters.getPendingCount()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("reconcile: 通知履歴の削除などで生じたずれを補正する")
+    void testReconcile_Drift() {
+        counters.recordCreated(NotificationType.PASSWORD_RESET, Status.SUCCESS);
+        when(notificationHistoryRepository.countByNotificationTypeAndStatus()).thenReturn(List.of(
+            new NotificationCount(NotificationType.PASSWORD_RESET, Status.SUCCESS, 2L)));
+
+        counters.reconcile();
+
+        assertThat(counters.getTotalCount()).isEqualTo(2L);
+        assertThat(counters.countByStatus(Status.FAILURE)).isZero();
+        assertThat(counters.getTypeCounts()).containsExactly(new NotificationTypeCount("PASSWORD_RESET", 2L));
+    }
+}
@@ -0,0 +1,220 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import io.github.yoshikawaa.example.ai_sample.model.Customer;
+import io.github.yoshikawaa.example.ai_sample.model.NotificationHistory;
+import io.github.yoshikawaa.example.ai_sample.repository.CustomerRepository;
+import io.github.yoshikawaa.example.ai_sample.repository.NotificationHistoryRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = {
+    "app.notification.dispatch-mode=ASYNC",
+    "app.notification.max-attempts=3",
+    "app.notification.retry-initial-delay-ms=0"
+})
+@DisplayName("NotificationDispatcher のテスト")
+class NotificationDispatcherTest {
+
+    private static final String EMAIL = "dispatcher.test@example.com";
+
+    private static final GreenMail greenMail;
+
+    static {
+        ServerSetup serverSetup = ServerSetup.SMTP.dynamicPort();
+        serverSetup.setServerStartupTimeout(10000);
+        serverSetup.setVerbose(false);
+        greenMail = new GreenMail(serverSetup);
+        greenMail.setUser("test@example.com", "password"); // spring.mail.username/passwordで認証する
+        greenMail.start();
+    }
+
+    @DynamicPropertySource
+    static void mailProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.port", () -> greenMail.getSmtp().getPort());
+    }
+
+    @AfterAll
+    static void stopGreenMail() {
+        greenMail.stop();
+    }
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private NotificationHistoryRepository notificationHistoryRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoSpyBean
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        greenMail.purgeEmailFromAllMailboxes();
+        // 送信結果は送信スレッドが別トランザクションで記録するため、送信先の顧客をコミットしておく（削除時に通知履歴も削除される）
+        customerRepository.insert(new Customer(EMAIL, "password", "Dispatcher Test", LocalDate.now(),
+            LocalDate.of(1990, 1, 1), "000-0000-0000", "Test Address", Customer.Role.USER));
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteByEmail(EMAIL);
+    }
+
+    @Test
+    @DisplayName("dispatch: 送信待ちとして記録し、送信スレッドで送信して送信成功を記録する")
+    void testDispatch() throws Exception {
+        notificationDispatcher.dispatch(EMAIL, NotificationHistory.NotificationType.PASSWORD_RESET, "Dispatch Subject", "Dispatch Body");
+
+        waitUntil(() -> findNotification().getStatus() == NotificationHistory.Status.SUCCESS);
+
+        NotificationHistory notification = findNotification();
+        assertThat(notification.getAttemptCount()).isEqualTo(1);
+        assertThat(notification.getSentAt()).isNotNull();
+        assertThat(notification.getNextAttemptAt()).isNull();
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        assertThat(greenMail.getReceivedMessages()[0].getSubject()).isEqualTo("Dispatch Subject");
+    }
+
+    @Test
+    @DisplayName("dispatch: トランザクション中の場合はコミット後に送信する")
+    void testDispatch_AfterCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationDispatcher.dispatch(EMAIL, NotificationHistory.NotificationType.PASSWORD_RESET, "Outbox Subject", "Outbox Body");
+            // 送信待ちの通知履歴は同じトランザクションで記録され、コミットまで送信しない
+            assertThat(findNotification().getStatus()).isEqualTo(NotificationHistory.Status.PENDING);
+            verify(emailService, never()).sendEmail(anyString(), anyString(), anyString());
+        });
+
+        waitUntil(() -> findNotification().getStatus() == NotificationHistory.Status.SUCCESS);
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("dispatch: トランザクションがロールバックした場合は記録も送信もしない")
+    void testDispatch_Rollback() {
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationDispatcher.dispatch(EMAIL, NotificationHistory.NotificationType.PASSWORD_RESET, "Rollback Subject", "Rollback Body");
+            status.setRollbackOnly();
+        });
+
+        // 送信待ちの通知履歴が残らないため、再送チェックでも送信されない
+        assertThat(findNotifications()).isEmpty();
+        verify(emailService, never()).sendEmail(anyString(), anyString(), anyString());
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("dispatchDue: 送信に失敗した通知を再送し、送信成功を記録する")
+    void testDispatchDue_Retry() {
+        doReturn(false).doCallRealMethod().when(emailService).sendEmail(anyString(), anyString(), anyString());
+
+        notificationDispatcher.dispatch(EMAIL, NotificationHistory.NotificationType.ACCOUNT_LOCK, "Retry Subject", "Retry Body");
+        waitUntil(() -> findNotification().getAttemptCount() == 1);
+
+        NotificationHistory pending = findNotification();
+        assertThat(pending.getStatus()).isEqualTo(NotificationHistory.Status.PENDING);
+        assertThat(pending.getNextAttemptAt()).isNotNull();
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+
+        notificationDispatcher.dispatchDue();
+        waitUntil(() -> findNotification().getStatus() == NotificationHistory.Status.SUCCESS);
+
+        assertThat(findNotification().getAttemptCount()).isEqualTo(2);
+        assertThat(findNotification().getErrorMessage()).isNull();
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("dispatchDue: 最大送信試行回数を超えた通知は送信失敗として記録する")
+    void testDispatchDue_MaxAttempts() {
+        doReturn(false).when(emailService).sendEmail(anyString(), anyString(), anyString());
+
+        notificationDispatcher.dispatch(EMAIL, NotificationHistory.NotificationType.ACCOUNT_LOCK, "Failure Subject", "Failure Body");
+        waitUntil(() -> findNotification().getAttemptCount() == 1);
+        notificationDispatcher.dispatchDue();
+        waitUntil(() -> findNotification().getAttemptCount() == 2);
+        notificationDispatcher.dispatchDue();
+        waitUntil(() -> findNotification().getStatus() == NotificationHistory.Status.FAILURE);
+
+        NotificationHistory notification = findNotification();
+        assertThat(notification.getAttemptCount()).isEqualTo(3);
+        assertThat(notification.getErrorMessage()).isEqualTo("メール送信失敗");
+        assertThat(notification.getSentAt()).isNotNull();
+        assertThat(notification.getNextAttemptAt()).isNull();
+
+        // 送信失敗とした通知は再送しない
+        notificationDispatcher.dispatchDue();
+        verify(emailService, times(3)).sendEmail(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("dispatchDue: 再送する通知を1回のSMTP接続でまとめて送信する")
+    void testDispatchDue_Batch() {
+        doReturn(false).when(emailService).sendEmail(anyString(), anyString(), anyString());
+
+        for (int i = 1; i <= 3; i++) {
+            notificationDispatcher.dispatch(EMAIL, NotificationHistory.NotificationType.ACCOUNT_LOCK, "Batch Subject " + i, "Batch Body");
+        }
+        assertThat(findNotifications()).hasSize(3);
+        waitUntil(() -> findNotifications().stream().allMatch(n -> n.getAttemptCount() == 1));
+
+        notificationDispatcher.dispatchDue();
+        waitUntil(() -> findNotifications().stream().allMatch(n -> n.getStatus() == NotificationHistory.Status.SUCCESS));
+
+        verify(emailService, times(1)).sendEmails(argThat(messages -> messages.size() == 3));
+        assertThat(greenMail.getReceivedMessages()).hasSize(3);
+    }
+
+    private List<NotificationHistory> findNotifications() {
+        return notificationHistoryRepository.searchWithPagination(EMAIL, null, null, null, null, null, 10, 0, null, null);
+    }
+
+    private NotificationHistory findNotification() {
+        List<NotificationHistory> notifications = findNotifications();
+        assertThat(notifications).hasSize(1);
+        return notifications.get(0);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("条件成立の待機がタイムアウト").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
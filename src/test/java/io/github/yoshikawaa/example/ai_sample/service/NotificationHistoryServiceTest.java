@@ -1,9 +1,10 @@
 package io.github.yoshikawaa.example.ai_sample.service;
 
+import io.github.yoshikawaa.example.ai_sample.model.NotificationCount;
 import io.github.yoshikawaa.example.ai_sample.model.NotificationHistory;
 import io.github.yoshikawaa.example.ai_sample.model.NotificationHistorySearchForm;
 import io.github.yoshikawaa.example.ai_sample.model.NotificationTypeCount;
-import io.github.yoshikawaa.example.ai_sample.model.StatusCount;
+import io.github.yoshikawaa.example.ai_sample.repository.ActivityTimelineRepository;
 import io.github.yoshikawaa.example.ai_sample.repository.NotificationHistoryRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -24,8 +25,11 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 
@@ -36,9 +40,15 @@ class NotificationHistoryServiceTest {
     @Autowired
     private NotificationHistoryService notificationHistoryService;
 
+    @Autowired
+    private NotificationCounters notificationCounters;
+
     @MockitoBean
     private NotificationHistoryRepository notificationHistoryRepository;
 
+    @MockitoBean
+    private ActivityTimelineRepository activityTimelineRepository;
+
     // テストデータ
     private final List<NotificationHistory> testNotifications = Arrays.asList(
         createTestNotification("user1@example.com", NotificationHistory.NotificationType.PASSWORD_RESET, NotificationHistory.Status.SUCCESS),
@@ -61,37 +71,71 @@ class NotificationHistoryServiceTest {
     // ========================================
 
     @Nested
-    @DisplayName("recordNotification: 通知履歴を記録")
-    class RecordNotificationTest {
+    @DisplayName("createPendingNotification: 送信待ちの通知履歴を記録")
+    class CreatePendingNotificationTest {
 
         @Test
-        @DisplayName("成功した通知を記録できる")
-        void testRecordNotification_Success() {
-            notificationHistoryService.recordNotification(
+        @DisplayName("送信待ちとして記録し、タイムラインには投影しない")
+        void testCreatePendingNotification() {
+            LocalDateTime nextAttemptAt = LocalDateTime.now().plusMinutes(1);
+
+            NotificationHistory notification = notificationHistoryService.createPendingNotification(
                 "test@example.com",
                 NotificationHistory.NotificationType.PASSWORD_RESET,
                 "Test Subject",
                 "Test Body",
-                true,
-                null
+                nextAttemptAt
             );
 
+            assertThat(notification.getStatus()).isEqualTo(NotificationHistory.Status.PENDING);
+            assertThat(notification.getNextAttemptAt()).isEqualTo(nextAttemptAt);
+            assertThat(notification.getSentAt()).isNull();
             verify(notificationHistoryRepository, times(1)).insert(any(NotificationHistory.class));
+            verify(activityTimelineRepository, never()).projectNotificationHistory(any());
         }
+    }
+
+    @Nested
+    @DisplayName("recordDispatchResult: 送信結果を反映")
+    class RecordDispatchResultTest {
 
         @Test
-        @DisplayName("失敗した通知を記録できる")
-        void testRecordNotification_Failure() {
-            notificationHistoryService.recordNotification(
-                "test@example.com",
-                NotificationHistory.NotificationType.ACCOUNT_LOCK,
-                "Test Subject",
-                "Test Body",
-                false,
-                "メール送信に失敗しました"
-            );
+        @DisplayName("送信が完了した通知はタイムラインに投影する")
+        void testRecordDispatchResult_Completed() {
+            NotificationHistory notification = createTestNotification("test@example.com",
+                NotificationHistory.NotificationType.PASSWORD_RESET, NotificationHistory.Status.SUCCESS);
+            notification.setId(1L);
+            when(notificationHistoryRepository.updateDispatchResult(notification)).thenReturn(1);
 
-            verify(notificationHistoryRepository, times(1)).insert(any(NotificationHistory.class));
+            assertThat(notificationHistoryService.recordDispatchResult(notification)).isTrue();
+
+            verify(activityTimelineRepository, times(1)).projectNotificationHistory(1L);
+        }
+
+        @Test
+        @DisplayName("再送待ちの通知はタイムラインに投影しない")
+        void testRecordDispatchResult_Retry() {
+            NotificationHistory notification = createTestNotification("test@example.com",
+                NotificationHistory.NotificationType.ACCOUNT_LOCK, NotificationHistory.Status.PENDING);
+            notification.setId(1L);
+            when(notificationHistoryRepository.updateDispatchResult(notification)).thenReturn(1);
+
+            assertThat(notificationHistoryService.recordDispatchResult(notification)).isTrue();
+
+            verify(activityTimelineRepository, never()).projectNotificationHistory(any());
+        }
+
+        @Test
+        @DisplayName("送信待ちでなくなっていた通知は反映しない")
+        void testRecordDispatchResult_NotPending() {
+            NotificationHistory notification = createTestNotification("test@example.com",
+                NotificationHistory.NotificationType.PASSWORD_RESET, NotificationHistory.Status.SUCCESS);
+            notification.setId(1L);
+            when(notificationHistoryRepository.updateDispatchResult(notification)).thenReturn(0);
+
+            assertThat(notificationHistoryService.recordDispatchResult(notification)).isFalse();
+
+            verify(activityTimelineRepository, never()).projectNotificationHistory(any());
         }
     }
 
@@ -117,7 +161,7 @@ class NotificationHistoryServiceTest {
                 .thenReturn(Arrays.asList(notification1, notification2));
             when(notificationHistoryRepository.count()).thenReturn(2L);
 
-            Page<NotificationHistory> result = notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
+            Page<NotificationHistory> result = (Page<NotificationHistory>) notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
 
             assertThat(result.getContent()).hasSize(2);
             assertThat(result.getTotalElements()).isEqualTo(2);
@@ -135,7 +179,7 @@ class NotificationHistoryServiceTest {
                 .thenReturn(Arrays.asList(notification1));
             when(notificationHistoryRepository.count()).thenReturn(1L);
 
-            Page<NotificationHistory> result = notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
+            Page<NotificationHistory> result = (Page<NotificationHistory>) notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
 
             assertThat(result.getContent()).hasSize(1);
             verify(notificationHistoryRepository, times(1)).findAllWithPagination(10, 0, "sent_at", "DESC");
@@ -161,6 +205,7 @@ class NotificationHistoryServiceTest {
             
             when(notificationHistoryRepository.searchWithPagination(
                 eq("john"),
+                any(),
                 eq(NotificationHistory.NotificationType.PASSWORD_RESET),
                 eq(NotificationHistory.Status.SUCCESS),
                 any(),
@@ -173,13 +218,14 @@ class NotificationHistoryServiceTest {
             
             when(notificationHistoryRepository.countBySearch(
                 eq("john"),
+                any(),
                 eq(NotificationHistory.NotificationType.PASSWORD_RESET),
                 eq(NotificationHistory.Status.SUCCESS),
                 any(),
                 any()
             )).thenReturn(1L);
 
-            Page<NotificationHistory> result = notificationHistoryService.searchNotificationHistoriesWithPagination(searchForm, pageable);
+            Page<NotificationHistory> result = (Page<NotificationHistory>) notificationHistoryService.searchNotificationHistoriesWithPagination(searchForm, pageable);
 
             assertThat(result.getContent()).hasSize(1);
             assertThat(result.getTotalElements()).isEqualTo(1);
@@ -198,6 +244,7 @@ class NotificationHistoryServiceTest {
                 any(),
                 any(),
                 any(),
+                any(),
                 eq(LocalDateTime.of(2023, 1, 1, 0, 0)),
                 eq(LocalDateTime.of(2024, 1, 1, 0, 0)),
                 eq(10),
@@ -210,6 +257,7 @@ class NotificationHistoryServiceTest {
                 any(),
                 any(),
                 any(),
+                any(),
                 eq(LocalDateTime.of(2023, 1, 1, 0, 0)),
                 eq(LocalDateTime.of(2024, 1, 1, 0, 0))
             )).thenReturn(0L);
@@ -220,6 +268,7 @@ class NotificationHistoryServiceTest {
                 any(),
                 any(),
                 any(),
+                any(),
                 eq(LocalDateTime.of(2023, 1, 1, 0, 0)),
                 eq(LocalDateTime.of(2024, 1, 1, 0, 0)),
                 eq(10),
@@ -239,43 +288,64 @@ class NotificationHistoryServiceTest {
     class GetStatisticsTest {
 
         @Test
-        @DisplayName("統計情報を取得できる")
+        @DisplayName("通知種別・送信ステータスごとの件数から統計情報を取得できる")
         void testGetStatistics() {
-            when(notificationHistoryRepository.count()).thenReturn(10L);
-            
-            StatusCount successCount = new StatusCount();
-            successCount.setStatus("SUCCESS");
-            successCount.setCount(8L);
-            
-            StatusCount failureCount = new StatusCount();
-            failureCount.setStatus("FAILURE");
-            failureCount.setCount(2L);
-            
-            when(notificationHistoryRepository.countByStatus())
-                .thenReturn(Arrays.asList(successCount, failureCount));
-            
-            NotificationTypeCount typeCount = new NotificationTypeCount();
-            typeCount.setNotificationType("PASSWORD_RESET");
-            typeCount.setCount(5L);
-            
-            when(notificationHistoryRepository.countByNotificationType())
-                .thenReturn(Arrays.asList(typeCount));
+            when(notificationHistoryRepository.countByNotificationTypeAndStatus()).thenReturn(List.of(
+                new NotificationCount(NotificationHistory.NotificationType.PASSWORD_RESET, NotificationHistory.Status.SUCCESS, 5L),
+                new NotificationCount(NotificationHistory.NotificationType.ACCOUNT_LOCK, NotificationHistory.Status.SUCCESS, 3L),
+                new NotificationCount(NotificationHistory.NotificationType.ACCOUNT_LOCK, NotificationHistory.Status.FAILURE, 2L)));
+            notificationCounters.reconcile();
+            clearInvocations(notificationHistoryRepository);
 
             NotificationHistoryService.NotificationHistoryStatistics statistics = notificationHistoryService.getStatistics();
 
             assertThat(statistics.getTotalCount()).isEqualTo(10L);
             assertThat(statistics.getSuccessCount()).isEqualTo(8L);
             assertThat(statistics.getFailureCount()).isEqualTo(2L);
+            assertThat(statistics.getPendingCount()).isZero();
             assertThat(statistics.getSuccessRate()).isEqualTo(80.0);
-            assertThat(statistics.getTypeCounts()).isNotNull();
+            assertThat(statistics.getTypeCounts()).containsExactly(
+                new NotificationTypeCount("PASSWORD_RESET", 5L),
+                new NotificationTypeCount("ACCOUNT_LOCK", 5L));
+            // 統計の取得では通知履歴を集計しない
+            verifyNoInteractions(notificationHistoryRepository);
+        }
+
+        @Test
+        @DisplayName("送信待ちの通知は別に集計し、成功率に含めない")
+        void testGetStatistics_Pending() {
+            when(notificationHistoryRepository.countByNotificationTypeAndStatus()).thenReturn(List.of(
+                new NotificationCount(NotificationHistory.NotificationType.PASSWORD_RESET, NotificationHistory.Status.SUCCESS, 3L),
+                new NotificationCount(NotificationHistory.NotificationType.PASSWORD_RESET, NotificationHistory.Status.FAILURE, 1L),
+                new NotificationCount(NotificationHistory.NotificationType.PASSWORD_RESET, NotificationHistory.Status.PENDING, 6L)));
+            notificationCounters.reconcile();
+
+            NotificationHistoryService.NotificationHistoryStatistics statistics = notificationHistoryService.getStatistics();
+
+            assertThat(statistics.getTotalCount()).isEqualTo(10L);
+            assertThat(statistics.getPendingCount()).isEqualTo(6L);
+            assertThat(statistics.getSuccessRate()).isEqualTo(75.0);
+        }
+
+        @Test
+        @DisplayName("送信待ちのみの場合、成功率は0.0になる")
+        void testGetStatistics_PendingOnly() {
+            when(notificationHistoryRepository.countByNotificationTypeAndStatus()).thenReturn(List.of(
+                new NotificationCount(NotificationHistory.NotificationType.ACCOUNT_LOCK, NotificationHistory.Status.PENDING, 2L)));
+            notificationCounters.reconcile();
+
+            NotificationHistoryService.NotificationHistoryStatistics statistics = notificationHistoryService.getStatistics();
+
+            assertThat(statistics.getTotalCount()).isEqualTo(2L);
+            assertThat(statistics.getPendingCount()).isEqualTo(2L);
+            assertThat(statistics.getSuccessRate()).isEqualTo(0.0);
         }
 
         @Test
         @DisplayName("総送信数が0の場合、成功率は0.0になる")
         void testGetStatistics_TotalCountZero() {
-            when(notificationHistoryRepository.count()).thenReturn(0L);
-            when(notificationHistoryRepository.countByStatus()).thenReturn(Arrays.asList());
-            when(notificationHistoryRepository.countByNotificationType()).thenReturn(Arrays.asList());
+            when(notificationHistoryRepository.countByNotificationTypeAndStatus()).thenReturn(List.of());
+            notificationCounters.reconcile();
 
             NotificationHistoryService.NotificationHistoryStatistics statistics = notificationHistoryService.getStatistics();
 
@@ -283,6 +353,7 @@ class NotificationHistoryServiceTest {
             assertThat(statistics.getSuccessCount()).isEqualTo(0L);
             assertThat(statistics.getFailureCount()).isEqualTo(0L);
             assertThat(statistics.getSuccessRate()).isEqualTo(0.0);
+            assertThat(statistics.getTypeCounts()).isEmpty();
         }
     }
 
@@ -300,7 +371,7 @@ class NotificationHistoryServiceTest {
                 .thenReturn(notifications);
             when(notificationHistoryRepository.count()).thenReturn(1L);
 
-            Page<NotificationHistory> result = notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
+            Page<NotificationHistory> result = (Page<NotificationHistory>) notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
 
             verify(notificationHistoryRepository).findAllWithPagination(10, 0, "recipient_email", "ASC");
             assertThat(result.getContent()).hasSize(1);
@@ -316,7 +387,7 @@ class NotificationHistoryServiceTest {
                 .thenReturn(notifications);
             when(notificationHistoryRepository.count()).thenReturn(1L);
 
-            Page<NotificationHistory> result = notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
+            Page<NotificationHistory> result = (Page<NotificationHistory>) notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
 
             verify(notificationHistoryRepository).findAllWithPagination(10, 0, "notification_type", "DESC");
             assertThat(result.getContent()).hasSize(1);
@@ -332,7 +403,7 @@ class NotificationHistoryServiceTest {
                 .thenReturn(notifications);
             when(notificationHistoryRepository.count()).thenReturn(1L);
 
-            Page<NotificationHistory> result = notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
+            Page<NotificationHistory> result = (Page<NotificationHistory>) notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
 
             verify(notificationHistoryRepository).findAllWithPagination(10, 0, "subject", "ASC");
             assertThat(result.getContent()).hasSize(1);
@@ -348,7 +419,7 @@ class NotificationHistoryServiceTest {
                 .thenReturn(notifications);
             when(notificationHistoryRepository.count()).thenReturn(1L);
 
-            Page<NotificationHistory> result = notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
+            Page<NotificationHistory> result = (Page<NotificationHistory>) notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
 
             verify(notificationHistoryRepository).findAllWithPagination(10, 0, "status", "ASC");
             assertThat(result.getContent()).hasSize(1);
@@ -364,7 +435,7 @@ class NotificationHistoryServiceTest {
                 .thenReturn(notifications);
             when(notificationHistoryRepository.count()).thenReturn(1L);
 
-            Page<NotificationHistory> result = notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
+            Page<NotificationHistory> result = (Page<NotificationHistory>) notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
 
             verify(notificationHistoryRepository).findAllWithPagination(10, 0, "created_at", "ASC");
             assertThat(result.getContent()).hasSize(1);
@@ -380,7 +451,7 @@ class NotificationHistoryServiceTest {
                 .thenReturn(notifications);
             when(notificationHistoryRepository.count()).thenReturn(1L);
 
-            Page<NotificationHistory> result = notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
+            Page<NotificationHistory> result = (Page<NotificationHistory>) notificationHistoryService.getAllNotificationHistoriesWithPagination(pageable);
 
             verify(notificationHistoryRepository).findAllWithPagination(10, 0, "sent_at", "ASC");
             assertThat(result.getContent()).hasSize(1);
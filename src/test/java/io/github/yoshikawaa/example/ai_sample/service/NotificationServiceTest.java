@@ -22,10 +22,7 @@ class NotificationServiceTest {
     private NotificationService notificationService;
 
     @MockitoBean
-    private EmailService emailService;
-
-    @MockitoBean
-    private NotificationHistoryService notificationHistoryService;
+    private NotificationDispatcher notificationDispatcher;
 
     @MockitoBean
     private AccountUnlockProperties accountUnlockProperties;
@@ -41,39 +38,13 @@ class NotificationServiceTest {
         customer.setEmail("test@example.com");
         customer.setName("テストユーザー");
         when(accountUnlockProperties.getHostUrl()).thenReturn("http://localhost");
-        when(emailService.sendEmail(anyString(), anyString(), anyString())).thenReturn(true);
-
-        notificationService.sendAccountLockedNotification(customer);
-
-        verify(emailService, times(1)).sendEmail(eq("test@example.com"), anyString(), anyString());
-        verify(notificationHistoryService, times(1)).recordNotification(
-            eq("test@example.com"),
-            eq(NotificationHistory.NotificationType.ACCOUNT_LOCK),
-            anyString(),
-            anyString(),
-            eq(true),
-            eq(null)
-        );
-    }
-
-    @Test
-    @DisplayName("sendAccountLockedNotification: アカウントロック通知の送信に失敗した場合、通知履歴に失敗が記録される")
-    void testSendAccountLockedNotification_EmailFailure() {
-        Customer customer = new Customer();
-        customer.setEmail("test@example.com");
-        customer.setName("テストユーザー");
-        when(accountUnlockProperties.getHostUrl()).thenReturn("http://localhost");
-        when(emailService.sendEmail(anyString(), anyString(), anyString())).thenReturn(false);
 
         notificationService.sendAccountLockedNotification(customer);
 
-        verify(emailService, times(1)).sendEmail(eq("test@example.com"), anyString(), anyString());
-        verify(notificationHistoryService, times(1)).recordNotification(
+        verify(notificationDispatcher, times(1)).dispatch(
             eq("test@example.com"),
             eq(NotificationHistory.NotificationType.ACCOUNT_LOCK),
             anyString(),
-            anyString(),
-            eq(false),
             anyString()
         );
     }
@@ -85,18 +56,14 @@ class NotificationServiceTest {
         String name = "テストユーザー";
         String unlockLink = "http://localhost/unlock?token=xyz789";
         long expiryMinutes = 30;
-        when(emailService.sendEmail(anyString(), anyString(), anyString())).thenReturn(true);
 
         notificationService.sendUnlockRequestNotification(email, name, unlockLink, expiryMinutes);
 
-        verify(emailService, times(1)).sendEmail(eq(email), anyString(), anyString());
-        verify(notificationHistoryService, times(1)).recordNotification(
+        verify(notificationDispatcher, times(1)).dispatch(
             eq(email),
             eq(NotificationHistory.NotificationType.ACCOUNT_UNLOCK),
             anyString(),
-            anyString(),
-            eq(true),
-            eq(null)
+            anyString()
         );
     }
 
@@ -104,18 +71,14 @@ class NotificationServiceTest {
     @DisplayName("sendAccountUnlockComplete: アカウントロック解除完了通知が送信される")
     void testSendAccountUnlockComplete() {
         String email = "test@example.com";
-        when(emailService.sendEmail(anyString(), anyString(), anyString())).thenReturn(true);
 
         notificationService.sendAccountUnlockComplete(email);
 
-        verify(emailService, times(1)).sendEmail(eq(email), anyString(), anyString());
-        verify(notificationHistoryService, times(1)).recordNotification(
+        verify(notificationDispatcher, times(1)).dispatch(
             eq(email),
             eq(NotificationHistory.NotificationType.ACCOUNT_UNLOCK_COMPLETE),
             anyString(),
-            anyString(),
-            eq(true),
-            eq(null)
+            anyString()
         );
     }
 
@@ -128,18 +91,14 @@ class NotificationServiceTest {
     void testSendPasswordResetLink() {
         String email = "test@example.com";
         String resetLink = "http://localhost:8080/password-reset/confirm?token=abc123";
-        when(emailService.sendEmail(anyString(), anyString(), anyString())).thenReturn(true);
 
         notificationService.sendPasswordResetLink(email, resetLink);
 
-        verify(emailService, times(1)).sendEmail(eq(email), anyString(), anyString());
-        verify(notificationHistoryService, times(1)).recordNotification(
+        verify(notificationDispatcher, times(1)).dispatch(
             eq(email),
             eq(NotificationHistory.NotificationType.PASSWORD_RESET),
             anyString(),
-            anyString(),
-            eq(true),
-            eq(null)
+            anyString()
         );
     }
 
@@ -147,18 +106,14 @@ class NotificationServiceTest {
     @DisplayName("sendPasswordResetComplete: パスワードリセット完了通知が送信される")
     void testSendPasswordResetComplete() {
         String email = "test@example.com";
-        when(emailService.sendEmail(anyString(), anyString(), anyString())).thenReturn(true);
 
         notificationService.sendPasswordResetComplete(email);
 
-        verify(emailService, times(1)).sendEmail(eq(email), anyString(), anyString());
-        verify(notificationHistoryService, times(1)).recordNotification(
+        verify(notificationDispatcher, times(1)).dispatch(
             eq(email),
             eq(NotificationHistory.NotificationType.PASSWORD_RESET_COMPLETE),
             anyString(),
-            anyString(),
-            eq(true),
-            eq(null)
+            anyString()
         );
     }
 }
@@ -0,0 +1,56 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.model.NotificationHistory.NotificationType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("NotificationTemplateRenderer のテスト")
+class NotificationTemplateRendererTest {
+
+    private final NotificationTemplateRenderer renderer = new NotificationTemplateRenderer();
+
+    @Test
+    @DisplayName("render: アカウントロック通知の本文に氏名と解除申請リンクを埋め込む")
+    void testRender_AccountLock() {
+        String body = renderer.render(NotificationType.ACCOUNT_LOCK,
+            Map.of("name", "テストユーザー", "unlockRequestLink", "http://localhost/account-unlock/request?email=test@example.com"));
+
+        assertThat(body).isEqualTo(
+            "テストユーザー様\n\nセキュリティ保護のため、アカウントが一時的にロックされました。\n\n解除をご希望の場合は以下のリンクから申請してください。\n\n"
+            + "解除申請リンク: http://localhost/account-unlock/request?email=test@example.com\n\nご不明点はサポートまでご連絡ください。");
+    }
+
+    @Test
+    @DisplayName("render: アカウントロック解除申請の本文に氏名・解除リンク・有効期限を埋め込む")
+    void testRender_AccountUnlock() {
+        String body = renderer.render(NotificationType.ACCOUNT_UNLOCK,
+            Map.of("name", "テストユーザー", "unlockLink", "http://localhost/unlock?token=xyz789", "expiryMinutes", 30L));
+
+        assertThat(body).isEqualTo(
+            "テストユーザー様\n\nアカウント解除申請を受け付けました。\n\n下記リンクから解除手続きを完了してください。\n\n"
+            + "解除リンク: http://localhost/unlock?token=xyz789\n\n有効期限: 30分\n\nご不明点はサポートまでご連絡ください。");
+    }
+
+    @Test
+    @DisplayName("render: パスワードリセットの本文にリセットリンクを埋め込む（HTMLとしてエスケープしない）")
+    void testRender_PasswordReset() {
+        String body = renderer.render(NotificationType.PASSWORD_RESET,
+            Map.of("resetLink", "http://localhost:8080/password-reset/confirm?token=abc&x=1"));
+
+        assertThat(body).isEqualTo(
+            "以下のリンクをクリックしてパスワードをリセットしてください: http://localhost:8080/password-reset/confirm?token=abc&x=1");
+    }
+
+    @Test
+    @DisplayName("render: 変数のない通知の本文を生成する")
+    void testRender_NoVariables() {
+        assertThat(renderer.render(NotificationType.ACCOUNT_UNLOCK_COMPLETE, Map.of()))
+            .isEqualTo("アカウントのロックが解除されました。ログインしてください。");
+        assertThat(renderer.render(NotificationType.PASSWORD_RESET_COMPLETE, Map.of()))
+            .isEqualTo("パスワードのリセットが完了しました。新しいパスワードでログインしてください。");
+    }
+}
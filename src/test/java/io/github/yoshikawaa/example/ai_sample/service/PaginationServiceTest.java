@@ -0,0 +1,250 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.PaginationProperties.CountMode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PaginationService のテスト")
+class PaginationServiceTest {
+
+    /** 取得件数分の行を返すフェッチャー（全30件を想定） */
+    private static final IntFunction<List<Integer>> FETCHER =
+        limit -> IntStream.range(0, Math.min(limit, 30)).boxed().toList();
+
+    // ========================================
+    // EXACT
+    // ========================================
+
+    @Nested
+    @SpringBootTest
+    @DisplayName("EXACT（デフォルト）")
+    class ExactTest {
+
+        @Autowired
+        private PaginationService paginationService;
+
+        @Test
+        @DisplayName("paginate: 毎回COUNTを実行してPageを返す")
+        void testPaginate_Exact() {
+            Pageable pageable = PageRequest.of(0, 10);
+            AtomicInteger countCalls = new AtomicInteger();
+
+            Slice<Integer> first = paginationService.paginate(PaginationService.CUSTOMER, new Object[0], pageable,
+                FETCHER, () -> { countCalls.incrementAndGet(); return 30L; });
+            paginationService.paginate(PaginationService.CUSTOMER, new Object[0], pageable,
+                FETCHER, () -> { countCalls.incrementAndGet(); return 30L; });
+
+            assertThat(first).isInstanceOf(Page.class);
+            assertThat(first.getContent()).hasSize(10);
+            assertThat(((Page<Integer>) first).getTotalElements()).isEqualTo(30);
+            assertThat(countCalls.get()).isEqualTo(2);
+        }
+    }
+
+    // ========================================
+    // CACHED
+    // ========================================
+
+    @Nested
+    @SpringBootTest(properties = {
+        "app.pagination.count-mode=CACHED",
+        "app.pagination.count-cache-ttl-ms=60000"
+    })
+    @DisplayName("CACHED")
+    class CachedTest {
+
+        @Autowired
+        private PaginationService paginationService;
+
+        @Test
+        @DisplayName("paginate: 同一条件の総件数はキャッシュから返す")
+        void testPaginate_CacheHit() {
+            paginationService.invalidate(PaginationService.AUDIT_LOG);
+            Pageable pageable = PageRequest.of(0, 10);
+            AtomicInteger countCalls = new AtomicInteger();
+
+            paginationService.paginate(PaginationService.AUDIT_LOG, new Object[]{"a"}, pageable,
+                FETCHER, () -> { countCalls.incrementAndGet(); return 30L; });
+            Slice<Integer> second = paginationService.paginate(PaginationService.AUDIT_LOG, new Object[]{"a"}, pageable.next(),
+                FETCHER, () -> { countCalls.incrementAndGet(); return 99L; });
+
+            assertThat(second).isInstanceOf(Page.class);
+            assertThat(((Page<Integer>) second).getTotalElements()).isEqualTo(30);
+            assertThat(countCalls.get()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("paginate: 検索条件が異なる場合は再度COUNTを実行する")
+        void testPaginate_DifferentCriteria() {
+            paginationService.invalidate(PaginationService.AUDIT_LOG);
+            Pageable pageable = PageRequest.of(0, 10);
+
+            paginationService.paginate(PaginationService.AUDIT_LOG, new Object[]{"a"}, pageable, FETCHER, () -> 30L);
+            Slice<Integer> result = paginationService.paginate(PaginationService.AUDIT_LOG, new Object[]{"b"}, pageable,
+                FETCHER, () -> 15L);
+
+            assertThat(((Page<Integer>) result).getTotalElements()).isEqualTo(15);
+        }
+
+        @Test
+        @DisplayName("invalidate: キャッシュ破棄後は再度COUNTを実行する")
+        void testInvalidate() {
+            paginationService.invalidate(PaginationService.AUDIT_LOG);
+            Pageable pageable = PageRequest.of(0, 10);
+
+            paginationService.paginate(PaginationService.AUDIT_LOG, new Object[]{"a"}, pageable, FETCHER, () -> 30L);
+            paginationService.invalidate(PaginationService.AUDIT_LOG);
+            Slice<Integer> result = paginationService.paginate(PaginationService.AUDIT_LOG, new Object[]{"a"}, pageable,
+                FETCHER, () -> 31L);
+
+            assertThat(((Page<Integer>) result).getTotalElements()).isEqualTo(31);
+        }
+
+        @Test
+        @DisplayName("invalidate: 総件数を数えている間に破棄された場合は、破棄前の総件数をキャッシュしない")
+        void testInvalidate_数えている間の破棄() {
+            paginationService.invalidate(PaginationService.AUDIT_LOG);
+            Pageable pageable = PageRequest.of(0, 10);
+
+            paginationService.paginate(PaginationService.AUDIT_LOG, new Object[]{"a"}, pageable, FETCHER, () -> {
+                // 数えた後に別のスレッドが登録・破棄した場合
+                paginationService.invalidate(PaginationService.AUDIT_LOG);
+                return 30L;
+            });
+            Slice<Integer> result = paginationService.paginate(PaginationService.AUDIT_LOG, new Object[]{"a"}, pageable,
+                FETCHER, () -> 31L);
+
+            assertThat(((Page<Integer>) result).getTotalElements()).isEqualTo(31);
+        }
+
+        @Test
+        @DisplayName("invalidate: トランザクション中の場合はコミット後にも破棄する")
+        void testInvalidate_コミット後() {
+            paginationService.invalidate(PaginationService.AUDIT_LOG);
+            Pageable pageable = PageRequest.of(0, 10);
+            paginationService.paginate(PaginationService.AUDIT_LOG, new Object[]{"a"}, pageable, FETCHER, () -> 30L);
+
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                paginationService.invalidate(PaginationService.AUDIT_LOG);
+                // コミット前に他のスレッドが数えた総件数（登録前の件数）がキャッシュされる
+                paginationService.paginate(PaginationService.AUDIT_LOG, new Object[]{"a"}, pageable, FETCHER, () -> 30L);
+                TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+
+            Slice<Integer> result = paginationService.paginate(PaginationService.AUDIT_LOG, new Object[]{"a"}, pageable,
+                FETCHER, () -> 31L);
+            assertThat(((Page<Integer>) result).getTotalElements()).isEqualTo(31);
+        }
+        @Test
+        @DisplayName("invalidate: 総件数を一度も数えていない一覧でも、トランザクション中の場合はコミット後に破棄する")
+        void testInvalidate_コミット後_キャッシュ未作成() {
+            Pageable pageable = PageRequest.of(0, 10);
+
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                paginationService.invalidate(PaginationService.NOTIFICATION_HISTORY);
+                // コミット前に他のスレッドが初めて数えた総件数（登録前の件数）がキャッシュされる
+                paginationService.paginate(PaginationService.NOTIFICATION_HISTORY, new Object[]{"a"}, pageable, FETCHER, () -> 30L);
+                TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+
+            Slice<Integer> result = paginationService.paginate(PaginationService.NOTIFICATION_HISTORY, new Object[]{"a"}, pageable,
+                FETCHER, () -> 31L);
+            assertThat(((Page<Integer>) result).getTotalElements()).isEqualTo(31);
+        }
+    }
+
+    @Nested
+    @SpringBootTest(properties = {
+        "app.pagination.count-mode=CACHED",
+        "app.pagination.count-cache-ttl-ms=0"
+    })
+    @DisplayName("CACHED（有効期限切れ）")
+    class CachedExpiredTest {
+
+        @Autowired
+        private PaginationService paginationService;
+
+        @Test
+        @DisplayName("paginate: 有効期限切れの総件数は再度COUNTを実行する")
+        void testPaginate_Expired() {
+            Pageable pageable = PageRequest.of(0, 10);
+
+            paginationService.paginate(PaginationService.AUDIT_LOG, new Object[]{"a"}, pageable, FETCHER, () -> 30L);
+            Slice<Integer> result = paginationService.paginate(PaginationService.AUDIT_LOG, new Object[]{"a"}, pageable,
+                FETCHER, () -> 31L);
+
+            assertThat(((Page<Integer>) result).getTotalElements()).isEqualTo(31);
+        }
+    }
+
+    // ========================================
+    // SLICE
+    // ========================================
+
+    @Nested
+    @SpringBootTest(properties = {
+        "app.pagination.count-modes.login-history=SLICE"
+    })
+    @DisplayName("SLICE（一覧ごとの上書き）")
+    class SliceTest {
+
+        @Autowired
+        private PaginationService paginationService;
+
+        @Test
+        @DisplayName("paginate: COUNTを実行せずページサイズ+1件で次ページ有無を判定する")
+        void testPaginate_Slice() {
+            AtomicInteger countCalls = new AtomicInteger();
+            AtomicInteger requestedLimit = new AtomicInteger();
+
+            Slice<Integer> result = paginationService.paginate(PaginationService.LOGIN_HISTORY, new Object[0], PageRequest.of(0, 10),
+                limit -> { requestedLimit.set(limit); return FETCHER.apply(limit); },
+                () -> { countCalls.incrementAndGet(); return 30L; });
+
+            assertThat(result).isNotInstanceOf(Page.class);
+            assertThat(result.getContent()).hasSize(10);
+            assertThat(result.hasNext()).isTrue();
+            assertThat(requestedLimit.get()).isEqualTo(11);
+            assertThat(countCalls.get()).isZero();
+        }
+
+        @Test
+        @DisplayName("paginate: 最終ページでは次ページなしと判定する")
+        void testPaginate_SliceLastPage() {
+            Slice<Integer> result = paginationService.paginate(PaginationService.LOGIN_HISTORY, new Object[0], PageRequest.of(0, 30),
+                FETCHER, () -> 30L);
+
+            assertThat(result.getContent()).hasSize(30);
+            assertThat(result.hasNext()).isFalse();
+        }
+
+        @Test
+        @DisplayName("getCountMode: 上書きのない一覧はデフォルトの方式を返す")
+        void testGetCountMode() {
+            assertThat(paginationService.getCountMode(PaginationService.LOGIN_HISTORY)).isEqualTo(CountMode.SLICE);
+            assertThat(paginationService.getCountMode(PaginationService.CUSTOMER)).isEqualTo(CountMode.EXACT);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.config.PasswordResetProperties;
+import io.github.yoshikawaa.example.ai_sample.config.PasswordResetProperties.RequestMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("PasswordResetRequestDispatcher のテスト")
+class PasswordResetRequestDispatcherTest {
+
+    private final PasswordResetService passwordResetService = mock(PasswordResetService.class);
+
+    private PasswordResetRequestDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.destroy();
+    }
+
+    @Test
+    @DisplayName("ASYNC: 専用のスレッドで処理し、処理の完了を待たずに戻る")
+    void testDispatch_Async() throws Exception {
+        dispatcher = newDispatcher(RequestMode.ASYNC, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> threadName = new AtomicReference<>();
+        doAnswer(invocation -> {
+            threadName.set(Thread.currentThread().getName());
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(passwordResetService).sendResetLink("test@example.com", "unknown");
+
+        dispatcher.dispatch("test@example.com");
+
+        verify(passwordResetService, timeout(5000)).sendResetLink("test@example.com", "unknown");
+        assertThat(threadName.get()).startsWith("password-reset-");
+        assertThat(dispatcher.getProcessedCount()).isZero();
+
+        release.countDown();
+        waitUntilProcessed(1);
+    }
+
+    @Test
+    @DisplayName("ASYNC: 処理待ちキューが満杯の場合はリクエスト処理スレッドで処理する")
+    void testDispatch_CallerRuns() throws Exception {
+        dispatcher = newDispatcher(RequestMode.ASYNC, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            // 専用のスレッドでの処理のみ待たせる
+            if (Thread.currentThread().getName().startsWith("password-reset-")) {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(passwordResetService).sendResetLink(anyString(), anyString());
+
+        dispatcher.dispatch("first@example.com");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatcher.dispatch("queued@example.com");
+        dispatcher.dispatch("overflow@example.com");
+
+        // キューに積めなかったリクエストは戻る前に処理されている
+        verify(passwordResetService).sendResetLink("overflow@example.com", "unknown");
+        assertThat(dispatcher.getCallerRunsCount()).isEqualTo(1);
+        assertThat(dispatcher.getQueueDepth()).isEqualTo(1);
+
+        release.countDown();
+        waitUntilProcessed(3);
+    }
+
+    @Test
+    @DisplayName("destroy: 処理待ちキューの残りを処理してから終了し、停止後のリクエストは呼び出し元のスレッドで処理する")
+    void testDestroy_Drain() {
+        dispatcher = newDispatcher(RequestMode.ASYNC, 2);
+        doAnswer(invocation -> {
+            Thread.sleep(100);
+            return null;
+        }).when(passwordResetService).sendResetLink(anyString(), anyString());
+
+        dispatcher.dispatch("first@example.com");
+        dispatcher.dispatch("queued1@example.com");
+        dispatcher.dispatch("queued2@example.com");
+
+        dispatcher.destroy();
+
+        assertThat(dispatcher.getProcessedCount()).isEqualTo(3);
+        verify(passwordResetService).sendResetLink("queued2@example.com", "unknown");
+
+        dispatcher.dispatch("late@example.com");
+        verify(passwordResetService).sendResetLink("late@example.com", "unknown");
+        assertThat(dispatcher.getCallerRunsCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("SYNC: 呼び出し元のスレッドで処理し、処理の失敗は呼び出し元に伝えない")
+    void testDispatch_Sync() {
+        dispatcher = newDispatcher(RequestMode.SYNC, 1);
+        doThrow(new RuntimeException("DB error")).when(passwordResetService).sendResetLink("error@example.com", "unknown");
+
+        dispatcher.dispatch("test@example.com");
+        dispatcher.dispatch("error@example.com");
+
+        verify(passwordResetService).sendResetLink("test@example.com", "unknown");
+        verify(passwordResetService).sendResetLink("error@example.com", "unknown");
+        assertThat(dispatcher.getProcessedCount()).isEqualTo(1);
+    }
+
+    private PasswordResetRequestDispatcher newDispatcher(RequestMode mode, int queueCapacity) {
+        PasswordResetProperties properties = new PasswordResetProperties();
+        properties.setRequestMode(mode);
+        properties.setRequestThreads(1);
+        properties.setRequestQueueCapacity(queueCapacity);
+        return new PasswordResetRequestDispatcher(passwordResetService, properties);
+    }
+
+    private void waitUntilProcessed(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatcher.getProcessedCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(dispatcher.getProcessedCount()).isEqualTo(count);
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import io.github.yoshikawaa.example.ai_sample.repository.StatisticsRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@DisplayName("StatisticsRollupService のテスト")
+class StatisticsRollupServiceTest {
+
+    @Autowired
+    private StatisticsRollupService statisticsRollupService;
+
+    @MockitoBean
+    private StatisticsRepository statisticsRepository;
+
+    @Test
+    @DisplayName("起動時にすべての日別集計を作り直す")
+    void testRebuildOnStartup() {
+        verify(statisticsRepository, atLeastOnce()).deleteCustomerStatistics(isNull(), isNull());
+        verify(statisticsRepository, atLeastOnce()).insertLoginStatistics(isNull(), isNull());
+        verify(statisticsRepository, atLeastOnce()).insertUsageStatistics(isNull(), isNull());
+    }
+
+    @Test
+    @DisplayName("reconcile: 当日を含む直近の日別集計を再集計する")
+    void testReconcile() {
+        clearInvocations(statisticsRepository);
+        LocalDate today = LocalDate.now();
+
+        statisticsRollupService.reconcile();
+
+        verify(statisticsRepository).deleteCustomerStatistics(today.minusDays(1), today);
+        verify(statisticsRepository).insertCustomerStatistics(today.minusDays(1), today);
+        verify(statisticsRepository).deleteLoginStatistics(today.minusDays(1), today);
+        verify(statisticsRepository).insertLoginStatistics(today.minusDays(1), today);
+        verify(statisticsRepository).deleteUsageStatistics(today.minusDays(1), today);
+        verify(statisticsRepository).insertUsageStatistics(today.minusDays(1), today);
+    }
+}
@@ -1,6 +1,9 @@
 package io.github.yoshikawaa.example.ai_sample.service;
 
 import io.github.yoshikawaa.example.ai_sample.model.AuditLog;
+import io.github.yoshikawaa.example.ai_sample.model.CustomerStatistics;
+import io.github.yoshikawaa.example.ai_sample.model.LoginHistory;
+import io.github.yoshikawaa.example.ai_sample.model.LoginStatistics;
 import io.github.yoshikawaa.example.ai_sample.model.StatisticsDto;
 import io.github.yoshikawaa.example.ai_sample.repository.StatisticsRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,15 +17,20 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-@SpringBootTest
+@SpringBootTest(properties = "app.statistics.query-timeout-ms=1000")
 @DisplayName("StatisticsService のテスト")
 class StatisticsServiceTest {
 
@@ -35,8 +43,13 @@ class StatisticsServiceTest {
     @MockitoBean
     private AuditLogService auditLogService;
 
+    @Autowired
+    private StatisticsCache statisticsCache;
+
     @BeforeEach
     void setUp() {
+        statisticsCache.evictAll();
+
         // モックの設定
         when(statisticsRepository.getCustomerStatistics(any(), any()))
             .thenReturn(Collections.emptyList());
@@ -76,4 +89,158 @@ class StatisticsServiceTest {
             any(String.class)
         );
     }
+
+    // ========================================
+    // 並列取得
+    // ========================================
+
+    @Test
+    @DisplayName("3つの統計クエリを並列に実行する")
+    void testGetStatistics_Parallel() {
+        // 3つのクエリがすべて同時に実行中にならなければタイムアウトする
+        CountDownLatch latch = new CountDownLatch(3);
+        doAnswer(invocation -> awaitAll(latch)).when(statisticsRepository).getCustomerStatistics(any(), any());
+        doAnswer(invocation -> awaitAll(latch)).when(statisticsRepository).getLoginStatistics(any(), any());
+        doAnswer(invocation -> awaitAll(latch)).when(statisticsRepository).getUsageStatistics(any(), any());
+
+        StatisticsDto result = statisticsService.getStatistics(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+
+        assertThat(result.isPartial()).isFalse();
+        assertThat(result.getUnavailableStatistics()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("エラーとなった統計は空とし、残りの統計を返す")
+    void testGetStatistics_Failure() {
+        long failureCount = statisticsService.getFailureCount();
+        when(statisticsRepository.getLoginStatistics(any(), any()))
+            .thenThrow(new IllegalStateException("query failed"));
+
+        StatisticsDto result = statisticsService.getStatistics(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+
+        assertThat(result.isPartial()).isTrue();
+        assertThat(result.getUnavailableStatistics()).containsExactly(StatisticsDto.StatisticsType.LOGIN);
+        assertThat(result.getLoginStatistics()).isEmpty();
+        assertThat(statisticsService.getFailureCount()).isEqualTo(failureCount + 1);
+        verify(statisticsRepository, times(1)).getCustomerStatistics(any(), any());
+        verify(statisticsRepository, times(1)).getUsageStatistics(any(), any());
+    }
+
+    @Test
+    @DisplayName("タイムアウトした統計は空とし、残りの統計を返す")
+    void testGetStatistics_Timeout() {
+        long timeoutCount = statisticsService.getTimeoutCount();
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Collections.emptyList();
+        }).when(statisticsRepository).getUsageStatistics(any(), any());
+
+        try {
+            StatisticsDto result = statisticsService.getStatistics(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+
+            assertThat(result.getUnavailableStatistics()).containsExactly(StatisticsDto.StatisticsType.USAGE);
+            assertThat(result.getCustomerStatistics()).isEmpty();
+            assertThat(statisticsService.getTimeoutCount()).isEqualTo(timeoutCount + 1);
+            assertThat(statisticsService.getUsageQueryMaxMillis()).isGreaterThanOrEqualTo(0);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    // ========================================
+    // キャッシュ
+    // ========================================
+
+    @Test
+    @DisplayName("前日までの期間の統計はキャッシュから取得する")
+    void testGetStatistics_Cached() {
+        LocalDate startDate = LocalDate.of(2026, 1, 1);
+        LocalDate endDate = LocalDate.of(2026, 1, 31);
+        long hitCount = statisticsCache.getHitCount();
+
+        statisticsService.getStatistics(startDate, endDate);
+        StatisticsDto result = statisticsService.getStatistics(startDate, endDate);
+
+        assertThat(result.getStartDate()).isEqualTo(startDate);
+        assertThat(statisticsCache.getHitCount()).isEqualTo(hitCount + 1);
+        verify(statisticsRepository, times(1)).getCustomerStatistics(startDate, endDate);
+        // 統計画面アクセスはキャッシュから取得した場合も記録する
+        verify(auditLogService, times(2)).recordAudit(any(), any(), eq(AuditLog.ActionType.VIEW_STATISTICS), any(), any());
+    }
+
+    @Test
+    @DisplayName("当日を含む期間は前日までをキャッシュし、当日分のみ毎回集計して合算する")
+    void testGetStatistics_IncludesToday() {
+        LocalDate today = LocalDate.now();
+        LocalDate startDate = today.minusDays(30);
+        when(statisticsRepository.getCustomerStatistics(startDate, today.minusDays(1)))
+            .thenReturn(List.of(new CustomerStatistics(startDate, 2)));
+        when(statisticsRepository.getCustomerStatistics(today, today))
+            .thenReturn(List.of(new CustomerStatistics(today, 1)));
+        when(statisticsRepository.getLoginStatistics(startDate, today.minusDays(1)))
+            .thenReturn(List.of(new LoginStatistics(LoginHistory.Status.SUCCESS, 10), new LoginStatistics(LoginHistory.Status.FAILURE, 3)));
+        when(statisticsRepository.getLoginStatistics(today, today))
+            .thenReturn(List.of(new LoginStatistics(LoginHistory.Status.SUCCESS, 2), new LoginStatistics(LoginHistory.Status.LOCKED, 1)));
+
+        statisticsService.getStatistics(startDate, today);
+        StatisticsDto result = statisticsService.getStatistics(startDate, today);
+
+        assertThat(result.getStartDate()).isEqualTo(startDate);
+        assertThat(result.getEndDate()).isEqualTo(today);
+        assertThat(result.getCustomerStatistics()).extracting(CustomerStatistics::getDate).containsExactly(startDate, today);
+        assertThat(result.getLoginStatistics()).containsExactly(
+            new LoginStatistics(LoginHistory.Status.FAILURE, 3),
+            new LoginStatistics(LoginHistory.Status.LOCKED, 1),
+            new LoginStatistics(LoginHistory.Status.SUCCESS, 12));
+        verify(statisticsRepository, times(1)).getCustomerStatistics(startDate, today.minusDays(1));
+        verify(statisticsRepository, times(2)).getCustomerStatistics(today, today);
+    }
+
+    @Test
+    @DisplayName("登録日を含む期間のキャッシュのみ破棄する")
+    void testGetStatistics_Evict() {
+        LocalDate january = LocalDate.of(2026, 1, 1);
+        LocalDate february = LocalDate.of(2026, 2, 1);
+        statisticsService.getStatistics(january, january.plusDays(30));
+        statisticsService.getStatistics(february, february.plusDays(27));
+
+        statisticsCache.evict(LocalDate.of(2026, 1, 15));
+        statisticsService.getStatistics(january, january.plusDays(30));
+        statisticsService.getStatistics(february, february.plusDays(27));
+
+        verify(statisticsRepository, times(2)).getCustomerStatistics(january, january.plusDays(30));
+        verify(statisticsRepository, times(1)).getCustomerStatistics(february, february.plusDays(27));
+    }
+
+    @Test
+    @DisplayName("一部の統計を取得できなかった結果はキャッシュしない")
+    void testGetStatistics_PartialNotCached() {
+        LocalDate startDate = LocalDate.of(2026, 1, 1);
+        LocalDate endDate = LocalDate.of(2026, 1, 31);
+        when(statisticsRepository.getLoginStatistics(any(), any()))
+            .thenThrow(new IllegalStateException("query failed"))
+            .thenReturn(Collections.emptyList());
+
+        assertThat(statisticsService.getStatistics(startDate, endDate).isPartial()).isTrue();
+        assertThat(statisticsService.getStatistics(startDate, endDate).isPartial()).isFalse();
+        assertThat(statisticsService.getStatistics(startDate, endDate).isPartial()).isFalse();
+
+        verify(statisticsRepository, times(2)).getLoginStatistics(startDate, endDate);
+    }
+
+    @Test
+    @DisplayName("開始日が終了日より後の場合は集計しない")
+    void testGetStatistics_InvalidRange() {
+        StatisticsDto result = statisticsService.getStatistics(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 1, 1));
+
+        assertThat(result.getCustomerStatistics()).isEmpty();
+        verify(statisticsRepository, never()).getCustomerStatistics(any(), any());
+    }
+
+    private List<Object> awaitAll(CountDownLatch latch) throws InterruptedException {
+        latch.countDown();
+        latch.await(5, TimeUnit.SECONDS);
+        return Collections.emptyList();
+    }
 }
@@ -0,0 +1,63 @@
+package io.github.yoshikawaa.example.ai_sample.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TrigramStopGrams のテスト")
+class TrigramStopGramsTest {
+
+    private final TrigramStopGrams trigramStopGrams = new TrigramStopGrams();
+
+    @Test
+    @DisplayName("selectiveTrigrams: 検索語のトライグラムからストップグラムを除く")
+    void testSelectiveTrigrams() {
+        trigramStopGrams.update("E", Set.of("exa", "xam", "amp"));
+
+        assertThat(trigramStopGrams.selectiveTrigrams("E", "john@exam")).containsExactly("joh", "ohn", "hn@", "n@e", "@ex");
+        // 索引の種類ごとに保持する
+        assertThat(trigramStopGrams.selectiveTrigrams("N", "example")).contains("exa", "xam", "amp");
+    }
+
+    @Test
+    @DisplayName("selectiveTrigrams: すべてストップグラムの場合・3文字未満の場合は空")
+    void testSelectiveTrigrams_Empty() {
+        trigramStopGrams.update("E", Set.of("com", ".co"));
+
+        assertThat(trigramStopGrams.selectiveTrigrams("E", ".com")).isEmpty();
+        assertThat(trigramStopGrams.selectiveTrigrams("E", "co")).isEmpty();
+        assertThat(trigramStopGrams.selectiveTrigrams("E", null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("selectiveTrigrams: LIKEのワイルドカード・エスケープ文字を含むトライグラムを除く")
+    void testSelectiveTrigrams_LikeSpecialChars() {
+        assertThat(trigramStopGrams.selectiveTrigrams("N", "wild%xyz")).containsExactly("wil", "ild", "xyz");
+        assertThat(trigramStopGrams.selectiveTrigrams("N", "a_c")).isEmpty();
+        assertThat(trigramStopGrams.selectiveTrigrams("N", "ab\\cd")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("update: 索引の種類のストップグラムを差し替える")
+    void testUpdate() {
+        trigramStopGrams.update("E", Set.of("com"));
+        trigramStopGrams.update("E", Set.of(".co"));
+
+        assertThat(trigramStopGrams.get("E")).containsExactly(".co");
+        assertThat(trigramStopGrams.get("N")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("update: インスタンスごとに保持する（同一JVMの別のアプリケーションコンテキストと共有しない）")
+    void testUpdate_インスタンスごと() {
+        TrigramStopGrams other = new TrigramStopGrams();
+
+        trigramStopGrams.update("E", Set.of("com"));
+
+        assertThat(other.get("E")).isEmpty();
+        assertThat(other.selectiveTrigrams("E", ".com")).containsExactly(".co", "com");
+    }
+}
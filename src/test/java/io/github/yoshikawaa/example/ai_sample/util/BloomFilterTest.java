@@ -0,0 +1,63 @@
+package io.github.yoshikawaa.example.ai_sample.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BloomFilter のテスト")
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("mightContain: 登録した値は必ず含まれると判定する")
+    void testMightContain_NoFalseNegative() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        for (int i = 0; i < 10000; i++) {
+            assertThat(filter.mightContain("user" + i + "@example.com")).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("mightContain: 登録していない値を含まれると判定する割合は偽陽性率程度に収まる")
+    void testMightContain_FalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("other" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(200);
+        assertThat(filter.getFillRatio()).isBetween(0.3, 0.7);
+    }
+
+    @Test
+    @DisplayName("コンストラクタ: 登録数と偽陽性率からビット数・ハッシュ関数の数を決める")
+    void testConstructor_Sizing() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+
+        // m = -1000 ln(0.01) / (ln 2)^2 ≒ 9586ビット（64ビット単位に切り上げ）、k = m / n ln 2 ≒ 7
+        assertThat(filter.getBitCount()).isEqualTo(9600);
+        assertThat(filter.getHashCount()).isEqualTo(7);
+        assertThat(filter.getExpectedInsertions()).isEqualTo(1000);
+        assertThat(filter.mightContain("empty@example.com")).isFalse();
+        assertThat(filter.getFillRatio()).isZero();
+    }
+
+    @Test
+    @DisplayName("コンストラクタ: 登録数は1以上、偽陽性率は0より大きく1未満を指定する")
+    void testConstructor_Invalid() {
+        assertThatThrownBy(() -> new BloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(100, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(100, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
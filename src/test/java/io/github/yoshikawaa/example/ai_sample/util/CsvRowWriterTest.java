@@ -0,0 +1,89 @@
+package io.github.yoshikawaa.example.ai_sample.util;
+
+import io.github.yoshikawaa.example.ai_sample.model.CustomerCsvDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CsvRowWriter のテスト")
+class CsvRowWriterTest {
+
+    @Test
+    @DisplayName("forClass: 同じDTOクラスには同じインスタンスを返す（キャッシュ）")
+    void testForClass_Cached() {
+        assertThat(CsvRowWriter.forClass(CustomerCsvDto.class)).isSameAs(CsvRowWriter.forClass(CustomerCsvDto.class));
+    }
+
+    @Test
+    @DisplayName("forClass: @CsvBindByPositionのないクラスは例外をスローする")
+    void testForClass_NoColumns() {
+        assertThatThrownBy(() -> CsvRowWriter.forClass(String.class))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("appendRow: @CsvBindByPositionの順に、@CsvDateの書式で出力する")
+    void testAppendRow() {
+        CustomerCsvDto dto = new CustomerCsvDto("alice@example.com", "Alice",
+            LocalDate.of(2023, 1, 1), LocalDate.of(1990, 12, 31), "111-1111", "Address1");
+        StringBuilder buffer = new StringBuilder();
+
+        CsvRowWriter.forClass(CustomerCsvDto.class).appendRow(dto, buffer);
+
+        assertThat(buffer).hasToString("alice@example.com,Alice,2023-01-01,1990-12-31,111-1111,Address1\n");
+    }
+
+    @Test
+    @DisplayName("appendRow: nullは空文字として出力する")
+    void testAppendRow_Null() {
+        CustomerCsvDto dto = new CustomerCsvDto("alice@example.com", null, LocalDate.of(2023, 1, 1), null, null, null);
+        StringBuilder buffer = new StringBuilder();
+
+        CsvRowWriter.forClass(CustomerCsvDto.class).appendRow(dto, buffer);
+
+        assertThat(buffer).hasToString("alice@example.com,,2023-01-01,,,\n");
+    }
+
+    @Test
+    @DisplayName("appendRow: バッファの既存内容の後ろに追記する")
+    void testAppendRow_Append() {
+        CustomerCsvDto dto = new CustomerCsvDto("a@example.com", "A", null, null, null, null);
+        StringBuilder buffer = new StringBuilder("header\n");
+
+        CsvRowWriter.forClass(CustomerCsvDto.class).appendRow(dto, buffer);
+
+        assertThat(buffer).hasToString("header\na@example.com,A,,,,\n");
+    }
+
+    @Test
+    @DisplayName("appendEscaped: 特殊文字を含まない値はそのまま出力する")
+    void testAppendEscaped_Plain() {
+        StringBuilder buffer = new StringBuilder();
+        CsvRowWriter.appendEscaped(" 日本語;'\\ ", buffer);
+        assertThat(buffer).hasToString(" 日本語;'\\ ");
+    }
+
+    @Test
+    @DisplayName("appendEscaped: カンマ・改行・復帰を含む値はダブルクォートで囲む")
+    void testAppendEscaped_Quoted() {
+        StringBuilder buffer = new StringBuilder();
+        CsvRowWriter.appendEscaped("A, B", buffer);
+        buffer.append('|');
+        CsvRowWriter.appendEscaped("A\nB", buffer);
+        buffer.append('|');
+        CsvRowWriter.appendEscaped("A\rB", buffer);
+        assertThat(buffer).hasToString("\"A, B\"|\"A\nB\"|\"A\rB\"");
+    }
+
+    @Test
+    @DisplayName("appendEscaped: ダブルクォートは二重化する")
+    void testAppendEscaped_DoubleQuote() {
+        StringBuilder buffer = new StringBuilder();
+        CsvRowWriter.appendEscaped("Test \"Nick\" User", buffer);
+        assertThat(buffer).hasToString("\"Test \"\"Nick\"\" User\"");
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.yoshikawaa.example.ai_sample.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ExpiringLruCache のテスト")
+class ExpiringLruCacheTest {
+
+    @Test
+    @DisplayName("キャッシュ済みのキーは読み込み処理を呼ばずに返す")
+    void testGet_Hit() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 60000);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a", key -> key + loads.incrementAndGet());
+        String value = cache.get("a", key -> key + loads.incrementAndGet());
+
+        assertThat(value).isEqualTo("a1");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("読み込み結果がnullの場合はキャッシュしない")
+    void testGet_NullNotCached() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 60000);
+
+        assertThat(cache.get("a", key -> null)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("有効期間を過ぎたエントリは再読み込みする")
+    void testGet_Expired() throws InterruptedException {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 1);
+        cache.get("a", key -> "old");
+        Thread.sleep(5);
+
+        assertThat(cache.get("a", key -> "new")).isEqualTo("new");
+    }
+
+    @Test
+    @DisplayName("再読み込み間隔を過ぎたエントリは読み込み直して置き換える")
+    void testGet_Refresh() throws InterruptedException {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 60000, 1);
+        cache.get("a", key -> "old");
+        Thread.sleep(5);
+
+        assertThat(cache.get("a", key -> "new")).isEqualTo("new");
+        assertThat(cache.getIfPresent("a")).isEqualTo("new");
+        assertThat(cache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("再読み込みの結果がnullの場合は古いエントリを破棄する")
+    void testGet_RefreshRemoved() throws InterruptedException {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 60000, 1);
+        cache.get("a", key -> "old");
+        Thread.sleep(5);
+
+        assertThat(cache.get("a", key -> null)).isNull();
+        assertThat(cache.getIfPresent("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("最大エントリ数を超えると最も長く参照されていないエントリを破棄する")
+    void testGet_EvictsLeastRecentlyUsed() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(2, 60000);
+        cache.get("a", key -> key);
+        cache.get("b", key -> key);
+        cache.get("a", key -> key); // aを参照してbを最古にする
+        cache.get("c", key -> key);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getIfPresent("a")).isEqualTo("a");
+        assertThat(cache.getIfPresent("b")).isNull();
+        assertThat(cache.getIfPresent("c")).isEqualTo("c");
+    }
+
+    @Test
+    @DisplayName("読み込み中に無効化された場合は読み込み結果をキャッシュしない")
+    void testGet_InvalidatedDuringLoad() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 60000);
+
+        String value = cache.get("a", key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+
+        assertThat(value).isEqualTo("stale");
+        assertThat(cache.getIfPresent("a")).isNull();
+    }
+
+    @Test
+    @DisplayName("invalidateAllで全エントリを破棄する")
+    void testInvalidateAll() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 60000);
+        cache.get("a", key -> key);
+        cache.get("b", key -> key);
+
+        cache.invalidateAll();
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("キャッシュ対象外と判定された読み込み結果はキャッシュしない")
+    void testGet_NotCacheable() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 60000);
+
+        String value = cache.get("a", key -> "partial", v -> !v.equals("partial"));
+
+        assertThat(value).isEqualTo("partial");
+        assertThat(cache.getIfPresent("a")).isNull();
+    }
+
+    @Test
+    @DisplayName("有効期間が0以下の場合は期限切れとしない")
+    void testGet_NoExpiry() throws InterruptedException {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 0);
+        cache.get("a", key -> key);
+
+        Thread.sleep(5);
+
+        assertThat(cache.getIfPresent("a")).isEqualTo("a");
+    }
+
+    @Test
+    @DisplayName("invalidateIfで条件に一致するエントリのみ破棄する")
+    void testInvalidateIf() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 60000);
+        cache.get("a1", key -> key);
+        cache.get("a2", key -> key);
+        cache.get("b1", key -> key);
+
+        cache.invalidateIf(key -> key.startsWith("a"));
+
+        assertThat(cache.getIfPresent("a1")).isNull();
+        assertThat(cache.getIfPresent("a2")).isNull();
+        assertThat(cache.getIfPresent("b1")).isEqualTo("b1");
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.yoshikawaa.example.ai_sample.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TokenBucketRateLimiter のテスト")
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("tryAcquire: トークン数まで受け付け、超えた場合は補充までの時間を返す")
+    void testTryAcquire_Capacity() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, SECOND, 100);
+        long now = 1_000 * SECOND;
+
+        assertThat(limiter.tryAcquire("key", now)).isZero();
+        assertThat(limiter.tryAcquire("key", now)).isZero();
+        assertThat(limiter.tryAcquire("key", now)).isZero();
+        assertThat(limiter.tryAcquire("key", now)).isEqualTo(SECOND);
+        assertThat(limiter.tryAcquire("key", now + SECOND / 2)).isEqualTo(SECOND / 2);
+
+        // 別のキーは制限されない
+        assertThat(limiter.tryAcquire("other", now)).isZero();
+    }
+
+    @Test
+    @DisplayName("tryAcquire: 経過時間に応じてトークンが補充され、トークン数を超えて貯まらない")
+    void testTryAcquire_Refill() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, SECOND, 100);
+        long now = -5 * SECOND; // System.nanoTime()は負の値もとりうる
+
+        assertThat(limiter.tryAcquire("key", now)).isZero();
+        assertThat(limiter.tryAcquire("key", now)).isZero();
+        assertThat(limiter.tryAcquire("key", now)).isPositive();
+
+        // 1秒後に1個補充される
+        assertThat(limiter.tryAcquire("key", now + SECOND)).isZero();
+        assertThat(limiter.tryAcquire("key", now + SECOND)).isPositive();
+
+        // 長時間経過してもトークン数（2個）までしか受け付けない
+        long later = now + 100 * SECOND;
+        assertThat(limiter.tryAcquire("key", later)).isZero();
+        assertThat(limiter.tryAcquire("key", later)).isZero();
+        assertThat(limiter.tryAcquire("key", later)).isPositive();
+    }
+
+    @Test
+    @DisplayName("tryAcquire: 同時に取得してもトークン数を超えて受け付けない")
+    void testTryAcquire_Concurrent() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, TimeUnit.HOURS.toNanos(1), 100);
+        long now = System.nanoTime();
+        AtomicInteger acquired = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        if (limiter.tryAcquire("key", now) == 0) {
+                            acquired.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(acquired.get()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("sweep: トークンが満杯に戻ったバケットのみ破棄する")
+    void testSweep() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, SECOND, 100);
+        long now = 1_000 * SECOND;
+        limiter.tryAcquire("a", now);
+        limiter.tryAcquire("b", now);
+        limiter.tryAcquire("b", now);
+
+        // aは1秒後、bは2秒後に満杯に戻る
+        assertThat(limiter.sweep(now + SECOND)).isEqualTo(1);
+        assertThat(limiter.size()).isEqualTo(1);
+        assertThat(limiter.tryAcquire("b", now + SECOND)).isZero();
+        assertThat(limiter.tryAcquire("b", now + SECOND)).isPositive();
+
+        assertThat(limiter.sweep(now + 10 * SECOND)).isEqualTo(1);
+        assertThat(limiter.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("tryAcquire: 保持数の上限を超えた新しいキーは共有のバケットで制限する")
+    void testTryAcquire_Overflow() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, SECOND, 2);
+        long now = 1_000 * SECOND;
+        assertThat(limiter.tryAcquire("a", now)).isZero();
+        assertThat(limiter.tryAcquire("b", now)).isZero();
+
+        // c・dは共有のバケットのトークンを消費する
+        assertThat(limiter.tryAcquire("c", now)).isZero();
+        assertThat(limiter.tryAcquire("d", now)).isPositive();
+        assertThat(limiter.size()).isEqualTo(3);
+        assertThat(limiter.getOverflowCount()).isEqualTo(2);
+
+        // 破棄後は新しいキーのバケットを保持する
+        limiter.sweep(now + SECOND);
+        assertThat(limiter.tryAcquire("d", now + SECOND)).isZero();
+        assertThat(limiter.tryAcquire("d", now + SECOND)).isPositive();
+        assertThat(limiter.getOverflowCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("コンストラクタ: トークン数・補充間隔は1以上を指定する")
+    void testConstructor_Invalid() {
+        assertThatThrownBy(() -> new TokenBucketRateLimiter(0, SECOND, 100))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucketRateLimiter(1, 0, 100))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
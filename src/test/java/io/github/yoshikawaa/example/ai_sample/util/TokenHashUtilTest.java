@@ -0,0 +1,30 @@
+package io.github.yoshikawaa.example.ai_sample.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TokenHashUtil のテスト")
+class TokenHashUtilTest {
+
+    @Test
+    @DisplayName("hash: SHA-256のハッシュ値を16進数小文字64文字で返す")
+    void testHash() {
+        assertThat(TokenHashUtil.hash("abc"))
+            .isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+    }
+
+    @Test
+    @DisplayName("hash: 同じトークンは同じハッシュ値、異なるトークンは異なるハッシュ値になる")
+    void testHash_Deterministic() {
+        assertThat(TokenHashUtil.hash("token-1")).isEqualTo(TokenHashUtil.hash("token-1"));
+        assertThat(TokenHashUtil.hash("token-1")).isNotEqualTo(TokenHashUtil.hash("token-2"));
+    }
+
+    @Test
+    @DisplayName("hash: nullの場合はnullを返す")
+    void testHash_Null() {
+        assertThat(TokenHashUtil.hash(null)).isNull();
+    }
+}
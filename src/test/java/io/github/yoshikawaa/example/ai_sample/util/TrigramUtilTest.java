@@ -0,0 +1,31 @@
+package io.github.yoshikawaa.example.ai_sample.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TrigramUtil のテスト")
+class TrigramUtilTest {
+
+    @Test
+    @DisplayName("小文字化して連続する3文字に分解し、重複を除く")
+    void testTrigrams() {
+        assertThat(TrigramUtil.trigrams("DoeDoe")).containsExactly("doe", "oed", "edo");
+    }
+
+    @Test
+    @DisplayName("3文字未満・nullの場合は空")
+    void testTrigrams_Short() {
+        assertThat(TrigramUtil.trigrams("ab")).isEmpty();
+        assertThat(TrigramUtil.trigrams("")).isEmpty();
+        assertThat(TrigramUtil.trigrams(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("サロゲートペアを含む文字列はコードポイント単位で分解する")
+    void testTrigrams_SurrogatePair() {
+        assertThat(TrigramUtil.trigrams("𠮷野家")).containsExactly("𠮷野家");
+        assertThat(TrigramUtil.trigrams("山田太郎")).containsExactly("山田太", "田太郎");
+    }
+}